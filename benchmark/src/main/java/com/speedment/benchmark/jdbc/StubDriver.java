@@ -0,0 +1,121 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.jdbc;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * An in-process JDBC driver that serves synthetic rows, so that the code 
+ * between a {@code Manager} and the JDBC API can be measured without a 
+ * database server.
+ * <p>
+ * The driver accepts URLs on the form 
+ * {@code jdbc:speedment-stub:name?key=value&key=value}, for example
+ * {@code jdbc:speedment-stub:bench?rows=10000&rowLatencyNanos=200}. The 
+ * following settings are available:
+ * <ul>
+ *     <li>{@value #ROWS} &ndash; the number of rows of every table 
+ *         (default 1000);
+ *     <li>{@value #ROW_LATENCY_NANOS} &ndash; the time spent producing each
+ *         row (default 0);
+ *     <li>{@value #STATEMENT_LATENCY_NANOS} &ndash; the time spent executing
+ *         each statement (default 0);
+ *     <li>{@value #SELECTIVITY} &ndash; the fraction of the rows that match 
+ *         a query with a {@code WHERE} clause (default 1.0);
+ *     <li>{@value #NULL_INTERVAL} &ndash; if positive, every n:th value 
+ *         except in the first column is {@code null} (default 0);
+ *     <li>{@value #STRING_LENGTH} &ndash; the length of the returned strings
+ *         (default 16).
+ * </ul>
+ * The values of a row are computed from the row number when they are read,
+ * so every value can be read with any getter. The columns of a result are 
+ * given by the select list of the query.
+ * The value of column {@code c} (starting at 1) in row {@code r} (also 
+ * starting at 1) is {@code r + c - 1}, converted to the type requested. 
+ * Parameters are accepted but ignored, and every update affects one row.
+ * <p>
+ * The driver is registered with the {@code DriverManager} using the service
+ * loader mechanism.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class StubDriver implements Driver {
+
+    public static final String 
+        URL_PREFIX              = "jdbc:speedment-stub:",
+        ROWS                    = "rows",
+        ROW_LATENCY_NANOS       = "rowLatencyNanos",
+        STATEMENT_LATENCY_NANOS = "statementLatencyNanos",
+        SELECTIVITY             = "selectivity",
+        NULL_INTERVAL           = "nullInterval",
+        STRING_LENGTH           = "stringLength";
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDriver());
+        } catch (final SQLException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null; // As specified by the Driver interface
+        }
+        
+        return new StubConnection(StubSettings.parse(url));
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw StubUtil.notSupported("getParentLogger");
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The parts of a SQL statement that affect what the stub driver returns. The
+ * statement is not validated. Instead, a few keywords are located to decide
+ * how many rows a {@code SELECT} produces:
+ * <ul>
+ *     <li>{@code SELECT COUNT(...)} returns a single row with the count;
+ *     <li>a {@code WHERE} clause reduces the rows by the selectivity of the
+ *         database;
+ *     <li>{@code LIMIT} and {@code OFFSET} are applied last.
+ * </ul>
+ * The labels of the selected columns are taken from the select list.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class StubQuery {
+
+    private final String sql;
+    private final boolean select;
+    private final boolean insert;
+    private final boolean count;
+    private final boolean where;
+    private final long limit;   // -1 if there is no LIMIT
+    private final long offset;
+    private final List<String> labels;
+
+    private StubQuery(
+            String sql,
+            boolean select,
+            boolean insert,
+            boolean count,
+            boolean where,
+            long limit,
+            long offset,
+            List<String> labels) {
+
+        this.sql    = requireNonNull(sql);
+        this.select = select;
+        this.insert = insert;
+        this.count  = count;
+        this.where  = where;
+        this.limit  = limit;
+        this.offset = offset;
+        this.labels = requireNonNull(labels);
+    }
+
+    static StubQuery parse(String sql) {
+        final String trimmed = sql.trim();
+        final String upper   = trimmed.toUpperCase(Locale.ROOT);
+
+        if (!upper.startsWith("SELECT ")) {
+            return new StubQuery(
+                sql, false, upper.startsWith("INSERT "), false, false, -1, 0, 
+                Collections.emptyList()
+            );
+        }
+
+        final int from = upper.indexOf(" FROM ");
+        final String selectList = from < 0
+            ? trimmed.substring("SELECT ".length())
+            : trimmed.substring("SELECT ".length(), from);
+
+        final List<String> labels = new ArrayList<>();
+        for (final String column : selectList.split(",")) {
+            labels.add(labelOf(column));
+        }
+
+        return new StubQuery(
+            sql,
+            true,
+            false,
+            upper.startsWith("SELECT COUNT("),
+            upper.contains(" WHERE "),
+            numberAfter(upper, " LIMIT ", -1),
+            numberAfter(upper, " OFFSET ", 0),
+            Collections.unmodifiableList(labels)
+        );
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    boolean isSelect() {
+        return select;
+    }
+
+    boolean isInsert() {
+        return insert;
+    }
+
+    boolean isCount() {
+        return count;
+    }
+
+    List<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * Returns the number of rows that match the query, before any 
+     * {@code LIMIT} or {@code OFFSET} is applied.
+     * 
+     * @param settings  the settings of the database
+     * @return          the number of matching rows
+     */
+    long matchingRows(StubSettings settings) {
+        return where
+            ? Math.round(settings.getRows() * settings.getSelectivity())
+            : settings.getRows();
+    }
+
+    /**
+     * Returns the number of rows that are skipped because of an 
+     * {@code OFFSET}.
+     * 
+     * @param settings  the settings of the database
+     * @return          the number of skipped rows
+     */
+    long skippedRows(StubSettings settings) {
+        return Math.min(offset, matchingRows(settings));
+    }
+
+    /**
+     * Returns the number of rows in the result of the query.
+     * 
+     * @param settings  the settings of the database
+     * @return          the number of rows in the result
+     */
+    long resultRows(StubSettings settings) {
+        if (count) {
+            return 1;
+        }
+        
+        final long rows = matchingRows(settings) - skippedRows(settings);
+        return limit < 0 ? rows : Math.min(limit, rows);
+    }
+
+    private static String labelOf(String column) {
+        String label = column.trim();
+        
+        final int dot = label.lastIndexOf('.');
+        if (dot >= 0 && !label.contains("(")) {
+            label = label.substring(dot + 1);
+        }
+        
+        if (label.length() >= 2 && "`\"[".indexOf(label.charAt(0)) >= 0) {
+            label = label.substring(1, label.length() - 1);
+        }
+        
+        return label;
+    }
+
+    private static long numberAfter(String upper, String keyword, long defaultValue) {
+        final int index = upper.lastIndexOf(keyword);
+        if (index < 0) {
+            return defaultValue;
+        }
+        
+        final int start = index + keyword.length();
+        int end = start;
+        while (end < upper.length() && Character.isDigit(upper.charAt(end))) {
+            end++;
+        }
+        
+        return end == start 
+            ? defaultValue // For example a parameter marker
+            : Long.parseLong(upper.substring(start, end));
+    }
+}
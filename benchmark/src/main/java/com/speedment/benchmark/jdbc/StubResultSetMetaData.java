@@ -0,0 +1,186 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The metadata of a {@link StubResultSet}. Since the values of a stub result
+ * set can be read with any getter, every column has the type 
+ * {@link Types#OTHER}.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class StubResultSetMetaData implements ResultSetMetaData {
+
+    private final List<String> labels;
+    private final int displaySize;
+
+    StubResultSetMetaData(List<String> labels, int displaySize) {
+        this.labels      = requireNonNull(labels);
+        this.displaySize = displaySize;
+    }
+
+    private String label(int column) throws SQLException {
+        if (column < 1 || column > labels.size()) {
+            throw new SQLException("Illegal column index " + column + ".");
+        }
+        return labels.get(column - 1);
+    }
+
+    @Override
+    public int getColumnCount() throws SQLException {
+        return labels.size();
+    }
+
+    @Override
+    public boolean isAutoIncrement(int column) throws SQLException {
+        label(column);
+        return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive(int column) throws SQLException {
+        label(column);
+        return true;
+    }
+
+    @Override
+    public boolean isSearchable(int column) throws SQLException {
+        label(column);
+        return true;
+    }
+
+    @Override
+    public boolean isCurrency(int column) throws SQLException {
+        label(column);
+        return false;
+    }
+
+    @Override
+    public int isNullable(int column) throws SQLException {
+        label(column);
+        return columnNullableUnknown;
+    }
+
+    @Override
+    public boolean isSigned(int column) throws SQLException {
+        label(column);
+        return true;
+    }
+
+    @Override
+    public int getColumnDisplaySize(int column) throws SQLException {
+        label(column);
+        return displaySize;
+    }
+
+    @Override
+    public String getColumnLabel(int column) throws SQLException {
+        return label(column);
+    }
+
+    @Override
+    public String getColumnName(int column) throws SQLException {
+        return label(column);
+    }
+
+    @Override
+    public String getSchemaName(int column) throws SQLException {
+        label(column);
+        return "";
+    }
+
+    @Override
+    public int getPrecision(int column) throws SQLException {
+        label(column);
+        return 0;
+    }
+
+    @Override
+    public int getScale(int column) throws SQLException {
+        label(column);
+        return 0;
+    }
+
+    @Override
+    public String getTableName(int column) throws SQLException {
+        label(column);
+        return "";
+    }
+
+    @Override
+    public String getCatalogName(int column) throws SQLException {
+        label(column);
+        return "";
+    }
+
+    @Override
+    public int getColumnType(int column) throws SQLException {
+        label(column);
+        return Types.OTHER;
+    }
+
+    @Override
+    public String getColumnTypeName(int column) throws SQLException {
+        label(column);
+        return "OTHER";
+    }
+
+    @Override
+    public boolean isReadOnly(int column) throws SQLException {
+        label(column);
+        return true;
+    }
+
+    @Override
+    public boolean isWritable(int column) throws SQLException {
+        label(column);
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable(int column) throws SQLException {
+        label(column);
+        return false;
+    }
+
+    @Override
+    public String getColumnClassName(int column) throws SQLException {
+        label(column);
+        return Object.class.getName();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName() + ".");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.jdbc;
+
+import java.sql.SQLException;
+
+import static com.speedment.benchmark.jdbc.StubDriver.NULL_INTERVAL;
+import static com.speedment.benchmark.jdbc.StubDriver.ROWS;
+import static com.speedment.benchmark.jdbc.StubDriver.ROW_LATENCY_NANOS;
+import static com.speedment.benchmark.jdbc.StubDriver.SELECTIVITY;
+import static com.speedment.benchmark.jdbc.StubDriver.STATEMENT_LATENCY_NANOS;
+import static com.speedment.benchmark.jdbc.StubDriver.STRING_LENGTH;
+import static com.speedment.benchmark.jdbc.StubDriver.URL_PREFIX;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The settings of a stub database, parsed from the connection URL. The URL
+ * has the form {@code jdbc:speedment-stub:name?key=value&key=value} where 
+ * the keys are the setting constants in {@link StubDriver}. Settings that 
+ * are not given in the URL keep their default values.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class StubSettings {
+
+    private static final int STRING_POOL_SIZE = 256;
+
+    private final String name;
+    private final long rows;
+    private final long rowLatencyNanos;
+    private final long statementLatencyNanos;
+    private final double selectivity;
+    private final int nullInterval;
+    private final int stringLength;
+    private final String[] strings;
+
+    private StubSettings(
+            String name,
+            long rows,
+            long rowLatencyNanos,
+            long statementLatencyNanos,
+            double selectivity,
+            int nullInterval,
+            int stringLength) {
+
+        this.name                  = requireNonNull(name);
+        this.rows                  = rows;
+        this.rowLatencyNanos       = rowLatencyNanos;
+        this.statementLatencyNanos = statementLatencyNanos;
+        this.selectivity           = selectivity;
+        this.nullInterval          = nullInterval;
+        this.stringLength          = stringLength;
+        this.strings               = new String[STRING_POOL_SIZE];
+        
+        final char[] chars = new char[stringLength];
+        for (int i = 0; i < STRING_POOL_SIZE; i++) {
+            for (int j = 0; j < stringLength; j++) {
+                chars[j] = (char) ('a' + (i * 31 + j * 7) % 26);
+            }
+            strings[i] = new String(chars);
+        }
+    }
+
+    /**
+     * Parses the settings from the specified URL.
+     * 
+     * @param url  the connection URL
+     * @return     the parsed settings
+     * 
+     * @throws SQLException  if the URL is not a stub URL or if a setting is 
+     *                       unknown or has an illegal value
+     */
+    static StubSettings parse(String url) throws SQLException {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            throw new SQLException("Not a stub driver URL: " + url);
+        }
+        
+        final String rest  = url.substring(URL_PREFIX.length());
+        final int question = rest.indexOf('?');
+        final String name  = question < 0 ? rest : rest.substring(0, question);
+
+        long rows                  = 1_000;
+        long rowLatencyNanos       = 0;
+        long statementLatencyNanos = 0;
+        double selectivity         = 1.0;
+        int nullInterval           = 0;
+        int stringLength           = 16;
+
+        if (question >= 0) {
+            for (final String pair : rest.substring(question + 1).split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                
+                final int equals = pair.indexOf('=');
+                if (equals < 0) {
+                    throw new SQLException("Missing value of stub setting '" + pair + "' in " + url);
+                }
+                
+                final String key   = pair.substring(0, equals);
+                final String value = pair.substring(equals + 1);
+                
+                try {
+                    switch (key) {
+                        case ROWS                    : rows                  = Long.parseLong(value);     break;
+                        case ROW_LATENCY_NANOS       : rowLatencyNanos       = Long.parseLong(value);     break;
+                        case STATEMENT_LATENCY_NANOS : statementLatencyNanos = Long.parseLong(value);     break;
+                        case SELECTIVITY             : selectivity           = Double.parseDouble(value); break;
+                        case NULL_INTERVAL           : nullInterval          = Integer.parseInt(value);   break;
+                        case STRING_LENGTH           : stringLength          = Integer.parseInt(value);   break;
+                        default : throw new SQLException("Unknown stub setting '" + key + "' in " + url);
+                    }
+                } catch (final NumberFormatException ex) {
+                    throw new SQLException("Illegal value of stub setting '" + key + "' in " + url, ex);
+                }
+            }
+        }
+
+        if (rows < 0 || rowLatencyNanos < 0 || statementLatencyNanos < 0
+        ||  selectivity < 0 || selectivity > 1
+        ||  nullInterval < 0 || stringLength < 0) {
+            throw new SQLException("Illegal stub settings in " + url);
+        }
+
+        return new StubSettings(
+            name, 
+            rows, 
+            rowLatencyNanos, 
+            statementLatencyNanos, 
+            selectivity, 
+            nullInterval, 
+            stringLength
+        );
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    long getRowLatencyNanos() {
+        return rowLatencyNanos;
+    }
+
+    long getStatementLatencyNanos() {
+        return statementLatencyNanos;
+    }
+
+    double getSelectivity() {
+        return selectivity;
+    }
+
+    int getNullInterval() {
+        return nullInterval;
+    }
+
+    int getStringLength() {
+        return stringLength;
+    }
+
+    /**
+     * Returns one of the pre-generated strings of this database. Strings are
+     * not created per row so that the cost of the stub driver stays small
+     * compared to the code being measured.
+     * 
+     * @param value  the generated value of a cell
+     * @return       the string for that value
+     */
+    String stringOf(long value) {
+        return strings[(int) (value & (STRING_POOL_SIZE - 1))];
+    }
+}
@@ -0,0 +1,715 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static com.speedment.benchmark.jdbc.StubUtil.busyWait;
+import static com.speedment.benchmark.jdbc.StubUtil.notSupported;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A statement of a stub database. The same class is used for plain and 
+ * prepared statements. Parameters are accepted but do not affect the 
+ * result. The query timeout is stored but not enforced.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class StubStatement implements PreparedStatement {
+
+    private static final List<String> GENERATED_KEY_LABELS = singletonList("GENERATED_KEY");
+
+    private final StubConnection connection;
+    private final StubQuery prepared; // null if this is not a prepared statement
+    private final boolean returnGeneratedKeys;
+    private final List<StubQuery> batch;
+    private volatile boolean closed;
+    private volatile boolean cancelled;
+    private StubResultSet resultSet;
+    private StubResultSet generatedKeys;
+    private int updateCount;
+    private int maxFieldSize;
+    private int maxRows;
+    private int queryTimeout;
+    private int fetchSize;
+    private boolean poolable;
+    private boolean closeOnCompletion;
+
+    StubStatement(StubConnection connection, String sql, boolean returnGeneratedKeys) {
+        this.connection          = requireNonNull(connection);
+        this.prepared            = sql == null ? null : StubQuery.parse(sql);
+        this.returnGeneratedKeys = returnGeneratedKeys;
+        this.batch               = new ArrayList<>();
+        this.updateCount         = -1;
+    }
+
+    StubSettings getSettings() {
+        return connection.getSettings();
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    private StubQuery prepared() throws SQLException {
+        if (prepared == null) {
+            throw new SQLException("The statement is not prepared.");
+        }
+        return prepared;
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("The statement is closed.");
+        }
+        connection.checkOpen();
+    }
+
+    private void setParameter(int parameterIndex) throws SQLException {
+        checkOpen();
+        if (parameterIndex < 1) {
+            throw new SQLException("Illegal parameter index " + parameterIndex + ".");
+        }
+    }
+
+    private void closeResults() throws SQLException {
+        if (resultSet != null) {
+            resultSet.close();
+            resultSet = null;
+        }
+        if (generatedKeys != null) {
+            generatedKeys.close();
+            generatedKeys = null;
+        }
+        updateCount = -1;
+    }
+
+    private ResultSet query(StubQuery query) throws SQLException {
+        checkOpen();
+        if (!query.isSelect()) {
+            throw new SQLException("The statement does not produce a result set: " + query.getSql());
+        }
+
+        closeResults();
+        cancelled = false;
+        busyWait(getSettings().getStatementLatencyNanos());
+
+        final StubSettings settings = getSettings();
+        final long firstRow = query.isCount()
+            ? query.matchingRows(settings) // The value of the only column
+            : query.skippedRows(settings) + 1;
+
+        final long rows = maxRows > 0
+            ? Math.min(maxRows, query.resultRows(settings))
+            : query.resultRows(settings);
+
+        resultSet = new StubResultSet(this, query.getLabels(), firstRow, rows);
+        return resultSet;
+    }
+
+    private int update(StubQuery query, boolean returnKeys) throws SQLException {
+        checkOpen();
+        if (query.isSelect()) {
+            throw new SQLException("The statement produces a result set: " + query.getSql());
+        }
+
+        closeResults();
+        busyWait(getSettings().getStatementLatencyNanos());
+
+        if (returnKeys && query.isInsert()) {
+            generatedKeys = new StubResultSet(
+                this, GENERATED_KEY_LABELS, connection.nextGeneratedKey(), 1
+            );
+        }
+
+        updateCount = 1;
+        return updateCount;
+    }
+
+    private boolean execute(StubQuery query, boolean returnKeys) throws SQLException {
+        if (query.isSelect()) {
+            query(query);
+            return true;
+        } else {
+            update(query, returnKeys);
+            return false;
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return query(StubQuery.parse(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return update(StubQuery.parse(sql), false);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closeResults();
+            closed = true;
+        }
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        checkOpen();
+        return maxFieldSize;
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        checkOpen();
+        this.maxFieldSize = max;
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        checkOpen();
+        return maxRows;
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        checkOpen();
+        if (max < 0) {
+            throw new SQLException("The max rows must not be negative.");
+        }
+        this.maxRows = max;
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        checkOpen();
+        return queryTimeout;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        checkOpen();
+        if (seconds < 0) {
+            throw new SQLException("The query timeout must not be negative.");
+        }
+        this.queryTimeout = seconds;
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        cancelled = true;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return null;
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        throw notSupported("setCursorName");
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return execute(StubQuery.parse(sql), false);
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        checkOpen();
+        return resultSet;
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        checkOpen();
+        return updateCount;
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return getMoreResults(CLOSE_CURRENT_RESULT);
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        checkOpen();
+        if (direction != ResultSet.FETCH_FORWARD) {
+            throw notSupported("setFetchDirection");
+        }
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        checkOpen();
+        return ResultSet.FETCH_FORWARD;
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        checkOpen();
+        if (rows < 0) {
+            throw new SQLException("The fetch size must not be negative.");
+        }
+        this.fetchSize = rows;
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        checkOpen();
+        return fetchSize;
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        checkOpen();
+        return ResultSet.CONCUR_READ_ONLY;
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        checkOpen();
+        return ResultSet.TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        checkOpen();
+        batch.add(StubQuery.parse(sql));
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        checkOpen();
+        batch.clear();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        checkOpen();
+        final int[] counts = new int[batch.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = update(batch.get(i), false);
+        }
+        batch.clear();
+        return counts;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkOpen();
+        return connection;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        checkOpen();
+        if (current != KEEP_CURRENT_RESULT && resultSet != null) {
+            resultSet.close();
+        }
+        resultSet   = null;
+        updateCount = -1;
+        return false;
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        checkOpen();
+        return generatedKeys == null
+            ? new StubResultSet(this, GENERATED_KEY_LABELS, 1, 0)
+            : generatedKeys;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return update(StubQuery.parse(sql), autoGeneratedKeys == RETURN_GENERATED_KEYS);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return update(StubQuery.parse(sql), true);
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return update(StubQuery.parse(sql), true);
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return execute(StubQuery.parse(sql), autoGeneratedKeys == RETURN_GENERATED_KEYS);
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return execute(StubQuery.parse(sql), true);
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return execute(StubQuery.parse(sql), true);
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return connection.getHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed;
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        checkOpen();
+        this.poolable = poolable;
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        checkOpen();
+        return poolable;
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        checkOpen();
+        this.closeOnCompletion = true;
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        checkOpen();
+        return closeOnCompletion;
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return query(prepared());
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        return update(prepared(), returnGeneratedKeys);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Deprecated
+    @Override
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void clearParameters() throws SQLException {
+        checkOpen();
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return execute(prepared(), returnGeneratedKeys);
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        checkOpen();
+        batch.add(prepared());
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return prepared().isSelect()
+            ? new StubResultSetMetaData(prepared.getLabels(), getSettings().getStringLength())
+            : null;
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        throw notSupported("getParameterMetaData");
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        setParameter(parameterIndex);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName() + ".");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+}
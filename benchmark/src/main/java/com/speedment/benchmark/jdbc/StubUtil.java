@@ -0,0 +1,67 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.jdbc;
+
+import java.sql.SQLFeatureNotSupportedException;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Utility methods shared by the classes of the stub driver.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class StubUtil {
+
+    /**
+     * Returns an exception to throw from methods that the stub driver does 
+     * not implement.
+     * 
+     * @param method  the name of the method that was invoked
+     * @return        the exception to throw
+     */
+    static SQLFeatureNotSupportedException notSupported(String method) {
+        return new SQLFeatureNotSupportedException(
+            "The stub driver does not support " + method + "()."
+        );
+    }
+
+    /**
+     * Spins until the specified number of nanoseconds has elapsed. Spinning
+     * is used rather than sleeping since the latencies simulated by the stub
+     * driver are much shorter than the resolution of the scheduler.
+     * 
+     * @param nanos  the number of nanoseconds to wait, or {@code 0} to 
+     *               return immediately
+     */
+    static void busyWait(long nanos) {
+        if (nanos > 0) {
+            final long end = System.nanoTime() + nanos;
+            while (System.nanoTime() - end < 0) {
+                // Spin
+            }
+        }
+    }
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private StubUtil() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.runtime.core.Speedment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures persisting, updating and removing a single entity through a 
+ * manager over the stub driver, including leasing a connection from the 
+ * pool and rendering the statement.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ManagerPersistBenchmark {
+
+    @Param({"0", "20000"})
+    private long statementLatencyNanos;
+
+    private Speedment speedment;
+    private SampleManagerImpl manager;
+    private Sample sample;
+
+    @Setup
+    public void setup() {
+        speedment = SampleApplications.build(
+            "statementLatencyNanos=" + statementLatencyNanos
+        );
+        manager = speedment.getOrThrow(SampleManagerImpl.class);
+        sample  = newSample().setId(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        speedment.stop();
+    }
+
+    @Benchmark
+    public Sample persist() {
+        return manager.persist(newSample());
+    }
+
+    @Benchmark
+    public Sample update() {
+        return manager.update(sample);
+    }
+
+    @Benchmark
+    public Sample remove() {
+        return manager.remove(sample);
+    }
+
+    private static Sample newSample() {
+        return new SampleImpl()
+            .setName("Sample")
+            .setScore(42)
+            .setAmount(3.14)
+            .setCreated(LocalDateTime.of(2016, 12, 24, 15, 0))
+            .setActive(true);
+    }
+}
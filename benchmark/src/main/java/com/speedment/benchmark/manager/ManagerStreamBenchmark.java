@@ -0,0 +1,127 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.runtime.core.Speedment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static com.speedment.benchmark.jdbc.StubDriver.URL_PREFIX;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Measures streams from a manager, from the call to {@code stream()} until 
+ * the terminal operation has completed, over the stub driver. Plain JDBC 
+ * reading the same rows with the same row mapper is the baseline.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ManagerStreamBenchmark {
+
+    private static final String SQL = 
+        "SELECT `id`,`name`,`score`,`amount`,`created`,`active` " + 
+        "FROM `bench`.`sample`";
+
+    // The stub driver does not evaluate the WHERE clause, so the predicate
+    // matches every row to give the same result with and without pushdown
+    private static final Predicate<Sample> POSITIVE_ID = Sample.ID.greaterThan(0);
+
+    @Param({"100", "10000"})
+    private long rows;
+
+    @Param({"0", "200"})
+    private long rowLatencyNanos;
+
+    private Speedment speedment;
+    private SampleManagerImpl manager;
+    private SampleSqlAdapter sqlAdapter;
+    private Connection connection;
+
+    @Setup
+    public void setup() throws SQLException {
+        final String settings = SampleApplications.settings(rows, rowLatencyNanos);
+        speedment  = SampleApplications.build(settings);
+        manager    = speedment.getOrThrow(SampleManagerImpl.class);
+        sqlAdapter = speedment.getOrThrow(SampleSqlAdapter.class);
+        connection = DriverManager.getConnection(URL_PREFIX + "bench?" + settings);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        speedment.stop();
+    }
+
+    @Benchmark
+    public List<Sample> jdbc() throws SQLException {
+        final List<Sample> result = new ArrayList<>();
+        try (final PreparedStatement ps = connection.prepareStatement(SQL);
+             final ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                result.add(sqlAdapter.apply(rs));
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Sample> collect() {
+        return manager.stream().collect(toList());
+    }
+
+    @Benchmark
+    public long count() {
+        return manager.stream().count();
+    }
+
+    @Benchmark
+    public List<Sample> filterCollect() {
+        return manager.stream().filter(POSITIVE_ID).collect(toList());
+    }
+
+    @Benchmark
+    public long filterCount() {
+        return manager.stream().filter(POSITIVE_ID).count();
+    }
+}
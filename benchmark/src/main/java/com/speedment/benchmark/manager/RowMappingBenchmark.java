@@ -0,0 +1,111 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.runtime.core.Speedment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static com.speedment.benchmark.jdbc.StubDriver.URL_PREFIX;
+
+/**
+ * Measures the mapping of a single row to an entity, with and without the
+ * type mappers of the {@link SampleSqlAdapter}. Every fifth value is 
+ * {@code null} so that the nullable column takes both paths.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RowMappingBenchmark {
+
+    private static final String SQL = 
+        "SELECT `id`,`name`,`score`,`amount`,`created`,`active` " + 
+        "FROM `bench`.`sample`";
+
+    private Speedment speedment;
+    private SampleSqlAdapter sqlAdapter;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+
+    @Setup
+    public void setup() throws SQLException {
+        final String settings = "rows=1000000&nullInterval=5";
+        speedment  = SampleApplications.build(settings);
+        sqlAdapter = speedment.getOrThrow(SampleSqlAdapter.class);
+        connection = DriverManager.getConnection(URL_PREFIX + "bench?" + settings);
+        statement  = connection.prepareStatement(SQL);
+        resultSet  = statement.executeQuery();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        resultSet.close();
+        statement.close();
+        connection.close();
+        speedment.stop();
+    }
+
+    @Benchmark
+    public void getters(Blackhole blackhole) throws SQLException {
+        final ResultSet rs = nextRow();
+        blackhole.consume(rs.getInt(1));
+        blackhole.consume(rs.getString(2));
+        final int score = rs.getInt(3);
+        blackhole.consume(rs.wasNull() ? null : score);
+        blackhole.consume(rs.getDouble(4));
+        blackhole.consume(rs.getTimestamp(5));
+        blackhole.consume(rs.getInt(6));
+    }
+
+    @Benchmark
+    public Sample sqlAdapter() throws SQLException {
+        return sqlAdapter.apply(nextRow());
+    }
+
+    private ResultSet nextRow() throws SQLException {
+        if (!resultSet.next()) {
+            resultSet.close();
+            resultSet = statement.executeQuery();
+            resultSet.next();
+        }
+        return resultSet;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.field.BooleanField;
+import com.speedment.runtime.field.ComparableField;
+import com.speedment.runtime.field.DoubleField;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import com.speedment.runtime.typemapper.integer.IntegerZeroOneToBooleanMapper;
+import com.speedment.runtime.typemapper.time.TimestampToLocalDateTimeMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * The entity of the {@code sample} table used by the end-to-end benchmarks.
+ * It is written the same way as a generated entity, with one column of each
+ * kind that the generated result set mapper handles differently: primitive
+ * columns, a nullable column and columns with a type mapper.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface Sample {
+
+    enum Identifier implements ColumnIdentifier<Sample> {
+        ID      ("id"),
+        NAME    ("name"),
+        SCORE   ("score"),
+        AMOUNT  ("amount"),
+        CREATED ("created"),
+        ACTIVE  ("active");
+
+        private final String columnName;
+
+        Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "bench";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "bench";
+        }
+
+        @Override
+        public String getTableName() {
+            return "sample";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    IntField<Sample, Integer> ID = IntField.create(
+        Identifier.ID, Sample::getId, Sample::setId, TypeMapper.primitive(), true
+    );
+
+    StringField<Sample, String> NAME = StringField.create(
+        Identifier.NAME, Sample::getName, Sample::setName, TypeMapper.identity(), false
+    );
+
+    ComparableField<Sample, Integer, Integer> SCORE = ComparableField.create(
+        Identifier.SCORE, Sample::getScore, Sample::setScore, TypeMapper.identity(), false
+    );
+
+    DoubleField<Sample, Double> AMOUNT = DoubleField.create(
+        Identifier.AMOUNT, Sample::getAmount, Sample::setAmount, TypeMapper.primitive(), false
+    );
+
+    ComparableField<Sample, Timestamp, LocalDateTime> CREATED = ComparableField.create(
+        Identifier.CREATED, Sample::getCreated, Sample::setCreated, new TimestampToLocalDateTimeMapper(), false
+    );
+
+    BooleanField<Sample, Integer> ACTIVE = BooleanField.create(
+        Identifier.ACTIVE, Sample::getActive, Sample::setActive, new IntegerZeroOneToBooleanMapper(), false
+    );
+
+    int getId();
+
+    String getName();
+
+    Integer getScore(); // Nullable
+
+    double getAmount();
+
+    LocalDateTime getCreated();
+
+    boolean getActive();
+
+    Sample setId(int id);
+
+    Sample setName(String name);
+
+    Sample setScore(Integer score);
+
+    Sample setAmount(double amount);
+
+    Sample setCreated(LocalDateTime created);
+
+    Sample setActive(boolean active);
+}
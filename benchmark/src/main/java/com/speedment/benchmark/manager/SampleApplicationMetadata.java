@@ -0,0 +1,109 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.runtime.core.internal.AbstractApplicationMetadata;
+
+import java.util.Optional;
+
+/**
+ * The metadata of the benchmark application, describing a single MySQL 
+ * table named {@code sample}. The connection URL is set when the 
+ * application is built so that it can point to the stub driver.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class SampleApplicationMetadata extends AbstractApplicationMetadata {
+
+    private static final String METADATA = 
+        "{\n" +
+        "  \"config\" : {\n" +
+        "    \"name\" : \"bench\",\n" +
+        "    \"dbmses\" : [\n" +
+        "      {\n" +
+        "        \"name\" : \"bench\",\n" +
+        "        \"typeName\" : \"MySQL\",\n" +
+        "        \"schemas\" : [\n" +
+        "          {\n" +
+        "            \"name\" : \"bench\",\n" +
+        "            \"tables\" : [\n" +
+        "              {\n" +
+        "                \"name\" : \"sample\",\n" +
+        "                \"columns\" : [\n" +
+        "                  {\n" +
+        "                    \"name\" : \"id\",\n" +
+        "                    \"ordinalPosition\" : 1,\n" +
+        "                    \"databaseType\" : \"java.lang.Integer\",\n" +
+        "                    \"typeMapper\" : \"com.speedment.runtime.typemapper.primitive.PrimitiveTypeMapper\",\n" +
+        "                    \"nullable\" : false,\n" +
+        "                    \"autoIncrement\" : true\n" +
+        "                  },\n" +
+        "                  {\n" +
+        "                    \"name\" : \"name\",\n" +
+        "                    \"ordinalPosition\" : 2,\n" +
+        "                    \"databaseType\" : \"java.lang.String\",\n" +
+        "                    \"nullable\" : false\n" +
+        "                  },\n" +
+        "                  {\n" +
+        "                    \"name\" : \"score\",\n" +
+        "                    \"ordinalPosition\" : 3,\n" +
+        "                    \"databaseType\" : \"java.lang.Integer\",\n" +
+        "                    \"nullable\" : true\n" +
+        "                  },\n" +
+        "                  {\n" +
+        "                    \"name\" : \"amount\",\n" +
+        "                    \"ordinalPosition\" : 4,\n" +
+        "                    \"databaseType\" : \"java.lang.Double\",\n" +
+        "                    \"typeMapper\" : \"com.speedment.runtime.typemapper.primitive.PrimitiveTypeMapper\",\n" +
+        "                    \"nullable\" : false\n" +
+        "                  },\n" +
+        "                  {\n" +
+        "                    \"name\" : \"created\",\n" +
+        "                    \"ordinalPosition\" : 5,\n" +
+        "                    \"databaseType\" : \"java.sql.Timestamp\",\n" +
+        "                    \"typeMapper\" : \"com.speedment.runtime.typemapper.time.TimestampToLocalDateTimeMapper\",\n" +
+        "                    \"nullable\" : false\n" +
+        "                  },\n" +
+        "                  {\n" +
+        "                    \"name\" : \"active\",\n" +
+        "                    \"ordinalPosition\" : 6,\n" +
+        "                    \"databaseType\" : \"java.lang.Integer\",\n" +
+        "                    \"typeMapper\" : \"com.speedment.runtime.typemapper.integer.IntegerZeroOneToBooleanMapper\",\n" +
+        "                    \"nullable\" : false\n" +
+        "                  }\n" +
+        "                ],\n" +
+        "                \"primaryKeyColumns\" : [\n" +
+        "                  {\n" +
+        "                    \"name\" : \"id\",\n" +
+        "                    \"ordinalPosition\" : 1\n" +
+        "                  }\n" +
+        "                ]\n" +
+        "              }\n" +
+        "            ]\n" +
+        "          }\n" +
+        "        ]\n" +
+        "      }\n" +
+        "    ]\n" +
+        "  }\n" +
+        "}";
+
+    @Override
+    protected Optional<String> getMetadata() {
+        return Optional.of(METADATA);
+    }
+}
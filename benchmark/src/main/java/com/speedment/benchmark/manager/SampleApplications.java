@@ -0,0 +1,69 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.benchmark.jdbc.StubDriver;
+import com.speedment.runtime.core.Speedment;
+import com.speedment.runtime.core.internal.DefaultApplicationBuilder;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+
+/**
+ * Utility methods for starting a Speedment application that reads from and
+ * writes to the {@link StubDriver stub driver}.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class SampleApplications {
+
+    /**
+     * Builds and starts a new application that connects to the stub 
+     * database with the specified settings.
+     * 
+     * @param settings  the settings, for example 
+     *                  {@code "rows=1000&rowLatencyNanos=100"}
+     * @return          the started application
+     */
+    public static Speedment build(String settings) {
+        return new DefaultApplicationBuilder(SampleApplicationMetadata.class)
+            .withManager(SampleManagerImpl.class)
+            .withComponent(SampleSqlAdapter.class)
+            .withConnectionUrl(StubDriver.URL_PREFIX + "bench?" + settings)
+            .withSkipCheckDatabaseConnectivity()
+            .withSkipValidateRuntimeConfig()
+            .withSkipLogoPrintout()
+            .build();
+    }
+
+    /**
+     * Returns the settings of a stub database with the specified number of
+     * rows and latency per row.
+     * 
+     * @param rows              the number of rows in the table
+     * @param rowLatencyNanos   the time it takes to read a row
+     * @return                  the settings
+     */
+    public static String settings(long rows, long rowLatencyNanos) {
+        return StubDriver.ROWS + "=" + rows + "&" 
+            + StubDriver.ROW_LATENCY_NANOS + "=" + rowLatencyNanos;
+    }
+
+    private SampleApplications() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import java.time.LocalDateTime;
+
+/**
+ * The default implementation of the {@link Sample} entity.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class SampleImpl implements Sample {
+
+    private int id;
+    private String name;
+    private Integer score;
+    private double amount;
+    private LocalDateTime created;
+    private boolean active;
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Integer getScore() {
+        return score;
+    }
+
+    @Override
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public LocalDateTime getCreated() {
+        return created;
+    }
+
+    @Override
+    public boolean getActive() {
+        return active;
+    }
+
+    @Override
+    public Sample setId(int id) {
+        this.id = id;
+        return this;
+    }
+
+    @Override
+    public Sample setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    @Override
+    public Sample setScore(Integer score) {
+        this.score = score;
+        return this;
+    }
+
+    @Override
+    public Sample setAmount(double amount) {
+        this.amount = amount;
+        return this;
+    }
+
+    @Override
+    public Sample setCreated(LocalDateTime created) {
+        this.created = created;
+        return this;
+    }
+
+    @Override
+    public Sample setActive(boolean active) {
+        this.active = active;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "SampleImpl { "
+            + "id = "        + id
+            + ", name = "    + name
+            + ", score = "   + score
+            + ", amount = "  + amount
+            + ", created = " + created
+            + ", active = "  + active
+            + " }";
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.manager.AbstractManager;
+import com.speedment.runtime.field.Field;
+
+import java.util.stream.Stream;
+
+/**
+ * The manager of the {@link Sample} entity, written the same way as a 
+ * generated manager.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class SampleManagerImpl extends AbstractManager<Sample> {
+
+    private final TableIdentifier<Sample> tableIdentifier;
+
+    public SampleManagerImpl() {
+        this.tableIdentifier = TableIdentifier.of("bench", "bench", "sample");
+    }
+
+    @Override
+    public TableIdentifier<Sample> getTableIdentifier() {
+        return tableIdentifier;
+    }
+
+    @Override
+    public Class<Sample> getEntityClass() {
+        return Sample.class;
+    }
+
+    @Override
+    public Stream<Field<Sample>> fields() {
+        return Stream.of(
+            Sample.ID,
+            Sample.NAME,
+            Sample.SCORE,
+            Sample.AMOUNT,
+            Sample.CREATED,
+            Sample.ACTIVE
+        );
+    }
+
+    @Override
+    public Stream<Field<Sample>> primaryKeyFields() {
+        return Stream.of(Sample.ID);
+    }
+}
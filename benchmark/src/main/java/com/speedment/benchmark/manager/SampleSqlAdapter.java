@@ -0,0 +1,88 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.manager;
+
+import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.sql.SqlPersistenceComponent;
+import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.component.sql.SqlTypeMapperHelper;
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static com.speedment.common.injector.State.RESOLVED;
+import static com.speedment.runtime.core.internal.util.sql.ResultSetUtil.getInt;
+
+/**
+ * The SQL adapter of the {@link Sample} entity, written the same way as a
+ * generated SQL adapter. The {@link #apply(ResultSet)} method is the row 
+ * mapper used when streaming from the {@link SampleManagerImpl}.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class SampleSqlAdapter {
+
+    private final TableIdentifier<Sample> tableIdentifier;
+    private SqlTypeMapperHelper<Timestamp, LocalDateTime> createdHelper;
+    private SqlTypeMapperHelper<Integer, Boolean> activeHelper;
+
+    public SampleSqlAdapter() {
+        this.tableIdentifier = TableIdentifier.of("bench", "bench", "sample");
+    }
+
+    @ExecuteBefore(RESOLVED)
+    void installMethodName(
+            SqlStreamSupplierComponent streamSupplierComponent, 
+            SqlPersistenceComponent persistenceComponent) {
+        
+        streamSupplierComponent.install(tableIdentifier, this::apply);
+        persistenceComponent.install(tableIdentifier);
+    }
+
+    @ExecuteBefore(RESOLVED)
+    void createHelpers(ProjectComponent projectComponent) {
+        final Project project = projectComponent.getProject();
+        createdHelper = SqlTypeMapperHelper.create(project, Sample.CREATED, Sample.class);
+        activeHelper  = SqlTypeMapperHelper.create(project, Sample.ACTIVE, Sample.class);
+    }
+
+    public Sample apply(ResultSet resultSet) throws SpeedmentException {
+        final Sample entity = createEntity();
+        try {
+            entity.setId(      resultSet.getInt(1));
+            entity.setName(    resultSet.getString(2));
+            entity.setScore(   getInt(resultSet, 3));
+            entity.setAmount(  resultSet.getDouble(4));
+            entity.setCreated( createdHelper.apply(resultSet.getTimestamp(5)));
+            entity.setActive(  activeHelper.apply(resultSet.getInt(6)));
+        } catch (final SQLException sqle) {
+            throw new SpeedmentException(sqle);
+        }
+        return entity;
+    }
+
+    private SampleImpl createEntity() {
+        return new SampleImpl();
+    }
+}
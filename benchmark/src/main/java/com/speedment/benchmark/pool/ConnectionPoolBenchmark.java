@@ -0,0 +1,100 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.pool;
+
+import com.speedment.benchmark.jdbc.StubDriver;
+import com.speedment.benchmark.manager.SampleApplications;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.Speedment;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures leasing a connection from the pool and returning it again when 
+ * many threads do so at the same time. The sample time mode reports the 
+ * latency percentiles, which show how long threads wait for each other. 
+ * Run with {@code -t} to use a different number of threads, for example 
+ * {@code -t 1} to measure the pool without contention.
+ * <p>
+ * Connections are leased both for a {@link Dbms}, which is how managers 
+ * lease them, and for an explicit URL, user and password.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(64)
+@Fork(2)
+public class ConnectionPoolBenchmark {
+
+    private static final String URL = StubDriver.URL_PREFIX + "pool";
+
+    private Speedment speedment;
+    private ConnectionPoolComponent pool;
+    private Dbms dbms;
+
+    @Setup
+    public void setup() {
+        speedment = SampleApplications.build(SampleApplications.settings(1, 0));
+        pool = speedment.getOrThrow(ConnectionPoolComponent.class);
+        dbms = speedment.getOrThrow(ProjectComponent.class)
+            .getProject()
+            .dbmses()
+            .findFirst()
+            .get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        speedment.stop();
+    }
+
+    @Benchmark
+    public PoolableConnection leaseAndReturnForDbms() throws SQLException {
+        final PoolableConnection connection = pool.getConnection(dbms);
+        connection.close();
+        return connection;
+    }
+
+    @Benchmark
+    public PoolableConnection leaseAndReturnForUrl() throws SQLException {
+        final PoolableConnection connection = 
+            pool.getConnection(URL, "bench", "secret".toCharArray());
+        connection.close();
+        return connection;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.stream;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+/**
+ * A simple entity used as the element type of the benchmarked streams. The
+ * fields are declared the same way as in generated code so that the field 
+ * predicates can be analyzed by the stream terminators.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class Item {
+
+    enum Identifier implements ColumnIdentifier<Item> {
+        ID("id"), NAME("name"), SCORE("score");
+
+        private final String columnName;
+
+        Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "benchmark";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "benchmark";
+        }
+
+        @Override
+        public String getTableName() {
+            return "item";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    public static final IntField<Item, Integer> ID = IntField.create(
+        Identifier.ID, Item::getId, Item::setId, TypeMapper.primitive(), true
+    );
+
+    public static final StringField<Item, String> NAME = StringField.create(
+        Identifier.NAME, Item::getName, Item::setName, TypeMapper.identity(), false
+    );
+
+    public static final IntField<Item, Integer> SCORE = IntField.create(
+        Identifier.SCORE, Item::getScore, Item::setScore, TypeMapper.primitive(), false
+    );
+
+    private int id;
+    private String name;
+    private int score;
+
+    public Item(int id, String name, int score) {
+        this.id    = id;
+        this.name  = name;
+        this.score = score;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Item setId(int id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Item setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public Item setScore(int score) {
+        this.score = score;
+        return this;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.stream;
+
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminatorUtil;
+import com.speedment.runtime.core.stream.Pipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Measures the fixed cost of creating a stream, that is building the 
+ * pipeline, optimizing it and rendering it, over an empty source so that no
+ * elements are processed.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PipelineCreationBenchmark {
+
+    private static final Predicate<Item> HIGH_SCORE = Item.SCORE.greaterThan(50);
+    private static final Predicate<Item> LOW_ID     = Item.ID.lessThan(1000);
+
+    private static final StreamTerminator PLAIN_TERMINATOR = new StreamTerminator() {};
+
+    /**
+     * A terminator that inspects the pipeline the same way as the SQL 
+     * terminator does before it renders the stream.
+     */
+    private static final StreamTerminator ANALYZING_TERMINATOR = new StreamTerminator() {
+        @Override
+        public <P extends Pipeline> P optimize(P initialPipeline) {
+            StreamTerminatorUtil.topLevelAndPredicates(initialPipeline);
+            return initialPipeline;
+        }
+    };
+
+    @Benchmark
+    public List<String> jdk() {
+        return Stream.<Item>empty()
+            .filter(HIGH_SCORE)
+            .filter(LOW_ID)
+            .map(Item::getName)
+            .sorted()
+            .collect(toList());
+    }
+
+    @Benchmark
+    public List<String> speedment() {
+        return stream(PLAIN_TERMINATOR)
+            .filter(HIGH_SCORE)
+            .filter(LOW_ID)
+            .map(Item::getName)
+            .sorted()
+            .collect(toList());
+    }
+
+    @Benchmark
+    public List<String> speedmentOptimized() {
+        return stream(ANALYZING_TERMINATOR)
+            .filter(HIGH_SCORE)
+            .filter(LOW_ID)
+            .map(Item::getName)
+            .sorted()
+            .collect(toList());
+    }
+
+    @Benchmark
+    public Pipeline buildPipeline() {
+        final PipelineImpl<Item> pipeline = new PipelineImpl<>(Stream::empty);
+        pipeline.add(new FilterAction<>(HIGH_SCORE));
+        pipeline.add(new FilterAction<>(LOW_ID));
+        pipeline.add(new MapAction<>(Item::getName));
+        pipeline.add(new SortedAction<>());
+        return pipeline;
+    }
+
+    @Benchmark
+    public void optimizePipeline(Blackhole blackhole) {
+        final Pipeline pipeline = buildPipeline();
+        blackhole.consume(StreamTerminatorUtil.topLevelAndPredicates(pipeline));
+    }
+
+    private static Stream<Item> stream(StreamTerminator terminator) {
+        return new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(Stream::empty), terminator
+        );
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.benchmark.stream;
+
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Compares Speedment streams over an in-memory source with plain JDK streams
+ * over the same list. Both variants use the same predicates and mappers, so 
+ * the difference is the cost of building and rendering the Speedment 
+ * pipeline.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StreamPipelineBenchmark {
+
+    private static final Predicate<Item> HIGH_SCORE = Item.SCORE.greaterThan(50);
+    private static final StreamTerminator TERMINATOR = new StreamTerminator() {};
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private List<Item> items;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i, "item-" + random.nextInt(size), random.nextInt(100)));
+        }
+    }
+
+    @Benchmark
+    public List<String> jdkFilterMapCollect() {
+        return items.stream()
+            .filter(HIGH_SCORE)
+            .map(Item::getName)
+            .collect(toList());
+    }
+
+    @Benchmark
+    public List<String> speedmentFilterMapCollect() {
+        return speedmentStream()
+            .filter(HIGH_SCORE)
+            .map(Item::getName)
+            .collect(toList());
+    }
+
+    @Benchmark
+    public List<String> jdkFilterMapSortedCollect() {
+        return items.stream()
+            .filter(HIGH_SCORE)
+            .map(Item::getName)
+            .sorted()
+            .collect(toList());
+    }
+
+    @Benchmark
+    public List<String> speedmentFilterMapSortedCollect() {
+        return speedmentStream()
+            .filter(HIGH_SCORE)
+            .map(Item::getName)
+            .sorted()
+            .collect(toList());
+    }
+
+    @Benchmark
+    public long jdkFilterMapToIntSum() {
+        return items.stream()
+            .filter(HIGH_SCORE)
+            .mapToInt(Item::getScore)
+            .sum();
+    }
+
+    @Benchmark
+    public long speedmentFilterMapToIntSum() {
+        return speedmentStream()
+            .filter(HIGH_SCORE)
+            .mapToInt(Item::getScore)
+            .sum();
+    }
+
+    private Stream<Item> speedmentStream() {
+        return new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(() -> items.stream()), TERMINATOR
+        );
+    }
+}
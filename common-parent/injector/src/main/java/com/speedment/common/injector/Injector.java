@@ -98,6 +98,17 @@ public interface Injector {
      */
     Builder newBuilder();
     
+    /**
+     * Returns the profile that this Injector recorded its startup in, if it
+     * was built with one. Components can use it to record their own steps.
+     * 
+     * @return  the startup profile or empty if none was used
+     * @see     Builder#withStartupProfile(StartupProfile)
+     */
+    default Optional<StartupProfile> getStartupProfile() {
+        return Optional.empty();
+    }
+    
     /**
      * Returns a new builder for the {@link Injector} interface that uses the default
      * implementation.
@@ -189,6 +200,17 @@ public interface Injector {
          */
         Builder withConfigFileLocation(Path configFile);
         
+        /**
+         * Sets the profile that the time it takes to create and configure 
+         * every component is recorded in when {@link #build()} is called. 
+         * If no profile is set, nothing is recorded.
+         * 
+         * @param profile  the profile to record in, or {@code null} to not
+         *                 record anything
+         * @return         a reference to this builder
+         */
+        Builder withStartupProfile(StartupProfile profile);
+        
         /**
          * Builds the {@link Injector} instance, organizing the 
          * injectable instances based on their internal dependencies.
@@ -0,0 +1,326 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.injector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records how long the different parts of starting an application take. An
+ * {@link Injector} that is built with a profile records the time it takes to
+ * create every component, to set the {@code @Inject}-annotated fields, to 
+ * invoke every {@code @ExecuteBefore}-annotated method and to move all the
+ * components to every new {@link State}. Other parts of the startup can be
+ * recorded as steps. A step that is run while another step is running on 
+ * the same thread is recorded as a part of that step.
+ * <p>
+ * The {@link #report(int)} method summarizes the recorded entries.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author  Per Minborg
+ * @since   1.0.2
+ */
+public final class StartupProfile {
+
+    /**
+     * The kind of work that an entry has been recorded for.
+     */
+    public enum Kind {
+
+        /**
+         * A step of the startup, for example building the injector.
+         */
+        STEP,
+
+        /**
+         * Creating a component and setting its configuration parameters.
+         */
+        CREATE,
+
+        /**
+         * Setting the {@code @Inject}-annotated fields of all components.
+         */
+        INJECT,
+
+        /**
+         * Moving all components to a new {@link State}.
+         */
+        STATE,
+
+        /**
+         * Invoking an {@code @ExecuteBefore}-annotated method.
+         */
+        EXECUTE
+    }
+
+    private final List<Entry> entries;
+    private final ThreadLocal<int[]> depth;
+
+    public StartupProfile() {
+        this.entries = new ArrayList<>();
+        this.depth   = ThreadLocal.withInitial(() -> new int[1]);
+    }
+
+    /**
+     * Records that some work has been done.
+     * 
+     * @param kind   the kind of work
+     * @param name   the name of the work
+     * @param owner  the component that did the work, or {@code null} if it 
+     *               was not done by a particular component
+     * @param nanos  the time it took in nanoseconds
+     */
+    public void record(Kind kind, String name, Class<?> owner, long nanos) {
+        final Entry entry = new Entry(kind, name, owner, nanos, depth.get()[0]);
+        synchronized (entries) {
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * Runs the specified step and records the time it takes as a 
+     * {@link Kind#STEP}. The time is recorded even if the step throws an 
+     * exception.
+     * 
+     * @param name  the name of the step
+     * @param step  the step to run
+     */
+    public void step(String name, Runnable step) {
+        requireNonNull(step);
+        step(name, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the specified step and records the time it takes as a 
+     * {@link Kind#STEP}. The time is recorded even if the step throws an 
+     * exception.
+     * 
+     * @param <T>   the type of the result
+     * @param name  the name of the step
+     * @param step  the step to run
+     * @return      the result of the step
+     */
+    public <T> T step(String name, Supplier<T> step) {
+        requireNonNull(name);
+        requireNonNull(step);
+        final int[] level = depth.get();
+        final long start = System.nanoTime();
+        level[0]++;
+        try {
+            return step.get();
+        } finally {
+            level[0]--;
+            record(Kind.STEP, name, null, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns a copy of all the entries in the order they were recorded.
+     * 
+     * @return  the recorded entries
+     */
+    public List<Entry> entries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    /**
+     * Returns the total time of the startup in nanoseconds. If any steps
+     * have been recorded, this is the sum of the steps that are not a part 
+     * of another step. Otherwise, it is the time spent in the injector.
+     * 
+     * @return  the total time in nanoseconds
+     */
+    public long totalNanos() {
+        final List<Entry> all = entries();
+        long steps = 0;
+        for (final Entry entry : ofKind(all, Kind.STEP)) {
+            if (entry.getDepth() == 0) {
+                steps += entry.getNanos();
+            }
+        }
+
+        return steps > 0 
+            ? steps 
+            : sum(all, Kind.CREATE) + sum(all, Kind.INJECT) + sum(all, Kind.STATE);
+    }
+
+    /**
+     * Returns a summary of the recorded entries with the time of every step,
+     * the time of every phase of the injector and the slowest components
+     * and methods.
+     * 
+     * @param limit  the maximum number of components and methods to list
+     * @return       the summary
+     */
+    public String report(int limit) {
+        final List<Entry> all = entries();
+        final StringBuilder str = new StringBuilder()
+            .append(String.format(Locale.ROOT, "Startup took %.1f ms%n", millis(totalNanos())));
+
+        final List<Entry> steps = ofKind(all, Kind.STEP);
+        if (!steps.isEmpty()) {
+            str.append(String.format("Steps:%n"));
+            steps.forEach(e -> line(str, indent(e.getDepth()) + e.getName(), e.getNanos()));
+        }
+
+        final List<Entry> created = ofKind(all, Kind.CREATE);
+        if (!created.isEmpty()) {
+            str.append(String.format("Injector:%n"));
+            line(str, "Create " + created.size() + " components", sum(all, Kind.CREATE));
+            line(str, "Inject fields", sum(all, Kind.INJECT));
+            ofKind(all, Kind.STATE).forEach(e -> line(str, e.getName(), e.getNanos()));
+        }
+
+        final Map<String, Long> components = new LinkedHashMap<>();
+        all.stream()
+            .filter(e -> e.getKind() == Kind.CREATE || e.getKind() == Kind.EXECUTE)
+            .filter(e -> e.getOwner().isPresent())
+            .forEachOrdered(e -> components.merge(
+                e.getOwner().get().getSimpleName(), e.getNanos(), Long::sum
+            ));
+
+        if (!components.isEmpty()) {
+            str.append(String.format("Slowest components:%n"));
+            components.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEachOrdered(e -> line(str, e.getKey(), e.getValue()));
+        }
+
+        final List<Entry> executions = ofKind(all, Kind.EXECUTE);
+        if (!executions.isEmpty()) {
+            str.append(String.format("Slowest methods:%n"));
+            executions.stream()
+                .sorted(Comparator.comparingLong(Entry::getNanos).reversed())
+                .limit(limit)
+                .forEachOrdered(e -> line(str, e.getName(), e.getNanos()));
+        }
+
+        return str.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report(10);
+    }
+
+    /**
+     * The time it took to do some work during the startup.
+     */
+    public static final class Entry {
+
+        private final Kind kind;
+        private final String name;
+        private final Class<?> owner; // Nullable
+        private final long nanos;
+        private final int depth;
+
+        private Entry(Kind kind, String name, Class<?> owner, long nanos, int depth) {
+            this.kind  = requireNonNull(kind);
+            this.name  = requireNonNull(name);
+            this.owner = owner;
+            this.nanos = nanos;
+            this.depth = depth;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Optional<Class<?>> getOwner() {
+            return Optional.ofNullable(owner);
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the number of steps that were running on the same thread
+         * when this entry was recorded. A step with a depth of one is a part
+         * of another step.
+         * 
+         * @return  the number of enclosing steps
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " " + name + " " + nanos + " ns";
+        }
+    }
+
+    private static List<Entry> ofKind(List<Entry> entries, Kind kind) {
+        final List<Entry> result = new ArrayList<>();
+        for (final Entry entry : entries) {
+            if (entry.getKind() == kind) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static long sum(List<Entry> entries, Kind kind) {
+        long sum = 0;
+        for (final Entry entry : entries) {
+            if (entry.getKind() == kind) {
+                sum += entry.getNanos();
+            }
+        }
+        return sum;
+    }
+
+    private static void line(StringBuilder str, String name, long nanos) {
+        str.append(String.format(Locale.ROOT, "  %-64s %10.1f ms%n", limit(name, 64), millis(nanos)));
+    }
+
+    private static String indent(int depth) {
+        final StringBuilder str = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            str.append("  ");
+        }
+        return str.toString();
+    }
+
+    private static String limit(String in, int length) {
+        return in.length() <= length ? in : in.substring(0, length - 3) + "...";
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
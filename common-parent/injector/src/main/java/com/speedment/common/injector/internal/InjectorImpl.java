@@ -18,6 +18,7 @@ package com.speedment.common.injector.internal;
 
 import com.speedment.common.injector.InjectBundle;
 import com.speedment.common.injector.Injector;
+import com.speedment.common.injector.StartupProfile;
 import com.speedment.common.injector.State;
 import com.speedment.common.injector.annotation.Config;
 import com.speedment.common.injector.annotation.Inject;
@@ -70,11 +71,13 @@ public final class InjectorImpl implements Injector {
     private final Set<Class<?>> injectables;
     private final List<Object> instances;
     private final Injector.Builder builder;
+    private final StartupProfile profile; // Nullable
 
-    private InjectorImpl(Set<Class<?>> injectables, List<Object> instances, Injector.Builder builder) {
+    private InjectorImpl(Set<Class<?>> injectables, List<Object> instances, Injector.Builder builder, StartupProfile profile) {
         this.injectables = requireNonNull(injectables);
         this.instances = requireNonNull(instances);
         this.builder = requireNonNull(builder);
+        this.profile = profile;
     }
 
     @Override
@@ -180,6 +183,11 @@ public final class InjectorImpl implements Injector {
         return builder;
     }
 
+    @Override
+    public Optional<StartupProfile> getStartupProfile() {
+        return Optional.ofNullable(profile);
+    }
+
     private <T> T findIn(Class<T> type, boolean required) {
         return findIn(this, type, instances, required);
     }
@@ -258,6 +266,7 @@ public final class InjectorImpl implements Injector {
         private final Map<String, Class<?>> injectables;
         private final Map<String, String> overriddenParams;
         private Path configFileLocation;
+        private StartupProfile profile; // Nullable
 
         private Builder() {
             this(Collections.emptySet());
@@ -335,6 +344,12 @@ public final class InjectorImpl implements Injector {
             return this;
         }
 
+        @Override
+        public Builder withStartupProfile(StartupProfile profile) {
+            this.profile = profile;
+            return this;
+        }
+
         @Override
         public Builder putParam(String key, String value) {
             overriddenParams.put(key, value);
@@ -378,7 +393,9 @@ public final class InjectorImpl implements Injector {
                     printLine();
                 }
 
+                final long start = System.nanoTime();
                 final Object instance = newInstance(injectable, properties);
+                record(StartupProfile.Kind.CREATE, injectable.getSimpleName(), injectable, start);
                 instances.addFirst(instance);
 //                instances.add(instance);
             }
@@ -387,10 +404,12 @@ public final class InjectorImpl implements Injector {
             final Injector injector = new InjectorImpl(
                 injectablesSet,
                 unmodifiableList(instances),
-                this
+                this,
+                profile
             );
 
             // Set the auto-injected fields
+            final long injectStart = System.nanoTime();
             instances.forEach(instance -> {
                 final Set<Field> fields = traverseFields(instance.getClass())
                     .filter(f -> f.isAnnotationPresent(Inject.class))
@@ -419,6 +438,7 @@ public final class InjectorImpl implements Injector {
                     }
                 }
             });
+            record(StartupProfile.Kind.INJECT, "Inject fields", null, injectStart);
 
             final AtomicBoolean hasAnythingChanged = new AtomicBoolean();
             final AtomicInteger nextState = new AtomicInteger(0);
@@ -428,6 +448,7 @@ public final class InjectorImpl implements Injector {
 
             // Go through every state up and including STARTED.
             while (nextState.get() <= State.STARTED.ordinal()) {
+                final long stateStart = System.nanoTime();
 
                 // Get a set of the nodes that has not yet reached that state,
                 // and operate upon it until it is empty
@@ -460,25 +481,32 @@ public final class InjectorImpl implements Injector {
 
                                     m.setAccessible(true);
 
-                                    // We might want to log exactly which steps we have
-                                    // completed.
-                                    if (LOGGER.getLevel().isEqualOrLowerThan(Level.DEBUG)) {
-                                        final String shortMethodName
+                                    // We might want to log or record exactly which 
+                                    // steps we have completed.
+                                    final String shortMethodName;
+                                    if (profile != null || LOGGER.getLevel().isEqualOrLowerThan(Level.DEBUG)) {
+                                        shortMethodName
                                             = n.getRepresentedType().getSimpleName() + "#"
                                             + m.getName() + "("
                                             + Stream.of(m.getParameters())
                                             .map(p -> p.getType().getSimpleName().substring(0, 1))
                                             .collect(joining(", ")) + ")";
 
-                                        LOGGER.debug(String.format("| -> %-76s |", limit(shortMethodName, 76)));
+                                        if (LOGGER.getLevel().isEqualOrLowerThan(Level.DEBUG)) {
+                                            LOGGER.debug(String.format("| -> %-76s |", limit(shortMethodName, 76)));
+                                        }
+                                    } else {
+                                        shortMethodName = null;
                                     }
 
+                                    final long start = System.nanoTime();
                                     try {
                                         m.invoke(instance, params);
                                     } catch (final IllegalAccessException | IllegalArgumentException | InvocationTargetException ex) {
 
                                         throw new RuntimeException(ex);
                                     }
+                                    record(StartupProfile.Kind.EXECUTE, shortMethodName, n.getRepresentedType(), start);
                                 });
 
                             // Update its state to the new state.
@@ -505,6 +533,9 @@ public final class InjectorImpl implements Injector {
 
                 // Every node has reached the desired state. 
                 // Begin working with the next state.
+                if (nextState.get() > State.CREATED.ordinal()) {
+                    record(StartupProfile.Kind.STATE, STATES[nextState.get()].name(), null, stateStart);
+                }
                 nextState.incrementAndGet();
             }
 
@@ -518,6 +549,12 @@ public final class InjectorImpl implements Injector {
             return injector;
         }
 
+        private void record(StartupProfile.Kind kind, String name, Class<?> owner, long start) {
+            if (profile != null) {
+                profile.record(kind, name, owner, System.nanoTime() - start);
+            }
+        }
+
         private static Properties loadProperties(File configFile) {
             final Properties properties = new Properties();
             if (configFile.exists() && configFile.canRead()) {
@@ -27,8 +27,12 @@ import com.speedment.common.injector.test_c.ChildType;
 import com.speedment.common.injector.test_c.ParentType;
 import org.junit.Test;
 
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -130,6 +134,47 @@ public class InjectorTest {
         assertEquals("Make sure the Bar can still be accessed",      Bar.class, injector.get(Bar.class).get().getClass());
     }
     
+    @Test
+    public void testStartupProfile() {
+        final StartupProfile profile = new StartupProfile();
+        
+        try {
+            Injector.builder()
+                .put(StringIdentityMapper.class)
+                .put(TypeMapperComponent.class)
+                .withStartupProfile(profile)
+                .build();
+        } catch (final InstantiationException ex) {
+            throw new RuntimeException(
+                "Failed to instantiate class.", ex
+            );
+        }
+        
+        final List<String> created = names(profile, StartupProfile.Kind.CREATE);
+        assertTrue(created.contains("StringIdentityMapper"));
+        assertTrue(created.contains("TypeMapperComponent"));
+        assertEquals(1, names(profile, StartupProfile.Kind.INJECT).size());
+        assertEquals(
+            "Every state after CREATED should be recorded",
+            State.STARTED.ordinal(), names(profile, StartupProfile.Kind.STATE).size()
+        );
+        
+        final List<StartupProfile.Entry> executions = profile.entries().stream()
+            .filter(e -> e.getKind() == StartupProfile.Kind.EXECUTE)
+            .collect(toList());
+        assertEquals(1, executions.size());
+        assertEquals("StringIdentityMapper#install(T)", executions.get(0).getName());
+        assertEquals(StringIdentityMapper.class, executions.get(0).getOwner().get());
+        assertTrue(profile.totalNanos() > 0);
+    }
+    
+    private static List<String> names(StartupProfile profile, StartupProfile.Kind kind) {
+        return profile.entries().stream()
+            .filter(e -> e.getKind() == kind)
+            .map(StartupProfile.Entry::getName)
+            .collect(toList());
+    }
+    
     @InjectKey(Foo.class)
     private interface Foo {}
     private final static class Bar implements Foo {}
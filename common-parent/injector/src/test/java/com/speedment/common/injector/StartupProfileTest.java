@@ -0,0 +1,123 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.injector;
+
+import com.speedment.common.injector.StartupProfile.Kind;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author  Per Minborg
+ * @since   1.0.2
+ */
+public class StartupProfileTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    public void testEntriesInOrder() {
+        final StartupProfile profile = new StartupProfile();
+        profile.record(Kind.CREATE, "A", String.class, 2 * MS);
+        profile.record(Kind.STEP, "Step", null, 5 * MS);
+        
+        final List<StartupProfile.Entry> entries = profile.entries();
+        assertEquals(2, entries.size());
+        assertEquals(Kind.CREATE, entries.get(0).getKind());
+        assertEquals(String.class, entries.get(0).getOwner().get());
+        assertEquals("Step", entries.get(1).getName());
+        assertFalse(entries.get(1).getOwner().isPresent());
+        assertEquals(5 * MS, entries.get(1).getNanos());
+    }
+
+    @Test
+    public void testTotalIsStepsIfAny() {
+        final StartupProfile profile = new StartupProfile();
+        profile.record(Kind.CREATE, "A", String.class, 2 * MS);
+        profile.record(Kind.INJECT, "Inject fields", null, 1 * MS);
+        profile.record(Kind.STATE, "STARTED", null, 4 * MS);
+        profile.record(Kind.EXECUTE, "A#start()", String.class, 3 * MS);
+        assertEquals(7 * MS, profile.totalNanos());
+        
+        profile.record(Kind.STEP, "Build injector", null, 8 * MS);
+        profile.record(Kind.STEP, "Load and set project", null, 1 * MS);
+        assertEquals(9 * MS, profile.totalNanos());
+    }
+
+    @Test
+    public void testStepIsRecordedOnException() {
+        final StartupProfile profile = new StartupProfile();
+        try {
+            profile.step("Failing", () -> {
+                throw new IllegalStateException();
+            });
+            fail("Expected an exception");
+        } catch (final IllegalStateException ex) {
+            // Expected
+        }
+        assertEquals(1, profile.entries().size());
+        assertEquals(Kind.STEP, profile.entries().get(0).getKind());
+    }
+
+    @Test
+    public void testNestedStepIsPartOfStep() {
+        final StartupProfile profile = new StartupProfile();
+        final String result = profile.step("Outer", () -> 
+            profile.step("Inner", () -> "result")
+        );
+        assertEquals("result", result);
+        
+        final List<StartupProfile.Entry> entries = profile.entries();
+        assertEquals(2, entries.size());
+        assertEquals("Inner", entries.get(0).getName());
+        assertEquals(1, entries.get(0).getDepth());
+        assertEquals("Outer", entries.get(1).getName());
+        assertEquals(0, entries.get(1).getDepth());
+        assertEquals(entries.get(1).getNanos(), profile.totalNanos());
+        
+        profile.step("Next", () -> {});
+        assertEquals(0, profile.entries().get(2).getDepth());
+    }
+
+    @Test
+    public void testReport() {
+        final StartupProfile profile = new StartupProfile();
+        profile.record(Kind.STEP, "Build injector", null, 10 * MS);
+        profile.record(Kind.CREATE, "Fast", Integer.class, 1 * MS);
+        profile.record(Kind.CREATE, "Slow", String.class, 1 * MS);
+        profile.record(Kind.STATE, "RESOLVED", null, 6 * MS);
+        profile.record(Kind.EXECUTE, "String#load()", String.class, 5 * MS);
+        profile.record(Kind.EXECUTE, "Integer#load()", Integer.class, 2 * MS);
+        
+        final String report = profile.report(1);
+        assertTrue(report, report.contains("Startup took 10.0 ms"));
+        assertTrue(report, report.contains("Build injector"));
+        assertTrue(report, report.contains("Create 2 components"));
+        assertTrue(report, report.contains("RESOLVED"));
+        
+        final String components = report.substring(report.indexOf("Slowest components:"), report.indexOf("Slowest methods:"));
+        assertTrue(report, components.contains("String "));
+        assertFalse("Only the slowest should be listed", components.contains("Integer"));
+        
+        final String methods = report.substring(report.indexOf("Slowest methods:"));
+        assertTrue(report, methods.contains("String#load()"));
+        assertFalse(report, methods.contains("Integer#load()"));
+    }
+}
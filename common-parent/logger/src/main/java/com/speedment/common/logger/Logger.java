@@ -37,6 +37,17 @@ public interface Logger {
      */
     void setLevel(Level level);
 
+    /**
+     * Returns if messages of the specified level are logged by this logger.
+     * This can be used to avoid building messages that would be discarded.
+     *
+     * @param level the level to check
+     * @return if messages of the specified level are logged
+     */
+    default boolean isEnabled(Level level) {
+        return level.isEqualOrHigherThan(getLevel());
+    }
+
     /**
      * Sets the formatter.
      *
@@ -23,5 +23,23 @@ package com.speedment.common.logger;
 public interface LoggerFormatter {
 
     String apply(Level level, String name, String message);
+
+    /**
+     * Formats a message that was logged at the specified time by the 
+     * specified thread. This is used by loggers that format messages in 
+     * another thread than the one that logged them. The default 
+     * implementation ignores the time and the thread.
+     *
+     * @param level      the level of the message
+     * @param name       the name of the logger
+     * @param message    the message
+     * @param timestamp  the time the message was logged, in milliseconds 
+     *                   since the epoch
+     * @param thread     the name of the thread that logged the message
+     * @return           the formatted message
+     */
+    default String apply(Level level, String name, String message, long timestamp, String thread) {
+        return apply(level, name, message);
+    }
     
 }
@@ -16,9 +16,17 @@
  */
 package com.speedment.common.logger;
 
+import com.speedment.common.logger.internal.AsyncLoggerFactory;
 import com.speedment.common.logger.internal.SystemOutLoggerFactory;
 
 /**
+ * Gives access to the {@link LoggerFactory} that creates all loggers.
+ * <p>
+ * By default, loggers write to the standard output in the calling thread.
+ * If the system property {@code speedment.logger.async} is {@code true}, 
+ * they instead pass their messages to a background thread that formats and 
+ * writes them. Since loggers are typically created when a class is loaded,
+ * the property must be set before any logger is created.
  *
  * @author pemi
  */
@@ -26,9 +34,16 @@ public interface LoggerManager {
 
     enum Holder {
         INST;
-        private LoggerFactory defaultFactory = new SystemOutLoggerFactory();
+        private LoggerFactory defaultFactory = Boolean.getBoolean(ASYNC_PROPERTY)
+            ? new AsyncLoggerFactory()
+            : new SystemOutLoggerFactory();
     }
 
+    /**
+     * The system property that selects the asynchronous logger factory.
+     */
+    String ASYNC_PROPERTY = "speedment.logger.async";
+
     static void setFactory(LoggerFactory newFactory) {
         Holder.INST.defaultFactory = newFactory;
     }
@@ -418,47 +418,90 @@ abstract class AbstractLogger implements Logger {
         log(Level.FATAL, throwable, format, arg1, arg2, arg3, args);
     }
 
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.isEqualOrHigherThan(this.level);
+    }
+
+    // The level is checked before anything is allocated, so that disabled 
+    // levels cost no more than a comparison.
+    
     protected void log(Level level, Throwable throwable, String message) {
-        log(level, throwable, () -> message);
+        if (isEnabled(level)) {
+            append(level, throwable, message, NO_ARGS);
+        }
     }
 
     protected void log(Level level, Throwable throwable, String message, Object arg) {
-        log(level, throwable, () -> String.format(message, arg));
+        if (isEnabled(level)) {
+            append(level, throwable, message, new Object[] {arg});
+        }
     }
 
     protected void log(Level level, Throwable throwable, String message, Object arg1, Object arg2) {
-        log(level, throwable, () -> String.format(message, arg1, arg2));
+        if (isEnabled(level)) {
+            append(level, throwable, message, new Object[] {arg1, arg2});
+        }
     }
 
     protected void log(Level level, Throwable throwable, String message, Object arg1, Object arg2, Object arg3) {
-        log(level, throwable, () -> String.format(message, arg1, arg2, arg3));
+        if (isEnabled(level)) {
+            append(level, throwable, message, new Object[] {arg1, arg2, arg3});
+        }
     }
 
     protected void log(Level level, Throwable throwable, String message, Object arg1, Object arg2, Object arg3, Object... args) {
-        log(level, throwable, () -> {
+        if (isEnabled(level)) {
             final Object[] params = new Object[args.length + 3];
             params[0] = arg1;
             params[1] = arg2;
             params[2] = arg3;
             System.arraycopy(args, 0, params, 3, args.length);
-            return String.format(message, params);
-        });
+            append(level, throwable, message, params);
+        }
     }
 
     protected void log(Level msgLevel, Throwable throwable, Supplier<String> supplier) {
-        if (msgLevel.isEqualOrHigherThan(this.level)) {
-            final String logMsg = supplier.get();
-            final String outputMessage = fixMessage(msgLevel, logMsg, throwable);
-            output(outputMessage);
-            if (!listeners.isEmpty()) {
-                final LoggerEvent loggerEvent = new LoggerEventImpl(msgLevel, name, outputMessage);
-                listeners.forEach(l -> l.accept(loggerEvent));
-            }
+        if (isEnabled(msgLevel)) {
+            append(msgLevel, throwable, supplier.get(), NO_ARGS);
         }
     }
 
-    private String fixMessage(Level level, String msg, Throwable throwable) {
-        final StringBuilder sb = new StringBuilder(formatter.apply(level, name, msg));
+    /**
+     * Appends a message that is known to be enabled. If {@code args} is
+     * {@link #NO_ARGS}, the message is used as it is. Otherwise, it is a 
+     * format string for the arguments. The default implementation formats 
+     * and outputs the message in the calling thread.
+     * 
+     * @param level      the level of the message
+     * @param throwable  the throwable to include, or {@code null}
+     * @param message    the message or format string
+     * @param args       the format arguments, or {@link #NO_ARGS}
+     */
+    protected void append(Level level, Throwable throwable, String message, Object[] args) {
+        final String logMsg = args == NO_ARGS ? message : String.format(message, args);
+        final String outputMessage = fixMessage(formatter.apply(level, name, logMsg), throwable);
+        output(outputMessage);
+        if (hasListeners()) {
+            notifyListeners(new LoggerEventImpl(level, name, outputMessage));
+        }
+    }
+
+    final String render(Level level, Throwable throwable, String message, Object[] args, long timestamp, Thread thread) {
+        final String logMsg = args == NO_ARGS ? message : String.format(message, args);
+        return fixMessage(formatter.apply(level, name, logMsg, timestamp, thread.getName()), throwable);
+    }
+
+    final boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    final void notifyListeners(LoggerEvent event) {
+        listeners.forEach(l -> l.accept(event));
+    }
+
+    private String fixMessage(String formatted, Throwable throwable) {
+        final StringBuilder sb = new StringBuilder(formatted);
 
         if (NO_THROWABLE != throwable) {
             final StringWriter writer = new StringWriter();
@@ -470,5 +513,6 @@ abstract class AbstractLogger implements Logger {
         return sb.toString();
     }
 
-    private final static Throwable NO_THROWABLE = null;
+    final static Throwable NO_THROWABLE = null;
+    final static Object[] NO_ARGS = null;
 }
@@ -0,0 +1,277 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.logger.internal;
+
+import com.speedment.common.logger.Level;
+import com.speedment.common.logger.LoggerEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes log messages to a channel from a single background thread.
+ * <p>
+ * Messages are passed to the writer through a pre-allocated ring buffer of
+ * reusable events, so logging allocates nothing but the format arguments. 
+ * Formatting is done by the writer, which encodes all messages that are 
+ * available into a buffer and writes the buffer to the channel when it is 
+ * full or when there are no more messages. If the ring buffer is full, the 
+ * logging thread waits for the writer.
+ * 
+ * @author  Per Minborg
+ * @since   1.0.2
+ */
+final class AsyncLogWriter {
+    
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MILLIS = 1_000;
+    private static final byte[] NEW_LINE = System.lineSeparator().getBytes();
+    
+    private final Event[] ring;
+    private final int mask;
+    private final AtomicLong claimed;   // Next sequence to claim by a producer
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final Charset charset;
+    private final Thread writer;
+    
+    private volatile long consumed;     // Next sequence to be read by the writer
+    private volatile long written;      // All sequences before this are written
+    private volatile boolean parked;
+    private volatile boolean running;
+    
+    AsyncLogWriter(WritableByteChannel channel, int capacity, int bufferSize) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(
+                "Capacity must be a positive power of two, was " + capacity + "."
+            );
+        }
+        
+        this.ring    = new Event[capacity];
+        this.mask    = capacity - 1;
+        this.claimed = new AtomicLong();
+        this.channel = requireNonNull(channel);
+        this.buffer  = ByteBuffer.allocate(bufferSize);
+        this.charset = Charset.defaultCharset();
+        this.running = true;
+        
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Event(i - capacity);
+        }
+        
+        this.writer = new Thread(this::run, "speedment-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    /**
+     * Publishes a message to be written. If {@code level} is {@code null}, 
+     * the message has already been formatted. The time and the calling 
+     * thread are recorded so that they can be included by the formatter.
+     * 
+     * @param logger     the logger that the message is logged to
+     * @param level      the level of the message, or {@code null}
+     * @param throwable  the throwable to include, or {@code null}
+     * @param message    the message or format string
+     * @param args       the format arguments, or {@code null}
+     */
+    void publish(AbstractLogger logger, Level level, Throwable throwable, String message, Object[] args) {
+        final long sequence = claimed.getAndIncrement();
+        while (sequence - consumed >= ring.length) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        
+        final Event event = ring[(int) sequence & mask];
+        event.logger    = logger;
+        event.level     = level;
+        event.throwable = throwable;
+        event.message   = message;
+        event.args      = args;
+        event.timestamp = System.currentTimeMillis();
+        event.thread    = Thread.currentThread();
+        event.sequence  = sequence; // Volatile write publishes the fields
+        
+        if (parked) {
+            LockSupport.unpark(writer);
+        }
+    }
+    
+    /**
+     * Waits until all messages published before this method was called have
+     * been written to the channel, or until the timeout expires.
+     * 
+     * @param timeout  the maximum time to wait
+     * @param unit     the unit of the timeout
+     * @return         {@code true} if all messages were written
+     */
+    boolean flush(long timeout, TimeUnit unit) {
+        final long target   = claimed.get();
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (written < target) {
+            if (System.nanoTime() - deadline > 0 || !writer.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        return true;
+    }
+    
+    /**
+     * Writes all remaining messages and stops the background thread.
+     */
+    void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        long next = 0;
+        while (true) {
+            final Event event = ring[(int) next & mask];
+            if (event.sequence == next) {
+                process(event);
+                event.clear();
+                consumed = ++next;
+            } else {
+                writeBuffer();
+                written = next;
+                if (!running && claimed.get() == next) {
+                    return;
+                }
+                
+                parked = true;
+                if (event.sequence != next) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+    }
+    
+    private void process(Event event) {
+        final String text;
+        try {
+            text = event.level == null 
+                ? event.message 
+                : event.logger.render(event.level, event.throwable, 
+                    event.message, event.args, event.timestamp, event.thread);
+        } catch (final RuntimeException ex) {
+            write(("Could not format log message \"" + event.message + "\": " + ex).getBytes(charset));
+            return;
+        }
+        
+        write(text.getBytes(charset));
+        
+        if (event.level != null && event.logger.hasListeners()) {
+            event.text = text;
+            event.logger.notifyListeners(event);
+        }
+    }
+    
+    private void write(byte[] bytes) {
+        if (bytes.length + NEW_LINE.length > buffer.remaining()) {
+            writeBuffer();
+        }
+        
+        if (bytes.length + NEW_LINE.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+            writeFully(ByteBuffer.wrap(NEW_LINE));
+        } else {
+            buffer.put(bytes).put(NEW_LINE);
+        }
+    }
+    
+    private void writeBuffer() {
+        if (buffer.position() > 0) {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+    }
+    
+    private void writeFully(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (final IOException ex) {
+            System.err.println("Could not write log messages: " + ex.getMessage());
+            bytes.position(bytes.limit());
+        }
+    }
+    
+    /**
+     * A reusable slot in the ring buffer. While listeners are notified, it is
+     * also the event passed to them.
+     */
+    private static final class Event implements LoggerEvent {
+        
+        private volatile long sequence;
+        private AbstractLogger logger;
+        private Level level;
+        private Throwable throwable;
+        private String message;
+        private Object[] args;
+        private long timestamp;
+        private Thread thread;
+        private String text;
+        
+        Event(long sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public Level getLevel() {
+            return level;
+        }
+
+        @Override
+        public String getName() {
+            return logger.getName();
+        }
+
+        @Override
+        public String getMessage() {
+            return text;
+        }
+        
+        void clear() {
+            logger    = null;
+            level     = null;
+            throwable = null;
+            message   = null;
+            args      = null;
+            thread    = null;
+            text      = null;
+        }
+    }
+}
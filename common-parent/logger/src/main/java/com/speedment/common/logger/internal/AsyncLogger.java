@@ -0,0 +1,51 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.logger.internal;
+
+import com.speedment.common.logger.Level;
+import com.speedment.common.logger.LoggerFormatter;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A logger that hands its messages to a background writer instead of 
+ * formatting and writing them in the calling thread. Note that the format
+ * arguments are formatted later, so mutable arguments should not be changed 
+ * after they have been logged.
+ * 
+ * @author  Per Minborg
+ * @since   1.0.2
+ */
+public final class AsyncLogger extends AbstractLogger {
+    
+    private final AsyncLogWriter writer;
+
+    AsyncLogger(String name, LoggerFormatter formatter, AsyncLogWriter writer) {
+        super(name, formatter);
+        this.writer = requireNonNull(writer);
+    }
+
+    @Override
+    protected void append(Level level, Throwable throwable, String message, Object[] args) {
+        writer.publish(this, level, throwable, message, args);
+    }
+
+    @Override
+    protected void output(String message) {
+        writer.publish(this, null, NO_THROWABLE, message, NO_ARGS);
+    }
+}
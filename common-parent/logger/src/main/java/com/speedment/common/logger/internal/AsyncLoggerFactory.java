@@ -0,0 +1,81 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.logger.internal;
+
+import com.speedment.common.logger.LoggerFormatter;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A factory of loggers that write to a channel from a shared background 
+ * thread. By default, messages are written to the standard output. All 
+ * remaining messages are written when the JVM shuts down.
+ * 
+ * @author  Per Minborg
+ * @since   1.0.2
+ */
+public final class AsyncLoggerFactory extends AbstractLoggerFactory {
+    
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    
+    private final AsyncLogWriter writer;
+
+    public AsyncLoggerFactory() {
+        this(Channels.newChannel(new FileOutputStream(FileDescriptor.out)), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new factory.
+     * 
+     * @param channel   the channel to write to
+     * @param capacity  the number of messages that can be waiting to be 
+     *                  written, must be a power of two
+     */
+    public AsyncLoggerFactory(WritableByteChannel channel, int capacity) {
+        this.writer = new AsyncLogWriter(channel, capacity, DEFAULT_BUFFER_SIZE);
+        Runtime.getRuntime().addShutdownHook(
+            new Thread(writer::close, "speedment-logger-shutdown")
+        );
+    }
+
+    @Override
+    public AsyncLogger make(String binding, LoggerFormatter formatter) {
+        return new AsyncLogger(binding, formatter, writer);
+    }
+
+    @Override
+    public Class<AsyncLogger> loggerClass() {
+        return AsyncLogger.class;
+    }
+
+    /**
+     * Waits until all messages logged before this method was called have been
+     * written, or until the timeout expires.
+     * 
+     * @param timeout  the maximum time to wait
+     * @param unit     the unit of the timeout
+     * @return         {@code true} if all messages were written
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        return writer.flush(timeout, unit);
+    }
+}
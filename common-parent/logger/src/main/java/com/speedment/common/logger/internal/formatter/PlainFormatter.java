@@ -35,4 +35,10 @@ public final class PlainFormatter implements LoggerFormatter {
         return Instant.now() + " " + level.toText() + " [" + Thread.currentThread().getName() + "] (" + name + ") - " + message;
     }
 
+    @Override
+    public String apply(Level level, String name, String message, long timestamp, String thread) {
+        requireNonNulls(level, name);
+        return Instant.ofEpochMilli(timestamp) + " " + level.toText() + " [" + thread + "] (" + name + ") - " + message;
+    }
+
 }
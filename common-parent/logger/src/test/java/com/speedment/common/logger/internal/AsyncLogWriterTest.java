@@ -0,0 +1,201 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.logger.internal;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AsyncLogWriterTest {
+    
+    @Test
+    public void testOrder() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AsyncLogWriter writer = new AsyncLogWriter(Channels.newChannel(out), 8, 64);
+        
+        IntStream.range(0, 1_000).forEach(i -> publish(writer, "Message " + i));
+        assertTrue(writer.flush(10, TimeUnit.SECONDS));
+        
+        assertEquals(
+            IntStream.range(0, 1_000).mapToObj(i -> "Message " + i).collect(toList()), 
+            lines(out)
+        );
+        writer.close();
+    }
+    
+    @Test
+    public void testConcurrentOrder() throws InterruptedException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AsyncLogWriter writer = new AsyncLogWriter(Channels.newChannel(out), 4, 1024);
+        
+        final Thread[] threads = IntStream.range(0, 4)
+            .mapToObj(t -> new Thread(() -> 
+                IntStream.range(0, 500).forEach(i -> publish(writer, t + ":" + i))
+            )).toArray(Thread[]::new);
+        
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(writer.flush(10, TimeUnit.SECONDS));
+        
+        final List<String> lines = lines(out);
+        assertEquals(2_000, lines.size());
+        for (int t = 0; t < threads.length; t++) {
+            final String prefix = t + ":";
+            assertEquals(
+                "The messages of thread " + t + " are out of order",
+                IntStream.range(0, 500).mapToObj(i -> prefix + i).collect(toList()),
+                lines.stream().filter(l -> l.startsWith(prefix)).collect(toList())
+            );
+        }
+        writer.close();
+    }
+    
+    @Test
+    public void testWrapAroundWhenFull() throws InterruptedException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BlockingChannel channel = new BlockingChannel(Channels.newChannel(out));
+        final AsyncLogWriter writer = new AsyncLogWriter(channel, 2, 16);
+        
+        final Thread logging = new Thread(() -> 
+            IntStream.range(0, 10).forEach(i -> publish(writer, "Message " + i))
+        );
+        logging.start();
+        
+        // The writer is stuck on the first message, so the ring fills up
+        logging.join(200);
+        assertTrue("The logging thread did not wait for the writer", logging.isAlive());
+        assertFalse(writer.flush(50, TimeUnit.MILLISECONDS));
+        
+        channel.release();
+        logging.join(10_000);
+        assertFalse(logging.isAlive());
+        assertTrue(writer.flush(10, TimeUnit.SECONDS));
+        
+        assertEquals(
+            IntStream.range(0, 10).mapToObj(i -> "Message " + i).collect(toList()), 
+            lines(out)
+        );
+        writer.close();
+    }
+    
+    @Test
+    public void testCloseWritesRemaining() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AsyncLogWriter writer = new AsyncLogWriter(Channels.newChannel(out), 1024, 1024);
+        
+        IntStream.range(0, 500).forEach(i -> publish(writer, "Message " + i));
+        writer.close();
+        
+        assertEquals(500, lines(out).size());
+    }
+    
+    @Test
+    public void testMessageLargerThanBuffer() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AsyncLogWriter writer = new AsyncLogWriter(Channels.newChannel(out), 4, 16);
+        
+        final char[] large = new char[100];
+        Arrays.fill(large, 'x');
+        
+        publish(writer, "Small");
+        publish(writer, new String(large));
+        publish(writer, "Small again");
+        writer.close();
+        
+        assertEquals(Arrays.asList("Small", new String(large), "Small again"), lines(out));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityNotPowerOfTwo() {
+        new AsyncLogWriter(Channels.newChannel(new ByteArrayOutputStream()), 3, 16);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacity() {
+        new AsyncLogWriter(Channels.newChannel(new ByteArrayOutputStream()), 0, 16);
+    }
+    
+    static List<String> lines(ByteArrayOutputStream out) {
+        final String text = new String(out.toByteArray());
+        if (text.isEmpty()) {
+            return Arrays.asList();
+        }
+        return Arrays.asList(text.split(System.lineSeparator()));
+    }
+    
+    private static void publish(AsyncLogWriter writer, String message) {
+        writer.publish(null, null, null, message, null);
+    }
+    
+    /**
+     * A channel that blocks all writes until it is released.
+     */
+    private static final class BlockingChannel implements WritableByteChannel {
+        
+        private final WritableByteChannel inner;
+        private final CountDownLatch released;
+
+        BlockingChannel(WritableByteChannel inner) {
+            this.inner    = inner;
+            this.released = new CountDownLatch(1);
+        }
+        
+        void release() {
+            released.countDown();
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            try {
+                released.await();
+            } catch (final InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            return inner.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return inner.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            inner.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.logger.internal;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerEvent;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.speedment.common.logger.internal.AsyncLogWriterTest.lines;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AsyncLoggerFactoryTest {
+    
+    @Test
+    public void testCreate() {
+        final AsyncLoggerFactory factory = new AsyncLoggerFactory(
+            Channels.newChannel(new ByteArrayOutputStream()), 16
+        );
+        
+        final Logger logger = factory.create("test");
+        assertTrue(logger instanceof AsyncLogger);
+        assertSame(logger, factory.create("test"));
+        assertNotSame(logger, factory.create("other"));
+        assertEquals(AsyncLogger.class, factory.loggerClass());
+    }
+    
+    @Test
+    public void testSharedWriter() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final AsyncLoggerFactory factory = new AsyncLoggerFactory(Channels.newChannel(out), 4);
+        factory.setFormatter((level, name, message) -> name + ": " + message);
+        
+        final Logger first  = factory.create("first");
+        final Logger second = factory.create("second");
+        IntStream.range(0, 100).forEach(i -> (i % 2 == 0 ? first : second).info("Message " + i));
+        assertTrue(factory.flush(10, TimeUnit.SECONDS));
+        
+        assertEquals(
+            IntStream.range(0, 100)
+                .mapToObj(i -> (i % 2 == 0 ? "first" : "second") + ": Message " + i)
+                .collect(toList()), 
+            lines(out)
+        );
+    }
+    
+    @Test
+    public void testListeners() {
+        final AsyncLoggerFactory factory = new AsyncLoggerFactory(
+            Channels.newChannel(new ByteArrayOutputStream()), 16
+        );
+        factory.setFormatter((level, name, message) -> message);
+        
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final Logger before = factory.create("before");
+        factory.addListener((LoggerEvent e) -> events.add(e.getName() + ": " + e.getMessage()));
+        final Logger after = factory.create("after");
+        
+        before.info("One");
+        after.info("Two");
+        assertTrue(factory.flush(10, TimeUnit.SECONDS));
+        
+        assertEquals(Arrays.asList("before: One", "after: Two"), events);
+    }
+}
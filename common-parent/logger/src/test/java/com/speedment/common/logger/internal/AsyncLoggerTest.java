@@ -0,0 +1,138 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.common.logger.internal;
+
+import com.speedment.common.logger.Level;
+import com.speedment.common.logger.LoggerFormatter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.speedment.common.logger.internal.AsyncLogWriterTest.lines;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AsyncLoggerTest {
+    
+    private static final LoggerFormatter FORMATTER = new LoggerFormatter() {
+        @Override
+        public String apply(Level level, String name, String message) {
+            throw new UnsupportedOperationException("The time and thread should be used.");
+        }
+
+        @Override
+        public String apply(Level level, String name, String message, long timestamp, String thread) {
+            return level.name() + " " + name + " [" + thread + "] " + message;
+        }
+    };
+    
+    private ByteArrayOutputStream out;
+    private AsyncLogWriter writer;
+    private AsyncLogger logger;
+    
+    @Before
+    public void setUp() {
+        out    = new ByteArrayOutputStream();
+        writer = new AsyncLogWriter(Channels.newChannel(out), 16, 1024);
+        logger = new AsyncLogger("test", FORMATTER, writer);
+    }
+    
+    @After
+    public void tearDown() {
+        writer.close();
+    }
+    
+    @Test
+    public void testFormat() {
+        final String thread = Thread.currentThread().getName();
+        logger.info("Hello");
+        logger.warn("Hello %s and %d", "world", 42);
+        logger.debug("Not enabled");
+        flush();
+        
+        assertEquals(Arrays.asList(
+            "INFO test [" + thread + "] Hello",
+            "WARN test [" + thread + "] Hello world and 42"
+        ), lines(out));
+    }
+    
+    @Test
+    public void testThrowable() {
+        logger.error(new IllegalStateException("Broken"), "Failed");
+        flush();
+        
+        final List<String> lines = lines(out);
+        assertTrue(lines.get(0).endsWith("] Failed"));
+        assertEquals("java.lang.IllegalStateException: Broken", lines.get(1));
+    }
+    
+    @Test
+    public void testListeners() {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        logger.addListener(e -> events.add(e.getLevel() + "|" + e.getName() + "|" + e.getMessage()));
+        
+        logger.info("One");
+        logger.error("Two %d", 2);
+        logger.trace("Not enabled");
+        flush();
+        
+        final String thread = Thread.currentThread().getName();
+        assertEquals(Arrays.asList(
+            "INFO|test|INFO test [" + thread + "] One",
+            "ERROR|test|ERROR test [" + thread + "] Two 2"
+        ), events);
+    }
+    
+    @Test
+    public void testFormatterFailure() {
+        logger.info("Bad format %d", "not a number");
+        flush();
+        
+        // Messages are formatted by the writer, so flush before switching
+        logger.setFormatter((level, name, message) -> {
+            throw new IllegalStateException("Formatter failed");
+        });
+        logger.info("Failing formatter");
+        flush();
+        
+        logger.setFormatter(FORMATTER);
+        logger.info("Recovered");
+        flush();
+        
+        final List<String> lines = lines(out);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith("Could not format log message \"Bad format %d\""));
+        assertTrue(lines.get(1), lines.get(1).startsWith("Could not format log message \"Failing formatter\""));
+        assertTrue(lines.get(1), lines.get(1).contains("Formatter failed"));
+        assertTrue(lines.get(2), lines.get(2).endsWith("] Recovered"));
+    }
+    
+    private void flush() {
+        assertTrue(writer.flush(10, TimeUnit.SECONDS));
+    }
+}
@@ -25,12 +25,15 @@ import com.speedment.generator.translator.AbstractJavaClassTranslator;
 import com.speedment.generator.translator.TranslatorSupport;
 import com.speedment.runtime.config.Project;
 import com.speedment.runtime.config.Table;
+import com.speedment.runtime.core.manager.Page;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.stream.Collectors;
 
 import static com.speedment.common.codegen.constant.DefaultType.list;
@@ -41,6 +44,9 @@ import static com.speedment.common.codegen.constant.DefaultType.list;
  * @since  1.0.0
  */
 public final class GeneratedControllerTranslator extends AbstractJavaClassTranslator<Table, Class> {
+    
+    private static final Type HTTP_SERVLET_RESPONSE = 
+        SimpleType.create("javax.servlet.http.HttpServletResponse");
 
     private @Inject Injector injector;
     
@@ -76,10 +82,11 @@ public final class GeneratedControllerTranslator extends AbstractJavaClassTransl
                 file.add(Import.of(RequestMethod.class).static_().setStaticMember("GET"));
                 file.add(Import.of(Collectors.class).static_().setStaticMember("toList"));
                 
-                clazz.add(Method.of("get", list(getSupport().entityType()))
+                final String path = "/" + getSupport().variableName();
+                final Method get = Method.of("get", list(getSupport().entityType()))
                     .public_()
                     .add(AnnotationUsage.of(RequestMapping.class)
-                        .put("value", Value.ofText("/" + getSupport().variableName()))
+                        .put("value", Value.ofText(path))
                         .put("method", Value.ofReference("GET"))
                     )
                     .add(Field.of("start", long.class)
@@ -94,13 +101,62 @@ public final class GeneratedControllerTranslator extends AbstractJavaClassTransl
                             .put("defaultValue", Value.ofText("25"))
                         )
                     )
+                    .add(Field.of("response", HTTP_SERVLET_RESPONSE))
+                    .add(IOException.class)
                     .add(
+                        "if (start < 0 || limit < 1 || limit > Integer.MAX_VALUE) {",
+                        "    response.sendError(HttpServletResponse.SC_BAD_REQUEST, \"Invalid start or limit.\");",
+                        "    return null;",
+                        "}",
+                        ""
+                    );
+                
+                // Tables with a primary key are paged using keyset pagination
+                // so that deep pages are as fast as the first one. The link to
+                // the next page is returned in a "Link" header.
+                if (table.primaryKeyColumns().findAny().isPresent()) {
+                    file.add(Import.of(Page.class));
+                    file.add(Import.of(Collections.class).static_().setStaticMember("emptyList"));
+                    
+                    get.add(Field.of("after", String.class)
+                            .add(AnnotationUsage.of(RequestParam.class)
+                                .put("value", Value.ofText("after"))
+                                .put("required", Value.ofBoolean(false))
+                            )
+                        )
+                        .add(
+                            "if (start > 0) {",
+                            "    return manager.stream()",
+                            "        .skip(start)",
+                            "        .limit(limit)",
+                            "        .collect(toList());",
+                            "}",
+                            "",
+                            "final Page<" + getSupport().typeName() + "> page;",
+                            "try {",
+                            "    page = manager.page(emptyList(), Math.toIntExact(limit), after);",
+                            "} catch (final IllegalArgumentException ex) {",
+                            "    // The token was malformed or not issued for this endpoint",
+                            "    response.sendError(HttpServletResponse.SC_BAD_REQUEST, \"Invalid after token.\");",
+                            "    return null;",
+                            "}",
+                            "",
+                            "page.getNextToken().ifPresent(token -> response.setHeader(\"Link\",",
+                            "    \"<" + path + "?after=\" + token + \"&limit=\" + limit + \">; rel=\\\"next\\\"\"",
+                            "));",
+                            "",
+                            "return page.getContent();"
+                        );
+                } else {
+                    get.add(
                         "return manager.stream()",
                         "    .skip(start)",
                         "    .limit(limit)",
                         "    .collect(toList());"
-                    )
-                );
+                    );
+                }
+                
+                clazz.add(get);
             }).build();
     }
     
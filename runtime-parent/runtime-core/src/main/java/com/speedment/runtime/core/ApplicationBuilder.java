@@ -70,7 +70,16 @@ public interface ApplicationBuilder<APP extends Speedment, BUILDER extends Appli
          * Logging related to configurating the application platform, dependency 
          * injection, component configuration etc.
          */
-        APPLICATION_BUILDER
+        APPLICATION_BUILDER,
+        
+        /**
+         * A summary of how long it took to build the application, with the 
+         * time of every step, of every component and of every 
+         * {@code @ExecuteBefore}-annotated method. Loading the metadata is
+         * listed as a step of its own within the step that builds the 
+         * injector.
+         */
+        STARTUP
     }
 
     /**
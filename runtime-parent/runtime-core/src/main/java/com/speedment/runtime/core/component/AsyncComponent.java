@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.core.manager.AsyncManager;
+import com.speedment.runtime.core.manager.Manager;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The {@code AsyncComponent} provides the {@code Executor} that asynchronous
+ * database operations are run on. The default implementation uses a bounded
+ * pool of platform threads sized to the connection pool. A platform that
+ * provides lighter threads may plug in a custom implementation of this 
+ * component.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@InjectKey(AsyncComponent.class)
+public interface AsyncComponent {
+
+    /**
+     * Returns the executor that asynchronous database operations should be 
+     * run on. The executor should reject tasks by throwing a 
+     * {@code RejectedExecutionException} when it is saturated rather than 
+     * queueing an unbounded number of tasks.
+     * 
+     * @return  the executor
+     */
+    Executor getExecutor();
+    
+    /**
+     * Returns an {@link AsyncManager} that runs the operations of the 
+     * specified manager on the {@link #getExecutor() executor} of this 
+     * component.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param manager   the manager
+     * @return          an asynchronous view of the manager
+     */
+    default <ENTITY> AsyncManager<ENTITY> asyncManager(Manager<ENTITY> manager) {
+        return AsyncManager.of(manager, getExecutor());
+    }
+}
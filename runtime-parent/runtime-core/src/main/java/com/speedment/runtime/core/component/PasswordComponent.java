@@ -79,4 +79,18 @@ public interface PasswordComponent {
     default Optional<char[]> get(Dbms dbms) {
         return get(dbms.getName());
     }
+    
+    /**
+     * Returns a number that changes every time a password is stored. This 
+     * can be used to know that a password that was read earlier is still 
+     * current without reading it again. The default implementation always 
+     * returns {@code 0}, which means that stored passwords are assumed never
+     * to change.
+     * 
+     * @return  the current version of the stored passwords
+     * @since   3.0.2
+     */
+    default long getVersion() {
+        return 0;
+    }
 }
\ No newline at end of file
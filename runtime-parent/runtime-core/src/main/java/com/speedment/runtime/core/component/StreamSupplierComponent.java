@@ -18,10 +18,17 @@ package com.speedment.runtime.core.component;
 
 import com.speedment.common.injector.annotation.InjectKey;
 import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.internal.manager.DefaultPreparedQuery;
+import com.speedment.runtime.core.internal.manager.KeysetUtil;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.core.manager.PreparedQuery;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 /**
@@ -86,4 +93,57 @@ public interface StreamSupplierComponent {
      * Stops the stream suppler and releases any previously allocated resources.
      */
     default void stop(){}
-}
\ No newline at end of file
+
+    /**
+     * Returns the page of entities that follows the position identified by 
+     * the specified continuation token when the entities are sorted on the 
+     * specified keys. The default implementation sorts all entities in 
+     * memory, which implementations that can seek should override.
+     * 
+     * @param <ENTITY>         the entity type
+     * @param tableIdentifier  the identifier to use
+     * @param keys             the keys to sort on, including the primary key
+     * @param pageSize         the maximum number of entities in the page
+     * @param token            the continuation token, or {@code null} for the
+     *                         first page
+     * @return                 the page
+     * 
+     * @see Manager#page(List, int, String)
+     */
+    default <ENTITY> Page<ENTITY> page(
+            TableIdentifier<ENTITY> tableIdentifier,
+            List<HasComparableOperators<ENTITY, ?>> keys,
+            int pageSize,
+            String token) {
+        
+        return KeysetUtil.page(
+            stream(tableIdentifier, ParallelStrategy.computeIntensityDefault()), 
+            keys, 
+            pageSize, 
+            token
+        );
+    }
+
+    /**
+     * Prepares a query over the specified table from the specified template.
+     * The default implementation analyzes the template once and applies it,
+     * with the new parameter values, to a new stream of the table on every 
+     * execution.
+     * 
+     * @param <ENTITY>         the entity type
+     * @param tableIdentifier  the identifier to use
+     * @param template         the function that adds operations to a stream 
+     *                         of all entities
+     * @return                 the prepared query
+     * 
+     * @see Manager#prepare(UnaryOperator)
+     */
+    default <ENTITY> PreparedQuery<ENTITY> prepare(
+            TableIdentifier<ENTITY> tableIdentifier,
+            UnaryOperator<Stream<ENTITY>> template) {
+        
+        return new DefaultPreparedQuery<>(template, query -> query.apply(
+            stream(tableIdentifier, ParallelStrategy.computeIntensityDefault())
+        ));
+    }
+}
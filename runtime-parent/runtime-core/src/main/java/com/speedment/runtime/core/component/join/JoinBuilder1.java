@@ -0,0 +1,65 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.join;
+
+import com.speedment.runtime.field.trait.HasFinder;
+
+import java.util.function.Predicate;
+
+/**
+ * A builder for a join that so far only contains a single table.
+ *
+ * @param <T0>  the entity type of the first table
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface JoinBuilder1<T0> {
+
+    /**
+     * Adds a condition that the rows of the first table must fulfill. The
+     * predicate must be a field predicate, for example 
+     * {@code Order.TOTAL.greaterThan(100)}.
+     * 
+     * @param predicate  the field predicate
+     * @return           this builder
+     * @throws IllegalArgumentException  if the predicate is not a field 
+     *                                   predicate of the first table
+     */
+    JoinBuilder1<T0> where(Predicate<T0> predicate);
+    
+    /**
+     * Adds the table referenced by the specified foreign key field of the
+     * first table using an {@code INNER JOIN}.
+     * 
+     * @param <T1>        the entity type of the referenced table
+     * @param foreignKey  the foreign key field
+     * @return            a builder for the join of two tables
+     */
+    <T1> JoinBuilder2<T0, T1> innerJoin(HasFinder<T0, T1> foreignKey);
+    
+    /**
+     * Adds the table referenced by the specified foreign key field of the
+     * first table using a {@code LEFT JOIN}. The joined entity is 
+     * {@code null} for rows where the foreign key does not reference any row.
+     * 
+     * @param <T1>        the entity type of the referenced table
+     * @param foreignKey  the foreign key field
+     * @return            a builder for the join of two tables
+     */
+    <T1> JoinBuilder2<T0, T1> leftJoin(HasFinder<T0, T1> foreignKey);
+}
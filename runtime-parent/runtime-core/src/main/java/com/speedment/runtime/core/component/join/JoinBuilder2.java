@@ -0,0 +1,89 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.join;
+
+import com.speedment.common.tuple.Tuple2;
+import com.speedment.common.tuple.Tuple2OfNullables;
+import com.speedment.runtime.field.trait.HasFinder;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A builder for a join of two tables.
+ *
+ * @param <T0>  the entity type of the first table
+ * @param <T1>  the entity type of the second table
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface JoinBuilder2<T0, T1> {
+
+    /**
+     * Adds a condition that the rows of one of the joined tables must 
+     * fulfill. The table is determined by the field of the predicate.
+     * 
+     * @param predicate  the field predicate
+     * @return           this builder
+     * @throws IllegalArgumentException  if the predicate is not a field 
+     *                                   predicate of one of the tables
+     */
+    JoinBuilder2<T0, T1> where(Predicate<?> predicate);
+    
+    /**
+     * Adds the table referenced by the specified foreign key field of any of
+     * the two joined tables using an {@code INNER JOIN}.
+     * 
+     * @param <T2>        the entity type of the referenced table
+     * @param foreignKey  the foreign key field
+     * @return            a builder for the join of three tables
+     * @throws IllegalArgumentException  if the foreign key field does not 
+     *                                   belong to one of the joined tables
+     */
+    <T2> JoinBuilder3<T0, T1, T2> innerJoin(HasFinder<?, T2> foreignKey);
+    
+    /**
+     * Adds the table referenced by the specified foreign key field of any of
+     * the two joined tables using a {@code LEFT JOIN}.
+     * 
+     * @param <T2>        the entity type of the referenced table
+     * @param foreignKey  the foreign key field
+     * @return            a builder for the join of three tables
+     * @throws IllegalArgumentException  if the foreign key field does not 
+     *                                   belong to one of the joined tables
+     */
+    <T2> JoinBuilder3<T0, T1, T2> leftJoin(HasFinder<?, T2> foreignKey);
+    
+    /**
+     * Executes the join and returns a stream of the joined rows. The stream 
+     * should be closed to release the database connection.
+     * 
+     * @return  stream of joined entities
+     * @throws IllegalStateException  if the join contains a {@code LEFT JOIN}
+     */
+    Stream<Tuple2<T0, T1>> stream();
+    
+    /**
+     * Executes the join and returns a stream of the joined rows where an 
+     * entity may be absent because of a {@code LEFT JOIN}. The stream should
+     * be closed to release the database connection.
+     * 
+     * @return  stream of joined entities
+     */
+    Stream<Tuple2OfNullables<T0, T1>> streamOfNullables();
+}
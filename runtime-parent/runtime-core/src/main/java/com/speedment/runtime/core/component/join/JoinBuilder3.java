@@ -0,0 +1,65 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.join;
+
+import com.speedment.common.tuple.Tuple3;
+import com.speedment.common.tuple.Tuple3OfNullables;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A builder for a join of three tables.
+ *
+ * @param <T0>  the entity type of the first table
+ * @param <T1>  the entity type of the second table
+ * @param <T2>  the entity type of the third table
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface JoinBuilder3<T0, T1, T2> {
+
+    /**
+     * Adds a condition that the rows of one of the joined tables must 
+     * fulfill. The table is determined by the field of the predicate.
+     * 
+     * @param predicate  the field predicate
+     * @return           this builder
+     * @throws IllegalArgumentException  if the predicate is not a field 
+     *                                   predicate of one of the tables
+     */
+    JoinBuilder3<T0, T1, T2> where(Predicate<?> predicate);
+    
+    /**
+     * Executes the join and returns a stream of the joined rows. The stream 
+     * should be closed to release the database connection.
+     * 
+     * @return  stream of joined entities
+     * @throws IllegalStateException  if the join contains a {@code LEFT JOIN}
+     */
+    Stream<Tuple3<T0, T1, T2>> stream();
+    
+    /**
+     * Executes the join and returns a stream of the joined rows where an 
+     * entity may be absent because of a {@code LEFT JOIN}. The stream should
+     * be closed to release the database connection.
+     * 
+     * @return  stream of joined entities
+     */
+    Stream<Tuple3OfNullables<T0, T1, T2>> streamOfNullables();
+}
@@ -0,0 +1,51 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.join;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+
+/**
+ * A component that streams the rows of several tables joined along their
+ * foreign keys using a single SQL {@code JOIN} query, as opposed to 
+ * navigating the foreign keys using one query per row.
+ * <p>
+ * Example:
+ * <pre>{@code
+ *     joinComponent.from(orderManager.getTableIdentifier())
+ *         .innerJoin(Order.CUSTOMER_ID)
+ *         .where(Customer.COUNTRY.equal("Sweden"))
+ *         .stream()
+ *         .forEach(t -> System.out.println(t.get0() + " by " + t.get1()));
+ * }</pre>
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@InjectKey(JoinComponent.class)
+public interface JoinComponent {
+
+    /**
+     * Returns a new builder for a join that starts with the table with the
+     * specified identifier.
+     * 
+     * @param <T0>             the entity type of the first table
+     * @param tableIdentifier  the identifier of the first table
+     * @return                 a new join builder
+     */
+    <T0> JoinBuilder1<T0> from(TableIdentifier<T0> tableIdentifier);
+}
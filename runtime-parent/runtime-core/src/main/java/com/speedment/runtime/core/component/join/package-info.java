@@ -0,0 +1,9 @@
+/**
+ * The {@link JoinComponent} and the builders used to stream the rows of 
+ * several tables joined along their foreign keys are located in this 
+ * package.
+ * <p>
+ * This package is part of the API. Modifications to classes here should only
+ * (if ever) be done in major releases.
+ */
+package com.speedment.runtime.core.component.join;
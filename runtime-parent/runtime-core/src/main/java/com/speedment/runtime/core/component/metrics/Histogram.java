@@ -0,0 +1,71 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.metrics;
+
+/**
+ * A histogram of non-negative {@code long} values, typically durations in 
+ * nanoseconds. Values are recorded with a bounded relative error so that 
+ * recording is cheap and the memory used is constant.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface Histogram {
+
+    /**
+     * Records the specified value. Negative values are recorded as zero.
+     * 
+     * @param value  the value to record
+     */
+    void record(long value);
+
+    /**
+     * Returns the number of recorded values.
+     * 
+     * @return  the number of values
+     */
+    long getCount();
+
+    /**
+     * Returns the largest recorded value, or {@code 0} if no values have been
+     * recorded.
+     * 
+     * @return  the maximum value
+     */
+    long getMax();
+
+    /**
+     * Returns the mean of the recorded values, or {@code 0} if no values have
+     * been recorded.
+     * 
+     * @return  the mean value
+     */
+    double getMean();
+
+    /**
+     * Returns a value that the specified percentage of the recorded values 
+     * are less than or equal to, within the precision of the histogram.
+     * 
+     * @param percentile  the percentile between 0 and 100
+     * @return            the value at the percentile, or {@code 0} if no 
+     *                    values have been recorded
+     * 
+     * @throws IllegalArgumentException  if the percentile is not between 0 
+     *                                   and 100
+     */
+    long getValueAtPercentile(double percentile);
+}
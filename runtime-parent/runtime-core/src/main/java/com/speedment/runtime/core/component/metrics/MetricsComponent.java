@@ -0,0 +1,52 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.metrics;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
+
+import java.util.stream.Stream;
+
+/**
+ * Component that collects counters and latency histograms for the database 
+ * operations of each table. The default implementation also exposes the
+ * metrics as MBeans under the {@code com.speedment} JMX domain.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@InjectKey(MetricsComponent.class)
+public interface MetricsComponent {
+
+    /**
+     * Returns the metrics of the specified operation on the specified table,
+     * creating them if this is the first time they are requested.
+     * 
+     * @param tableIdentifier  the table
+     * @param operation        the operation
+     * @return                 the metrics
+     */
+    QueryMetrics metricsOf(TableIdentifier<?> tableIdentifier, Operation operation);
+
+    /**
+     * Returns a stream of all the metrics that have been created.
+     * 
+     * @return  stream of metrics
+     */
+    Stream<QueryMetrics> stream();
+}
@@ -0,0 +1,157 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.metrics;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Counters and latency histograms for one type of operation on one table. 
+ * All methods are thread safe.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface QueryMetrics {
+
+    /**
+     * The type of a database operation.
+     */
+    enum Operation {
+        SELECT, COUNT, INSERT, UPDATE, DELETE;
+    }
+
+    /**
+     * Returns the table that these metrics are for.
+     * 
+     * @return  the table identifier
+     */
+    TableIdentifier<?> getTableIdentifier();
+
+    /**
+     * Returns the operation that these metrics are for.
+     * 
+     * @return  the operation
+     */
+    Operation getOperation();
+
+    /**
+     * Returns the number of operations that have failed.
+     * 
+     * @return  the number of errors
+     */
+    long getErrors();
+
+    /**
+     * Returns the number of rows that have been read from the database.
+     * 
+     * @return  the number of rows read
+     */
+    long getRowsRead();
+
+    /**
+     * Returns the number of entities that the query results have handed to 
+     * their streams. Rows that were read ahead, for an example by 
+     * prefetching, but never consumed are not included.
+     * 
+     * @return  the number of rows returned
+     */
+    long getRowsReturned();
+
+    /**
+     * Returns the fraction of the rows read that were also returned. A low 
+     * ratio means that most rows were read ahead but never consumed, for an 
+     * example because the streams were short-circuited. If no rows have been 
+     * read, {@code 1} is returned.
+     * 
+     * @return  the ratio of rows returned to rows read
+     */
+    default double getReturnRatio() {
+        final long read = getRowsRead();
+        return read == 0 ? 1d : (double) getRowsReturned() / read;
+    }
+
+    /**
+     * Returns the histogram of the total time of each operation in 
+     * nanoseconds. For streams, this is the time from when the query is
+     * executed until the stream is closed. The count of this histogram is the
+     * number of completed operations.
+     * 
+     * @return  the latency histogram
+     */
+    Histogram getLatency();
+
+    /**
+     * Returns the histogram of the time in nanoseconds from when a query is 
+     * executed until the first row has been mapped.
+     * 
+     * @return  the time to first row histogram
+     */
+    Histogram getTimeToFirstRow();
+
+    /**
+     * Returns the histogram of the total time in nanoseconds that each query
+     * has spent mapping rows to entities.
+     * 
+     * @return  the mapping time histogram
+     */
+    Histogram getMappingTime();
+
+    /**
+     * Records that an operation has completed. The elapsed time is added to
+     * the {@link #getLatency() latency histogram} and the operation is 
+     * offered to the slow operation log, which decides whether it should be 
+     * logged. Nothing is formatted in the calling thread.
+     * 
+     * @param elapsedNanos  the time the operation took in nanoseconds
+     * @param rows          the number of rows streamed or affected, only 
+     *                      used for logging
+     * @param sql           the SQL statement, or {@code null}
+     * @param values        the parameters of the statement, or {@code null}
+     * @param pipeline      supplier of a description of the stream pipeline 
+     *                      that issued the query, or {@code null}. It is only
+     *                      invoked if the operation is logged.
+     */
+    void recordCompleted(
+        long elapsedNanos, 
+        long rows, 
+        String sql, 
+        List<?> values, 
+        Supplier<String> pipeline
+    );
+
+    /**
+     * Records that an operation has failed.
+     */
+    void recordError();
+
+    /**
+     * Records that the specified number of rows has been read.
+     * 
+     * @param rows  the number of rows
+     */
+    void recordRowsRead(long rows);
+
+    /**
+     * Records that the specified number of rows has been returned.
+     * 
+     * @param rows  the number of rows
+     */
+    void recordRowsReturned(long rows);
+}
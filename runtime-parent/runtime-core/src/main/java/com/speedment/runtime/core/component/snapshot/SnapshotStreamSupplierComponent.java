@@ -0,0 +1,80 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.component.snapshot;
+
+import com.speedment.common.injector.annotation.InjectKey;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.StreamSupplierComponent;
+
+/**
+ * A {@link StreamSupplierComponent} that serves streams for selected tables 
+ * from an in-memory columnar snapshot instead of from the database. Tables
+ * that are not held as snapshots are delegated to the ordinary SQL stream
+ * supplier.
+ * <p>
+ * Snapshots are loaded lazily the first time a table is streamed and are
+ * then replaced atomically on each reload. Entities that are returned from a
+ * snapshot stream are shared between streams and should therefore not be
+ * modified.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@InjectKey(SnapshotStreamSupplierComponent.class)
+public interface SnapshotStreamSupplierComponent extends StreamSupplierComponent {
+
+    /**
+     * Returns if the table with the specified identifier is served from an
+     * in-memory snapshot by this component.
+     * 
+     * @param tableIdentifier  the identifier to use
+     * @return                 {@code true} if the table is held as a snapshot
+     */
+    boolean isSnapshot(TableIdentifier<?> tableIdentifier);
+    
+    /**
+     * Reloads the snapshot for the table with the specified identifier from
+     * the database. Streams that are already running will complete on the
+     * previous snapshot whereas new streams will see the reloaded data.
+     * 
+     * @param tableIdentifier  the identifier to use
+     * @throws IllegalArgumentException  if the table is not held as a snapshot
+     */
+    void reload(TableIdentifier<?> tableIdentifier);
+    
+    /**
+     * Refreshes the snapshot for the table with the specified identifier by
+     * only fetching the rows that have changed since the snapshot was last
+     * loaded or refreshed. Changed rows are identified using the watermark
+     * column configured for the table and are merged into the snapshot by
+     * primary key. Rows that are deleted from the database are not detected 
+     * by a refresh.
+     * <p>
+     * If no watermark column is configured for the table or the snapshot has
+     * not been loaded yet, this method is equivalent to 
+     * {@link #reload(TableIdentifier)}.
+     * 
+     * @param tableIdentifier  the identifier to use
+     * @throws IllegalArgumentException  if the table is not held as a snapshot
+     */
+    void refresh(TableIdentifier<?> tableIdentifier);
+    
+    /**
+     * Reloads the snapshots of all tables that are held in memory.
+     */
+    void reloadAll();
+}
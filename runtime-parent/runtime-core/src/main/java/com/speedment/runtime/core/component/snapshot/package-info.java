@@ -0,0 +1,8 @@
+/**
+ * The {@link SnapshotStreamSupplierComponent} that serves streams from 
+ * in-memory table snapshots is located in this package.
+ * <p>
+ * This package is part of the API. Modifications to classes here should only
+ * (if ever) be done in major releases.
+ */
+package com.speedment.runtime.core.component.snapshot;
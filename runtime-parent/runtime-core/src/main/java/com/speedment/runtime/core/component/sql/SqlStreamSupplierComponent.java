@@ -19,8 +19,12 @@ package com.speedment.runtime.core.component.sql;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.StreamSupplierComponent;
 import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.stream.reactive.Publisher;
 
 import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * A specialization of the {@link StreamSupplierComponent}-interface that 
@@ -46,4 +50,70 @@ public interface SqlStreamSupplierComponent extends StreamSupplierComponent {
             TableIdentifier<ENTITY> tableIdentifier, 
             SqlFunction<ResultSet, ENTITY> entityMapper
     );
-}
\ No newline at end of file
+    
+    /**
+     * Returns the entity mapper that has been installed for the specified 
+     * table. The mapper reads the enabled columns of the table in the order
+     * they appear in the table, starting with the first column of the 
+     * {@code ResultSet}.
+     * <p>
+     * The default implementation throws an 
+     * {@code UnsupportedOperationException}.
+     * 
+     * @param <ENTITY>         the entity type
+     * @param tableIdentifier  identifier for the table
+     * @return                 the installed entity mapper
+     * @throws NullPointerException  if no mapper is installed for the table
+     */
+    default <ENTITY> SqlFunction<ResultSet, ENTITY> entityMapper(
+            TableIdentifier<ENTITY> tableIdentifier) {
+        
+        throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " does not expose its entity mappers."
+        );
+    }
+    
+    /**
+     * Returns a {@link Publisher} of all the entities in the specified table.
+     * 
+     * @param <ENTITY>         the entity type
+     * @param tableIdentifier  identifier for the table
+     * @return                 a publisher of the entities
+     * 
+     * @see #publisher(TableIdentifier, List)
+     */
+    default <ENTITY> Publisher<ENTITY> publisher(
+            TableIdentifier<ENTITY> tableIdentifier) {
+        return publisher(tableIdentifier, Collections.emptyList());
+    }
+    
+    /**
+     * Returns a {@link Publisher} of the entities in the specified table that 
+     * match all the specified filters. Filters that are field predicates (for
+     * example {@code User.NAME.equal("Bob")}) are rendered into the 
+     * {@code WHERE} clause of the query. Other filters are applied as the rows
+     * are mapped.
+     * <p>
+     * Each subscriber gets a query of its own. The query is executed when 
+     * elements are first requested, and rows are read and mapped in chunks
+     * on a bounded executor only while there is outstanding demand. The 
+     * statement and the connection are closed when all rows have been 
+     * published, on errors and when the subscription is cancelled.
+     * <p>
+     * The default implementation throws an 
+     * {@code UnsupportedOperationException}.
+     * 
+     * @param <ENTITY>         the entity type
+     * @param tableIdentifier  identifier for the table
+     * @param filters          the filters that the entities must match
+     * @return                 a publisher of the matching entities
+     */
+    default <ENTITY> Publisher<ENTITY> publisher(
+            TableIdentifier<ENTITY> tableIdentifier, 
+            List<? extends Predicate<? super ENTITY>> filters) {
+        
+        throw new UnsupportedOperationException(
+            getClass().getSimpleName() + " does not support publishers."
+        );
+    }
+}
@@ -44,4 +44,33 @@ public interface AsynchronousQueryResult<T> extends AutoCloseable {
 
     void setRsMapper(SqlFunction<ResultSet, T> rsMapper);
 
+    /**
+     * Returns the number of seconds the query may execute before the driver
+     * cancels it, or {@code 0} if there is no limit. 
+     * 
+     * @return  the query timeout in seconds
+     */
+    default int getQueryTimeout() {
+        return 0;
+    }
+
+    /**
+     * Sets the number of seconds the query may execute before the driver
+     * cancels it. This must be called before {@link #stream()}. The default 
+     * implementation ignores the timeout.
+     * 
+     * @param seconds  the query timeout in seconds, or {@code 0} for no limit
+     */
+    default void setQueryTimeout(int seconds) {}
+
+    /**
+     * Sets a listener that is called every time the stream of this result 
+     * hands over an entity. Rows that are read ahead, but never consumed, are
+     * not reported. This must be called before {@link #stream()}. The default
+     * implementation ignores the listener.
+     * 
+     * @param listener  the listener to call for every entity
+     */
+    default void setRowListener(Runnable listener) {}
+
 }
\ No newline at end of file
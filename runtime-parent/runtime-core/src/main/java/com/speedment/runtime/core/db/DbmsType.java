@@ -170,4 +170,19 @@ public interface DbmsType {
      * database during speedment startup
      */
     String getInitialQuery();
+
+    /**
+     * Returns the specified query with a clause that limits the number of 
+     * rows returned to the specified number. The default implementation 
+     * appends a {@code LIMIT} clause as understood by MySQL, MariaDB and 
+     * PostgreSQL. Databases that use another syntax should override this 
+     * method.
+     *
+     * @param sql    the query to limit, which may end with an ORDER BY clause
+     * @param limit  the maximum number of rows to return
+     * @return       the limited query
+     */
+    default String applyLimit(String sql, long limit) {
+        return sql + " LIMIT " + limit;
+    }
 }
@@ -18,6 +18,7 @@ package com.speedment.runtime.core.internal;
 
 import com.speedment.common.injector.InjectBundle;
 import com.speedment.common.injector.Injector;
+import com.speedment.common.injector.StartupProfile;
 import com.speedment.common.injector.exception.CyclicReferenceException;
 import com.speedment.common.injector.internal.InjectorImpl;
 import com.speedment.common.logger.Level;
@@ -80,6 +81,9 @@ public abstract class AbstractApplicationBuilder<
         APP extends Speedment, BUILDER extends AbstractApplicationBuilder<APP, BUILDER>> implements ApplicationBuilder<APP, BUILDER> {
 
     private final static Logger LOGGER = LoggerManager.getLogger(AbstractApplicationBuilder.class);
+    public final static String LOGGER_STARTUP_NAME = "#STARTUP";
+    private final static Logger LOGGER_STARTUP = LoggerManager.getLogger(LOGGER_STARTUP_NAME);
+    private final static int STARTUP_REPORT_LIMIT = 10;
 
     private final List<Tuple3<Class<? extends Document>, String, BiConsumer<Injector, ? extends Document>>> withsNamed;
     private final List<Tuple2<Class<? extends Document>, BiConsumer<Injector, ? extends Document>>> withsAll;
@@ -302,6 +306,10 @@ public abstract class AbstractApplicationBuilder<
                 LOGGER.setLevel(Level.DEBUG);
                 break;
             }
+            case STARTUP: {
+                LOGGER_STARTUP.setLevel(Level.DEBUG);
+                break;
+            }
             default: {
                 LOGGER.warn("The log type " + logType.name() + " is not supported.");
             }
@@ -311,26 +319,35 @@ public abstract class AbstractApplicationBuilder<
 
     @Override
     public final APP build() {
-        final Injector inj;
-
-        try {
-            inj = injector.build();
-        } catch (final InstantiationException | CyclicReferenceException ex) {
-            throw new SpeedmentException("Error in dependency injection.", ex);
-        }
+        final StartupProfile profile = new StartupProfile();
+        final Injector inj = profile.step("Build injector", () -> {
+            try {
+                return injector.withStartupProfile(profile).build();
+            } catch (final InstantiationException | CyclicReferenceException ex) {
+                throw new SpeedmentException("Error in dependency injection.", ex);
+            } finally {
+                injector.withStartupProfile(null);
+            }
+        });
 
-        loadAndSetProject(inj);
+        profile.step("Load and set project", () -> loadAndSetProject(inj));
 
-        printWelcomeMessage(inj);
+        profile.step("Print welcome message", () -> printWelcomeMessage(inj));
 
         if (!skipValidateRuntimeConfig) {
-            validateRuntimeConfig(inj);
+            profile.step("Validate runtime configuration", () -> validateRuntimeConfig(inj));
         }
         if (!skipCheckDatabaseConnectivity) {
-            checkDatabaseConnectivity(inj);
+            profile.step("Check database connectivity", () -> checkDatabaseConnectivity(inj));
+        }
+
+        final APP app = profile.step("Build application", () -> build(inj));
+
+        if (LOGGER_STARTUP.getLevel().isEqualOrLowerThan(Level.DEBUG)) {
+            LOGGER_STARTUP.debug(profile.report(STARTUP_REPORT_LIMIT));
         }
 
-        return build(inj);
+        return app;
     }
 
     /**
@@ -23,6 +23,8 @@ import com.speedment.runtime.core.Speedment;
 import com.speedment.runtime.core.component.StreamSupplierComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.component.*;
+import com.speedment.runtime.core.internal.component.join.JoinComponentImpl;
+import com.speedment.runtime.core.internal.component.metrics.MetricsComponentImpl;
 import com.speedment.runtime.core.internal.component.resultset.ResultSetMapperComponentImpl;
 import com.speedment.runtime.core.internal.component.sql.SqlPersistanceComponentImpl;
 import com.speedment.runtime.core.internal.component.sql.SqlStreamSupplierComponentImpl;
@@ -44,10 +46,13 @@ public abstract class AbstractSpeedment implements Speedment {
     public static InjectBundle include() {
         return InjectBundle.of(
             InfoComponentImpl.class,
+            AsyncComponentImpl.class,
             ConnectionPoolComponentImpl.class,
             DbmsHandlerComponentImpl.class,
             EntityManagerImpl.class,
+            JoinComponentImpl.class,
             ManagerComponentImpl.class,
+            MetricsComponentImpl.class,
             PasswordComponentImpl.class,
             ProjectComponentImpl.class,
             ResultSetMapperComponentImpl.class,
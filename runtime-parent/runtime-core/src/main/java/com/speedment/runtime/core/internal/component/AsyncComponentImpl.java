@@ -0,0 +1,102 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component;
+
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.runtime.core.component.AsyncComponent;
+import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.speedment.common.injector.State.STARTED;
+import static com.speedment.common.injector.State.STOPPED;
+
+/**
+ * The default implementation of the {@link AsyncComponent}-interface.
+ * <p>
+ * Operations are run by at most {@link #ASYNC_THREADS} threads. If the 
+ * parameter is {@code 0}, the number of threads equals the number of 
+ * connections that the {@link ConnectionPoolComponent} retains, so that no 
+ * thread has to wait for a connection. At most {@link #ASYNC_QUEUE_SIZE} 
+ * operations may wait for a thread. Additional operations are rejected.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class AsyncComponentImpl implements AsyncComponent {
+    
+    public static final String
+        ASYNC_THREADS    = "async_threads",
+        ASYNC_QUEUE_SIZE = "async_queue_size";
+    
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    
+    private @Config(name=ASYNC_THREADS, value="0") int threads;
+    private @Config(name=ASYNC_QUEUE_SIZE, value="1000") int queueSize;
+    private @Inject ConnectionPoolComponent connectionPoolComponent;
+    
+    private ThreadPoolExecutor executor;
+    
+    @ExecuteBefore(STARTED)
+    void startExecutor() {
+        final int poolSize = threads > 0 
+            ? threads 
+            : Math.max(1, connectionPoolComponent.getMaxRetainSize());
+        
+        final AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            poolSize, 
+            poolSize, 
+            KEEP_ALIVE_SECONDS, 
+            TimeUnit.SECONDS, 
+            new ArrayBlockingQueue<>(Math.max(1, queueSize)), 
+            r -> {
+                final Thread thread = new Thread(r, 
+                    "speedment-async-" + threadNumber.incrementAndGet()
+                );
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+    
+    @ExecuteBefore(STOPPED)
+    void stopExecutor() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    @Override
+    public Executor getExecutor() {
+        if (executor == null) {
+            throw new IllegalStateException(
+                "The executor is only available while the application is running."
+            );
+        }
+        return executor;
+    }
+}
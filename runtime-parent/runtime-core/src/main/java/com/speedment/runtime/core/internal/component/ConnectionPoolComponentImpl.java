@@ -20,29 +20,41 @@ import com.speedment.common.injector.annotation.Inject;
 import com.speedment.common.logger.Logger;
 import com.speedment.common.logger.LoggerManager;
 import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.trait.HasName;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.PasswordComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.connectionpool.ConnectionPoolComponent;
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
 import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.pool.PoolableConnectionImpl;
+import com.speedment.runtime.core.internal.pool.StripedPool;
 import com.speedment.runtime.core.util.DatabaseUtil;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Collection;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
 
 import static com.speedment.runtime.core.util.OptionalUtil.unwrap;
 import static java.util.Objects.requireNonNull;
 
 /**
  * A fully concurrent implementation of a connection pool.
+ * <p>
+ * The idle connections of every combination of URI, user and password are
+ * kept in a {@link StripedPool}, so that threads leasing and returning 
+ * connections at the same time mostly work on different stripes. The pool 
+ * of a {@link Dbms} is looked up once and then kept in a handle together 
+ * with the connection URL, so that leasing a connection for a {@code Dbms} 
+ * does not need to build any key. A handle remembers the configuration 
+ * values and the version of the passwords that it was created from, and is 
+ * replaced if any of them changes. All handles are dropped when a new 
+ * {@link Project} is set.
  *
  * @author Per Minborg
  */
@@ -52,15 +64,31 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
 
     private final static long DEFAULT_MAX_AGE = 30_000;
     private final static int DEFAULT_MIN_POOL_SIZE_PER_DB = 32;
+    private final static int STRIPES = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * The keys of the {@link Dbms} values that the connection URL, user and
+     * password of a handle are derived from.
+     */
+    private final static String[] CONFIG_KEYS = {
+        HasName.NAME, 
+        Dbms.TYPE_NAME, 
+        Dbms.IP_ADDRESS, 
+        Dbms.PORT, 
+        Dbms.CONNECTION_URL, 
+        Dbms.USERNAME
+    };
 
     private long maxAge;
     private int maxRetainSize;
 
     private final Map<Long, PoolableConnection> leasedConnections;
-    private final Map<String, Deque<PoolableConnection>> pools;
+    private final Map<PoolKey, StripedPool<PoolableConnection>> pools;
+    private volatile ProjectHandles handles;
     
     private @Inject DbmsHandlerComponent dbmsHandlerComponent;
     private @Inject PasswordComponent passwordComponent;
+    private @Inject ProjectComponent projectComponent;
 
     public ConnectionPoolComponentImpl() {
         maxAge = DEFAULT_MAX_AGE;
@@ -71,12 +99,44 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     
     @Override
     public PoolableConnection getConnection(Dbms dbms) {
+        final Project project = projectComponent.getProject();
+        ProjectHandles current = handles;
+        if (current == null || current.project != project) {
+            // Handles of a previous project are never used again
+            current = new ProjectHandles(project);
+            handles = current;
+        }
         
-        final String uri      = DatabaseUtil.findConnectionUrl(dbmsHandlerComponent, dbms);
+        final long passwordVersion = passwordComponent.getVersion();
+        DbmsHandle handle = current.handles.get(dbms);
+        if (handle == null || !handle.isCurrent(dbms, passwordVersion)) {
+            handle = newHandle(dbms, passwordVersion);
+            current.handles.put(dbms, handle);
+        }
+
+        return getConnection(handle.uri, handle.username, handle.password, handle.pool);
+    }
+    
+    private DbmsHandle newHandle(Dbms dbms, long passwordVersion) {
         final String username = unwrap(dbms.getUsername());
         final char[] password = unwrap(passwordComponent.get(dbms));
-
-        return getConnection(uri, username, password);
+        final String uri      = DatabaseUtil.findConnectionUrl(dbmsHandlerComponent, dbms);
+        
+        return new DbmsHandle(
+            uri, username, password, 
+            acquirePool(uri, username, password),
+            configOf(dbms), 
+            passwordVersion
+        );
+    }
+    
+    private static Object[] configOf(Dbms dbms) {
+        final Map<String, Object> data = dbms.getData();
+        final Object[] config = new Object[CONFIG_KEYS.length];
+        for (int i = 0; i < CONFIG_KEYS.length; i++) {
+            config[i] = data.get(CONFIG_KEYS[i]);
+        }
+        return config;
     }
 
     @Override
@@ -84,18 +144,20 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         requireNonNull(uri);
         // user nullable
         // password nullable
-        logger.debug("getConnection(" + uri + ", " + user);
-        final String key = makeKey(uri, user, password);
-        final Deque<PoolableConnection> q = acquireDeque(key);
-        final PoolableConnection reusedConnection = pollValidOrNull(q);
+        return getConnection(uri, user, password, acquirePool(uri, user, password));
+    }
+
+    private PoolableConnection getConnection(String uri, String user, char[] password, StripedPool<PoolableConnection> pool) {
+        logger.debug("getConnection(%s, %s)", uri, user);
+        final PoolableConnection reusedConnection = pollValidOrNull(pool);
         if (reusedConnection != null) {
-            logger.debug("Reuse Connection:" + reusedConnection);
+            logger.debug("Reuse Connection:%s", reusedConnection);
             return lease(reusedConnection);
         } else {
             final Connection newRawConnection = newConnection(uri, user, password);
             final PoolableConnection newConnection = new PoolableConnectionImpl(uri, user, password, newRawConnection, System.currentTimeMillis() + getMaxAge());
-            newConnection.setOnClose(() -> returnConnection(newConnection));
-            logger.debug("New Connection:" + newConnection);
+            newConnection.setOnClose(() -> returnConnection(newConnection, pool));
+            logger.debug("New Connection:%s", newConnection);
             return lease(newConnection);
         }
     }
@@ -127,18 +189,21 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     @Override
     public void returnConnection(PoolableConnection connection) {
         requireNonNull(connection);
+        returnConnection(connection, acquirePool(
+            connection.getUri(), 
+            connection.getUser(), 
+            connection.getPassword()
+        ));
+    }
+
+    private void returnConnection(PoolableConnection connection, StripedPool<PoolableConnection> pool) {
         leaseReturn(connection);
         if (!isValidOrNull(connection)) {
             discard(connection);
+        } else if (!pool.offer(connection, getMaxRetainSize())) {
+            discard(connection);
         } else {
-            final String key = makeKey(connection);
-            final Deque<PoolableConnection> q = acquireDeque(key);
-            if (q.size() >= getMaxRetainSize()) {
-                discard(connection);
-            } else {
-                logger.debug("Recycled:" + connection);
-                q.addFirst(connection);
-            }
+            logger.debug("Recycled:%s", connection);
         }
     }
     
@@ -148,7 +213,7 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
 
     private void discard(PoolableConnection connection) {
         requireNonNull(connection);
-        logger.debug("Discard:" + connection);
+        logger.debug("Discard:%s", connection);
         try {
             connection.rawClose();
         } catch (SQLException sqle) {
@@ -176,31 +241,23 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         }
     }
 
-    private PoolableConnection pollValidOrNull(Deque<PoolableConnection> q) {
-        requireNonNull(q);
-        PoolableConnection pc = q.pollLast();
+    private PoolableConnection pollValidOrNull(StripedPool<PoolableConnection> pool) {
+        requireNonNull(pool);
+        PoolableConnection pc = pool.poll();
         while (!isValidOrNull(pc)) {
-            discard(pc); // If we discover an old connection, we discard it from the queue. Otherwise it will not be closed
-            pc = q.pollLast();
+            discard(pc); // If we discover an old connection, we discard it from the pool. Otherwise it will not be closed
+            pc = pool.poll();
         }
         return pc;
     }
 
-    private String makeKey(PoolableConnection connection) {
-        requireNonNull(connection);
-        return makeKey(connection.getUri(), connection.getUser(), connection.getPassword());
-    }
-
-    private String makeKey(String uri, String user, char[] password) {
-        requireNonNull(uri);
-        // user nullable
-        // password nullable
-        return uri + Objects.toString(user) + ((password == null) ? "null" : new String(password));
-    }
-
-    private Deque<PoolableConnection> acquireDeque(String key) {
-        requireNonNull(key);
-        return pools.computeIfAbsent(key, $ -> new ConcurrentLinkedDeque<>());
+    private StripedPool<PoolableConnection> acquirePool(String uri, String user, char[] password) {
+        final PoolKey key = new PoolKey(uri, user, password);
+        final StripedPool<PoolableConnection> pool = pools.get(key);
+        if (pool != null) {
+            return pool; // Avoids locking the bin, which computeIfAbsent does
+        }
+        return pools.computeIfAbsent(key.copy(), $ -> new StripedPool<>(STRIPES));
     }
 
     @Override
@@ -208,7 +265,7 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
         return pools
             .values()
             .stream()
-            .mapToInt(Collection::size)
+            .mapToInt(StripedPool::size)
             .sum();
     }
 
@@ -240,4 +297,120 @@ public class ConnectionPoolComponentImpl implements ConnectionPoolComponent {
     private Logger getLogger() {
         return logger;
     }
+
+    /**
+     * The key of the pool of a URI, user and password combination.
+     */
+    private static final class PoolKey {
+
+        private final String uri;
+        private final String user;      // Nullable
+        private final char[] password;  // Nullable
+        private final int hashCode;
+
+        PoolKey(String uri, String user, char[] password) {
+            this.uri      = requireNonNull(uri);
+            this.user     = user;
+            this.password = password;
+            this.hashCode = 31 * (31 * uri.hashCode() + Objects.hashCode(user)) 
+                + Arrays.hashCode(password);
+        }
+
+        /**
+         * Returns a key that does not share the password array with the 
+         * caller, so that it can be kept in the map.
+         * 
+         * @return  a copy of this key
+         */
+        PoolKey copy() {
+            return new PoolKey(uri, user, password == null ? null : password.clone());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (!(obj instanceof PoolKey)) {
+                return false;
+            }
+            
+            final PoolKey that = (PoolKey) obj;
+            return hashCode == that.hashCode
+                && uri.equals(that.uri)
+                && Objects.equals(user, that.user)
+                && Arrays.equals(password, that.password);
+        }
+    }
+
+    /**
+     * The handles of the {@link Dbms} documents of one {@link Project}.
+     */
+    private static final class ProjectHandles {
+        
+        private final Project project;
+        private final Map<Dbms, DbmsHandle> handles;
+
+        ProjectHandles(Project project) {
+            this.project = requireNonNull(project);
+            this.handles = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * The pool and connection parameters of a {@link Dbms}.
+     */
+    private static final class DbmsHandle {
+
+        private final String uri;
+        private final String username;  // Nullable
+        private final char[] password;  // Nullable
+        private final StripedPool<PoolableConnection> pool;
+        private final Object[] config;
+        private final long passwordVersion;
+
+        DbmsHandle(
+                String uri, 
+                String username, 
+                char[] password, 
+                StripedPool<PoolableConnection> pool, 
+                Object[] config, 
+                long passwordVersion) {
+            
+            this.uri             = requireNonNull(uri);
+            this.username        = username;
+            this.password        = password == null ? null : password.clone();
+            this.pool            = requireNonNull(pool);
+            this.config          = requireNonNull(config);
+            this.passwordVersion = passwordVersion;
+        }
+
+        /**
+         * Returns {@code true} if the values of the specified {@code Dbms}
+         * are the same instances that this handle was created from. Since 
+         * the values are immutable, a changed value is always a new 
+         * instance, so no URL needs to be built to know that it is the same.
+         * 
+         * @param dbms             the dbms
+         * @param passwordVersion  the current version of the passwords
+         * @return                 {@code true} if this handle can be used
+         */
+        boolean isCurrent(Dbms dbms, long passwordVersion) {
+            if (this.passwordVersion != passwordVersion) {
+                return false;
+            }
+            
+            final Map<String, Object> data = dbms.getData();
+            for (int i = 0; i < CONFIG_KEYS.length; i++) {
+                if (data.get(CONFIG_KEYS[i]) != config[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import com.speedment.runtime.core.component.PasswordComponent;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
@@ -30,18 +31,26 @@ import java.util.concurrent.ConcurrentHashMap;
 public final class PasswordComponentImpl implements PasswordComponent {
 
     private final transient Map<String, char[]> passwords;
+    private final AtomicLong version;
 
     public PasswordComponentImpl() {
         this.passwords = new ConcurrentHashMap<>();
+        this.version   = new AtomicLong();
     }
 
     @Override
     public void put(String dbmsName, char[] password) {
         passwords.put(dbmsName, password);
+        version.incrementAndGet();
     }
 
     @Override
     public Optional<char[]> get(String dbmsName) {
         return Optional.ofNullable(passwords.get(dbmsName));
     }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
 }
\ No newline at end of file
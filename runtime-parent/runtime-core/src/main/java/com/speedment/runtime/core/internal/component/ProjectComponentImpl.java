@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.core.internal.component;
 
+import com.speedment.common.injector.Injector;
 import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.WithState;
 import com.speedment.runtime.config.Project;
@@ -36,8 +37,10 @@ public final class ProjectComponentImpl implements ProjectComponent {
     private Project project;
     
     @ExecuteBefore(INITIALIZED)
-    void loadProjectFromMetadata(@WithState(INITIALIZED) ApplicationMetadata metadata) {
-        project = metadata.makeProject();
+    void loadProjectFromMetadata(@WithState(INITIALIZED) ApplicationMetadata metadata, Injector injector) {
+        project = injector.getStartupProfile()
+            .map(profile -> profile.step("Load metadata", metadata::makeProject))
+            .orElseGet(metadata::makeProject);
     }
 
     @Override
@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.join;
+
+import com.speedment.runtime.core.component.join.JoinBuilder1;
+import com.speedment.runtime.core.component.join.JoinBuilder2;
+import com.speedment.runtime.field.trait.HasFinder;
+
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The default implementation of the {@link JoinBuilder1}-interface.
+ *
+ * @param <T0>  the entity type of the first table
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class JoinBuilder1Impl<T0> implements JoinBuilder1<T0> {
+    
+    private final JoinQuery query;
+
+    JoinBuilder1Impl(JoinQuery query) {
+        this.query = requireNonNull(query);
+    }
+
+    @Override
+    public JoinBuilder1<T0> where(Predicate<T0> predicate) {
+        query.where(predicate);
+        return this;
+    }
+
+    @Override
+    public <T1> JoinBuilder2<T0, T1> innerJoin(HasFinder<T0, T1> foreignKey) {
+        query.join(foreignKey, false);
+        return new JoinBuilder2Impl<>(query);
+    }
+
+    @Override
+    public <T1> JoinBuilder2<T0, T1> leftJoin(HasFinder<T0, T1> foreignKey) {
+        query.join(foreignKey, true);
+        return new JoinBuilder2Impl<>(query);
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.join;
+
+import com.speedment.common.tuple.Tuple3;
+import com.speedment.common.tuple.Tuple3OfNullables;
+import com.speedment.common.tuple.Tuples;
+import com.speedment.runtime.core.component.join.JoinBuilder3;
+
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The default implementation of the {@link JoinBuilder3}-interface.
+ *
+ * @param <T0>  the entity type of the first table
+ * @param <T1>  the entity type of the second table
+ * @param <T2>  the entity type of the third table
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class JoinBuilder3Impl<T0, T1, T2> implements JoinBuilder3<T0, T1, T2> {
+    
+    private final JoinQuery query;
+
+    JoinBuilder3Impl(JoinQuery query) {
+        this.query = requireNonNull(query);
+    }
+
+    @Override
+    public JoinBuilder3<T0, T1, T2> where(Predicate<?> predicate) {
+        query.where(predicate);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Tuple3<T0, T1, T2>> stream() {
+        if (query.hasLeftJoin()) {
+            throw new IllegalStateException(
+                "A join with a LEFT JOIN must be streamed using streamOfNullables()."
+            );
+        }
+        
+        return query.stream(row -> Tuples.of((T0) row[0], (T1) row[1], (T2) row[2]));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Tuple3OfNullables<T0, T1, T2>> streamOfNullables() {
+        return query.stream(row -> Tuples.ofNullables((T0) row[0], (T1) row[1], (T2) row[2]));
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.join;
+
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.join.JoinBuilder1;
+import com.speedment.runtime.core.component.join.JoinComponent;
+import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The default implementation of the {@link JoinComponent}-interface.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class JoinComponentImpl implements JoinComponent {
+    
+    private @Inject ProjectComponent projectComponent;
+    private @Inject DbmsHandlerComponent dbmsHandlerComponent;
+    private @Inject SqlStreamSupplierComponent sqlStreamSupplierComponent;
+
+    @Override
+    public <T0> JoinBuilder1<T0> from(TableIdentifier<T0> tableIdentifier) {
+        requireNonNull(tableIdentifier);
+        return new JoinBuilder1Impl<>(new JoinQuery(
+            projectComponent, 
+            dbmsHandlerComponent, 
+            sqlStreamSupplierComponent, 
+            tableIdentifier
+        ));
+    }
+}
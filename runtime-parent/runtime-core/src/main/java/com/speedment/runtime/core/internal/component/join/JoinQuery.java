@@ -0,0 +1,324 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.join;
+
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DatabaseNamingConvention;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.db.SqlPredicateFragment;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.util.DatabaseUtil;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.trait.HasFinder;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The mutable state of a join that is being built. The builders for joins 
+ * of different numbers of tables all delegate to an instance of this class.
+ * <p>
+ * The tables are given the aliases {@code t0}, {@code t1} and so on in the 
+ * order they are added and the selected columns of each table are the 
+ * enabled columns in the order used by the entity mapper of the table.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class JoinQuery {
+    
+    private final ProjectComponent projectComponent;
+    private final DbmsHandlerComponent dbmsHandlerComponent;
+    private final SqlStreamSupplierComponent sqlStreamSupplierComponent;
+    
+    private final List<TableIdentifier<?>> tables;
+    private final List<Join> joins;
+    private final List<FieldPredicate<?>> predicates;
+
+    JoinQuery(
+            ProjectComponent projectComponent, 
+            DbmsHandlerComponent dbmsHandlerComponent, 
+            SqlStreamSupplierComponent sqlStreamSupplierComponent,
+            TableIdentifier<?> first) {
+        
+        this.projectComponent           = requireNonNull(projectComponent);
+        this.dbmsHandlerComponent       = requireNonNull(dbmsHandlerComponent);
+        this.sqlStreamSupplierComponent = requireNonNull(sqlStreamSupplierComponent);
+        
+        this.tables     = new ArrayList<>();
+        this.joins      = new ArrayList<>();
+        this.predicates = new ArrayList<>();
+        
+        this.tables.add(requireNonNull(first));
+    }
+    
+    void where(Predicate<?> predicate) {
+        requireNonNull(predicate);
+        if (!(predicate instanceof FieldPredicate)) {
+            throw new IllegalArgumentException(
+                "Only field predicates can be used in a join, found " + 
+                predicate + "."
+            );
+        }
+        
+        final FieldPredicate<?> fieldPredicate = (FieldPredicate<?>) predicate;
+        indexOf(fieldPredicate.getField().identifier());
+        predicates.add(fieldPredicate);
+    }
+    
+    void join(HasFinder<?, ?> foreignKey, boolean left) {
+        requireNonNull(foreignKey);
+        if (!(foreignKey instanceof Field)) {
+            throw new IllegalArgumentException(
+                "Foreign key " + foreignKey + " is not a field."
+            );
+        }
+        
+        final Field<?> source = (Field<?>) foreignKey;
+        final Field<?> target = foreignKey.getReferencedField();
+        final int sourceIndex = indexOf(source.identifier());
+        
+        final ColumnIdentifier<?> id = target.identifier();
+        final TableIdentifier<?> tableIdentifier = TableIdentifier.of(
+            id.getDbmsName(), id.getSchemaName(), id.getTableName()
+        );
+        
+        if (tables.stream().anyMatch(t -> isSame(t, id))) {
+            throw new IllegalArgumentException(
+                "Table " + tableIdentifier + " is already part of the join."
+            );
+        }
+        
+        tables.add(tableIdentifier);
+        joins.add(new Join(source, target, sourceIndex, left));
+    }
+    
+    boolean hasLeftJoin() {
+        return joins.stream().anyMatch(j -> j.left);
+    }
+    
+    /**
+     * Executes the join and returns a stream where each row has been mapped
+     * to an array of entities (one for each table and in the order the tables
+     * were added) and then converted using the specified function.
+     * 
+     * @param <T>        the element type
+     * @param rowMapper  mapper from an array of entities to an element
+     * @return           stream of elements
+     */
+    <T> Stream<T> stream(Function<Object[], T> rowMapper) {
+        requireNonNull(rowMapper);
+        
+        final Project project = projectComponent.getProject();
+        final TableIdentifier<?> first = tables.get(0);
+        for (final TableIdentifier<?> table : tables) {
+            if (!first.getDbmsName().equals(table.getDbmsName())) {
+                throw new SpeedmentException(
+                    "All tables of a join must be in the same dbms but " + 
+                    table + " is not in the same dbms as " + first + "."
+                );
+            }
+        }
+        
+        final Dbms dbms = DocumentDbUtil.referencedDbms(project, first);
+        final DbmsType dbmsType = DatabaseUtil.dbmsTypeOf(dbmsHandlerComponent, dbms);
+        final DatabaseNamingConvention naming = dbmsType.getDatabaseNamingConvention();
+        
+        final int size = tables.size();
+        final int[] offsets = new int[size];
+        final int[] joinColumns = new int[size];
+        final List<String> columns = new ArrayList<>();
+        final List<Table> tableDocuments = new ArrayList<>(size);
+        
+        for (int i = 0; i < size; i++) {
+            final Table table = DocumentDbUtil.referencedTable(project, tables.get(i));
+            final List<String> names = table.columns()
+                .filter(Column::isEnabled)
+                .map(Column::getName)
+                .collect(toList());
+            
+            offsets[i] = columns.size();
+            for (final String name : names) {
+                columns.add(alias(i) + "." + naming.encloseField(name));
+            }
+            
+            if (i > 0 && joins.get(i - 1).left) {
+                // If the referenced column is null, no row was joined
+                final String target = joins.get(i - 1).target.identifier().getColumnName();
+                final int position = names.indexOf(target);
+                if (position < 0) {
+                    throw new SpeedmentException(
+                        "Column " + target + " of table " + table.getName() + 
+                        " is disabled and can therefore not be used in a left join."
+                    );
+                }
+                
+                joinColumns[i] = offsets[i] + position + 1;
+            }
+            
+            tableDocuments.add(table);
+        }
+        
+        final StringBuilder sql = new StringBuilder()
+            .append("SELECT ").append(columns.stream().collect(joining(",")))
+            .append(" FROM ").append(naming.fullNameOf(tableDocuments.get(0)))
+            .append(" ").append(alias(0));
+        
+        for (int i = 1; i < size; i++) {
+            final Join join = joins.get(i - 1);
+            sql.append(join.left ? " LEFT JOIN " : " INNER JOIN ")
+                .append(naming.fullNameOf(tableDocuments.get(i)))
+                .append(" ").append(alias(i))
+                .append(" ON ").append(columnName(naming, join.sourceIndex, join.source))
+                .append(" = ").append(columnName(naming, i, join.target));
+        }
+        
+        final List<Object> values = new ArrayList<>();
+        if (!predicates.isEmpty()) {
+            sql.append(" WHERE ").append(predicates.stream()
+                .map(p -> fragmentOf(dbmsType, naming, p, values))
+                .collect(joining(" AND "))
+            );
+        }
+        
+        final List<SqlFunction<ResultSet, ?>> mappers = tables.stream()
+            .map(sqlStreamSupplierComponent::entityMapper)
+            .collect(toList());
+        
+        final SqlFunction<ResultSet, T> mapper = new SqlFunction<ResultSet, T>() {
+            
+            private ResultSet current;
+            private final ResultSet[] shifted = new ResultSet[size];
+
+            @Override
+            public T apply(ResultSet rs) throws SQLException {
+                if (rs != current) {
+                    for (int i = 0; i < size; i++) {
+                        shifted[i] = OffsetResultSet.of(rs, offsets[i]);
+                    }
+                    current = rs;
+                }
+                
+                final Object[] row = new Object[size];
+                for (int i = 0; i < size; i++) {
+                    if (joinColumns[i] == 0 || rs.getObject(joinColumns[i]) != null) {
+                        row[i] = mappers.get(i).apply(shifted[i]);
+                    }
+                }
+                
+                return rowMapper.apply(row);
+            }
+        };
+        
+        final AsynchronousQueryResult<T> result = dbmsType.getOperationHandler()
+            .executeQueryAsync(
+                dbms, 
+                sql.toString(), 
+                values, 
+                mapper, 
+                ParallelStrategy.computeIntensityDefault()
+            );
+        
+        return result.stream().onClose(result::close);
+    }
+    
+    private int indexOf(ColumnIdentifier<?> identifier) {
+        for (int i = 0; i < tables.size(); i++) {
+            if (isSame(tables.get(i), identifier)) {
+                return i;
+            }
+        }
+        
+        throw new IllegalArgumentException(
+            "Column " + identifier.getColumnName() + " of table " + 
+            identifier.getTableName() + " is not part of the join."
+        );
+    }
+    
+    private String columnName(DatabaseNamingConvention naming, int index, Field<?> field) {
+        return alias(index) + "." + naming.encloseField(field.identifier().getColumnName());
+    }
+    
+    private <ENTITY> String fragmentOf(
+            DbmsType dbmsType, 
+            DatabaseNamingConvention naming, 
+            FieldPredicate<ENTITY> predicate, 
+            List<Object> values) {
+        
+        final int index = indexOf(predicate.getField().identifier());
+        final SqlPredicateFragment fragment = dbmsType.getFieldPredicateView()
+            .transform(f -> columnName(naming, index, f), predicate);
+        
+        @SuppressWarnings("unchecked")
+        final TypeMapper<Object, Object> typeMapper = 
+            (TypeMapper<Object, Object>) predicate.getField().typeMapper();
+        
+        fragment.objects()
+            .map(typeMapper::toDatabaseType)
+            .forEachOrdered(values::add);
+        
+        return fragment.getSql();
+    }
+    
+    private static String alias(int index) {
+        return "t" + index;
+    }
+    
+    private static boolean isSame(TableIdentifier<?> table, ColumnIdentifier<?> column) {
+        return table.getDbmsName().equals(column.getDbmsName())
+            && table.getSchemaName().equals(column.getSchemaName())
+            && table.getTableName().equals(column.getTableName());
+    }
+    
+    private static final class Join {
+        
+        private final Field<?> source;
+        private final Field<?> target;
+        private final int sourceIndex;
+        private final boolean left;
+
+        Join(Field<?> source, Field<?> target, int sourceIndex, boolean left) {
+            this.source      = requireNonNull(source);
+            this.target      = requireNonNull(target);
+            this.sourceIndex = sourceIndex;
+            this.left        = left;
+        }
+    }
+}
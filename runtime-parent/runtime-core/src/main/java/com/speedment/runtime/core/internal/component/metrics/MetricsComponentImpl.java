@@ -0,0 +1,212 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.metrics.MetricsComponent;
+import com.speedment.runtime.core.component.metrics.QueryMetrics;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.speedment.common.injector.State.STARTED;
+import static com.speedment.common.injector.State.STOPPED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link MetricsComponent}-interface.
+ * <p>
+ * If {@link #METRICS_JMX} is {@code true}, all metrics are registered in the
+ * platform MBean server as 
+ * {@code com.speedment:type=QueryMetrics,table=...,operation=...} while the
+ * application is running.
+ * <p>
+ * If {@link #SLOW_QUERY_LOG} is {@code true}, operations that take longer 
+ * than {@link #SLOW_QUERY_THRESHOLD_MS} are logged by a {@link SlowQueryLog} 
+ * on the {@code #SLOW} logger. The threshold can be overridden for each 
+ * operation and a sample of the faster operations can be logged as well.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class MetricsComponentImpl implements MetricsComponent {
+    
+    private static final Logger LOGGER = LoggerManager.getLogger(MetricsComponentImpl.class);
+
+    public static final String METRICS_JMX = "metrics_jmx",
+        SLOW_QUERY_LOG                  = "slow_query_log",
+        SLOW_QUERY_THRESHOLD_MS         = "slow_query_threshold_ms",
+        SLOW_SELECT_THRESHOLD_MS        = "slow_select_threshold_ms",
+        SLOW_COUNT_THRESHOLD_MS         = "slow_count_threshold_ms",
+        SLOW_INSERT_THRESHOLD_MS        = "slow_insert_threshold_ms",
+        SLOW_UPDATE_THRESHOLD_MS        = "slow_update_threshold_ms",
+        SLOW_DELETE_THRESHOLD_MS        = "slow_delete_threshold_ms",
+        SLOW_QUERY_SAMPLE_INTERVAL      = "slow_query_sample_interval",
+        SLOW_QUERY_MAX_PARAMETER_LENGTH = "slow_query_max_parameter_length",
+        SLOW_QUERY_REDACT_PARAMETERS    = "slow_query_redact_parameters";
+    
+    private static final String DOMAIN = "com.speedment";
+    
+    private final Map<List<Object>, QueryMetricsImpl> metrics;
+    private final SlowQueryLog slowQueryLog;
+    
+    private @Config(name=METRICS_JMX, value="true") boolean jmx;
+    private @Config(name=SLOW_QUERY_LOG, value="true") boolean slowLog;
+    private @Config(name=SLOW_QUERY_THRESHOLD_MS, value="1000") long threshold;
+    private @Config(name=SLOW_SELECT_THRESHOLD_MS, value="-1") long selectThreshold;
+    private @Config(name=SLOW_COUNT_THRESHOLD_MS, value="-1") long countThreshold;
+    private @Config(name=SLOW_INSERT_THRESHOLD_MS, value="-1") long insertThreshold;
+    private @Config(name=SLOW_UPDATE_THRESHOLD_MS, value="-1") long updateThreshold;
+    private @Config(name=SLOW_DELETE_THRESHOLD_MS, value="-1") long deleteThreshold;
+    private @Config(name=SLOW_QUERY_SAMPLE_INTERVAL, value="0") int sampleInterval;
+    private @Config(name=SLOW_QUERY_MAX_PARAMETER_LENGTH, value="64") int maxParameterLength;
+    private @Config(name=SLOW_QUERY_REDACT_PARAMETERS, value="false") boolean redactParameters;
+    
+    private boolean registered; // Guarded by this
+    
+    public MetricsComponentImpl() {
+        this.metrics      = new ConcurrentHashMap<>();
+        this.slowQueryLog = new SlowQueryLog();
+    }
+    
+    @ExecuteBefore(STARTED)
+    void startSlowQueryLog() {
+        if (slowLog) {
+            final Map<Operation, Long> thresholds = new EnumMap<>(Operation.class);
+            thresholds.put(Operation.SELECT, thresholdNanos(selectThreshold));
+            thresholds.put(Operation.COUNT,  thresholdNanos(countThreshold));
+            thresholds.put(Operation.INSERT, thresholdNanos(insertThreshold));
+            thresholds.put(Operation.UPDATE, thresholdNanos(updateThreshold));
+            thresholds.put(Operation.DELETE, thresholdNanos(deleteThreshold));
+            
+            slowQueryLog.start(
+                thresholds, 
+                sampleInterval, 
+                maxParameterLength, 
+                redactParameters
+            );
+        }
+    }
+    
+    @ExecuteBefore(STOPPED)
+    void stopSlowQueryLog() {
+        slowQueryLog.stop();
+    }
+    
+    @ExecuteBefore(STARTED)
+    synchronized void registerMBeans() {
+        if (jmx) {
+            metrics.values().forEach(this::register);
+            registered = true;
+        }
+    }
+    
+    @ExecuteBefore(STOPPED)
+    synchronized void unregisterMBeans() {
+        if (registered) {
+            metrics.values().forEach(this::unregister);
+            registered = false;
+        }
+    }
+
+    @Override
+    public QueryMetrics metricsOf(TableIdentifier<?> tableIdentifier, Operation operation) {
+        final List<Object> key = Arrays.asList(
+            requireNonNull(tableIdentifier), 
+            requireNonNull(operation)
+        );
+        
+        final QueryMetricsImpl existing = metrics.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        
+        synchronized (this) {
+            return metrics.computeIfAbsent(key, k -> {
+                final QueryMetricsImpl created = 
+                    new QueryMetricsImpl(tableIdentifier, operation, slowQueryLog);
+                
+                if (registered) {
+                    register(created);
+                }
+                
+                return created;
+            });
+        }
+    }
+
+    @Override
+    public Stream<QueryMetrics> stream() {
+        return metrics.values().stream().map(QueryMetrics.class::cast);
+    }
+    
+    private void register(QueryMetricsImpl queryMetrics) {
+        try {
+            server().registerMBean(queryMetrics, objectNameOf(queryMetrics));
+        } catch (final JMException ex) {
+            LOGGER.warn(ex, "Could not register metrics for " + queryMetrics.getTable() + " in JMX.");
+        }
+    }
+    
+    private void unregister(QueryMetricsImpl queryMetrics) {
+        try {
+            server().unregisterMBean(objectNameOf(queryMetrics));
+        } catch (final JMException ex) {
+            LOGGER.warn(ex, "Could not unregister metrics for " + queryMetrics.getTable() + " from JMX.");
+        }
+    }
+    
+    /**
+     * Returns the threshold in nanoseconds for an operation that has the 
+     * specified threshold in milliseconds configured. A negative value means
+     * that the general threshold should be used.
+     * 
+     * @param operationMillis  the threshold configured for the operation
+     * @return                 the threshold to use in nanoseconds
+     */
+    private long thresholdNanos(long operationMillis) {
+        return TimeUnit.MILLISECONDS.toNanos(
+            operationMillis < 0 ? threshold : operationMillis
+        );
+    }
+    
+    private static MBeanServer server() {
+        return ManagementFactory.getPlatformMBeanServer();
+    }
+    
+    static ObjectName objectNameOf(QueryMetricsImpl queryMetrics) throws JMException {
+        return new ObjectName(DOMAIN + 
+            ":type=QueryMetrics" + 
+            ",table=" + ObjectName.quote(queryMetrics.getTable()) + 
+            ",operation=" + queryMetrics.getOperationName().toLowerCase()
+        );
+    }
+}
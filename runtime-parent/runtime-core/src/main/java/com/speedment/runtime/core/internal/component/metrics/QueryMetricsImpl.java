@@ -0,0 +1,195 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.metrics.Histogram;
+import com.speedment.runtime.core.component.metrics.QueryMetrics;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link QueryMetrics}-interface.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class QueryMetricsImpl implements QueryMetrics, QueryMetricsMXBean {
+
+    private final TableIdentifier<?> tableIdentifier;
+    private final Operation operation;
+    private final LongAdder errors;
+    private final LongAdder rowsRead;
+    private final LongAdder rowsReturned;
+    private final Histogram latency;
+    private final Histogram timeToFirstRow;
+    private final Histogram mappingTime;
+    private final SlowQueryLog slowQueryLog;
+
+    public QueryMetricsImpl(
+            TableIdentifier<?> tableIdentifier, 
+            Operation operation, 
+            SlowQueryLog slowQueryLog) {
+        
+        this.tableIdentifier = requireNonNull(tableIdentifier);
+        this.operation       = requireNonNull(operation);
+        this.slowQueryLog    = requireNonNull(slowQueryLog);
+        this.errors          = new LongAdder();
+        this.rowsRead        = new LongAdder();
+        this.rowsReturned    = new LongAdder();
+        this.latency         = new LatencyHistogram();
+        this.timeToFirstRow  = new LatencyHistogram();
+        this.mappingTime     = new LatencyHistogram();
+    }
+
+    @Override
+    public TableIdentifier<?> getTableIdentifier() {
+        return tableIdentifier;
+    }
+
+    @Override
+    public Operation getOperation() {
+        return operation;
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    @Override
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    @Override
+    public double getReturnRatio() {
+        return QueryMetrics.super.getReturnRatio();
+    }
+
+    @Override
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public Histogram getTimeToFirstRow() {
+        return timeToFirstRow;
+    }
+
+    @Override
+    public Histogram getMappingTime() {
+        return mappingTime;
+    }
+
+    @Override
+    public void recordCompleted(
+            long elapsedNanos, 
+            long rows, 
+            String sql, 
+            List<?> values, 
+            Supplier<String> pipeline) {
+        
+        latency.record(elapsedNanos);
+        slowQueryLog.offer(this, elapsedNanos, rows, sql, values, pipeline);
+    }
+
+    @Override
+    public void recordError() {
+        errors.increment();
+    }
+
+    @Override
+    public void recordRowsRead(long rows) {
+        rowsRead.add(rows);
+    }
+
+    @Override
+    public void recordRowsReturned(long rows) {
+        rowsReturned.add(rows);
+    }
+
+    @Override
+    public String getTable() {
+        return tableIdentifier.getDbmsName() + "." + 
+            tableIdentifier.getSchemaName() + "." + 
+            tableIdentifier.getTableName();
+    }
+
+    @Override
+    public String getOperationName() {
+        return operation.name();
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public double getLatencyMean() {
+        return latency.getMean();
+    }
+
+    @Override
+    public long getLatencyP50() {
+        return latency.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99() {
+        return latency.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getLatencyMax() {
+        return latency.getMax();
+    }
+
+    @Override
+    public long getTimeToFirstRowP50() {
+        return timeToFirstRow.getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getTimeToFirstRowP99() {
+        return timeToFirstRow.getValueAtPercentile(99);
+    }
+
+    @Override
+    public double getMappingTimeMean() {
+        return mappingTime.getMean();
+    }
+
+    @Override
+    public String toString() {
+        return getTable() + " " + operation + 
+            " {errors=" + getErrors() + 
+            ", rowsRead=" + getRowsRead() + 
+            ", rowsReturned=" + getRowsReturned() + 
+            ", latency=[" + latency + "]}";
+    }
+}
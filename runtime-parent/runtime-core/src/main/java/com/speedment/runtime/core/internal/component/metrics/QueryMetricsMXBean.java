@@ -0,0 +1,55 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+/**
+ * The JMX view of the metrics of one operation on one table. Durations are
+ * in nanoseconds.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface QueryMetricsMXBean {
+
+    String getTable();
+    
+    String getOperationName();
+
+    long getCount();
+    
+    long getErrors();
+
+    long getRowsRead();
+
+    long getRowsReturned();
+    
+    double getReturnRatio();
+
+    double getLatencyMean();
+    
+    long getLatencyP50();
+    
+    long getLatencyP99();
+    
+    long getLatencyMax();
+    
+    long getTimeToFirstRowP50();
+    
+    long getTimeToFirstRowP99();
+    
+    double getMappingTimeMean();
+}
@@ -0,0 +1,168 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+import com.speedment.runtime.core.component.metrics.QueryMetrics;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+
+import java.sql.ResultSet;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Collects the measurements of a single query and adds them to the 
+ * {@link QueryMetrics} of its table when the query is closed. Rows and 
+ * mapping time are summed locally so that the shared metrics are only 
+ * updated once per query.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class QueryRecorder {
+    
+    private final QueryMetrics metrics;
+    private final LongAdder rowsRead;
+    private final LongAdder rowsReturned;
+    private final LongAdder mappingNanos;
+    private final AtomicBoolean firstRow;
+    private final AtomicBoolean closed;
+    private volatile boolean started;
+    private volatile long startNanos;
+    private volatile AsynchronousQueryResult<?> query;
+    private volatile Supplier<String> pipeline;
+
+    public QueryRecorder(QueryMetrics metrics) {
+        this.metrics      = requireNonNull(metrics);
+        this.rowsRead     = new LongAdder();
+        this.rowsReturned = new LongAdder();
+        this.mappingNanos = new LongAdder();
+        this.firstRow     = new AtomicBoolean();
+        this.closed       = new AtomicBoolean();
+    }
+    
+    /**
+     * Marks that the query is about to be executed. Nothing is recorded for 
+     * a query that is never started.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        started = true;
+    }
+    
+    /**
+     * Returns a mapper that delegates to the specified mapper and measures 
+     * the rows it reads and the time spent mapping them.
+     * 
+     * @param <T>     the entity type
+     * @param mapper  the mapper to measure
+     * @return        the measuring mapper
+     */
+    public <T> SqlFunction<ResultSet, T> mapper(SqlFunction<ResultSet, T> mapper) {
+        requireNonNull(mapper);
+        return rs -> {
+            final long before = System.nanoTime();
+            final T entity = mapper.apply(rs);
+            final long after = System.nanoTime();
+            
+            if (!firstRow.get() && firstRow.compareAndSet(false, true)) {
+                metrics.getTimeToFirstRow().record(after - startNanos);
+            }
+            
+            rowsRead.increment();
+            mappingNanos.add(after - before);
+            return entity;
+        };
+    }
+    
+    /**
+     * Sets the query result that this recorder measures. Its SQL and values 
+     * are read when the query is closed so that any filters pushed down to 
+     * the database are included.
+     * 
+     * @param query  the query result
+     */
+    public void setQuery(AsynchronousQueryResult<?> query) {
+        this.query = requireNonNull(query);
+    }
+    
+    /**
+     * Takes a snapshot of the actions of the stream that issued the query, 
+     * so that it can be described if the query is logged.
+     * 
+     * @param pipeline  the pipeline before it is optimized
+     */
+    public void setPipeline(Pipeline pipeline) {
+        final Action<?, ?>[] actions = pipeline.stream().toArray(Action<?, ?>[]::new);
+        this.pipeline = () -> describe(actions);
+    }
+    
+    /**
+     * Records that the query result has handed one entity to the stream.
+     */
+    public void returned() {
+        rowsReturned.increment();
+    }
+    
+    /**
+     * Records that the query has failed.
+     */
+    public void error() {
+        metrics.recordError();
+    }
+    
+    /**
+     * Adds the measurements of the query to the metrics of the table. This 
+     * method is idempotent.
+     */
+    public void close() {
+        if (started && closed.compareAndSet(false, true)) {
+            final long elapsed = System.nanoTime() - startNanos;
+            final AsynchronousQueryResult<?> q = query;
+            metrics.recordCompleted(elapsed, rowsRead.sum(),
+                q == null ? null : q.getSql(),
+                q == null ? null : q.getValues(),
+                pipeline
+            );
+            metrics.getMappingTime().record(mappingNanos.sum());
+            metrics.recordRowsRead(rowsRead.sum());
+            metrics.recordRowsReturned(rowsReturned.sum());
+        }
+    }
+    
+    static String describe(Action<?, ?>[] actions) {
+        final StringBuilder str = new StringBuilder("source");
+        for (final Action<?, ?> action : actions) {
+            final String name = action.getClass().getSimpleName();
+            final String operation = name.endsWith("Action") 
+                ? name.substring(0, name.length() - "Action".length()) 
+                : name;
+            
+            str.append(" -> ");
+            if (!operation.isEmpty()) {
+                str.append(Character.toLowerCase(operation.charAt(0)))
+                    .append(operation, 1, operation.length());
+            }
+        }
+        return str.toString();
+    }
+}
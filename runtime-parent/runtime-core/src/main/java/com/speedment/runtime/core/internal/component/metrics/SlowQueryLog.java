@@ -0,0 +1,308 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A log of operations that took longer than a configurable threshold, 
+ * optionally complemented with a random sample of the faster ones. 
+ * <p>
+ * The calling thread only decides whether an operation should be logged and, 
+ * if so, puts it in a bounded queue. Formatting and logging is done by a 
+ * background thread. If the queue is full, the entry is dropped and counted 
+ * rather than blocking the caller.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class SlowQueryLog {
+    
+    private static final Logger LOGGER = LoggerManager.getLogger(SlowQueryLog.class);
+    public static final String LOGGER_SLOW_NAME = "#SLOW";
+    private static final Logger LOGGER_SLOW = LoggerManager.getLogger(LOGGER_SLOW_NAME);
+    
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int MAX_PARAMETERS = 32;
+    private static final String THREAD_NAME = "speedment-slow-query-log";
+    
+    private final BlockingQueue<Entry> queue;
+    private final LongAdder dropped;
+    private volatile Settings settings; // null if disabled
+    private Thread worker;              // Guarded by this
+    
+    public SlowQueryLog() {
+        this.queue   = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.dropped = new LongAdder();
+    }
+    
+    /**
+     * Starts logging operations.
+     * 
+     * @param thresholdNanos      the threshold in nanoseconds for each 
+     *                            operation. Operations that are missing in 
+     *                            the map are only sampled.
+     * @param sampleInterval      log about one in this many fast operations, 
+     *                            or {@code 0} to not log any fast operations
+     * @param maxParameterLength  the maximum number of characters of each 
+     *                            parameter to include
+     * @param redact              if the parameters should be replaced by 
+     *                            their type names
+     */
+    public synchronized void start(
+            Map<Operation, Long> thresholdNanos, 
+            int sampleInterval, 
+            int maxParameterLength, 
+            boolean redact) {
+        
+        enable(thresholdNanos, sampleInterval, maxParameterLength, redact);
+        if (worker == null) {
+            worker = new Thread(this::run, THREAD_NAME);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+    
+    /**
+     * Stops logging operations. Entries that are already queued are logged 
+     * before the background thread terminates, using the settings that were
+     * in effect when they were offered.
+     */
+    public synchronized void stop() {
+        settings = null;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+    
+    /**
+     * Offers a completed operation to the log. This method returns 
+     * immediately and does not format anything.
+     * 
+     * @param metrics       the metrics of the table and operation
+     * @param elapsedNanos  the time the operation took in nanoseconds
+     * @param rows          the number of rows streamed or affected
+     * @param sql           the SQL statement, or {@code null}
+     * @param values        the parameters of the statement, or {@code null}
+     * @param pipeline      supplier of the shape of the stream pipeline, or 
+     *                      {@code null}
+     */
+    public void offer(
+            QueryMetricsImpl metrics, 
+            long elapsedNanos, 
+            long rows, 
+            String sql, 
+            List<?> values, 
+            Supplier<String> pipeline) {
+        
+        final Settings s = settings;
+        if (s == null) {
+            return;
+        }
+        
+        final boolean slow = elapsedNanos >= s.thresholdNanos[metrics.getOperation().ordinal()];
+        if (!slow && (s.sampleInterval <= 0 
+            || ThreadLocalRandom.current().nextInt(s.sampleInterval) != 0)) {
+            return;
+        }
+        
+        if (!queue.offer(new Entry(s, metrics, elapsedNanos, rows, sql, values, pipeline, slow))) {
+            dropped.increment();
+        }
+    }
+    
+    void enable(
+            Map<Operation, Long> thresholdNanos, 
+            int sampleInterval, 
+            int maxParameterLength, 
+            boolean redact) {
+        
+        requireNonNull(thresholdNanos);
+        final long[] thresholds = new long[Operation.values().length];
+        for (final Operation op : Operation.values()) {
+            final Long threshold = thresholdNanos.get(op);
+            thresholds[op.ordinal()] = threshold == null || threshold < 0 
+                ? Long.MAX_VALUE : threshold;
+        }
+        
+        settings = new Settings(thresholds, sampleInterval, maxParameterLength, redact);
+    }
+    
+    Entry poll() {
+        return queue.poll();
+    }
+    
+    long getDropped() {
+        return dropped.sum();
+    }
+    
+    String format(Entry entry) {
+        final StringBuilder str = new StringBuilder()
+            .append(entry.slow ? "Slow " : "Sampled ")
+            .append(entry.metrics.getOperationName())
+            .append(" on ")
+            .append(entry.metrics.getTable())
+            .append(" took ")
+            .append(entry.elapsedNanos / 1_000L / 1_000d)
+            .append(" ms, rows: ")
+            .append(entry.rows);
+        
+        if (entry.sql != null) {
+            str.append(", sql: ").append(entry.sql);
+        }
+        
+        if (entry.values != null) {
+            str.append(", values: ");
+            appendValues(str, entry.values, entry.settings.maxParameterLength, entry.settings.redact);
+        }
+        
+        if (entry.pipeline != null) {
+            str.append(", pipeline: ").append(entry.pipeline.get());
+        }
+        
+        return str.toString();
+    }
+    
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                emit(queue.take());
+            }
+        } catch (final InterruptedException ex) {
+            // The log has been stopped.
+        }
+        
+        final List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(this::emit);
+    }
+    
+    private void emit(Entry entry) {
+        try {
+            final String message = format(entry);
+            if (entry.slow) {
+                LOGGER_SLOW.warn(message);
+            } else {
+                LOGGER_SLOW.info(message);
+            }
+        } catch (final RuntimeException ex) {
+            LOGGER.error(ex, "Could not log operation on " + entry.metrics.getTable() + ".");
+        }
+        
+        final long droppedEntries = dropped.sumThenReset();
+        if (droppedEntries > 0) {
+            LOGGER_SLOW.warn(droppedEntries + 
+                " operations were not logged since the log could not keep up."
+            );
+        }
+    }
+    
+    private static void appendValues(StringBuilder str, List<?> values, int maxLength, boolean redact) {
+        str.append('[');
+        final int count = Math.min(values.size(), MAX_PARAMETERS);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                str.append(", ");
+            }
+            
+            final Object value = values.get(i);
+            if (value == null) {
+                str.append("null");
+            } else if (redact) {
+                str.append('<').append(value.getClass().getSimpleName()).append('>');
+            } else {
+                final String text = String.valueOf(value);
+                if (text.length() > maxLength) {
+                    str.append(text, 0, maxLength).append("...");
+                } else {
+                    str.append(text);
+                }
+            }
+        }
+        
+        if (values.size() > count) {
+            str.append(", ... ").append(values.size() - count).append(" more");
+        }
+        
+        str.append(']');
+    }
+    
+    private final static class Settings {
+        
+        private final long[] thresholdNanos;
+        private final int sampleInterval;
+        private final int maxParameterLength;
+        private final boolean redact;
+
+        private Settings(long[] thresholdNanos, int sampleInterval, int maxParameterLength, boolean redact) {
+            this.thresholdNanos     = thresholdNanos;
+            this.sampleInterval     = sampleInterval;
+            this.maxParameterLength = Math.max(0, maxParameterLength);
+            this.redact             = redact;
+        }
+    }
+    
+    final static class Entry {
+        
+        private final Settings settings;
+        private final QueryMetricsImpl metrics;
+        private final long elapsedNanos;
+        private final long rows;
+        private final String sql;
+        private final List<?> values;
+        private final Supplier<String> pipeline;
+        private final boolean slow;
+
+        private Entry(
+                Settings settings,
+                QueryMetricsImpl metrics, 
+                long elapsedNanos, 
+                long rows, 
+                String sql, 
+                List<?> values, 
+                Supplier<String> pipeline, 
+                boolean slow) {
+            
+            this.settings     = settings;
+            this.metrics      = metrics;
+            this.elapsedNanos = elapsedNanos;
+            this.rows         = rows;
+            this.sql          = sql;
+            this.values       = values;
+            this.pipeline     = pipeline;
+            this.slow         = slow;
+        }
+
+        boolean isSlow() {
+            return slow;
+        }
+    }
+}
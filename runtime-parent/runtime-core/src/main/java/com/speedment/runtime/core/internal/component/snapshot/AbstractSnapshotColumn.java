@@ -0,0 +1,109 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Base implementation of a {@link SnapshotColumn} that keeps track of 
+ * {@code null} values. Null tests and negation are handled here
+ * so that implementing classes only need to compile the value conditions.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+abstract class AbstractSnapshotColumn implements SnapshotColumn {
+    
+    private final IntPredicate nulls;
+    private final int size;
+
+    AbstractSnapshotColumn(IntPredicate nulls, int size) {
+        this.nulls = requireNonNull(nulls);
+        this.size  = size;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final boolean isNull(int row) {
+        return nulls.test(row);
+    }
+
+    @Override
+    public final Optional<IntPredicate> compile(FieldPredicate<?> predicate) {
+        requireNonNull(predicate);
+        
+        final Optional<IntPredicate> compiled;
+        switch (predicate.getPredicateType()) {
+            case ALWAYS_TRUE  : compiled = Optional.of(row -> true);    break;
+            case ALWAYS_FALSE : compiled = Optional.of(row -> false);   break;
+            case IS_NULL      : compiled = Optional.of(nulls);          break;
+            case IS_NOT_NULL  : compiled = Optional.of(nulls.negate());  break;
+            default           : compiled = compileValue(predicate);
+        }
+        
+        if (predicate.isNegated()) {
+            return compiled.map(IntPredicate::negate);
+        } else {
+            return compiled;
+        }
+    }
+    
+    /**
+     * Compiles a predicate that is not a pure {@code null} test, disregarding
+     * whether it is negated or not.
+     * 
+     * @param predicate  the predicate to compile
+     * @return           the compiled row predicate or empty
+     */
+    protected abstract Optional<IntPredicate> compileValue(FieldPredicate<?> predicate);
+    
+    static int intOf(Object value) {
+        if (value instanceof Character) {
+            return (Character) value;
+        } else {
+            return ((Number) value).intValue();
+        }
+    }
+    
+    static long longOf(Object value) {
+        return ((Number) value).longValue();
+    }
+    
+    static double doubleOf(Object value) {
+        return ((Number) value).doubleValue();
+    }
+    
+    static BitSet nullsOf(Object[] values) {
+        final BitSet nulls = new BitSet(values.length);
+        for (int row = 0; row < values.length; row++) {
+            if (values[row] == null) {
+                nulls.set(row);
+            }
+        }
+        return nulls;
+    }
+}
@@ -0,0 +1,496 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.config.Index;
+import com.speedment.runtime.config.IndexColumn;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.trait.HasOrdinalPosition;
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.field.internal.comparator.ByteFieldComparator;
+import com.speedment.runtime.field.internal.comparator.CharFieldComparator;
+import com.speedment.runtime.field.internal.comparator.IntFieldComparator;
+import com.speedment.runtime.field.internal.comparator.LongFieldComparator;
+import com.speedment.runtime.field.internal.comparator.ReferenceFieldComparator;
+import com.speedment.runtime.field.internal.comparator.ShortFieldComparator;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.trait.HasByteValue;
+import com.speedment.runtime.field.trait.HasCharValue;
+import com.speedment.runtime.field.trait.HasDoubleValue;
+import com.speedment.runtime.field.trait.HasFloatValue;
+import com.speedment.runtime.field.trait.HasIntValue;
+import com.speedment.runtime.field.trait.HasLongValue;
+import com.speedment.runtime.field.trait.HasReferenceValue;
+import com.speedment.runtime.field.trait.HasShortValue;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An immutable in-memory copy of a table. The values of every field are 
+ * extracted once using the field getters and stored column by column in
+ * primitive arrays, dictionary encoded strings or reference arrays together
+ * with a bitmap of {@code null} values.
+ * <p>
+ * Field predicates are evaluated directly against the columns so that only
+ * the entities of rows that pass all pushed down conditions are ever touched
+ * by the stream. Secondary indexes derived from the {@link Index} metadata of
+ * the table are used to answer lookups and ordering without a full scan. 
+ * The entities themselves are shared between all streams of the snapshot and
+ * must not be modified.
+ *
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class ColumnarSnapshot<ENTITY> {
+    
+    private final int size;
+    private final IntFunction<ENTITY> entities;
+    private final Map<ColumnIdentifier<ENTITY>, SnapshotColumn> columns;
+    private final Map<ColumnIdentifier<ENTITY>, HashSnapshotIndex> hashIndexes;
+    private final Map<ColumnIdentifier<ENTITY>, SortedSnapshotIndex> sortedIndexes;
+    
+    /**
+     * Creates a new snapshot of the specified entities without any secondary
+     * indexes. A column is created for each of the specified fields that has 
+     * a supported value type.
+     * 
+     * @param entities  the entities to hold
+     * @param fields    the fields to extract columns for
+     */
+    public ColumnarSnapshot(List<ENTITY> entities, Stream<Field<ENTITY>> fields) {
+        this(entities, fields, Stream.empty());
+    }
+    
+    /**
+     * Creates a new snapshot of the specified entities. A column is created
+     * for each of the specified fields that has a supported value type.
+     * <p>
+     * For every enabled index, a sorted index is built over the first column
+     * of the index. Unique single-column indexes are also given a hash index
+     * for fast point lookups. Columns with floating point values are never
+     * indexed since their comparison semantics differ from those of the 
+     * field predicates.
+     * 
+     * @param entities  the entities to hold
+     * @param fields    the fields to extract columns for
+     * @param indexes   the indexes of the table
+     */
+    public ColumnarSnapshot(
+            List<ENTITY> entities, 
+            Stream<Field<ENTITY>> fields, 
+            Stream<? extends Index> indexes) {
+        
+        this(entities.toArray(), fields, indexes);
+    }
+    
+    private ColumnarSnapshot(
+            Object[] rows, 
+            Stream<Field<ENTITY>> fields, 
+            Stream<? extends Index> indexes) {
+        
+        this(rows.length, row -> cast(rows[row]), columnsOf(rows, fields), indexes);
+    }
+    
+    /**
+     * Creates a new snapshot over rows that are held in some other storage.
+     * Entities are only materialized by the specified function when a row is
+     * part of the result of a stream.
+     * 
+     * @param size      the number of rows
+     * @param entities  function that returns the entity of a particular row
+     * @param columns   the columns of the snapshot
+     * @param indexes   the indexes of the table
+     */
+    ColumnarSnapshot(
+            int size, 
+            IntFunction<ENTITY> entities, 
+            Map<ColumnIdentifier<ENTITY>, SnapshotColumn> columns,
+            Stream<? extends Index> indexes) {
+        
+        requireNonNull(indexes);
+        
+        this.size          = size;
+        this.entities      = requireNonNull(entities);
+        this.columns       = requireNonNull(columns);
+        this.hashIndexes   = new HashMap<>();
+        this.sortedIndexes = new HashMap<>();
+        
+        final Map<String, ColumnIdentifier<ENTITY>> identifiers = new HashMap<>();
+        columns.keySet().forEach(identifier -> 
+            identifiers.put(identifier.getColumnName(), identifier)
+        );
+        
+        indexes.filter(Index::isEnabled).forEachOrdered(index -> {
+            final List<String> names = index.indexColumns()
+                .sorted(HasOrdinalPosition.COMPARATOR)
+                .map(IndexColumn::getName)
+                .collect(toList());
+            
+            if (names.isEmpty()) {
+                return;
+            }
+            
+            final ColumnIdentifier<ENTITY> identifier = identifiers.get(names.get(0));
+            if (identifier == null) {
+                return;
+            }
+            
+            final SnapshotColumn column = columns.get(identifier);
+            if (!isIndexable(column)) {
+                return;
+            }
+            
+            if (!sortedIndexes.containsKey(identifier)) {
+                sortedIndexes.put(identifier, new SortedSnapshotIndex(column));
+            }
+            
+            if (index.isUnique() && names.size() == 1 && !hashIndexes.containsKey(identifier)) {
+                hashIndexes.put(identifier, new HashSnapshotIndex(column));
+            }
+        });
+    }
+    
+    /**
+     * Returns the number of rows in this snapshot.
+     * 
+     * @return  the number of rows
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the entity at the specified row.
+     * 
+     * @param row  the row index
+     * @return     the entity
+     */
+    public ENTITY entity(int row) {
+        return entities.apply(row);
+    }
+    
+    /**
+     * Compiles the specified predicate into a predicate over row indexes. If
+     * there is no column for the field of the predicate or if the predicate
+     * type is not supported by that column, an empty optional is returned.
+     * 
+     * @param predicate  the predicate to compile
+     * @return           the compiled row predicate or empty
+     */
+    public Optional<IntPredicate> compile(FieldPredicate<ENTITY> predicate) {
+        requireNonNull(predicate);
+        final SnapshotColumn column = columns.get(predicate.getField().identifier());
+        
+        if (column == null) {
+            return Optional.empty();
+        } else {
+            return column.compile(predicate);
+        }
+    }
+    
+    /**
+     * Selects the candidate rows for the specified predicate using a 
+     * secondary index. The returned rows are sorted in ascending order and
+     * may include rows that do not match the predicate, so the predicate must
+     * still be tested. If there is no index that can answer the predicate, an
+     * empty optional is returned.
+     * 
+     * @param predicate  the predicate
+     * @return           the candidate rows or empty
+     */
+    public Optional<int[]> select(FieldPredicate<ENTITY> predicate) {
+        requireNonNull(predicate);
+        final ColumnIdentifier<ENTITY> identifier = predicate.getField().identifier();
+        
+        final HashSnapshotIndex hashIndex = hashIndexes.get(identifier);
+        if (hashIndex != null) {
+            final Optional<int[]> selected = hashIndex.select(predicate);
+            if (selected.isPresent()) {
+                return selected;
+            }
+        }
+        
+        final SortedSnapshotIndex sortedIndex = sortedIndexes.get(identifier);
+        if (sortedIndex != null) {
+            return sortedIndex.select(predicate);
+        }
+        
+        return Optional.empty();
+    }
+    
+    /**
+     * Returns all rows in the order given by the specified comparator if it
+     * is a field comparator for a column that has a sorted index without any
+     * {@code null} values. Otherwise an empty optional is returned.
+     * 
+     * @param comparator  the comparator
+     * @return            all rows in comparator order or empty
+     */
+    public Optional<int[]> order(Comparator<?> comparator) {
+        requireNonNull(comparator);
+        
+        final Field<?> field;
+        final boolean reversed;
+        if (comparator instanceof ReferenceFieldComparator) {
+            field    = ((ReferenceFieldComparator<?, ?, ?>) comparator).getField();
+            reversed = ((ReferenceFieldComparator<?, ?, ?>) comparator).isReversed();
+        } else if (comparator instanceof IntFieldComparator) {
+            field    = ((IntFieldComparator<?, ?>) comparator).getField();
+            reversed = ((IntFieldComparator<?, ?>) comparator).isReversed();
+        } else if (comparator instanceof LongFieldComparator) {
+            field    = ((LongFieldComparator<?, ?>) comparator).getField();
+            reversed = ((LongFieldComparator<?, ?>) comparator).isReversed();
+        } else if (comparator instanceof ShortFieldComparator) {
+            field    = ((ShortFieldComparator<?, ?>) comparator).getField();
+            reversed = ((ShortFieldComparator<?, ?>) comparator).isReversed();
+        } else if (comparator instanceof ByteFieldComparator) {
+            field    = ((ByteFieldComparator<?, ?>) comparator).getField();
+            reversed = ((ByteFieldComparator<?, ?>) comparator).isReversed();
+        } else if (comparator instanceof CharFieldComparator) {
+            field    = ((CharFieldComparator<?, ?>) comparator).getField();
+            reversed = ((CharFieldComparator<?, ?>) comparator).isReversed();
+        } else {
+            return Optional.empty();
+        }
+        
+        final SortedSnapshotIndex index = sortedIndexes.get(field.identifier());
+        if (index == null || index.hasNulls()) {
+            return Optional.empty();
+        }
+        
+        return Optional.of(index.order(reversed));
+    }
+    
+    /**
+     * Returns a stream over the entities of the rows that pass the specified
+     * row filter, without any further optimization.
+     * 
+     * @param rowFilter  the row filter
+     * @return           stream of the matching entities
+     */
+    public Stream<ENTITY> stream(IntPredicate rowFilter) {
+        requireNonNull(rowFilter);
+        return IntStream.range(0, size)
+            .filter(rowFilter)
+            .mapToObj(this::entity);
+    }
+    
+    /**
+     * Returns a stream over the entities of the specified rows that pass the 
+     * specified row filter. The entities are returned in the order of the
+     * given rows.
+     * 
+     * @param rows       the rows to consider
+     * @param rowFilter  the row filter
+     * @return           stream of the matching entities
+     */
+    public Stream<ENTITY> stream(int[] rows, IntPredicate rowFilter) {
+        requireNonNulls(rows, rowFilter);
+        return IntStream.of(rows)
+            .filter(rowFilter)
+            .mapToObj(this::entity);
+    }
+    
+    /**
+     * Counts the rows that pass the specified row filter without touching the
+     * entities.
+     * 
+     * @param rowFilter  the row filter
+     * @return           the number of matching rows
+     */
+    public long count(IntPredicate rowFilter) {
+        requireNonNull(rowFilter);
+        long count = 0;
+        for (int row = 0; row < size; row++) {
+            if (rowFilter.test(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Counts the specified rows that pass the specified row filter without
+     * touching the entities.
+     * 
+     * @param rows       the rows to consider
+     * @param rowFilter  the row filter
+     * @return           the number of matching rows
+     */
+    public long count(int[] rows, IntPredicate rowFilter) {
+        requireNonNulls(rows, rowFilter);
+        long count = 0;
+        for (final int row : rows) {
+            if (rowFilter.test(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Returns a stream over all the entities in this snapshot. Leading filters
+     * with field predicates are evaluated against the columns and secondary
+     * indexes are used to narrow down the rows and to avoid sorting.
+     * 
+     * @return  stream of all entities
+     */
+    public Stream<ENTITY> stream() {
+        final SnapshotStreamTerminator<ENTITY> terminator = 
+            new SnapshotStreamTerminator<>(this);
+        
+        return new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(() -> stream(row -> true)),
+            terminator
+        );
+    }
+    
+    private boolean isIndexable(SnapshotColumn column) {
+        if (column == null || column instanceof DoubleSnapshotColumn) {
+            return false;
+        }
+        
+        for (int row = 0; row < column.size(); row++) {
+            if (!column.isNull(row) && !(column.valueOf(row) instanceof Comparable)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    private static <ENTITY> Map<ColumnIdentifier<ENTITY>, SnapshotColumn> columnsOf(
+            Object[] rows, 
+            Stream<Field<ENTITY>> fields) {
+        
+        requireNonNull(rows);
+        requireNonNull(fields);
+        
+        final Map<ColumnIdentifier<ENTITY>, SnapshotColumn> columns = new HashMap<>();
+        fields.forEachOrdered(field -> 
+            columnOf(rows, field).ifPresent(column -> 
+                columns.put(field.identifier(), column)
+            )
+        );
+        
+        return columns;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> Optional<SnapshotColumn> columnOf(Object[] rows, Field<ENTITY> field) {
+        final int size = rows.length;
+        
+        if (field instanceof HasIntValue) {
+            final HasIntValue<ENTITY, ?> f = (HasIntValue<ENTITY, ?>) field;
+            final int[] values = new int[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.getAsInt((ENTITY) rows[row]);
+            }
+            return Optional.of(new IntSnapshotColumn(values));
+            
+        } else if (field instanceof HasLongValue) {
+            final HasLongValue<ENTITY, ?> f = (HasLongValue<ENTITY, ?>) field;
+            final long[] values = new long[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.getAsLong((ENTITY) rows[row]);
+            }
+            return Optional.of(new LongSnapshotColumn(values));
+            
+        } else if (field instanceof HasDoubleValue) {
+            final HasDoubleValue<ENTITY, ?> f = (HasDoubleValue<ENTITY, ?>) field;
+            final double[] values = new double[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.getAsDouble((ENTITY) rows[row]);
+            }
+            return Optional.of(new DoubleSnapshotColumn(values));
+            
+        } else if (field instanceof HasFloatValue) {
+            final HasFloatValue<ENTITY, ?> f = (HasFloatValue<ENTITY, ?>) field;
+            final double[] values = new double[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.getAsFloat((ENTITY) rows[row]);
+            }
+            return Optional.of(new DoubleSnapshotColumn(values));
+            
+        } else if (field instanceof HasShortValue) {
+            final HasShortValue<ENTITY, ?> f = (HasShortValue<ENTITY, ?>) field;
+            final int[] values = new int[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.getAsShort((ENTITY) rows[row]);
+            }
+            return Optional.of(new IntSnapshotColumn(values));
+            
+        } else if (field instanceof HasByteValue) {
+            final HasByteValue<ENTITY, ?> f = (HasByteValue<ENTITY, ?>) field;
+            final int[] values = new int[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.getAsByte((ENTITY) rows[row]);
+            }
+            return Optional.of(new IntSnapshotColumn(values));
+            
+        } else if (field instanceof HasCharValue) {
+            final HasCharValue<ENTITY, ?> f = (HasCharValue<ENTITY, ?>) field;
+            final int[] values = new int[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.getAsChar((ENTITY) rows[row]);
+            }
+            return Optional.of(new IntSnapshotColumn(values));
+            
+        } else if (field instanceof StringField) {
+            final StringField<ENTITY, ?> f = (StringField<ENTITY, ?>) field;
+            final String[] values = new String[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.get((ENTITY) rows[row]);
+            }
+            return Optional.of(new StringSnapshotColumn(values));
+            
+        } else if (field instanceof HasReferenceValue) {
+            final HasReferenceValue<ENTITY, ?, ?> f = (HasReferenceValue<ENTITY, ?, ?>) field;
+            final Object[] values = new Object[size];
+            for (int row = 0; row < size; row++) {
+                values[row] = f.get((ENTITY) rows[row]);
+            }
+            return Optional.of(new ReferenceSnapshotColumn(values));
+            
+        } else {
+            // Boolean fields have no field predicates that can be compiled
+            return Optional.empty();
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> ENTITY cast(Object entity) {
+        return (ENTITY) entity;
+    }
+}
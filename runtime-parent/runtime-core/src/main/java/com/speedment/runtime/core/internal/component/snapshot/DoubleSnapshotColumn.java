@@ -0,0 +1,115 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getInclusionOperand;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getSecondOperand;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SnapshotColumn} that holds {@code double} or {@code float} values, 
+ * either in a primitive {@code double[]} or in any other storage that can be 
+ * read by row.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class DoubleSnapshotColumn extends AbstractSnapshotColumn {
+    
+    private final IntToDoubleFunction values;
+
+    DoubleSnapshotColumn(double[] values) {
+        this(row -> values[row], values.length);
+    }
+    
+    DoubleSnapshotColumn(IntToDoubleFunction values, int size) {
+        super(row -> false, size);
+        this.values = requireNonNull(values);
+    }
+    
+    @Override
+    public Object valueOf(int row) {
+        return values.applyAsDouble(row);
+    }
+
+    @Override
+    public Object keyOf(Object operand) {
+        return doubleOf(operand);
+    }
+
+    @Override
+    protected Optional<IntPredicate> compileValue(FieldPredicate<?> predicate) {
+        switch (predicate.getPredicateType()) {
+            case EQUAL : {
+                final double value = doubleOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsDouble(row) == value);
+            }
+            case NOT_EQUAL : {
+                final double value = doubleOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsDouble(row) != value);
+            }
+            case GREATER_THAN : {
+                final double value = doubleOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsDouble(row) > value);
+            }
+            case GREATER_OR_EQUAL : {
+                final double value = doubleOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsDouble(row) >= value);
+            }
+            case LESS_THAN : {
+                final double value = doubleOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsDouble(row) < value);
+            }
+            case LESS_OR_EQUAL : {
+                final double value = doubleOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsDouble(row) <= value);
+            }
+            case BETWEEN : {
+                final double start = doubleOf(getFirstOperandAsRaw(predicate));
+                final double end   = doubleOf(getSecondOperand(predicate));
+                final Inclusion inclusion = getInclusionOperand(predicate);
+                return Optional.of(row -> {
+                    final double value = values.applyAsDouble(row);
+                    return (inclusion.isStartInclusive() ? start <= value : start < value)
+                        && (inclusion.isEndInclusive()   ? value <= end   : value < end);
+                });
+            }
+            case IN : {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                final double[] sorted = new double[set.size()];
+                int i = 0;
+                for (final Object o : set) {
+                    sorted[i++] = doubleOf(o);
+                }
+                Arrays.sort(sorted);
+                return Optional.of(row -> Arrays.binarySearch(sorted, values.applyAsDouble(row)) >= 0);
+            }
+            default : return Optional.empty();
+        }
+    }
+}
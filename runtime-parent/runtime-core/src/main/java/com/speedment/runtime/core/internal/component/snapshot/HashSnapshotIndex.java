@@ -0,0 +1,108 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRawSet;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SnapshotIndex} that maps every distinct non-null value of a column
+ * to the rows holding that value. It can answer {@code EQUAL} and {@code IN}
+ * predicates.
+ * <p>
+ * The arrays returned by {@link #select(FieldPredicate)} may be shared with
+ * the index and must not be modified.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class HashSnapshotIndex implements SnapshotIndex {
+    
+    private static final int[] NO_ROWS = new int[0];
+    
+    private final SnapshotColumn column;
+    private final Map<Object, int[]> rows;
+
+    HashSnapshotIndex(SnapshotColumn column) {
+        this.column = requireNonNull(column);
+        
+        final Map<Object, int[]> counts = new HashMap<>();
+        for (int row = 0; row < column.size(); row++) {
+            if (!column.isNull(row)) {
+                counts.computeIfAbsent(column.valueOf(row), k -> new int[1])[0]++;
+            }
+        }
+        
+        this.rows = new HashMap<>(counts.size() * 4 / 3 + 1);
+        counts.forEach((key, count) -> rows.put(key, new int[count[0]]));
+        
+        // Reuse the counters as insert positions for the second pass
+        counts.values().forEach(position -> position[0] = 0);
+        for (int row = 0; row < column.size(); row++) {
+            if (!column.isNull(row)) {
+                final Object key = column.valueOf(row);
+                rows.get(key)[counts.get(key)[0]++] = row;
+            }
+        }
+    }
+
+    @Override
+    public Optional<int[]> select(FieldPredicate<?> predicate) {
+        if (predicate.isNegated()) {
+            return Optional.empty();
+        }
+        
+        switch (predicate.getPredicateType()) {
+            case EQUAL : {
+                final Object operand = getFirstOperandAsRaw(predicate);
+                if (operand == null) {
+                    return Optional.empty();
+                }
+                return Optional.of(lookup(operand));
+            }
+            case IN : {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                if (set.stream().anyMatch(Objects::isNull)) {
+                    return Optional.empty();
+                }
+                return Optional.of(set.stream()
+                    .map(this::lookup)
+                    .flatMapToInt(IntStream::of)
+                    .sorted()
+                    .distinct()
+                    .toArray()
+                );
+            }
+            default : return Optional.empty();
+        }
+    }
+    
+    private int[] lookup(Object operand) {
+        return rows.getOrDefault(column.keyOf(operand), NO_ROWS);
+    }
+}
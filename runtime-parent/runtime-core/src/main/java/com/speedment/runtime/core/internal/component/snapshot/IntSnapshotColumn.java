@@ -0,0 +1,115 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getInclusionOperand;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getSecondOperand;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SnapshotColumn} that holds {@code int}, {@code short}, 
+ * {@code byte} or {@code char} values, either in a primitive {@code int[]} or
+ * in any other storage that can be read by row.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class IntSnapshotColumn extends AbstractSnapshotColumn {
+    
+    private final IntUnaryOperator values;
+
+    IntSnapshotColumn(int[] values) {
+        this(row -> values[row], values.length);
+    }
+    
+    IntSnapshotColumn(IntUnaryOperator values, int size) {
+        super(row -> false, size);
+        this.values = requireNonNull(values);
+    }
+    
+    @Override
+    public Object valueOf(int row) {
+        return values.applyAsInt(row);
+    }
+
+    @Override
+    public Object keyOf(Object operand) {
+        return intOf(operand);
+    }
+
+    @Override
+    protected Optional<IntPredicate> compileValue(FieldPredicate<?> predicate) {
+        switch (predicate.getPredicateType()) {
+            case EQUAL : {
+                final int value = intOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsInt(row) == value);
+            }
+            case NOT_EQUAL : {
+                final int value = intOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsInt(row) != value);
+            }
+            case GREATER_THAN : {
+                final int value = intOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsInt(row) > value);
+            }
+            case GREATER_OR_EQUAL : {
+                final int value = intOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsInt(row) >= value);
+            }
+            case LESS_THAN : {
+                final int value = intOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsInt(row) < value);
+            }
+            case LESS_OR_EQUAL : {
+                final int value = intOf(getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> values.applyAsInt(row) <= value);
+            }
+            case BETWEEN : {
+                final int start = intOf(getFirstOperandAsRaw(predicate));
+                final int end   = intOf(getSecondOperand(predicate));
+                final Inclusion inclusion = getInclusionOperand(predicate);
+                return Optional.of(row -> {
+                    final int value = values.applyAsInt(row);
+                    return (inclusion.isStartInclusive() ? start <= value : start < value)
+                        && (inclusion.isEndInclusive()   ? value <= end   : value < end);
+                });
+            }
+            case IN : {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                final int[] sorted = new int[set.size()];
+                int i = 0;
+                for (final Object o : set) {
+                    sorted[i++] = intOf(o);
+                }
+                Arrays.sort(sorted);
+                return Optional.of(row -> Arrays.binarySearch(sorted, values.applyAsInt(row)) >= 0);
+            }
+            default : return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,713 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.config.Index;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.field.trait.HasBooleanValue;
+import com.speedment.runtime.field.trait.HasByteValue;
+import com.speedment.runtime.field.trait.HasCharValue;
+import com.speedment.runtime.field.trait.HasDoubleValue;
+import com.speedment.runtime.field.trait.HasFloatValue;
+import com.speedment.runtime.field.trait.HasIntValue;
+import com.speedment.runtime.field.trait.HasLongValue;
+import com.speedment.runtime.field.trait.HasReferenceValue;
+import com.speedment.runtime.field.trait.HasShortValue;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Stores the rows of a table outside of the Java heap, either in a direct
+ * {@link ByteBuffer} or in a {@link MappedByteBuffer} backed by a file. A 
+ * store that is backed by a file can be opened again after a restart of the 
+ * JVM without querying the database.
+ * <p>
+ * Every row occupies a fixed number of bytes: a bitmap of {@code null} 
+ * values followed by one fixed-width slot for each column. String values are
+ * dictionary encoded and the slot only holds the code of the value. The
+ * sorted dictionaries are stored in a variable-length area after the rows.
+ * <p>
+ * Entities are never held by the store. Instead, a new entity is created and
+ * populated using the field setters every time a row is accessed, which only
+ * happens for rows that pass all conditions that were evaluated against the
+ * columns. Only tables where every field has a primitive, boxed primitive or
+ * {@code String} value can be stored off-heap.
+ *
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class OffHeapSnapshotStore<ENTITY> {
+    
+    private static final int MAGIC   = 0x53504453, // "SPDS"
+                             VERSION = 1;
+    
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int rowWidth;
+    private final int rowsOffset;
+    private final List<Slot> slots;
+    private final Constructor<? extends ENTITY> constructor;
+
+    private OffHeapSnapshotStore(
+            ByteBuffer buffer, 
+            int size, 
+            int rowWidth, 
+            int rowsOffset, 
+            List<Slot> slots,
+            Constructor<? extends ENTITY> constructor) {
+        
+        this.buffer      = requireNonNull(buffer);
+        this.size        = size;
+        this.rowWidth    = rowWidth;
+        this.rowsOffset  = rowsOffset;
+        this.slots       = requireNonNull(slots);
+        this.constructor = constructor; // Nullable if there are no rows
+    }
+    
+    /**
+     * Writes the specified entities to a new store. If a file is specified,
+     * the store is written to that file and mapped into memory. The file is
+     * replaced atomically once it has been completely written. If no file is
+     * specified, the store is held in a direct buffer.
+     * <p>
+     * If any of the fields has a value type that can not be stored off-heap, 
+     * an empty optional is returned.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param entities  the entities to store
+     * @param fields    the fields of the entity
+     * @param file      the file to write to or {@code null}
+     * @return          the new store or empty
+     * 
+     * @throws SpeedmentException  if the file could not be written
+     */
+    public static <ENTITY> Optional<OffHeapSnapshotStore<ENTITY>> create(
+            List<ENTITY> entities, 
+            Stream<Field<ENTITY>> fields, 
+            Path file) throws SpeedmentException {
+        
+        requireNonNull(entities);
+        requireNonNull(fields);
+        
+        // Decide the layout of each row
+        final List<Field<ENTITY>> fieldList = fields.collect(toList());
+        final List<Slot> slots = new ArrayList<>(fieldList.size());
+        
+        int rowWidth = nullBytes(fieldList.size());
+        for (int i = 0; i < fieldList.size(); i++) {
+            final Field<ENTITY> field = fieldList.get(i);
+            final Optional<Kind> kind = kindOf(field, entities);
+            if (!kind.isPresent()) {
+                return Optional.empty();
+            }
+            
+            final Slot slot = new Slot(
+                field, 
+                field.identifier().getColumnName(),
+                kind.get(), 
+                !isPrimitive(field), 
+                i, 
+                rowWidth
+            );
+            
+            slots.add(slot);
+            rowWidth += slot.kind.width;
+        }
+        
+        // Build the sorted dictionaries of all string columns
+        final Map<Slot, String[]> dictionaries = new HashMap<>();
+        for (final Slot slot : slots) {
+            if (slot.kind == Kind.STRING) {
+                final String[] values = new String[entities.size()];
+                for (int row = 0; row < values.length; row++) {
+                    values[row] = (String) slot.get(entities.get(row));
+                }
+                dictionaries.put(slot, StringSnapshotColumn.dictionaryOf(values));
+            }
+        }
+        
+        final String className = entities.isEmpty() ? "" 
+            : entities.get(0).getClass().getName();
+        
+        // Compute the total size of the store
+        long header = 6 * Integer.BYTES + utfSize(className);
+        for (final Slot slot : slots) {
+            header += utfSize(slot.name) + 2 + 2 * Integer.BYTES;
+        }
+        
+        long total = header + (long) rowWidth * entities.size();
+        for (final String[] dictionary : dictionaries.values()) {
+            total += Integer.BYTES * (1L + dictionary.length);
+            for (final String value : dictionary) {
+                total += utfSize(value);
+            }
+        }
+        
+        if (total > Integer.MAX_VALUE) {
+            throw new SpeedmentException(
+                "Table is too large to be stored off-heap (" + total + " bytes)."
+            );
+        }
+        
+        // Compute the position of each dictionary
+        int position = (int) (header + (long) rowWidth * entities.size());
+        for (final Slot slot : slots) {
+            final String[] dictionary = dictionaries.get(slot);
+            if (dictionary != null) {
+                slot.dictionaryOffset = position;
+                position += Integer.BYTES * (1 + dictionary.length);
+                for (final String value : dictionary) {
+                    position += utfSize(value);
+                }
+            }
+        }
+        
+        final ByteBuffer buffer;
+        final Path temp;
+        if (file == null) {
+            buffer = ByteBuffer.allocateDirect((int) total);
+            temp   = null;
+        } else {
+            temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+            } catch (final IOException ex) {
+                throw new SpeedmentException("Unable to create directory of " + file + ".", ex);
+            }
+            
+            try (final FileChannel channel = FileChannel.open(temp, CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+                buffer = channel.map(READ_WRITE, 0, total);
+            } catch (final IOException ex) {
+                throw new SpeedmentException("Unable to create snapshot file " + temp + ".", ex);
+            }
+        }
+        
+        // Write the header
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(entities.size());
+        buffer.putInt(slots.size());
+        buffer.putInt(rowWidth);
+        buffer.putInt((int) header);
+        putUtf(buffer, className);
+        for (final Slot slot : slots) {
+            putUtf(buffer, slot.name);
+            buffer.put((byte) slot.kind.ordinal());
+            buffer.put((byte) (slot.nullable ? 1 : 0));
+            buffer.putInt(slot.offset);
+            buffer.putInt(slot.dictionaryOffset);
+        }
+        
+        // Write the rows
+        for (int row = 0; row < entities.size(); row++) {
+            final int base = (int) header + row * rowWidth;
+            final ENTITY entity = entities.get(row);
+            for (final Slot slot : slots) {
+                slot.write(buffer, base, entity, dictionaries.get(slot));
+            }
+        }
+        
+        // Write the dictionaries
+        for (final Slot slot : slots) {
+            final String[] dictionary = dictionaries.get(slot);
+            if (dictionary != null) {
+                buffer.position(slot.dictionaryOffset);
+                buffer.putInt(dictionary.length);
+                
+                int offset = slot.dictionaryOffset + Integer.BYTES * (1 + dictionary.length);
+                for (final String value : dictionary) {
+                    buffer.putInt(offset);
+                    offset += utfSize(value);
+                }
+                for (final String value : dictionary) {
+                    putUtf(buffer, value);
+                }
+            }
+        }
+        
+        if (file != null) {
+            ((MappedByteBuffer) buffer).force();
+            try {
+                Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (final IOException ex) {
+                throw new SpeedmentException("Unable to replace snapshot file " + file + ".", ex);
+            }
+        }
+        
+        final Constructor<? extends ENTITY> constructor;
+        if (entities.isEmpty()) {
+            constructor = null;
+        } else {
+            @SuppressWarnings("unchecked")
+            final Class<? extends ENTITY> implClass = 
+                (Class<? extends ENTITY>) entities.get(0).getClass();
+            constructor = constructorOf(implClass);
+        }
+        
+        return Optional.of(new OffHeapSnapshotStore<>(
+            buffer, entities.size(), rowWidth, (int) header, slots, constructor
+        ));
+    }
+    
+    /**
+     * Opens a store that has previously been written to the specified file.
+     * If the file does not exist, is not a valid store or was written for a
+     * different set of fields, an empty optional is returned.
+     * 
+     * @param <ENTITY>     the entity type
+     * @param file         the file to open
+     * @param entityClass  the entity type
+     * @param fields       the fields of the entity
+     * @return             the store or empty
+     */
+    public static <ENTITY> Optional<OffHeapSnapshotStore<ENTITY>> open(
+            Path file, 
+            Class<ENTITY> entityClass,
+            Stream<Field<ENTITY>> fields) {
+        
+        requireNonNull(file);
+        requireNonNull(entityClass);
+        requireNonNull(fields);
+        
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        
+        final ByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(file, READ)) {
+            buffer = channel.map(READ_ONLY, 0, channel.size());
+        } catch (final IOException ex) {
+            throw new SpeedmentException("Unable to open snapshot file " + file + ".", ex);
+        }
+        
+        if (buffer.remaining() < 6 * Integer.BYTES 
+        ||  buffer.getInt() != MAGIC 
+        ||  buffer.getInt() != VERSION) {
+            return Optional.empty();
+        }
+        
+        final int size        = buffer.getInt();
+        final int columnCount = buffer.getInt();
+        final int rowWidth    = buffer.getInt();
+        final int rowsOffset  = buffer.getInt();
+        final String className = getUtf(buffer, buffer.position());
+        buffer.position(buffer.position() + utfSize(className));
+        
+        final Map<String, Field<ENTITY>> fieldsByName = new HashMap<>();
+        fields.forEachOrdered(f -> fieldsByName.put(f.identifier().getColumnName(), f));
+        if (fieldsByName.size() != columnCount) {
+            return Optional.empty();
+        }
+        
+        final List<Slot> slots = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            final String name     = getUtf(buffer, buffer.position());
+            buffer.position(buffer.position() + utfSize(name));
+            final Kind kind       = Kind.values()[buffer.get()];
+            final boolean nullable = buffer.get() != 0;
+            final int offset      = buffer.getInt();
+            final int dictionary  = buffer.getInt();
+            
+            final Field<ENTITY> field = fieldsByName.get(name);
+            if (field == null || nullable == isPrimitive(field)
+            || (!nullable && primitiveKindOf(field) != kind)
+            || (kind == Kind.STRING) != (field instanceof StringField)) {
+                return Optional.empty();
+            }
+            
+            final Slot slot = new Slot(field, name, kind, nullable, i, offset);
+            slot.dictionaryOffset = dictionary;
+            slots.add(slot);
+        }
+        
+        final Constructor<? extends ENTITY> constructor;
+        if (size == 0) {
+            constructor = null;
+        } else {
+            try {
+                final Class<?> implClass = Class.forName(className, true, entityClass.getClassLoader());
+                if (!entityClass.isAssignableFrom(implClass)) {
+                    return Optional.empty();
+                }
+                @SuppressWarnings("unchecked")
+                final Class<? extends ENTITY> castedClass = (Class<? extends ENTITY>) implClass;
+                constructor = constructorOf(castedClass);
+            } catch (final ClassNotFoundException ex) {
+                return Optional.empty();
+            }
+        }
+        
+        return Optional.of(new OffHeapSnapshotStore<>(
+            buffer, size, rowWidth, rowsOffset, slots, constructor
+        ));
+    }
+    
+    /**
+     * Returns the number of rows in this store.
+     * 
+     * @return  the number of rows
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Creates a new entity and populates it with the values of the specified
+     * row.
+     * 
+     * @param row  the row index
+     * @return     the new entity
+     */
+    public ENTITY entity(int row) {
+        final ENTITY entity;
+        try {
+            entity = constructor.newInstance();
+        } catch (final InstantiationException 
+                     | IllegalAccessException 
+                     | InvocationTargetException ex) {
+            
+            throw new SpeedmentException(
+                "Unable to create entity of " + constructor.getDeclaringClass() + ".", ex
+            );
+        }
+        
+        final int base = base(row);
+        for (final Slot slot : slots) {
+            slot.set(entity, buffer, base);
+        }
+        
+        return entity;
+    }
+    
+    /**
+     * Returns a {@link ColumnarSnapshot} that reads its columns directly from 
+     * this store.
+     * 
+     * @param indexes  the indexes of the table
+     * @return         the snapshot
+     */
+    public ColumnarSnapshot<ENTITY> toSnapshot(Stream<? extends Index> indexes) {
+        final Map<ColumnIdentifier<ENTITY>, SnapshotColumn> columns = new HashMap<>();
+        for (final Slot slot : slots) {
+            columnOf(slot).ifPresent(column -> {
+                @SuppressWarnings("unchecked")
+                final ColumnIdentifier<ENTITY> identifier = 
+                    (ColumnIdentifier<ENTITY>) slot.field.identifier();
+                columns.put(identifier, column);
+            });
+        }
+        
+        return new ColumnarSnapshot<>(size, this::entity, columns, indexes);
+    }
+    
+    private Optional<SnapshotColumn> columnOf(Slot slot) {
+        if (slot.kind == Kind.STRING) {
+            final int dictionarySize = buffer.getInt(slot.dictionaryOffset);
+            return Optional.of(new StringSnapshotColumn(
+                i -> getUtf(buffer, buffer.getInt(slot.dictionaryOffset + Integer.BYTES * (1 + i))),
+                dictionarySize,
+                row -> buffer.getInt(base(row) + slot.offset),
+                size
+            ));
+        } else if (slot.nullable) {
+            return Optional.of(new ReferenceSnapshotColumn(
+                row -> slot.read(buffer, base(row)),
+                row -> slot.isNull(buffer, base(row)),
+                size
+            ));
+        }
+        
+        switch (slot.kind) {
+            case INT    : return Optional.of(new IntSnapshotColumn(row -> buffer.getInt(base(row) + slot.offset), size));
+            case SHORT  : return Optional.of(new IntSnapshotColumn(row -> buffer.getShort(base(row) + slot.offset), size));
+            case BYTE   : return Optional.of(new IntSnapshotColumn(row -> buffer.get(base(row) + slot.offset), size));
+            case CHAR   : return Optional.of(new IntSnapshotColumn(row -> buffer.getChar(base(row) + slot.offset), size));
+            case LONG   : return Optional.of(new LongSnapshotColumn(row -> buffer.getLong(base(row) + slot.offset), size));
+            case DOUBLE : return Optional.of(new DoubleSnapshotColumn(row -> buffer.getDouble(base(row) + slot.offset), size));
+            case FLOAT  : return Optional.of(new DoubleSnapshotColumn(row -> buffer.getFloat(base(row) + slot.offset), size));
+            default     : return Optional.empty();
+        }
+    }
+    
+    private int base(int row) {
+        return rowsOffset + row * rowWidth;
+    }
+    
+    /**
+     * The type of value held in a slot and the number of bytes it occupies.
+     */
+    private enum Kind {
+        BOOLEAN (1), 
+        BYTE    (1), 
+        SHORT   (2), 
+        CHAR    (2), 
+        INT     (4), 
+        FLOAT   (4), 
+        LONG    (8), 
+        DOUBLE  (8), 
+        STRING  (4),
+        NULL    (0); // A reference column of unknown type without values
+        
+        private final int width;
+
+        Kind(int width) {
+            this.width = width;
+        }
+    }
+    
+    /**
+     * The position and type of one column within a row.
+     */
+    private static final class Slot {
+        
+        private final Field<?> field;
+        private final String name;
+        private final Kind kind;
+        private final boolean nullable;
+        private final int nullBit;
+        private final int offset;
+        private int dictionaryOffset;
+
+        Slot(Field<?> field, String name, Kind kind, boolean nullable, int nullBit, int offset) {
+            this.field            = requireNonNull(field);
+            this.name             = requireNonNull(name);
+            this.kind             = requireNonNull(kind);
+            this.nullable         = nullable;
+            this.nullBit          = nullBit;
+            this.offset           = offset;
+            this.dictionaryOffset = -1;
+        }
+        
+        boolean isNull(ByteBuffer buffer, int base) {
+            return (buffer.get(base + (nullBit >>> 3)) & (1 << (nullBit & 7))) != 0;
+        }
+        
+        @SuppressWarnings("unchecked")
+        Object get(Object entity) {
+            if (field instanceof HasReferenceValue) {
+                return ((HasReferenceValue<Object, ?, ?>) field).get(entity);
+            }
+            
+            switch (kind) {
+                case BOOLEAN : return ((HasBooleanValue<Object, ?>) field).getAsBoolean(entity);
+                case BYTE    : return ((HasByteValue<Object, ?>) field).getAsByte(entity);
+                case SHORT   : return ((HasShortValue<Object, ?>) field).getAsShort(entity);
+                case CHAR    : return ((HasCharValue<Object, ?>) field).getAsChar(entity);
+                case INT     : return ((HasIntValue<Object, ?>) field).getAsInt(entity);
+                case FLOAT   : return ((HasFloatValue<Object, ?>) field).getAsFloat(entity);
+                case LONG    : return ((HasLongValue<Object, ?>) field).getAsLong(entity);
+                case DOUBLE  : return ((HasDoubleValue<Object, ?>) field).getAsDouble(entity);
+                default : throw new IllegalStateException("Unknown kind " + kind + ".");
+            }
+        }
+        
+        Object read(ByteBuffer buffer, int base) {
+            if (isNull(buffer, base)) {
+                return null;
+            }
+            
+            final int position = base + offset;
+            switch (kind) {
+                case BOOLEAN : return buffer.get(position) != 0;
+                case BYTE    : return buffer.get(position);
+                case SHORT   : return buffer.getShort(position);
+                case CHAR    : return buffer.getChar(position);
+                case INT     : return buffer.getInt(position);
+                case FLOAT   : return buffer.getFloat(position);
+                case LONG    : return buffer.getLong(position);
+                case DOUBLE  : return buffer.getDouble(position);
+                case STRING  : {
+                    final int code = buffer.getInt(position);
+                    return getUtf(buffer, buffer.getInt(dictionaryOffset + Integer.BYTES * (1 + code)));
+                }
+                default : throw new IllegalStateException("Unknown kind " + kind + ".");
+            }
+        }
+        
+        void write(ByteBuffer buffer, int base, Object entity, String[] dictionary) {
+            final Object value = get(entity);
+            final int position = base + offset;
+            
+            if (value == null) {
+                final int index = base + (nullBit >>> 3);
+                buffer.put(index, (byte) (buffer.get(index) | (1 << (nullBit & 7))));
+                if (kind == Kind.STRING) {
+                    buffer.putInt(position, StringSnapshotColumn.NULL_CODE);
+                }
+                return;
+            }
+            
+            switch (kind) {
+                case BOOLEAN : buffer.put(position, (byte) ((Boolean) value ? 1 : 0)); break;
+                case BYTE    : buffer.put(position, (Byte) value); break;
+                case SHORT   : buffer.putShort(position, (Short) value); break;
+                case CHAR    : buffer.putChar(position, (Character) value); break;
+                case INT     : buffer.putInt(position, (Integer) value); break;
+                case FLOAT   : buffer.putFloat(position, (Float) value); break;
+                case LONG    : buffer.putLong(position, (Long) value); break;
+                case DOUBLE  : buffer.putDouble(position, (Double) value); break;
+                case STRING  : buffer.putInt(position, Arrays.binarySearch(dictionary, value)); break;
+                default : throw new IllegalStateException("Unknown kind " + kind + ".");
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        void set(Object entity, ByteBuffer buffer, int base) {
+            if (nullable) {
+                ((HasReferenceValue<Object, ?, Object>) field).set(entity, read(buffer, base));
+                return;
+            }
+            
+            final int position = base + offset;
+            switch (kind) {
+                case BOOLEAN : ((HasBooleanValue<Object, ?>) field).set(entity, buffer.get(position) != 0); break;
+                case BYTE    : ((HasByteValue<Object, ?>) field).set(entity, buffer.get(position)); break;
+                case SHORT   : ((HasShortValue<Object, ?>) field).set(entity, buffer.getShort(position)); break;
+                case CHAR    : ((HasCharValue<Object, ?>) field).set(entity, buffer.getChar(position)); break;
+                case INT     : ((HasIntValue<Object, ?>) field).set(entity, buffer.getInt(position)); break;
+                case FLOAT   : ((HasFloatValue<Object, ?>) field).set(entity, buffer.getFloat(position)); break;
+                case LONG    : ((HasLongValue<Object, ?>) field).set(entity, buffer.getLong(position)); break;
+                case DOUBLE  : ((HasDoubleValue<Object, ?>) field).set(entity, buffer.getDouble(position)); break;
+                default : throw new IllegalStateException("Unknown kind " + kind + ".");
+            }
+        }
+    }
+    
+    private static boolean isPrimitive(Field<?> field) {
+        return primitiveKindOf(field) != null;
+    }
+    
+    private static Kind primitiveKindOf(Field<?> field) {
+        if      (field instanceof HasBooleanValue) return Kind.BOOLEAN;
+        else if (field instanceof HasByteValue)    return Kind.BYTE;
+        else if (field instanceof HasShortValue)   return Kind.SHORT;
+        else if (field instanceof HasCharValue)    return Kind.CHAR;
+        else if (field instanceof HasIntValue)     return Kind.INT;
+        else if (field instanceof HasFloatValue)   return Kind.FLOAT;
+        else if (field instanceof HasLongValue)    return Kind.LONG;
+        else if (field instanceof HasDoubleValue)  return Kind.DOUBLE;
+        else return null;
+    }
+    
+    private static <ENTITY> Optional<Kind> kindOf(Field<ENTITY> field, List<ENTITY> entities) {
+        final Kind primitive = primitiveKindOf(field);
+        if (primitive != null) {
+            return Optional.of(primitive);
+        } else if (!(field instanceof HasReferenceValue)) {
+            return Optional.empty();
+        }
+        
+        if (field instanceof StringField) {
+            return Optional.of(Kind.STRING);
+        }
+        
+        // The value type of other reference fields is not declared, so it is
+        // decided by the values
+        @SuppressWarnings("unchecked")
+        final HasReferenceValue<ENTITY, ?, ?> referenceField = (HasReferenceValue<ENTITY, ?, ?>) field;
+        
+        Class<?> type = null;
+        for (final ENTITY entity : entities) {
+            final Object value = referenceField.get(entity);
+            if (value != null) {
+                if (type == null) {
+                    type = value.getClass();
+                } else if (type != value.getClass()) {
+                    return Optional.empty();
+                }
+            }
+        }
+        
+        if      (type == null)             return Optional.of(Kind.NULL);
+        else if (type == Integer.class)    return Optional.of(Kind.INT);
+        else if (type == Long.class)       return Optional.of(Kind.LONG);
+        else if (type == Double.class)     return Optional.of(Kind.DOUBLE);
+        else if (type == Float.class)      return Optional.of(Kind.FLOAT);
+        else if (type == Short.class)      return Optional.of(Kind.SHORT);
+        else if (type == Byte.class)       return Optional.of(Kind.BYTE);
+        else if (type == Character.class)  return Optional.of(Kind.CHAR);
+        else if (type == Boolean.class)    return Optional.of(Kind.BOOLEAN);
+        else return Optional.empty();
+    }
+    
+    private static <T> Constructor<T> constructorOf(Class<T> type) {
+        try {
+            final Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (final NoSuchMethodException ex) {
+            throw new SpeedmentException(
+                "Entity " + type.getName() + " has no default constructor.", ex
+            );
+        }
+    }
+    
+    private static int nullBytes(int columns) {
+        return (columns + 7) / 8;
+    }
+    
+    private static int utfSize(String value) {
+        return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+    
+    private static void putUtf(ByteBuffer buffer, String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+    
+    private static String getUtf(ByteBuffer buffer, int position) {
+        final byte[] bytes = new byte[buffer.getInt(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + Integer.BYTES + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
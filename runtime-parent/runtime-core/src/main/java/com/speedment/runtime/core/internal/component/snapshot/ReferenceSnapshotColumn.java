@@ -0,0 +1,136 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+import com.speedment.runtime.field.predicate.PredicateType;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getInclusionOperand;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getSecondOperand;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SnapshotColumn} that holds arbitrary reference values, either in
+ * an {@code Object[]} or in any other storage that can be read by row.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class ReferenceSnapshotColumn extends AbstractSnapshotColumn {
+    
+    private final IntFunction<Object> values;
+
+    ReferenceSnapshotColumn(Object[] values) {
+        this(row -> values[row], nullsOf(values)::get, values.length);
+    }
+    
+    ReferenceSnapshotColumn(IntFunction<Object> values, IntPredicate nulls, int size) {
+        super(nulls, size);
+        this.values = requireNonNull(values);
+    }
+    
+    @Override
+    public Object valueOf(int row) {
+        return values.apply(row);
+    }
+
+    @Override
+    public Object keyOf(Object operand) {
+        return operand;
+    }
+
+    @Override
+    protected Optional<IntPredicate> compileValue(FieldPredicate<?> predicate) {
+        switch (predicate.getPredicateType()) {
+            case EQUAL : {
+                final Object value = getFirstOperandAsRaw(predicate);
+                return Optional.of(row -> Objects.equals(values.apply(row), value));
+            }
+            case NOT_EQUAL : {
+                final Object value = getFirstOperandAsRaw(predicate);
+                return Optional.of(row -> !Objects.equals(values.apply(row), value));
+            }
+            case GREATER_THAN : 
+                return compare(getFirstOperandAsRaw(predicate), c -> c > 0);
+            case GREATER_OR_EQUAL : 
+                return compare(getFirstOperandAsRaw(predicate), c -> c >= 0);
+            case LESS_THAN : 
+                return compare(getFirstOperandAsRaw(predicate), c -> c < 0);
+            case LESS_OR_EQUAL : 
+                return compare(getFirstOperandAsRaw(predicate), c -> c <= 0);
+            case BETWEEN : case NOT_BETWEEN : {
+                final Object start = getFirstOperandAsRaw(predicate);
+                final Object end   = getSecondOperand(predicate);
+                
+                // Null bounds have special semantics, let the entity decide.
+                if (start == null || end == null) {
+                    return Optional.empty();
+                }
+                
+                final Inclusion inclusion = getInclusionOperand(predicate);
+                final boolean between = predicate.getPredicateType() == PredicateType.BETWEEN;
+                return Optional.of(row -> {
+                    @SuppressWarnings("unchecked")
+                    final Comparable<Object> value = (Comparable<Object>) values.apply(row);
+                    if (value == null) {
+                        return false;
+                    }
+                    
+                    final int cStart = value.compareTo(start);
+                    final int cEnd   = value.compareTo(end);
+                    return between == (
+                        (inclusion.isStartInclusive() ? cStart >= 0 : cStart > 0) &&
+                        (inclusion.isEndInclusive()   ? cEnd   <= 0 : cEnd   < 0)
+                    );
+                });
+            }
+            case IN : {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                return Optional.of(row -> set.contains(values.apply(row)));
+            }
+            case NOT_IN : {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                return Optional.of(row -> {
+                    final Object value = values.apply(row);
+                    return value != null && !set.contains(value);
+                });
+            }
+            default : return Optional.empty();
+        }
+    }
+    
+    private Optional<IntPredicate> compare(Object operand, IntPredicate comparison) {
+        if (operand == null) {
+            return Optional.of(row -> false);
+        }
+        
+        return Optional.of(row -> {
+            @SuppressWarnings("unchecked")
+            final Comparable<Object> value = (Comparable<Object>) values.apply(row);
+            return value != null && comparison.test(value.compareTo(operand));
+        });
+    }
+}
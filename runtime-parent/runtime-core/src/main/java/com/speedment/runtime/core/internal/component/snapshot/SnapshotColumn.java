@@ -0,0 +1,76 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.Optional;
+import java.util.function.IntPredicate;
+
+/**
+ * A single column of a {@link ColumnarSnapshot}. Rows are addressed by their
+ * index in the snapshot.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+interface SnapshotColumn {
+
+    /**
+     * Returns the number of rows in this column.
+     * 
+     * @return  the number of rows
+     */
+    int size();
+    
+    /**
+     * Returns if the value at the specified row is {@code null}.
+     * 
+     * @param row  the row index
+     * @return     {@code true} if the value is {@code null}
+     */
+    boolean isNull(int row);
+    
+    /**
+     * Returns the value at the specified row, boxed if the column holds
+     * primitive values, or {@code null} if the value is {@code null}.
+     * 
+     * @param row  the row index
+     * @return     the value
+     */
+    Object valueOf(int row);
+    
+    /**
+     * Converts an operand of a predicate into the same type as the values
+     * returned by {@link #valueOf(int)} so that the two can be compared.
+     * 
+     * @param operand  the non-null predicate operand
+     * @return         the operand as a value of this column
+     */
+    Object keyOf(Object operand);
+    
+    /**
+     * Compiles the specified predicate into a predicate over row indexes that
+     * evaluates the condition directly against the column data. If the 
+     * predicate can not be expressed for this column, an empty optional is
+     * returned and the predicate must be evaluated against the entity.
+     * 
+     * @param predicate  the predicate to compile
+     * @return           the compiled row predicate or empty
+     */
+    Optional<IntPredicate> compile(FieldPredicate<?> predicate);
+}
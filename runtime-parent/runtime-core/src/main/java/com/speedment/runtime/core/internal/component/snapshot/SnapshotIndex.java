@@ -0,0 +1,42 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.Optional;
+
+/**
+ * A secondary index over a {@link SnapshotColumn} that can find the rows 
+ * matching a predicate without scanning the whole column.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+interface SnapshotIndex {
+    
+    /**
+     * Selects the rows that may match the specified predicate. The returned
+     * rows are a superset of the matching rows and are sorted in ascending
+     * row order. If the predicate can not be answered by this index, an empty
+     * optional is returned.
+     * 
+     * @param predicate  the predicate
+     * @return           the candidate rows or empty
+     */
+    Optional<int[]> select(FieldPredicate<?> predicate);
+}
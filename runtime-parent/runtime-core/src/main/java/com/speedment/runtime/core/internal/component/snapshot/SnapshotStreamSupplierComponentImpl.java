@@ -0,0 +1,551 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
+import com.speedment.common.injector.annotation.Inject;
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.config.Index;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.util.DocumentDbUtil;
+import com.speedment.runtime.core.component.ManagerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.snapshot.SnapshotStreamSupplierComponent;
+import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.speedment.common.injector.State.STARTED;
+import static com.speedment.common.injector.State.STOPPED;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * The default implementation of the 
+ * {@link SnapshotStreamSupplierComponent}-interface. This component is not 
+ * installed by default but can be added to an application using
+ * {@code withComponent(SnapshotStreamSupplierComponentImpl.class)}.
+ * <p>
+ * The tables to hold in memory are set using the {@link #SNAPSHOT_TABLES}
+ * param as a comma separated list of table names (optionally prefixed by 
+ * the schema name). If the param is empty, every table is held in memory. 
+ * If the {@link #SNAPSHOT_RELOAD_INTERVAL} param is set to a positive number
+ * of seconds, all loaded snapshots are reloaded in the background with that 
+ * interval.
+ * <p>
+ * The enabled indexes of each table in the project metadata are used to 
+ * build secondary in-memory indexes over the snapshot.
+ * <p>
+ * If the {@link #SNAPSHOT_OFF_HEAP} param is {@code true}, the rows are 
+ * stored outside of the Java heap. If the {@link #SNAPSHOT_DIRECTORY} param
+ * is set, the rows are instead stored in memory-mapped files in that 
+ * directory and an existing file is used when a table is first streamed 
+ * instead of querying the database. Tables with values that can not be 
+ * stored off-heap are held on the heap.
+ * <p>
+ * The {@link #SNAPSHOT_WATERMARK_COLUMNS} param is a comma separated list of
+ * columns (prefixed by the table name and optionally the schema name) that 
+ * only ever increase when a row is inserted or updated, for example an
+ * {@code updated_at} timestamp or a version column. If the 
+ * {@link #SNAPSHOT_REFRESH_INTERVAL} param is set to a positive number of 
+ * seconds, the rows of those tables that have a watermark greater than or 
+ * equal to the highest value in the snapshot are fetched with that interval
+ * and merged into the snapshot by primary key. Fetched rows that are equal
+ * to the row in the snapshot are ignored, updated rows keep their position 
+ * and inserted rows are appended. Deleted rows can not be seen through the 
+ * watermark, so the rows of the table are also counted and the snapshot is
+ * reloaded if the count differs from the merged snapshot. Note that if the
+ * same number of rows are deleted and inserted between two refreshes, the 
+ * deleted rows remain in the snapshot until it is reloaded, for example 
+ * using the {@link #SNAPSHOT_RELOAD_INTERVAL} param.
+ * <p>
+ * A refresh only reads the changed rows and the row count from the 
+ * database. If no row has changed, the snapshot is kept as it is. Otherwise,
+ * the columns and indexes of the snapshot are built anew. Snapshots are 
+ * immutable so that streams that are already running keep seeing a 
+ * consistent state of the table while a refresh is in progress.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class SnapshotStreamSupplierComponentImpl implements SnapshotStreamSupplierComponent {
+    
+    private final static Logger LOGGER = LoggerManager.getLogger(SnapshotStreamSupplierComponentImpl.class);
+    
+    public final static String 
+        SNAPSHOT_TABLES            = "snapshot_tables",
+        SNAPSHOT_RELOAD_INTERVAL   = "snapshot_reload_interval",
+        SNAPSHOT_OFF_HEAP          = "snapshot_off_heap",
+        SNAPSHOT_DIRECTORY         = "snapshot_directory",
+        SNAPSHOT_WATERMARK_COLUMNS = "snapshot_watermark_columns",
+        SNAPSHOT_REFRESH_INTERVAL  = "snapshot_refresh_interval";
+    
+    private @Config(name=SNAPSHOT_TABLES, value="") String tables;
+    private @Config(name=SNAPSHOT_RELOAD_INTERVAL, value="0") long reloadInterval;
+    private @Config(name=SNAPSHOT_OFF_HEAP, value="false") boolean offHeap;
+    private @Config(name=SNAPSHOT_DIRECTORY, value="") String directory;
+    private @Config(name=SNAPSHOT_WATERMARK_COLUMNS, value="") String watermarkColumns;
+    private @Config(name=SNAPSHOT_REFRESH_INTERVAL, value="0") long refreshInterval;
+    
+    private @Inject SqlStreamSupplierComponent sqlStreamSupplierComponent;
+    private @Inject ManagerComponent managerComponent;
+    private @Inject ProjectComponent projectComponent;
+    
+    private final Map<TableIdentifier<?>, ColumnarSnapshot<?>> snapshots;
+    private final Map<TableIdentifier<?>, Comparable<Object>> watermarks;
+    private final Map<TableIdentifier<?>, Map<List<Object>, Integer>> rowsByKey;
+    private ScheduledExecutorService scheduler;
+
+    public SnapshotStreamSupplierComponentImpl() {
+        this.snapshots  = new ConcurrentHashMap<>();
+        this.watermarks = new ConcurrentHashMap<>();
+        this.rowsByKey  = new ConcurrentHashMap<>();
+    }
+    
+    @ExecuteBefore(STARTED)
+    void startReloader() {
+        if (reloadInterval > 0 || refreshInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "speedment-snapshot-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        
+        if (reloadInterval > 0) {
+            scheduler.scheduleWithFixedDelay(
+                this::reloadLoaded, 
+                reloadInterval, 
+                reloadInterval, 
+                TimeUnit.SECONDS
+            );
+        }
+        
+        if (refreshInterval > 0) {
+            scheduler.scheduleWithFixedDelay(
+                this::refreshLoaded, 
+                refreshInterval, 
+                refreshInterval, 
+                TimeUnit.SECONDS
+            );
+        }
+    }
+    
+    @ExecuteBefore(STOPPED)
+    void stopReloader() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        snapshots.clear();
+        watermarks.clear();
+        rowsByKey.clear();
+    }
+
+    @Override
+    public <ENTITY> Stream<ENTITY> stream(TableIdentifier<ENTITY> tableIdentifier, ParallelStrategy strategy) {
+        requireNonNull(tableIdentifier);
+        requireNonNull(strategy);
+        
+        if (isSnapshot(tableIdentifier)) {
+            return snapshotOf(tableIdentifier).stream();
+        } else {
+            return sqlStreamSupplierComponent.stream(tableIdentifier, strategy);
+        }
+    }
+
+    @Override
+    public boolean isSnapshot(TableIdentifier<?> tableIdentifier) {
+        requireNonNull(tableIdentifier);
+        final Set<String> names = tableNames();
+        
+        return names.isEmpty()
+            || names.contains(tableIdentifier.getTableName())
+            || names.contains(tableIdentifier.getSchemaName() + "." + tableIdentifier.getTableName());
+    }
+
+    @Override
+    public synchronized void reload(TableIdentifier<?> tableIdentifier) {
+        requireNonNull(tableIdentifier);
+        if (!isSnapshot(tableIdentifier)) {
+            throw new IllegalArgumentException(
+                "Table " + tableIdentifier + " is not held as a snapshot."
+            );
+        }
+        
+        snapshots.put(tableIdentifier, load(tableIdentifier));
+    }
+
+    @Override
+    public synchronized void refresh(TableIdentifier<?> tableIdentifier) {
+        requireNonNull(tableIdentifier);
+        if (!isSnapshot(tableIdentifier)) {
+            throw new IllegalArgumentException(
+                "Table " + tableIdentifier + " is not held as a snapshot."
+            );
+        }
+        
+        refreshHelper(tableIdentifier);
+    }
+
+    @Override
+    public void reloadAll() {
+        managerComponent.stream()
+            .map(Manager::getTableIdentifier)
+            .filter(this::isSnapshot)
+            .forEach(this::reload);
+    }
+    
+    private void reloadLoaded() {
+        for (final TableIdentifier<?> tableIdentifier : snapshots.keySet()) {
+            try {
+                reload(tableIdentifier);
+            } catch (final RuntimeException ex) {
+                // Keep the previous snapshot and try again next time
+                LOGGER.error(ex, "Unable to reload snapshot for table %s.", tableIdentifier);
+            }
+        }
+    }
+    
+    private void refreshLoaded() {
+        for (final TableIdentifier<?> tableIdentifier : snapshots.keySet()) {
+            if (watermarkColumnOf(tableIdentifier).isPresent()) {
+                try {
+                    refresh(tableIdentifier);
+                } catch (final RuntimeException ex) {
+                    // Keep the previous snapshot and try again next time
+                    LOGGER.error(ex, "Unable to refresh snapshot for table %s.", tableIdentifier);
+                }
+            }
+        }
+    }
+    
+    private <ENTITY> void refreshHelper(TableIdentifier<ENTITY> tableIdentifier) {
+        final Manager<ENTITY> manager = managerOf(tableIdentifier);
+        final Optional<Field<ENTITY>> watermarkField = watermarkFieldOf(manager);
+        
+        @SuppressWarnings("unchecked")
+        final ColumnarSnapshot<ENTITY> snapshot = 
+            (ColumnarSnapshot<ENTITY>) snapshots.get(tableIdentifier);
+        
+        if (snapshot == null 
+        ||  !watermarkField.isPresent() 
+        ||  manager.primaryKeyFields().count() == 0) {
+            snapshots.put(tableIdentifier, load(tableIdentifier));
+            return;
+        }
+        
+        final Field<ENTITY> field = watermarkField.get();
+        Comparable<Object> watermark = watermarks.get(tableIdentifier);
+        if (watermark == null) {
+            // The snapshot was restored from a file
+            for (int row = 0; row < snapshot.size(); row++) {
+                watermark = max(watermark, field, snapshot.entity(row));
+            }
+            
+            if (watermark == null) {
+                snapshots.put(tableIdentifier, load(tableIdentifier));
+                return;
+            }
+        }
+        
+        // Rows with the same watermark as the previous maximum may have been 
+        // written after the last refresh so they are fetched again.
+        final long start = System.currentTimeMillis();
+        final List<ENTITY> fetched;
+        try (final Stream<ENTITY> stream = sqlStreamSupplierComponent.stream(
+                tableIdentifier, ParallelStrategy.computeIntensityDefault())) {
+            fetched = stream.filter(atLeast(field, watermark)).collect(toList());
+        }
+        
+        final Map<List<Object>, Integer> rows = rowsByKey.computeIfAbsent(
+            tableIdentifier, $ -> rowsByKeyOf(manager, snapshot)
+        );
+        
+        // Fetched rows that are equal to the row in the snapshot are ignored
+        final Map<Integer, ENTITY> updated = new HashMap<>();
+        final Map<List<Object>, ENTITY> inserted = new LinkedHashMap<>();
+        for (final ENTITY entity : fetched) {
+            final List<Object> key = primaryKeyOf(manager, entity);
+            final Integer row = rows.get(key);
+            if (row == null) {
+                inserted.put(key, entity);
+            } else if (!isEqual(manager, snapshot.entity(row), entity)) {
+                updated.put(row, entity);
+            }
+            
+            watermark = max(watermark, field, entity);
+        }
+        
+        // Deletes are not visible through the watermark. If the table does 
+        // not have as many rows as the refreshed snapshot, it is reloaded.
+        final int size = snapshot.size() + inserted.size();
+        final long count;
+        try (final Stream<ENTITY> stream = sqlStreamSupplierComponent.stream(
+                tableIdentifier, ParallelStrategy.computeIntensityDefault())) {
+            count = stream.count();
+        }
+        
+        if (count != size) {
+            LOGGER.info("Table %s has %d rows but the refreshed snapshot has %d. Reloading.", 
+                tableIdentifier, count, size
+            );
+            snapshots.put(tableIdentifier, load(tableIdentifier));
+            return;
+        }
+        
+        if (updated.isEmpty() && inserted.isEmpty()) {
+            return;
+        }
+        
+        final List<ENTITY> entities = new ArrayList<>(size);
+        for (int row = 0; row < snapshot.size(); row++) {
+            final ENTITY entity = updated.get(row);
+            entities.add(entity == null ? snapshot.entity(row) : entity);
+        }
+        
+        final Map<List<Object>, Integer> insertedRows = new HashMap<>();
+        for (final Map.Entry<List<Object>, ENTITY> entry : inserted.entrySet()) {
+            insertedRows.put(entry.getKey(), entities.size());
+            entities.add(entry.getValue());
+        }
+        
+        snapshots.put(tableIdentifier, build(tableIdentifier, manager, entities));
+        watermarks.put(tableIdentifier, watermark);
+        rows.putAll(insertedRows);
+        
+        LOGGER.info("Refreshed snapshot of table %s with %d updated and %d inserted rows in %d ms.", 
+            tableIdentifier, updated.size(), inserted.size(), System.currentTimeMillis() - start
+        );
+    }
+    
+    private <ENTITY> ColumnarSnapshot<ENTITY> snapshotOf(TableIdentifier<ENTITY> tableIdentifier) {
+        @SuppressWarnings("unchecked")
+        final ColumnarSnapshot<ENTITY> snapshot = (ColumnarSnapshot<ENTITY>) 
+            snapshots.computeIfAbsent(tableIdentifier, this::restoreOrLoad);
+        
+        return snapshot;
+    }
+    
+    private <ENTITY> ColumnarSnapshot<ENTITY> restoreOrLoad(TableIdentifier<ENTITY> tableIdentifier) {
+        rowsByKey.remove(tableIdentifier);
+        final Path file = fileOf(tableIdentifier);
+        if (file != null) {
+            final Manager<ENTITY> manager = managerOf(tableIdentifier);
+            
+            try {
+                final Optional<OffHeapSnapshotStore<ENTITY>> store = OffHeapSnapshotStore.open(
+                    file, manager.getEntityClass(), manager.fields()
+                );
+                
+                if (store.isPresent()) {
+                    LOGGER.info("Restored snapshot of table %s with %d rows from %s.", 
+                        tableIdentifier, store.get().size(), file
+                    );
+                    
+                    return store.get().toSnapshot(indexesOf(tableIdentifier));
+                }
+            } catch (final SpeedmentException ex) {
+                LOGGER.error(ex, "Unable to restore snapshot from %s.", file);
+            }
+        }
+        
+        return load(tableIdentifier);
+    }
+    
+    private <ENTITY> ColumnarSnapshot<ENTITY> load(TableIdentifier<ENTITY> tableIdentifier) {
+        final Manager<ENTITY> manager = managerOf(tableIdentifier);
+        rowsByKey.remove(tableIdentifier);
+        
+        final long start = System.currentTimeMillis();
+        final List<ENTITY> entities;
+        try (final Stream<ENTITY> stream = sqlStreamSupplierComponent.stream(
+                tableIdentifier, ParallelStrategy.computeIntensityDefault())) {
+            entities = stream.collect(toList());
+        }
+        
+        final Optional<Field<ENTITY>> watermarkField = watermarkFieldOf(manager);
+        if (watermarkField.isPresent()) {
+            Comparable<Object> watermark = null;
+            for (final ENTITY entity : entities) {
+                watermark = max(watermark, watermarkField.get(), entity);
+            }
+            
+            if (watermark == null) {
+                watermarks.remove(tableIdentifier);
+            } else {
+                watermarks.put(tableIdentifier, watermark);
+            }
+        }
+        
+        final ColumnarSnapshot<ENTITY> snapshot = build(tableIdentifier, manager, entities);
+        LOGGER.info("Loaded snapshot of table %s with %d rows in %d ms.", 
+            tableIdentifier, snapshot.size(), System.currentTimeMillis() - start
+        );
+        
+        return snapshot;
+    }
+    
+    private <ENTITY> ColumnarSnapshot<ENTITY> build(
+            TableIdentifier<ENTITY> tableIdentifier, 
+            Manager<ENTITY> manager, 
+            List<ENTITY> entities) {
+        
+        final Optional<OffHeapSnapshotStore<ENTITY>> store = offHeap || !directory.isEmpty()
+            ? OffHeapSnapshotStore.create(entities, manager.fields(), fileOf(tableIdentifier))
+            : Optional.empty();
+        
+        return store
+            .map(s -> s.toSnapshot(indexesOf(tableIdentifier)))
+            .orElseGet(() -> new ColumnarSnapshot<>(
+                entities, manager.fields(), indexesOf(tableIdentifier)
+            ));
+    }
+    
+    private Stream<? extends Index> indexesOf(TableIdentifier<?> tableIdentifier) {
+        return DocumentDbUtil.referencedTableIfPresent(
+                projectComponent.getProject(),
+                tableIdentifier.getDbmsName(),
+                tableIdentifier.getSchemaName(),
+                tableIdentifier.getTableName()
+            )
+            .map(Table::indexes)
+            .orElseGet(Stream::empty);
+    }
+    
+    private Path fileOf(TableIdentifier<?> tableIdentifier) {
+        if (directory.isEmpty()) {
+            return null;
+        }
+        
+        return Paths.get(directory).resolve(
+            tableIdentifier.getDbmsName() + "." +
+            tableIdentifier.getSchemaName() + "." +
+            tableIdentifier.getTableName() + ".snapshot"
+        );
+    }
+    
+    private <ENTITY> Manager<ENTITY> managerOf(TableIdentifier<ENTITY> tableIdentifier) {
+        @SuppressWarnings("unchecked")
+        final Manager<ENTITY> manager = (Manager<ENTITY>) managerComponent.stream()
+            .filter(m -> tableIdentifier.equals(m.getTableIdentifier()))
+            .findAny()
+            .orElseThrow(() -> new SpeedmentException(
+                "No Manager installed for table identifier " + tableIdentifier
+            ));
+        
+        return manager;
+    }
+    
+    private <ENTITY> Optional<Field<ENTITY>> watermarkFieldOf(Manager<ENTITY> manager) {
+        return watermarkColumnOf(manager.getTableIdentifier())
+            .flatMap(column -> manager.fields()
+                .filter(HasComparableOperators.class::isInstance)
+                .filter(f -> column.equals(f.identifier().getColumnName()))
+                .findAny()
+            );
+    }
+    
+    private Optional<String> watermarkColumnOf(TableIdentifier<?> tableIdentifier) {
+        final String table  = tableIdentifier.getTableName() + ".";
+        final String schema = tableIdentifier.getSchemaName() + "." + table;
+        
+        return Stream.of(watermarkColumns.split(","))
+            .map(String::trim)
+            .filter(s -> s.startsWith(schema) || s.startsWith(table))
+            .map(s -> s.substring(s.lastIndexOf('.') + 1))
+            .filter(s -> !s.isEmpty())
+            .findFirst();
+    }
+    
+    private static <ENTITY> Map<List<Object>, Integer> rowsByKeyOf(
+            Manager<ENTITY> manager, 
+            ColumnarSnapshot<ENTITY> snapshot) {
+        
+        final Map<List<Object>, Integer> rows = new HashMap<>(snapshot.size() * 2);
+        for (int row = 0; row < snapshot.size(); row++) {
+            rows.put(primaryKeyOf(manager, snapshot.entity(row)), row);
+        }
+        return rows;
+    }
+    
+    private static <ENTITY> List<Object> primaryKeyOf(Manager<ENTITY> manager, ENTITY entity) {
+        return manager.primaryKeyFields()
+            .map(f -> f.getter().apply(entity))
+            .collect(toList());
+    }
+    
+    private static <ENTITY> boolean isEqual(Manager<ENTITY> manager, ENTITY first, ENTITY second) {
+        return manager.fields().allMatch(f -> 
+            Objects.deepEquals(f.getter().apply(first), f.getter().apply(second))
+        );
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> Predicate<ENTITY> atLeast(Field<ENTITY> field, Comparable<Object> watermark) {
+        return ((HasComparableOperators<ENTITY, Comparable<Object>>) field)
+            .greaterOrEqual(watermark);
+    }
+    
+    private static <ENTITY> Comparable<Object> max(
+            Comparable<Object> watermark, 
+            Field<ENTITY> field, 
+            ENTITY entity) {
+        
+        @SuppressWarnings("unchecked")
+        final Comparable<Object> value = (Comparable<Object>) field.getter().apply(entity);
+        
+        if (value == null) {
+            return watermark;
+        } else if (watermark == null || value.compareTo(watermark) > 0) {
+            return value;
+        } else {
+            return watermark;
+        }
+    }
+    
+    private Set<String> tableNames() {
+        return Stream.of(tables.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .collect(toSet());
+    }
+}
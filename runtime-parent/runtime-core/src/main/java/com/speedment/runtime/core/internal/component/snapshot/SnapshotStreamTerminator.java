@@ -0,0 +1,267 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.SortedComparatorAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.DoublePipeline;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.IntPipeline;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.LongPipeline;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.ReferencePipeline;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.internal.predicate.AbstractCombinedPredicate.AndCombinedBasePredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static com.speedment.runtime.core.stream.action.Property.SIZE;
+import static com.speedment.runtime.core.stream.action.Verb.PRESERVE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link StreamTerminator} for streams over a {@link ColumnarSnapshot}.
+ * Leading filters with field predicates are compiled into a row filter that
+ * is evaluated against the columns of the snapshot. Filters that could be
+ * compiled completely are removed from the pipeline. If a secondary index can
+ * answer any of the conditions, only the rows selected by the index with the
+ * fewest candidates are visited. A {@code sorted(field.comparator())} directly 
+ * after the filters is answered by a sorted index when one exists.
+ *
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class SnapshotStreamTerminator<ENTITY> implements StreamTerminator {
+    
+    private static final Predicate<Action<?, ?>> CHECK_RETAIN_SIZE = 
+        action -> action.is(PRESERVE, SIZE);
+
+    private final ColumnarSnapshot<ENTITY> snapshot;
+    private IntPredicate rowFilter;
+    private int[] candidates;
+    private int[] order;
+    
+    SnapshotStreamTerminator(ColumnarSnapshot<ENTITY> snapshot) {
+        this.snapshot   = requireNonNull(snapshot);
+        this.rowFilter  = null;
+        this.candidates = null;
+        this.order      = null;
+    }
+
+    @Override
+    public <P extends Pipeline> P optimize(P initialPipeline) {
+        requireNonNull(initialPipeline);
+        
+        IntPredicate filter = rowFilter;
+        int[] selected = candidates;
+        
+        while (!initialPipeline.isEmpty()) {
+            final Action<?, ?> action = initialPipeline.getFirst();
+            if (!(action instanceof FilterAction)) {
+                break; // We can only do initial consecutive FilterAction(s)
+            }
+            
+            @SuppressWarnings("unchecked")
+            final FilterAction<ENTITY> filterAction = (FilterAction<ENTITY>) action;
+            final List<Predicate<? super ENTITY>> parts = new ArrayList<>();
+            flatten(filterAction.getPredicate(), parts);
+            
+            boolean compiledAll = true;
+            for (final Predicate<? super ENTITY> part : parts) {
+                final Optional<IntPredicate> compiled = compile(part);
+                if (compiled.isPresent()) {
+                    filter = filter == null 
+                        ? compiled.get() 
+                        : filter.and(compiled.get());
+                    
+                    // Use the index that gives the fewest candidate rows
+                    final Optional<int[]> indexed = select(part);
+                    if (indexed.isPresent() 
+                    && (selected == null || indexed.get().length < selected.length)) {
+                        selected = indexed.get();
+                    }
+                } else {
+                    compiledAll = false;
+                }
+            }
+            
+            if (compiledAll) {
+                initialPipeline.removeFirst();
+            } else {
+                // The remaining conditions must still be tested on the entity
+                break;
+            }
+        }
+        
+        // A sort directly after the filters can be answered by a sorted index
+        if (order == null && !initialPipeline.isEmpty() 
+        && initialPipeline.getFirst() instanceof SortedComparatorAction) {
+            final SortedComparatorAction<?> sortedAction = 
+                (SortedComparatorAction<?>) initialPipeline.getFirst();
+            
+            final Optional<int[]> ordered = snapshot.order(sortedAction.getComparator());
+            if (ordered.isPresent()) {
+                order = ordered.get();
+                initialPipeline.removeFirst();
+            }
+        }
+        
+        rowFilter  = filter;
+        candidates = selected;
+        
+        if (filter != null || selected != null || order != null) {
+            final IntPredicate finalFilter = rowFilter();
+            final int[] finalRows = rows();
+            
+            if (finalRows == null) {
+                initialPipeline.setInitialSupplier(() -> snapshot.stream(finalFilter));
+            } else {
+                initialPipeline.setInitialSupplier(() -> snapshot.stream(finalRows, finalFilter));
+            }
+        }
+        
+        return initialPipeline;
+    }
+
+    @Override
+    public long count(DoublePipeline pipeline) {
+        requireNonNull(pipeline);
+        return countHelper(pipeline, () -> StreamTerminator.super.count(pipeline));
+    }
+
+    @Override
+    public long count(IntPipeline pipeline) {
+        requireNonNull(pipeline);
+        return countHelper(pipeline, () -> StreamTerminator.super.count(pipeline));
+    }
+
+    @Override
+    public long count(LongPipeline pipeline) {
+        requireNonNull(pipeline);
+        return countHelper(pipeline, () -> StreamTerminator.super.count(pipeline));
+    }
+
+    @Override
+    public <T> long count(ReferencePipeline<T> pipeline) {
+        requireNonNull(pipeline);
+        return countHelper(pipeline, () -> StreamTerminator.super.count(pipeline));
+    }
+    
+    /**
+     * Optimizer for count operations. If all actions that remain after the 
+     * filters have been compiled retain the size of the stream, the rows are
+     * counted without materializing any entities.
+     *
+     * @param pipeline          the pipeline
+     * @param fallbackSupplier  a fallback supplier should any action not be 
+     *                          size retaining
+     * @return                  the number of rows
+     */
+    private long countHelper(Pipeline pipeline, LongSupplier fallbackSupplier) {
+        requireNonNulls(pipeline, fallbackSupplier);
+        optimize(pipeline);
+        
+        if (pipeline.stream().allMatch(CHECK_RETAIN_SIZE)) {
+            final int[] rows = rows();
+            if (rows == null) {
+                return rowFilter == null 
+                    ? snapshot.size() 
+                    : snapshot.count(rowFilter);
+            } else {
+                return snapshot.count(rows, rowFilter());
+            }
+        } else {
+            return fallbackSupplier.getAsLong();
+        }
+    }
+    
+    /**
+     * Returns the rows to iterate over, or {@code null} if all rows of the
+     * snapshot should be considered in row order.
+     * 
+     * @return  the rows or {@code null}
+     */
+    private int[] rows() {
+        return order == null ? candidates : order;
+    }
+    
+    /**
+     * Returns the filter to apply to the rows returned by {@link #rows()}. If
+     * the rows are given by a sorted index, the candidate rows selected by 
+     * another index are applied as a filter.
+     * 
+     * @return  the row filter
+     */
+    private IntPredicate rowFilter() {
+        IntPredicate result = rowFilter == null ? row -> true : rowFilter;
+        
+        if (order != null && candidates != null) {
+            final BitSet mask = new BitSet(snapshot.size());
+            for (final int row : candidates) {
+                mask.set(row);
+            }
+            result = result.and(mask::get);
+        }
+        
+        return result;
+    }
+    
+    private Optional<IntPredicate> compile(Predicate<? super ENTITY> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            @SuppressWarnings("unchecked")
+            final FieldPredicate<ENTITY> fieldPredicate = (FieldPredicate<ENTITY>) predicate;
+            return snapshot.compile(fieldPredicate);
+        } else {
+            return Optional.empty();
+        }
+    }
+    
+    private Optional<int[]> select(Predicate<? super ENTITY> predicate) {
+        if (predicate instanceof FieldPredicate) {
+            @SuppressWarnings("unchecked")
+            final FieldPredicate<ENTITY> fieldPredicate = (FieldPredicate<ENTITY>) predicate;
+            return snapshot.select(fieldPredicate);
+        } else {
+            return Optional.empty();
+        }
+    }
+    
+    private static <ENTITY> void flatten(
+            Predicate<? super ENTITY> predicate, 
+            List<Predicate<? super ENTITY>> parts) {
+        
+        if (predicate instanceof AndCombinedBasePredicate 
+        && !((AndCombinedBasePredicate<?>) predicate).isNegated()) {
+            @SuppressWarnings("unchecked")
+            final AndCombinedBasePredicate<ENTITY> and = 
+                (AndCombinedBasePredicate<ENTITY>) predicate;
+            and.stream().forEachOrdered(p -> flatten(p, parts));
+        } else {
+            parts.add(predicate);
+        }
+    }
+}
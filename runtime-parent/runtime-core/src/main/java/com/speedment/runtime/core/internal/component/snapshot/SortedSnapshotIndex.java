@@ -0,0 +1,233 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getInclusionOperand;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getSecondOperand;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SnapshotIndex} that holds the rows with non-null values of a
+ * column sorted by value. It can answer {@code EQUAL}, {@code IN}, range and
+ * {@code BETWEEN} predicates using binary search and can list the rows in 
+ * value order so that a {@code sorted()} operation can be avoided.
+ * <p>
+ * Rows with equal values are kept in ascending row order, which is the same
+ * order a stable sort of the snapshot would produce.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class SortedSnapshotIndex implements SnapshotIndex {
+    
+    private final SnapshotColumn column;
+    private final Comparable<Object>[] keys;
+    private final int[] rows;
+    private final int nullCount;
+
+    SortedSnapshotIndex(SnapshotColumn column) {
+        this.column = requireNonNull(column);
+        
+        final Integer[] sorted = IntStream.range(0, column.size())
+            .filter(row -> !column.isNull(row))
+            .boxed()
+            .toArray(Integer[]::new);
+        
+        // Arrays.sort on objects is stable so equal values stay in row order
+        Arrays.sort(sorted, (a, b) -> key(a).compareTo(column.valueOf(b)));
+        
+        this.keys      = newKeyArray(sorted.length);
+        this.rows      = new int[sorted.length];
+        this.nullCount = column.size() - sorted.length;
+        
+        for (int i = 0; i < sorted.length; i++) {
+            rows[i] = sorted[i];
+            keys[i] = key(sorted[i]);
+        }
+    }
+    
+    /**
+     * Returns if any row of the indexed column holds a {@code null} value. 
+     * Such rows are not part of the index.
+     * 
+     * @return  {@code true} if there are null values
+     */
+    boolean hasNulls() {
+        return nullCount > 0;
+    }
+    
+    /**
+     * Returns all indexed rows ordered by value, either ascending or 
+     * descending. Rows with equal values are always in ascending row order.
+     * 
+     * @param reversed  if the order should be descending
+     * @return          the rows in value order
+     */
+    int[] order(boolean reversed) {
+        if (!reversed) {
+            return rows.clone();
+        }
+        
+        final int[] result = new int[rows.length];
+        int to = rows.length, i = 0;
+        while (to > 0) {
+            final int from = lowerBound(keys[to - 1]);
+            System.arraycopy(rows, from, result, i, to - from);
+            i += to - from;
+            to = from;
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<int[]> select(FieldPredicate<?> predicate) {
+        if (predicate.isNegated()) {
+            return Optional.empty();
+        }
+        
+        switch (predicate.getPredicateType()) {
+            case EQUAL : {
+                final Object operand = getFirstOperandAsRaw(predicate);
+                if (operand == null) {
+                    return Optional.empty();
+                }
+                final Object key = column.keyOf(operand);
+                return Optional.of(slice(lowerBound(key), upperBound(key)));
+            }
+            case GREATER_THAN : {
+                final Object operand = getFirstOperandAsRaw(predicate);
+                return operand == null ? Optional.empty()
+                    : Optional.of(slice(upperBound(column.keyOf(operand)), rows.length));
+            }
+            case GREATER_OR_EQUAL : {
+                final Object operand = getFirstOperandAsRaw(predicate);
+                return operand == null ? Optional.empty()
+                    : Optional.of(slice(lowerBound(column.keyOf(operand)), rows.length));
+            }
+            case LESS_THAN : {
+                final Object operand = getFirstOperandAsRaw(predicate);
+                return operand == null ? Optional.empty()
+                    : Optional.of(slice(0, lowerBound(column.keyOf(operand))));
+            }
+            case LESS_OR_EQUAL : {
+                final Object operand = getFirstOperandAsRaw(predicate);
+                return operand == null ? Optional.empty()
+                    : Optional.of(slice(0, upperBound(column.keyOf(operand))));
+            }
+            case BETWEEN : {
+                final Object start = getFirstOperandAsRaw(predicate);
+                final Object end   = getSecondOperand(predicate);
+                if (start == null || end == null) {
+                    return Optional.empty();
+                }
+                
+                final Inclusion inclusion = getInclusionOperand(predicate);
+                final Object startKey = column.keyOf(start);
+                final Object endKey   = column.keyOf(end);
+                final int from = inclusion.isStartInclusive() ? lowerBound(startKey) : upperBound(startKey);
+                final int to   = inclusion.isEndInclusive()   ? upperBound(endKey)   : lowerBound(endKey);
+                return Optional.of(slice(from, to));
+            }
+            case IN : {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                if (set.stream().anyMatch(Objects::isNull)) {
+                    return Optional.empty();
+                }
+                return Optional.of(set.stream()
+                    .map(column::keyOf)
+                    .map(key -> slice(lowerBound(key), upperBound(key)))
+                    .flatMapToInt(IntStream::of)
+                    .sorted()
+                    .distinct()
+                    .toArray()
+                );
+            }
+            default : return Optional.empty();
+        }
+    }
+    
+    private int[] slice(int from, int to) {
+        if (from >= to) {
+            return new int[0];
+        }
+        
+        final int[] result = Arrays.copyOfRange(rows, from, to);
+        Arrays.sort(result);
+        return result;
+    }
+    
+    /**
+     * Returns the first index position with a key that is not less than the
+     * specified key.
+     * 
+     * @param key  the key
+     * @return     the lower bound
+     */
+    private int lowerBound(Object key) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Returns the first index position with a key that is greater than the
+     * specified key.
+     * 
+     * @param key  the key
+     * @return     the upper bound
+     */
+    private int upperBound(Object key) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> key(int row) {
+        return (Comparable<Object>) column.valueOf(row);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object>[] newKeyArray(int length) {
+        return (Comparable<Object>[]) new Comparable<?>[length];
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRaw;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getInclusionOperand;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getSecondOperand;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link SnapshotColumn} that holds {@code String} values dictionary 
+ * encoded. Every distinct value is stored once in a sorted dictionary and 
+ * each row only holds the index of its value in that dictionary, or 
+ * {@code -1} if the value is {@code null}.
+ * <p>
+ * Since the dictionary is sorted, comparisons between strings can be done
+ * by comparing dictionary codes. Both the dictionary and the codes can be
+ * held either on the heap or in any other storage that can be read by index.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class StringSnapshotColumn extends AbstractSnapshotColumn {
+    
+    static final int NULL_CODE = -1,
+                     NO_CODE   = -2;
+    
+    private final IntFunction<String> dictionary;
+    private final int dictionarySize;
+    private final IntUnaryOperator codes;
+
+    StringSnapshotColumn(String[] values) {
+        this(values, dictionaryOf(values));
+    }
+    
+    private StringSnapshotColumn(String[] values, String[] dictionary) {
+        this(
+            i -> dictionary[i], 
+            dictionary.length, 
+            readerOf(codesOf(values, dictionary)), 
+            values.length
+        );
+    }
+    
+    /**
+     * Creates a column from a sorted dictionary of distinct values and the
+     * dictionary codes of each row, both of which can be held in any storage
+     * that can be read by index.
+     * 
+     * @param dictionary      the sorted dictionary
+     * @param dictionarySize  the number of values in the dictionary
+     * @param codes           the dictionary code of each row
+     * @param size            the number of rows
+     */
+    StringSnapshotColumn(
+            IntFunction<String> dictionary, 
+            int dictionarySize, 
+            IntUnaryOperator codes, 
+            int size) {
+        
+        super(row -> codes.applyAsInt(row) == NULL_CODE, size);
+        this.dictionary     = requireNonNull(dictionary);
+        this.dictionarySize = dictionarySize;
+        this.codes          = requireNonNull(codes);
+    }
+    
+    @Override
+    public Object valueOf(int row) {
+        final int code = codes.applyAsInt(row);
+        return code == NULL_CODE ? null : dictionary.apply(code);
+    }
+
+    @Override
+    public Object keyOf(Object operand) {
+        return operand;
+    }
+
+    @Override
+    protected Optional<IntPredicate> compileValue(FieldPredicate<?> predicate) {
+        switch (predicate.getPredicateType()) {
+            case EQUAL : {
+                final int code = codeOf((String) getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> codes.applyAsInt(row) == code);
+            }
+            case NOT_EQUAL : {
+                final int code = codeOf((String) getFirstOperandAsRaw(predicate));
+                return Optional.of(row -> codes.applyAsInt(row) != code);
+            }
+            case GREATER_THAN : {
+                final String value = (String) getFirstOperandAsRaw(predicate);
+                return value == null 
+                    ? Optional.of(row -> false)
+                    : range(upperBound(value), dictionarySize);
+            }
+            case GREATER_OR_EQUAL : {
+                final String value = (String) getFirstOperandAsRaw(predicate);
+                return value == null 
+                    ? Optional.of(row -> false)
+                    : range(lowerBound(value), dictionarySize);
+            }
+            case LESS_THAN : {
+                final String value = (String) getFirstOperandAsRaw(predicate);
+                return value == null 
+                    ? Optional.of(row -> false)
+                    : range(0, lowerBound(value));
+            }
+            case LESS_OR_EQUAL : {
+                final String value = (String) getFirstOperandAsRaw(predicate);
+                return value == null 
+                    ? Optional.of(row -> false)
+                    : range(0, upperBound(value));
+            }
+            case BETWEEN : case NOT_BETWEEN : {
+                final String start = (String) getFirstOperandAsRaw(predicate);
+                final String end   = (String) getSecondOperand(predicate);
+                
+                // Null bounds have special semantics, let the entity decide.
+                if (start == null || end == null) {
+                    return Optional.empty();
+                }
+                
+                final Inclusion inclusion = getInclusionOperand(predicate);
+                final int from = inclusion.isStartInclusive() ? lowerBound(start) : upperBound(start);
+                final int to   = inclusion.isEndInclusive()   ? upperBound(end)   : lowerBound(end);
+                
+                switch (predicate.getPredicateType()) {
+                    case BETWEEN : return range(from, to);
+                    default : return Optional.of(row -> {
+                        final int code = codes.applyAsInt(row);
+                        return code != NULL_CODE && (code < from || code >= to);
+                    });
+                }
+            }
+            case IN : case NOT_IN : {
+                final Set<?> set = getFirstOperandAsRawSet(predicate);
+                final BitSet selected = new BitSet(dictionarySize);
+                boolean hasNull = false;
+                for (final Object value : set) {
+                    if (value == null) {
+                        hasNull = true;
+                    } else {
+                        final int code = codeOf((String) value);
+                        if (code >= 0) {
+                            selected.set(code);
+                        }
+                    }
+                }
+                
+                switch (predicate.getPredicateType()) {
+                    case IN : {
+                        final boolean includeNull = hasNull;
+                        return Optional.of(row -> {
+                            final int code = codes.applyAsInt(row);
+                            return code == NULL_CODE ? includeNull : selected.get(code);
+                        });
+                    }
+                    default : return Optional.of(row -> {
+                        final int code = codes.applyAsInt(row);
+                        return code != NULL_CODE && !selected.get(code);
+                    });
+                }
+            }
+            default : return Optional.empty();
+        }
+    }
+    
+    private Optional<IntPredicate> range(int from, int to) {
+        return Optional.of(row -> {
+            final int code = codes.applyAsInt(row);
+            return code >= from && code < to;
+        });
+    }
+    
+    /**
+     * Returns the code of the specified value, {@link #NULL_CODE} if it is
+     * {@code null} or {@link #NO_CODE} if the value is not in the dictionary.
+     * 
+     * @param value  the value to look up
+     * @return       the code
+     */
+    int codeOf(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        } else {
+            final int index = search(value);
+            return index >= 0 ? index : NO_CODE;
+        }
+    }
+    
+    /**
+     * Returns the lowest code with a dictionary value that is greater than or
+     * equal to the specified value.
+     * 
+     * @param value  the value
+     * @return       the lowest code that is not less than the value
+     */
+    private int lowerBound(String value) {
+        final int index = search(value);
+        return index >= 0 ? index : -(index + 1);
+    }
+    
+    /**
+     * Returns the lowest code with a dictionary value that is greater than
+     * the specified value.
+     * 
+     * @param value  the value
+     * @return       the lowest code that is greater than the value
+     */
+    private int upperBound(String value) {
+        final int index = search(value);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+    
+    /**
+     * Searches the dictionary for the specified value using binary search. 
+     * The result follows the same contract as 
+     * {@link Arrays#binarySearch(Object[], Object)}.
+     * 
+     * @param value  the value to search for
+     * @return       the index of the value or {@code -(insertion point) - 1}
+     */
+    private int search(String value) {
+        int low = 0, high = dictionarySize - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = dictionary.apply(mid).compareTo(value);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    static String[] dictionaryOf(String[] values) {
+        final Set<String> distinct = new TreeSet<>();
+        for (final String value : values) {
+            if (value != null) {
+                distinct.add(value);
+            }
+        }
+        return distinct.toArray(new String[distinct.size()]);
+    }
+    
+    static int[] codesOf(String[] values, String[] dictionary) {
+        final int[] codes = new int[values.length];
+        for (int row = 0; row < values.length; row++) {
+            codes[row] = values[row] == null 
+                ? NULL_CODE 
+                : Arrays.binarySearch(dictionary, values[row]);
+        }
+        return codes;
+    }
+    
+    private static IntUnaryOperator readerOf(int[] codes) {
+        return row -> codes[row];
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.manager.KeysetSqlUtil;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.field.Field;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An {@link AsynchronousQueryResult} that reads a table in chunks of 
+ * consecutive primary keys. Each chunk is read using a separate short 
+ * transaction on a connection from the pool, so that a scan over a large 
+ * table does not keep a transaction open for its whole duration. The chunks 
+ * are presented as one continuous stream.
+ * <p>
+ * A chunk is selected using the primary key values of the last entity of the
+ * previous chunk:
+ * <pre>{@code
+ * WHERE (pk1 > ? OR (pk1 = ? AND pk2 > ?)) ORDER BY pk1,pk2 LIMIT n
+ * }</pre>
+ * Since each chunk is read in its own transaction, the stream does not 
+ * represent a consistent snapshot of the table. Rows changed during the scan 
+ * may or may not be included.
+ *
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class ChunkedQueryResult<ENTITY> implements AsynchronousQueryResult<ENTITY> {
+    
+    private static final String WHERE = " WHERE ";
+    
+    private final Dbms dbms;
+    private final DbmsType dbmsType;
+    private final String sqlSelect;
+    private final List<Field<ENTITY>> primaryKeyFields;
+    private final List<String> sqlColumns;
+    private final int chunkSize;
+    private final ParallelStrategy parallelStrategy;
+    
+    private String sql;
+    private List<?> values;
+    private SqlFunction<ResultSet, ENTITY> rsMapper;
+    private volatile boolean closed;
+    private int queryTimeout;
+    private Runnable rowListener;
+
+    /**
+     * Creates a new result.
+     * 
+     * @param dbms              the dbms to query
+     * @param dbmsType          the type of the dbms
+     * @param sqlSelect         the query without any condition
+     * @param primaryKeyFields  the primary key fields of the table
+     * @param sqlColumns        the full names of the primary key columns
+     * @param chunkSize         the number of rows to read in each chunk
+     * @param parallelStrategy  the strategy for splitting the stream
+     * @param rsMapper          the entity mapper
+     */
+    ChunkedQueryResult(
+            Dbms dbms, 
+            DbmsType dbmsType, 
+            String sqlSelect,
+            List<Field<ENTITY>> primaryKeyFields,
+            List<String> sqlColumns,
+            int chunkSize,
+            ParallelStrategy parallelStrategy,
+            SqlFunction<ResultSet, ENTITY> rsMapper) {
+        
+        if (primaryKeyFields.isEmpty() || primaryKeyFields.size() != sqlColumns.size()) {
+            throw new IllegalArgumentException(
+                "Expected one column for each of the " + primaryKeyFields.size() + 
+                " primary key fields, got " + sqlColumns + "."
+            );
+        }
+        
+        this.dbms             = requireNonNull(dbms);
+        this.dbmsType         = requireNonNull(dbmsType);
+        this.sqlSelect        = requireNonNull(sqlSelect);
+        this.primaryKeyFields = new ArrayList<>(primaryKeyFields);
+        this.sqlColumns       = new ArrayList<>(sqlColumns);
+        this.chunkSize        = chunkSize;
+        this.parallelStrategy = requireNonNull(parallelStrategy);
+        
+        setSql(sqlSelect);
+        setValues(Collections.emptyList());
+        setRsMapper(rsMapper);
+    }
+
+    @Override
+    public Stream<ENTITY> stream() {
+        closed = false;
+        
+        // Conditions added by the optimizer are appended to the base query
+        final String where = sql.substring(sqlSelect.length());
+        final String condition = where.startsWith(WHERE) 
+            ? "(" + where.substring(WHERE.length()) + ")" 
+            : null;
+        
+        return StreamSupport.stream(parallelStrategy.spliteratorUnknownSize(
+            new ChunkIterator(condition, System.nanoTime()), 
+            Spliterator.IMMUTABLE + Spliterator.NONNULL
+        ), false);
+    }
+
+    @Override
+    public void close() {
+        // Connections are only held while a chunk is read
+        closed = true;
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public void setSql(String sql) {
+        this.sql = requireNonNull(sql);
+    }
+
+    @Override
+    public List<?> getValues() {
+        return values;
+    }
+
+    @Override
+    public void setValues(List<?> values) {
+        this.values = requireNonNull(values);
+    }
+
+    @Override
+    public SqlFunction<ResultSet, ENTITY> getRsMapper() {
+        return rsMapper;
+    }
+
+    @Override
+    public void setRsMapper(SqlFunction<ResultSet, ENTITY> rsMapper) {
+        this.rsMapper = requireNonNull(rsMapper);
+    }
+
+    @Override
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException(
+                "Query timeout must not be negative, was " + seconds + "."
+            );
+        }
+        this.queryTimeout = seconds;
+    }
+
+    @Override
+    public void setRowListener(Runnable listener) {
+        this.rowListener = listener; // Nullable
+    }
+
+    @Override
+    public String toString() {
+        return "CHUNKED(" + chunkSize + ") \"" + getSql() + "\" <- " + getValues();
+    }
+    
+    /**
+     * An {@code Iterator} that reads the next chunk when the current one has
+     * been consumed and the previous chunk was full. Since each chunk is a 
+     * separate statement, the query timeout is checked before a new chunk is
+     * read, as is the interrupted status of the consuming thread.
+     */
+    private final class ChunkIterator implements Iterator<ENTITY> {
+        
+        private final String condition; // null if there is no condition
+        private final long started;
+        private List<ENTITY> chunk;
+        private int index;
+        private boolean exhausted;
+
+        ChunkIterator(String condition, long started) {
+            this.condition = condition;
+            this.started   = started;
+            this.chunk     = Collections.emptyList();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (index == chunk.size()) {
+                if (exhausted || closed) {
+                    return false;
+                }
+                
+                checkNotAbandoned();
+                final ENTITY last = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1);
+                chunk = readChunkAfter(last);
+                index = 0;
+                exhausted = chunk.size() < chunkSize;
+            }
+            return true;
+        }
+
+        @Override
+        public ENTITY next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (rowListener != null) {
+                rowListener.run();
+            }
+            return chunk.get(index++);
+        }
+        
+        private void checkNotAbandoned() {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new SpeedmentException(
+                    "Interrupted while reading the result of " + sql
+                );
+            }
+            
+            if (queryTimeout > 0 && System.nanoTime() - started > 
+                    TimeUnit.SECONDS.toNanos(queryTimeout)) {
+                throw new SpeedmentException(
+                    "Query timeout of " + queryTimeout + 
+                    " s exceeded while reading the result of " + sql
+                );
+            }
+        }
+        
+        private List<ENTITY> readChunkAfter(ENTITY last) {
+            final String chunkSql = KeysetSqlUtil.select(
+                dbmsType, sqlSelect, condition, sqlColumns, last != null, chunkSize
+            );
+            
+            final List<Object> chunkValues = new ArrayList<>(values);
+            if (last != null) {
+                chunkValues.addAll(KeysetSqlUtil.databaseValues(
+                    primaryKeyFields,
+                    primaryKeyFields.stream()
+                        .map(field -> field.getter().apply(last))
+                        .collect(toList())
+                ));
+            }
+            
+            // Each chunk is read and committed using a pooled connection
+            try (final Stream<ENTITY> rows = dbmsType.getOperationHandler()
+                    .executeQuery(dbms, chunkSql, chunkValues, rsMapper)) {
+                return rows.collect(toList());
+            }
+        }
+    }
+}
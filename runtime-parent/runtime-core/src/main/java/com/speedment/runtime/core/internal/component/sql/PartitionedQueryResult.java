@@ -0,0 +1,350 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link AsynchronousQueryResult} that splits the query into ranges of an 
+ * integer column and executes each range as a separate query on a separate
+ * connection. The ranges are exposed as a {@code Spliterator} that splits on
+ * range boundaries so that a parallel stream reads different ranges in
+ * different threads. If the column is nullable, the rows where it is
+ * {@code null} are read using one more query.
+ * <p>
+ * The bounds of the column are queried when the stream is created, using the
+ * same condition as the query itself, so that conditions added by the stream
+ * optimizer also narrow the ranges.
+ *
+ * @param <T>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class PartitionedQueryResult<T> implements AsynchronousQueryResult<T> {
+    
+    private final Dbms dbms;
+    private final DbmsType dbmsType;
+    private final String sqlSelect;
+    private final String sqlSelectBounds;
+    private final String sqlColumn;
+    private final boolean nullable;
+    private final int partitions;
+    private final ParallelStrategy parallelStrategy;
+    private final List<AsynchronousQueryResult<T>> open;
+    
+    private String sql;
+    private List<?> values;
+    private SqlFunction<ResultSet, T> rsMapper;
+    private int queryTimeout;
+    private Runnable rowListener;
+
+    /**
+     * Creates a new result.
+     * 
+     * @param dbms              the dbms to query
+     * @param dbmsType          the type of the dbms
+     * @param sqlSelect         the query without any condition
+     * @param sqlTable          the full name of the table
+     * @param sqlColumn         the full name of the column to split on
+     * @param nullable          if the column to split on is nullable
+     * @param partitions        the number of ranges to split into
+     * @param parallelStrategy  the strategy for splitting each range
+     * @param rsMapper          the entity mapper
+     */
+    PartitionedQueryResult(
+            Dbms dbms, 
+            DbmsType dbmsType, 
+            String sqlSelect, 
+            String sqlTable, 
+            String sqlColumn, 
+            boolean nullable,
+            int partitions,
+            ParallelStrategy parallelStrategy,
+            SqlFunction<ResultSet, T> rsMapper) {
+        
+        this.dbms             = requireNonNull(dbms);
+        this.dbmsType         = requireNonNull(dbmsType);
+        this.sqlSelect        = requireNonNull(sqlSelect);
+        this.sqlSelectBounds  = "SELECT MIN(" + sqlColumn + "), MAX(" + sqlColumn + ") FROM " + sqlTable;
+        this.sqlColumn        = requireNonNull(sqlColumn);
+        this.nullable         = nullable;
+        this.partitions       = partitions;
+        this.parallelStrategy = requireNonNull(parallelStrategy);
+        this.open             = Collections.synchronizedList(new ArrayList<>());
+        
+        setSql(sqlSelect);
+        setValues(Collections.emptyList());
+        setRsMapper(rsMapper);
+    }
+
+    @Override
+    public Stream<T> stream() {
+        // Conditions added by the optimizer are appended to the base query
+        final String where = sql.substring(sqlSelect.length());
+        
+        final Optional<long[]> minMax = dbmsType.getOperationHandler()
+            .executeQuery(dbms, sqlSelectBounds + where, values, rs -> {
+                final Object min = rs.getObject(1);
+                final Object max = rs.getObject(2);
+                if (min == null || max == null) {
+                    return null;
+                } else {
+                    return new long[] {
+                        ((Number) min).longValue(), 
+                        ((Number) max).longValue()
+                    };
+                }
+            })
+            .filter(b -> b != null)
+            .findAny();
+        
+        final List<long[]> bounds = minMax
+            .map(b -> ranges(b[0], b[1], partitions))
+            .orElseGet(Collections::emptyList);
+        
+        final List<AsynchronousQueryResult<T>> ranges = new ArrayList<>(bounds.size() + 1);
+        final String prefix = sql + (where.isEmpty() ? " WHERE " : " AND ");
+        for (int i = 0; i < bounds.size(); i++) {
+            final boolean last = i == bounds.size() - 1;
+            final List<Object> rangeValues = new ArrayList<>(values);
+            rangeValues.add(bounds.get(i)[0]);
+            rangeValues.add(bounds.get(i)[1]);
+            
+            ranges.add(range(
+                prefix + "(" + sqlColumn + " >= ? AND " + sqlColumn + 
+                    (last ? " <= ?)" : " < ?)"),
+                rangeValues
+            ));
+        }
+        
+        // Rows where the column is null are not in any of the ranges
+        if (nullable) {
+            ranges.add(range(prefix + sqlColumn + " IS NULL", values));
+        }
+        
+        if (ranges.isEmpty()) {
+            return Stream.empty();
+        }
+        
+        return StreamSupport.stream(new RangeSpliterator(ranges, 0, ranges.size()), false);
+    }
+
+    private AsynchronousQueryResult<T> range(String rangeSql, List<?> rangeValues) {
+        final AsynchronousQueryResult<T> range = dbmsType.getOperationHandler()
+            .executeQueryAsync(dbms, rangeSql, rangeValues, rsMapper, parallelStrategy);
+        
+        range.setQueryTimeout(queryTimeout);
+        range.setRowListener(rowListener);
+        return range;
+    }
+
+    /**
+     * Splits the keys from {@code min} to {@code max}, both inclusive, into
+     * at most the specified number of ranges of equal width. Every range is 
+     * returned as an array of its lower and upper bound. The lower bound is 
+     * inclusive. The upper bound is exclusive, except for the last range 
+     * where it is inclusive and equal to {@code max}.
+     * <p>
+     * The distance between {@code min} and {@code max} may be larger than 
+     * {@code Long.MAX_VALUE}, so it is computed as an unsigned value.
+     * 
+     * @param min         the smallest key
+     * @param max         the largest key
+     * @param partitions  the maximum number of ranges
+     * @return            the ranges in ascending order
+     */
+    static List<long[]> ranges(long min, long max, int partitions) {
+        if (min > max) {
+            throw new IllegalArgumentException(
+                "The smallest key " + min + " is larger than the largest key " + max + "."
+            );
+        }
+        
+        if (partitions <= 0) {
+            throw new IllegalArgumentException(
+                "The number of partitions must be positive but was " + partitions + "."
+            );
+        }
+        
+        // The width is zero if it overflows, which means that a single range
+        // covers all keys
+        final long width = Long.divideUnsigned(max - min, partitions) + 1;
+        final List<long[]> result = new ArrayList<>();
+        
+        long from = min;
+        while (width != 0 && Long.compareUnsigned(max - from, width) >= 0) {
+            result.add(new long[] {from, from + width});
+            from += width;
+        }
+        
+        result.add(new long[] {from, max});
+        return result;
+    }
+
+    @Override
+    public void close() {
+        final List<AsynchronousQueryResult<T>> toClose;
+        synchronized (open) {
+            toClose = new ArrayList<>(open);
+            open.clear();
+        }
+        
+        toClose.forEach(AsynchronousQueryResult::close);
+    }
+
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @Override
+    public void setSql(String sql) {
+        this.sql = requireNonNull(sql);
+    }
+
+    @Override
+    public List<?> getValues() {
+        return values;
+    }
+
+    @Override
+    public void setValues(List<?> values) {
+        this.values = requireNonNull(values);
+    }
+
+    @Override
+    public SqlFunction<ResultSet, T> getRsMapper() {
+        return rsMapper;
+    }
+
+    @Override
+    public void setRsMapper(SqlFunction<ResultSet, T> rsMapper) {
+        this.rsMapper = requireNonNull(rsMapper);
+    }
+
+    @Override
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException(
+                "Query timeout must not be negative, was " + seconds + "."
+            );
+        }
+        this.queryTimeout = seconds;
+    }
+
+    @Override
+    public void setRowListener(Runnable listener) {
+        this.rowListener = listener; // Nullable
+    }
+
+    @Override
+    public String toString() {
+        return "PARTITIONED(" + partitions + ") \"" + getSql() + "\" <- " + getValues();
+    }
+    
+    /**
+     * A {@code Spliterator} over a number of ranges where each range is read 
+     * using its own query. A range is not queried until the first element of
+     * it is requested and is closed as soon as it has been read completely.
+     */
+    private final class RangeSpliterator implements Spliterator<T> {
+        
+        private final List<AsynchronousQueryResult<T>> ranges;
+        private int from;
+        private final int to;
+        private AsynchronousQueryResult<T> current;
+        private Iterator<T> iterator;
+
+        RangeSpliterator(List<AsynchronousQueryResult<T>> ranges, int from, int to) {
+            this.ranges = ranges;
+            this.from   = from;
+            this.to     = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (iterator == null || !iterator.hasNext()) {
+                closeCurrent();
+                if (from >= to) {
+                    return false;
+                }
+                
+                current = ranges.get(from++);
+                open.add(current);
+                iterator = current.stream().iterator();
+            }
+            
+            action.accept(iterator.next());
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (to - from < 2) {
+                return null;
+            }
+            
+            final int middle = (from + to) >>> 1;
+            final Spliterator<T> prefix = new RangeSpliterator(ranges, from, middle);
+            from = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return 0;
+        }
+        
+        private void closeCurrent() {
+            if (current != null) {
+                if (open.remove(current)) {
+                    current.close();
+                }
+                current  = null;
+                iterator = null;
+            }
+        }
+    }
+}
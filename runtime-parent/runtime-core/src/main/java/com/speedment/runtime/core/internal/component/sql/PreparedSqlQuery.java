@@ -0,0 +1,172 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.core.db.FieldPredicateView;
+import com.speedment.runtime.core.db.SqlPredicateFragment;
+import com.speedment.runtime.core.internal.manager.PreparedQueryUtil;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.manager.PreparedQuery;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A {@link PreparedQuery} that renders the initial field predicates of a 
+ * template into a SQL string once. Each execution binds the parameter values
+ * to the same SQL string and applies the remaining operations of the 
+ * template to the result, without analyzing the pipeline again.
+ * <p>
+ * Since the SQL string never changes, the JDBC driver can reuse a cached
+ * server-side {@code PreparedStatement} for every execution. The querier 
+ * returns a stream that is set up like any other stream of the table, with
+ * the query timeout and the metrics, but that does not render the remaining
+ * operations into the SQL again.
+ * 
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class PreparedSqlQuery<ENTITY> implements PreparedQuery<ENTITY> {
+    
+    private final String sql;
+    private final List<TypeMapper<Object, Object>> typeMappers;
+    private final List<Action<?, ?>> actions;
+    private final boolean parallel;
+    private final boolean ordered;
+    private final BiFunction<String, List<Object>, Stream<ENTITY>> querier;
+
+    /**
+     * Analyzes the specified template and creates a new prepared query.
+     * 
+     * @param template        the function that adds operations to a stream
+     * @param sqlSelect       the SQL select statement of the table
+     * @param predicateView   the view that renders predicates into SQL
+     * @param sqlColumnNamer  the function that names the column of a field
+     * @param querier         the function that returns a stream of the 
+     *                        result of a SQL query with the given values
+     * 
+     * @throws IllegalArgumentException  if the template does not return the
+     *                                   stream it was given
+     */
+    PreparedSqlQuery(
+            UnaryOperator<Stream<ENTITY>> template,
+            String sqlSelect,
+            FieldPredicateView predicateView,
+            Function<Field<ENTITY>, String> sqlColumnNamer,
+            BiFunction<String, List<Object>, Stream<ENTITY>> querier) {
+        
+        requireNonNulls(template, sqlSelect, predicateView, sqlColumnNamer);
+        this.querier = requireNonNull(querier);
+        
+        final PipelineImpl<?> pipeline = PreparedQueryUtil.capture(template);
+        
+        // Only the leading filters that can be fully expressed in SQL are 
+        // replaced by the WHERE clause. Everything else is kept as-is.
+        final List<FieldPredicate<ENTITY>> predicates = new ArrayList<>();
+        int sqlFilters = 0;
+        for (final Action<?, ?> action : pipeline) {
+            final List<FieldPredicate<ENTITY>> andPredicates = 
+                PreparedQueryUtil.fieldPredicatesOf(action);
+            
+            if (andPredicates.isEmpty()) {
+                break;
+            }
+            
+            predicates.addAll(andPredicates);
+            sqlFilters++;
+        }
+        
+        final StringBuilder sb = new StringBuilder(sqlSelect);
+        final List<TypeMapper<Object, Object>> mappers = new ArrayList<>();
+        for (int i = 0; i < predicates.size(); i++) {
+            final FieldPredicate<ENTITY> predicate = predicates.get(i);
+            final SqlPredicateFragment fragment = 
+                predicateView.transform(sqlColumnNamer, predicate);
+            
+            sb.append(i == 0 ? " WHERE " : " AND ").append(fragment.getSql());
+            
+            @SuppressWarnings("unchecked")
+            final TypeMapper<Object, Object> tm = 
+                (TypeMapper<Object, Object>) predicate.getField().typeMapper();
+            
+            fragment.objects().forEach(o -> mappers.add(tm));
+        }
+        
+        this.sql         = sb.toString();
+        this.typeMappers = Collections.unmodifiableList(mappers);
+        this.actions     = Collections.unmodifiableList(
+            pipeline.stream().skip(sqlFilters).collect(toList())
+        );
+        this.parallel    = pipeline.isParallel();
+        this.ordered     = pipeline.isOrdered();
+    }
+
+    @Override
+    public int getParameterCount() {
+        return typeMappers.size();
+    }
+
+    @Override
+    public Stream<ENTITY> stream(Object... parameters) {
+        requireNonNull(parameters);
+        if (parameters.length != typeMappers.size()) {
+            throw new IllegalArgumentException(
+                "Expected " + typeMappers.size() + " parameters but got " + 
+                parameters.length + "."
+            );
+        }
+        
+        final List<Object> values = new ArrayList<>(parameters.length);
+        for (int i = 0; i < parameters.length; i++) {
+            values.add(typeMappers.get(i).toDatabaseType(parameters[i]));
+        }
+        
+        return PreparedQueryUtil.apply(
+            querier.apply(sql, values), actions, parallel, ordered
+        );
+    }
+
+    /**
+     * Returns the SQL string that is executed by this query.
+     * 
+     * @return  the SQL string
+     */
+    String getSql() {
+        return sql;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + 
+            "{sql=\"" + sql + "\", actions=" + actions + "}";
+    }
+}
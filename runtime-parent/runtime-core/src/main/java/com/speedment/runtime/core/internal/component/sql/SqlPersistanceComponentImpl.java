@@ -21,6 +21,7 @@ import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.metrics.MetricsComponent;
 import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.sql.SqlPersistenceComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
@@ -46,6 +47,7 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
     private @Inject DbmsHandlerComponent dbmsHandlerComponent;
     private @Inject ManagerComponent managerComponent;
     private @Inject ResultSetMapperComponent resultSetMapperComponent;
+    private @Inject MetricsComponent metricsComponent;
     
     public SqlPersistanceComponentImpl() {
         this.supportMap = new ConcurrentHashMap<>();
@@ -58,7 +60,8 @@ public final class SqlPersistanceComponentImpl implements SqlPersistenceComponen
             requireNonNull(projectComponent), 
             requireNonNull(dbmsHandlerComponent),
             requireNonNull(managerComponent),
-            requireNonNull(resultSetMapperComponent)
+            requireNonNull(resultSetMapperComponent),
+            requireNonNull(metricsComponent)
         ));
     }
 
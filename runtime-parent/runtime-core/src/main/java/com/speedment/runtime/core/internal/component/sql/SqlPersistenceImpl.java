@@ -24,6 +24,9 @@ import com.speedment.runtime.config.util.DocumentUtil;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.metrics.MetricsComponent;
+import com.speedment.runtime.core.component.metrics.QueryMetrics;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
 import com.speedment.runtime.core.component.resultset.ResultSetMapperComponent;
 import com.speedment.runtime.core.component.resultset.ResultSetMapping;
 import com.speedment.runtime.core.db.DatabaseNamingConvention;
@@ -36,13 +39,10 @@ import com.speedment.runtime.field.Field;
 import com.speedment.runtime.typemapper.TypeMapper;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static com.speedment.common.invariant.NullUtil.requireNonNulls;
 import static com.speedment.runtime.config.util.DocumentUtil.Name.DATABASE_NAME;
@@ -61,8 +61,8 @@ import static java.util.stream.Collectors.toList;
  */
 final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
 
-    private final Supplier<Stream<Field<ENTITY>>> primaryKeyFields;
-    private final Supplier<Stream<Field<ENTITY>>> fields;
+    private final List<Field<ENTITY>> primaryKeyFields;
+    private final List<Field<ENTITY>> fields;
     
     private final Dbms dbms;
     private final Table table;
@@ -80,6 +80,10 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     private final List<GeneratedFieldSupport<ENTITY, ?>> generatedFieldSupports;
     private final List<Field<ENTITY>> generatedFields;
     
+    private final QueryMetrics insertMetrics;
+    private final QueryMetrics updateMetrics;
+    private final QueryMetrics deleteMetrics;
+    
     private final static class GeneratedFieldSupport<ENTITY, T> {
         
         private final Field<ENTITY> field;
@@ -110,13 +114,15 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
             ProjectComponent projectComponent,
             DbmsHandlerComponent dbmsHandlerComponent,
             ManagerComponent managerComponent,
-            ResultSetMapperComponent resultSetMapperComponent) {
+            ResultSetMapperComponent resultSetMapperComponent,
+            MetricsComponent metricsComponent) {
         
         requireNonNulls(tableId, 
             projectComponent, 
             dbmsHandlerComponent, 
             managerComponent, 
-            resultSetMapperComponent
+            resultSetMapperComponent,
+            metricsComponent
         );
 
         final Project project = projectComponent.getProject();
@@ -134,12 +140,13 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
                 "Could not find any manager for table '" + tableId + "'."
             ));
         
-        this.primaryKeyFields = manager::primaryKeyFields;
-        this.fields           = manager::fields;
+        // Collected once so that no streams are created for every entity
+        this.primaryKeyFields = manager.primaryKeyFields().collect(toList());
+        this.fields           = manager.fields().collect(toList());
         this.entityClass      = manager.getEntityClass();
         
         this.sqlTableReference = naming.fullNameOf(table);
-        this.hasPrimaryKeyColumns = manager.primaryKeyFields().anyMatch(m -> true);
+        this.hasPrimaryKeyColumns = !primaryKeyFields.isEmpty();
         
         this.insertStatement = "INSERT INTO " + sqlTableReference + " (" + 
             sqlColumnList(identity()) + ") VALUES (" + 
@@ -151,7 +158,7 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         this.deleteStatement = "DELETE FROM " + sqlTableReference + " WHERE " + 
             sqlPrimaryKeyColumnList(pk -> pk + " = ?");
         
-        this.generatedFieldSupports = MapStream.fromKeys(fields.get(), f -> 
+        this.generatedFieldSupports = MapStream.fromKeys(fields.stream(), f -> 
             DocumentDbUtil.referencedColumn(project, f.identifier())
         ).filterValue(Column::isAutoIncrement)
         .map((field, col) -> new GeneratedFieldSupport<>(
@@ -161,19 +168,24 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
         
         this.generatedFields = generatedFieldSupports.stream()
             .map(GeneratedFieldSupport::getField).collect(toList());
+        
+        this.insertMetrics = metricsComponent.metricsOf(tableId, Operation.INSERT);
+        this.updateMetrics = metricsComponent.metricsOf(tableId, Operation.UPDATE);
+        this.deleteMetrics = metricsComponent.metricsOf(tableId, Operation.DELETE);
           
     }
     
     @Override
     public ENTITY persist(ENTITY entity) throws SpeedmentException {
-        final List<Object> values = fields.get()
-            .map(f -> toDatabaseType(f, entity))
-            .collect(toList());
+        final List<Object> values = databaseValues(fields, entity);
 
+        final long start = System.nanoTime();
         try {
             operationHandler.executeInsert(dbms, insertStatement, values, generatedFields, newGeneratedKeyConsumer(entity));
+            insertMetrics.recordCompleted(System.nanoTime() - start, 1, insertStatement, values, null);
             return entity;
         } catch (final SQLException ex) {
+            insertMetrics.recordError();
             throw new SpeedmentException(ex);
         }
     }
@@ -182,17 +194,21 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     public ENTITY update(ENTITY entity) throws SpeedmentException {
         assertHasPrimaryKeyColumns();
 
-        final List<Object> values = Stream.concat(
-            fields.get(), 
-            primaryKeyFields.get()
-        )
-            .map(f -> f.getter().apply(entity))
-            .collect(Collectors.toList());
+        final List<Object> values = new ArrayList<>(fields.size() + primaryKeyFields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            values.add(fields.get(i).getter().apply(entity));
+        }
+        for (int i = 0; i < primaryKeyFields.size(); i++) {
+            values.add(primaryKeyFields.get(i).getter().apply(entity));
+        }
 
+        final long start = System.nanoTime();
         try {
             operationHandler.executeUpdate(dbms, updateStatement, values);
+            updateMetrics.recordCompleted(System.nanoTime() - start, 1, updateStatement, values, null);
             return entity;
         } catch (final SQLException ex) {
+            updateMetrics.recordError();
             throw new SpeedmentException(ex);
         }
     }
@@ -201,14 +217,15 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     public ENTITY remove(ENTITY entity) throws SpeedmentException {
         assertHasPrimaryKeyColumns();
         
-        final List<Object> values = primaryKeyFields.get()
-            .map(f -> toDatabaseType(f, entity))
-            .collect(toList());
+        final List<Object> values = databaseValues(primaryKeyFields, entity);
 
+        final long start = System.nanoTime();
         try {
             operationHandler.executeDelete(dbms, deleteStatement, values);
+            deleteMetrics.recordCompleted(System.nanoTime() - start, 1, deleteStatement, values, null);
             return entity;
         } catch (final SQLException ex) {
+            deleteMetrics.recordError();
             throw new SpeedmentException(ex);
         }
     }
@@ -216,14 +233,13 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
     private Consumer<List<Long>> newGeneratedKeyConsumer(ENTITY entity) {
         return l -> {
             if (!l.isEmpty()) {
-                final AtomicInteger cnt = new AtomicInteger();
-
                 // Just assume that they are in order, what else is there to do?
-                generatedFieldSupports.forEach(generated -> {
+                for (int i = 0; i < generatedFieldSupports.size(); i++) {
+                    final GeneratedFieldSupport<ENTITY, ?> generated = 
+                        generatedFieldSupports.get(i);
 
                     // Cast from Long to the column target type
-                    final Object val = generated.mapping
-                        .parse(l.get(cnt.getAndIncrement()));
+                    final Object val = generated.mapping.parse(l.get(i));
 
                     @SuppressWarnings("unchecked")
                     final Object javaValue = ((TypeMapper<Object, Object>) 
@@ -231,12 +247,29 @@ final class SqlPersistenceImpl<ENTITY> implements SqlPersistence<ENTITY> {
                         ).toJavaType(generated.column, entityClass, val);
 
                     generated.field.setter().set(entity, javaValue);
-                });
+                }
             }
         };
     }
     
-    private <F extends Field<ENTITY>> Object toDatabaseType(F field, ENTITY entity) {
+    /**
+     * Returns the database values of the specified fields of the entity, in
+     * the same order as the fields.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param fields    the fields to read
+     * @param entity    the entity to read from
+     * @return          the database values
+     */
+    static <ENTITY> List<Object> databaseValues(List<Field<ENTITY>> fields, ENTITY entity) {
+        final List<Object> values = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            values.add(toDatabaseType(fields.get(i), entity));
+        }
+        return values;
+    }
+    
+    private static <ENTITY> Object toDatabaseType(Field<ENTITY> field, ENTITY entity) {
         final Object javaValue = field.getter().apply(entity);
         
         @SuppressWarnings("unchecked")
@@ -17,10 +17,17 @@
 package com.speedment.runtime.core.internal.component.sql;
 
 import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.core.manager.PreparedQuery;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.stream.reactive.Publisher;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 /**
@@ -43,6 +50,47 @@ interface SqlStreamSupplier<ENTITY> {
      */
     Stream<ENTITY> stream(ParallelStrategy parallelStrategy);
     
+    /**
+     * Produces a publisher of the entities in the managed table that match 
+     * the specified filters. Filters that can be expressed in SQL are added
+     * to the query.
+     * 
+     * @param filters    the filters to apply
+     * @param executor   the executor that reads and maps rows
+     * @param chunkSize  the maximum number of entities to publish per task
+     * @return           the entity publisher
+     */
+    Publisher<ENTITY> publisher(
+        List<? extends Predicate<? super ENTITY>> filters, 
+        Executor executor, 
+        int chunkSize);
+    
+    /**
+     * Returns a page of entities using keyset pagination on the specified 
+     * keys.
+     * 
+     * @param keys      the keys to sort on, including the primary key
+     * @param pageSize  the maximum number of entities in the page
+     * @param token     the continuation token, or {@code null} for the first 
+     *                  page
+     * @return          the page
+     */
+    Page<ENTITY> page(
+        List<HasComparableOperators<ENTITY, ?>> keys, 
+        int pageSize, 
+        String token);
+    
+    /**
+     * Prepares a query from the specified template. The field predicates of 
+     * the initial filters of the template are rendered into SQL once, and 
+     * become the parameters of the returned query.
+     * 
+     * @param template  the function that adds operations to a stream of all
+     *                  entities
+     * @return          the prepared query
+     */
+    PreparedQuery<ENTITY> prepare(UnaryOperator<Stream<ENTITY>> template);
+    
     /**
      * Finds a particular entity based on an ordinary key-value search. This is
      * potentially faster than using the 
@@ -16,39 +16,107 @@
  */
 package com.speedment.runtime.core.internal.component.sql;
 
+import com.speedment.common.injector.annotation.Config;
+import com.speedment.common.injector.annotation.ExecuteBefore;
 import com.speedment.common.injector.annotation.Inject;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.metrics.MetricsComponent;
 import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
 import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.core.manager.PreparedQuery;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.stream.reactive.Publisher;
+import com.speedment.runtime.field.trait.HasComparableOperators;
 
 import java.sql.ResultSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
+import static com.speedment.common.injector.State.STARTED;
+import static com.speedment.common.injector.State.STOPPED;
 import static java.util.Objects.requireNonNull;
 
 /**
  * The default implementation of the 
  * {@link SqlStreamSupplierComponent}-interface.
+ * <p>
+ * If {@link #SCAN_CHUNK_SIZE} is positive, streams over tables with a primary
+ * key read the table in chunks of that many rows, each using a separate short
+ * transaction, instead of holding one transaction open for the whole stream.
+ * <p>
+ * Publishers read and map rows on a shared pool of 
+ * {@link #PUBLISHER_THREADS} threads, publishing at most 
+ * {@link #PUBLISHER_CHUNK_SIZE} entities per task.
+ * <p>
+ * If {@link #STRICT_PUSH_DOWN} is {@code true}, streams that filter entities
+ * without pushing any of the filters down to the database throw an exception
+ * when they are terminated. This is intended for tests.
+ * <p>
+ * If {@link #QUERY_TIMEOUT} is positive, the database may spend at most that
+ * many seconds executing the query of a stream before it is cancelled. The
+ * timeout can be overridden for each manager and each stream.
  * 
  * @author  Per Minborg
  * @since   3.0.1
  */
 public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierComponent {
 
+    public static final String
+        PUBLISHER_THREADS    = "publisher_threads",
+        PUBLISHER_CHUNK_SIZE = "publisher_chunk_size",
+        SCAN_CHUNK_SIZE      = "scan_chunk_size",
+        STRICT_PUSH_DOWN     = "strict_push_down",
+        QUERY_TIMEOUT        = "query_timeout";
+
     private final Map<TableIdentifier<?>, SqlStreamSupplier<?>> supportMap;
+    private final Map<TableIdentifier<?>, SqlFunction<ResultSet, ?>> mapperMap;
     
     private @Inject ProjectComponent projectComponent;
     private @Inject DbmsHandlerComponent dbmsHandlerComponent;
     private @Inject ManagerComponent managerComponent;
+    private @Inject MetricsComponent metricsComponent;
+    private @Config(name=PUBLISHER_THREADS, value="4") int publisherThreads;
+    private @Config(name=PUBLISHER_CHUNK_SIZE, value="1000") int publisherChunkSize;
+    private @Config(name=SCAN_CHUNK_SIZE, value="0") int scanChunkSize;
+    private @Config(name=STRICT_PUSH_DOWN, value="false") boolean strictPushDown;
+    private @Config(name=QUERY_TIMEOUT, value="0") int queryTimeout;
+    
+    private ExecutorService publisherExecutor;
 
     public SqlStreamSupplierComponentImpl() {
         this.supportMap = new ConcurrentHashMap<>();
+        this.mapperMap  = new ConcurrentHashMap<>();
+    }
+
+    @ExecuteBefore(STARTED)
+    void startPublisherExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        publisherExecutor = Executors.newFixedThreadPool(publisherThreads, r -> {
+            final Thread thread = new Thread(r, 
+                "speedment-publisher-" + threadNumber.incrementAndGet()
+            );
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @ExecuteBefore(STOPPED)
+    void stopPublisherExecutor() {
+        if (publisherExecutor != null) {
+            publisherExecutor.shutdownNow();
+            publisherExecutor = null;
+        }
     }
 
     @Override
@@ -58,10 +126,27 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
             entityMapper, 
             projectComponent, 
             dbmsHandlerComponent,
-            managerComponent
+            managerComponent,
+            metricsComponent,
+            scanChunkSize,
+            strictPushDown,
+            queryTimeout
         );
         
         supportMap.put(tableIdentifier, supplier);
+        mapperMap.put(tableIdentifier, entityMapper);
+    }
+
+    @Override
+    public <ENTITY> SqlFunction<ResultSet, ENTITY> entityMapper(TableIdentifier<ENTITY> tableIdentifier) {
+        @SuppressWarnings("unchecked")
+        final SqlFunction<ResultSet, ENTITY> entityMapper = 
+            (SqlFunction<ResultSet, ENTITY>) mapperMap.get(tableIdentifier);
+        
+        return requireNonNull(entityMapper, 
+            "No entity mapper installed for table identifier " + 
+            tableIdentifier
+        );
     }
 
     @Override
@@ -70,6 +155,42 @@ public final class SqlStreamSupplierComponentImpl implements SqlStreamSupplierCo
         return supplier.stream(parallelStrategy);
     }
 
+    @Override
+    public <ENTITY> Publisher<ENTITY> publisher(
+            TableIdentifier<ENTITY> tableIdentifier, 
+            List<? extends Predicate<? super ENTITY>> filters) {
+        
+        requireNonNull(filters);
+        if (publisherExecutor == null) {
+            throw new IllegalStateException(
+                "Publishers can only be created while the application is running."
+            );
+        }
+        
+        final SqlStreamSupplier<ENTITY> supplier = getStreamSupplier(tableIdentifier);
+        return supplier.publisher(filters, publisherExecutor, publisherChunkSize);
+    }
+
+    @Override
+    public <ENTITY> Page<ENTITY> page(
+            TableIdentifier<ENTITY> tableIdentifier, 
+            List<HasComparableOperators<ENTITY, ?>> keys, 
+            int pageSize, 
+            String token) {
+        
+        final SqlStreamSupplier<ENTITY> supplier = getStreamSupplier(tableIdentifier);
+        return supplier.page(keys, pageSize, token);
+    }
+
+    @Override
+    public <ENTITY> PreparedQuery<ENTITY> prepare(
+            TableIdentifier<ENTITY> tableIdentifier, 
+            UnaryOperator<Stream<ENTITY>> template) {
+        
+        final SqlStreamSupplier<ENTITY> supplier = getStreamSupplier(tableIdentifier);
+        return supplier.prepare(template);
+    }
+
     private <ENTITY> SqlStreamSupplier<ENTITY> getStreamSupplier(TableIdentifier<ENTITY> tableIdentifier) {
         @SuppressWarnings("unchecked")
         final SqlStreamSupplier<ENTITY> streamSupplier = (SqlStreamSupplier<ENTITY>) supportMap.get(tableIdentifier);
@@ -26,25 +26,42 @@ import com.speedment.runtime.config.util.DocumentDbUtil;
 import com.speedment.runtime.core.component.DbmsHandlerComponent;
 import com.speedment.runtime.core.component.ManagerComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.metrics.MetricsComponent;
+import com.speedment.runtime.core.component.metrics.QueryMetrics;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.DatabaseNamingConvention;
 import com.speedment.runtime.core.db.DbmsType;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.component.metrics.QueryRecorder;
+import com.speedment.runtime.core.internal.manager.KeysetSqlUtil;
+import com.speedment.runtime.core.internal.manager.KeysetUtil;
 import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.parallel.PartitionedParallelStrategy;
 import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.reactive.StreamPublisher;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.core.manager.PreparedQuery;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.stream.reactive.Publisher;
 import com.speedment.runtime.core.util.DatabaseUtil;
 import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.FieldPredicate;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 
+import java.math.BigInteger;
 import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.BaseStream;
 import java.util.stream.Stream;
 
@@ -57,6 +74,7 @@ import java.util.List;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
 /**
@@ -67,12 +85,20 @@ import static java.util.stream.Collectors.toMap;
  */
 final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
 
+    private static final Logger LOGGER = LoggerManager.getLogger(SqlStreamSupplierImpl.class);
     private static final Logger LOGGER_SELECT = LoggerManager.getLogger(LOGGER_SELECT_NAME); // Hold an extra reference to this logger
 
     private final SqlFunction<ResultSet, ENTITY> entityMapper;
+    private final Table table;
     private final Dbms dbms;
     private final DbmsType dbmsType;
     private final Map<ColumnIdentifier<ENTITY>, String> columnNameMap;
+    private final List<Field<ENTITY>> primaryKeyFields;
+    private final int chunkSize;
+    private final boolean strict;
+    private final int queryTimeout;
+    private final QueryMetrics selectMetrics;
+    private final QueryMetrics countMetrics;
     private final String sqlSelect;
     private final String sqlSelectCount;
     private final String sqlTableReference;
@@ -82,14 +108,23 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
         SqlFunction<ResultSet, ENTITY> entityMapper,
         ProjectComponent projectComponent,
         DbmsHandlerComponent dbmsHandlerComponent,
-        ManagerComponent managerComponent) {
+        ManagerComponent managerComponent,
+        MetricsComponent metricsComponent,
+        int chunkSize,
+        boolean strict,
+        int queryTimeout) {
 
-        requireNonNulls(tableId, projectComponent, dbmsHandlerComponent);
+        requireNonNulls(tableId, projectComponent, dbmsHandlerComponent, metricsComponent);
 
         this.entityMapper = requireNonNull(entityMapper);
+        this.chunkSize = chunkSize;
+        this.strict = strict;
+        this.queryTimeout = queryTimeout;
+        this.selectMetrics = metricsComponent.metricsOf(tableId, Operation.SELECT);
+        this.countMetrics = metricsComponent.metricsOf(tableId, Operation.COUNT);
 
         final Project project = projectComponent.getProject();
-        final Table table = DocumentDbUtil.referencedTable(project, tableId);
+        this.table = DocumentDbUtil.referencedTable(project, tableId);
 
         this.dbms = DocumentDbUtil.referencedDbms(project, tableId);
         this.dbmsType = DatabaseUtil.dbmsTypeOf(dbmsHandlerComponent, dbms);
@@ -120,40 +155,160 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
             )
             .map(Field::identifier)
             .collect(toMap(identity(), naming::fullNameOf));
+        
+        this.primaryKeyFields = manager.primaryKeyFields().collect(toList());
     }
 
     @Override
     public Stream<ENTITY> stream(ParallelStrategy parallelStrategy) {
-        final AsynchronousQueryResult<ENTITY> asynchronousQueryResult
-            = dbmsType.getOperationHandler().executeQueryAsync(
+        final Optional<Column> partitionColumn = partitionColumnOf(parallelStrategy);
+        final QueryRecorder recorder = new QueryRecorder(selectMetrics);
+        final SqlFunction<ResultSet, ENTITY> measuredMapper = recorder.mapper(entityMapper);
+        
+        final AsynchronousQueryResult<ENTITY> asynchronousQueryResult;
+        if (partitionColumn.isPresent()) {
+            asynchronousQueryResult = new PartitionedQueryResult<>(
+                dbms,
+                dbmsType,
+                sqlSelect,
+                sqlTableReference,
+                dbmsType.getDatabaseNamingConvention().fullNameOf(partitionColumn.get()),
+                partitionColumn.get().isNullable(),
+                ((PartitionedParallelStrategy) parallelStrategy).getPartitions(),
+                parallelStrategy,
+                measuredMapper
+            );
+        } else if (chunkSize > 0 && !primaryKeyFields.isEmpty()) {
+            asynchronousQueryResult = new ChunkedQueryResult<>(
+                dbms,
+                dbmsType,
+                sqlSelect,
+                primaryKeyFields,
+                primaryKeyFields.stream().map(this::sqlColumnNamer).collect(toList()),
+                chunkSize,
+                parallelStrategy,
+                measuredMapper
+            );
+        } else {
+            asynchronousQueryResult = dbmsType.getOperationHandler().executeQueryAsync(
                 dbms,
                 sqlSelect,
                 Collections.emptyList(),
-                entityMapper,
+                measuredMapper,
                 parallelStrategy
             );
+        }
+        
+        return streamOf(asynchronousQueryResult, recorder, true);
+    }
 
-        final SqlStreamTerminator<ENTITY> terminator = new SqlStreamTerminator<>(
-            dbmsType,
-            sqlSelect,
-            sqlSelectCount,
-            this::executeAndGetLong,
-            this::sqlColumnNamer,
-            asynchronousQueryResult
-        );
-
-        final Supplier<BaseStream<?, ?>> initialSupplier
-            = () -> asynchronousQueryResult.stream();
+    @Override
+    public Publisher<ENTITY> publisher(
+            List<? extends Predicate<? super ENTITY>> filters, 
+            Executor executor, 
+            int chunkSize) {
+        
+        final List<FieldPredicate<ENTITY>> fieldPredicates = new ArrayList<>();
+        final List<Predicate<? super ENTITY>> otherPredicates = new ArrayList<>();
+        for (final Predicate<? super ENTITY> filter : filters) {
+            if (filter instanceof FieldPredicate) {
+                @SuppressWarnings("unchecked")
+                final FieldPredicate<ENTITY> fieldPredicate = 
+                    (FieldPredicate<ENTITY>) filter;
+                fieldPredicates.add(fieldPredicate);
+            } else {
+                otherPredicates.add(requireNonNull(filter));
+            }
+        }
+        
+        return new StreamPublisher<>(() -> {
+            final AsynchronousQueryResult<ENTITY> asynchronousQueryResult = 
+                dbmsType.getOperationHandler().executeQueryAsync(
+                    dbms,
+                    sqlSelect,
+                    Collections.emptyList(),
+                    entityMapper,
+                    ParallelStrategy.computeIntensityDefault()
+                );
+            
+            terminatorFor(asynchronousQueryResult)
+                .modifySource(fieldPredicates, asynchronousQueryResult);
+            
+            Stream<ENTITY> result;
+            try {
+                result = asynchronousQueryResult.stream()
+                    .onClose(asynchronousQueryResult::close);
+            } catch (final RuntimeException ex) {
+                asynchronousQueryResult.close();
+                throw ex;
+            }
+            
+            for (final Predicate<? super ENTITY> predicate : otherPredicates) {
+                result = result.filter(predicate);
+            }
+            
+            return result;
+        }, executor, chunkSize);
+    }
 
-        final Stream<ENTITY> result = new ReferenceStreamBuilder<>(
-            new PipelineImpl<>(initialSupplier),
-            terminator
+    @Override
+    public Page<ENTITY> page(
+            List<HasComparableOperators<ENTITY, ?>> keys, 
+            int pageSize, 
+            String token) {
+        
+        KeysetUtil.requirePositivePageSize(pageSize);
+        
+        final List<String> columns = new ArrayList<>(keys.size());
+        for (final HasComparableOperators<ENTITY, ?> key : keys) {
+            final String column = sqlColumnNamer(key);
+            if (column == null) {
+                throw new SpeedmentException(
+                    "Field " + key.identifier().getColumnName() + 
+                    " is not a column in " + sqlTableReference + "."
+                );
+            }
+            columns.add(column);
+        }
+        
+        final List<Object> values = token == null 
+            ? Collections.emptyList()
+            : KeysetSqlUtil.databaseValues(keys, KeysetUtil.decode(token, keys.size()));
+        
+        // Read one extra row to know if there is a next page
+        final String sql = KeysetSqlUtil.select(
+            dbmsType, sqlSelect, null, columns, token != null, pageSize + 1L
         );
+        
+        final List<ENTITY> rows = dbmsType.getOperationHandler()
+            .executeQuery(dbms, sql, values, entityMapper)
+            .collect(toList());
+        
+        return KeysetUtil.pageOf(rows, keys, pageSize);
+    }
 
-        // Make sure we are closing the ResultSet, Statement and Connection later
-        result.onClose(asynchronousQueryResult::close);
-
-        return result;
+    @Override
+    public PreparedQuery<ENTITY> prepare(UnaryOperator<Stream<ENTITY>> template) {
+        return new PreparedSqlQuery<>(
+            template,
+            sqlSelect,
+            dbmsType.getFieldPredicateView(),
+            this::sqlColumnNamer,
+            (sql, values) -> {
+                final QueryRecorder recorder = new QueryRecorder(selectMetrics);
+                return streamOf(
+                    dbmsType.getOperationHandler().executeQueryAsync(
+                        dbms,
+                        sql,
+                        values,
+                        recorder.mapper(entityMapper),
+                        ParallelStrategy.computeIntensityDefault()
+                    ),
+                    recorder,
+                    false // The SQL of a prepared query is already rendered
+                );
+            }
+        );
     }
 
     @Override
@@ -169,11 +324,137 @@ final class SqlStreamSupplierImpl<ENTITY> implements SqlStreamSupplier<ENTITY> {
 
     public long executeAndGetLong(String sql, List<Object> values) {
         LOGGER_SELECT.debug("%s, values:%s", sql, values);
-        return dbmsType.getOperationHandler().executeQuery(dbms,
-            sql,
-            values,
-            rs -> rs.getLong(1)
-        ).findAny().get();
+        final long start = System.nanoTime();
+        try {
+            final long result = dbmsType.getOperationHandler().executeQuery(dbms,
+                sql,
+                values,
+                rs -> rs.getLong(1)
+            ).findAny().get();
+            
+            countMetrics.recordCompleted(System.nanoTime() - start, 1, sql, values, null);
+            return result;
+        } catch (final RuntimeException ex) {
+            countMetrics.recordError();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the column to split the table on if the specified strategy is
+     * a {@link PartitionedParallelStrategy} and the table has a suitable 
+     * integer column. The ranges are computed using {@code long} values, so
+     * columns that are mapped to {@code BigInteger} are not used.
+     * 
+     * @param parallelStrategy  the strategy
+     * @return                  the column to partition on or empty
+     */
+    private Optional<Column> partitionColumnOf(ParallelStrategy parallelStrategy) {
+        if (!(parallelStrategy instanceof PartitionedParallelStrategy)) {
+            return Optional.empty();
+        }
+        
+        final PartitionedParallelStrategy strategy = 
+            (PartitionedParallelStrategy) parallelStrategy;
+        
+        final Optional<String> columnName = strategy.getColumnName().isPresent() 
+            ? strategy.getColumnName()
+            : Optional.of(table.primaryKeyColumns().collect(toList()))
+                .filter(pks -> pks.size() == 1)
+                .map(pks -> pks.get(0).getName());
+        
+        final Optional<Column> column = columnName.flatMap(name -> table.columns()
+            .filter(Column::isEnabled)
+            .filter(c -> c.getName().equals(name))
+            .filter(c -> isInteger(c.findDatabaseType()))
+            .map(Column.class::cast)
+            .findAny()
+        );
+        
+        if (!column.isPresent()) {
+            LOGGER.warn(
+                "Table %s has no integer column to partition on. Using a single query.", 
+                sqlTableReference
+            );
+        }
+        
+        return column;
+    }
+    
+    private static boolean isInteger(Class<?> type) {
+        return Long.class.equals(type)
+            || Integer.class.equals(type)
+            || Short.class.equals(type)
+            || Byte.class.equals(type);
+    }
+
+    /**
+     * Creates a stream of the specified query result that is terminated by a
+     * {@link SqlStreamTerminator}. The query timeout is applied, the recorder
+     * measures the query and the query result is closed with the stream.
+     * 
+     * @param asynchronousQueryResult  the query result to stream
+     * @param recorder                 the recorder of the query
+     * @param pushDown                 if the terminator may render filters 
+     *                                 and counts into the SQL
+     * @return                         the stream
+     */
+    private Stream<ENTITY> streamOf(
+            AsynchronousQueryResult<ENTITY> asynchronousQueryResult,
+            QueryRecorder recorder,
+            boolean pushDown) {
+        
+        asynchronousQueryResult.setQueryTimeout(queryTimeout);
+        asynchronousQueryResult.setRowListener(recorder::returned);
+        recorder.setQuery(asynchronousQueryResult);
+
+        final SqlStreamTerminator<ENTITY> terminator = 
+            terminatorFor(asynchronousQueryResult, recorder, pushDown);
+
+        final Supplier<BaseStream<?, ?>> initialSupplier = () -> {
+            recorder.start();
+            try {
+                return asynchronousQueryResult.stream();
+            } catch (final RuntimeException ex) {
+                recorder.error();
+                throw ex;
+            }
+        };
+
+        final Stream<ENTITY> result = new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(initialSupplier),
+            terminator
+        );
+
+        // Make sure we are closing the ResultSet, Statement and Connection later
+        result.onClose(asynchronousQueryResult::close);
+        result.onClose(recorder::close);
+
+        return result;
+    }
+
+    private SqlStreamTerminator<ENTITY> terminatorFor(
+            AsynchronousQueryResult<ENTITY> asynchronousQueryResult) {
+        
+        return terminatorFor(asynchronousQueryResult, null, true);
+    }
+
+    private SqlStreamTerminator<ENTITY> terminatorFor(
+            AsynchronousQueryResult<ENTITY> asynchronousQueryResult,
+            QueryRecorder recorder,
+            boolean pushDown) {
+        
+        return new SqlStreamTerminator<>(
+            dbmsType,
+            sqlSelect,
+            sqlSelectCount,
+            this::executeAndGetLong,
+            this::sqlColumnNamer,
+            asynchronousQueryResult,
+            strict,
+            recorder,
+            pushDown
+        );
     }
 
     private String sqlColumnNamer(Field<ENTITY> field) {
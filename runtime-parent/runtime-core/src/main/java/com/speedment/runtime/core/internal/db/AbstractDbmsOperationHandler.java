@@ -16,6 +16,7 @@
  */
 package com.speedment.runtime.core.internal.db;
 
+import com.speedment.common.injector.annotation.Config;
 import com.speedment.common.injector.annotation.Inject;
 import com.speedment.common.logger.Logger;
 import com.speedment.common.logger.LoggerManager;
@@ -60,10 +61,18 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
     protected static final Logger LOGGER_UPDATE = LoggerManager.getLogger(LOGGER_UPDATE_NAME);
     protected static final Logger LOGGER_DELETE = LoggerManager.getLogger(LOGGER_DELETE_NAME);
 
+    /**
+     * The number of entities that are read and mapped ahead of the consumer of
+     * a stream in a background thread. The default value {@code 0} disables
+     * prefetching so that rows are read by the consuming thread.
+     */
+    public static final String PREFETCH_BUFFER_SIZE = "prefetch_buffer_size";
+
     public static final boolean SHOW_METADATA = false; // Warning: Enabling SHOW_METADATA will make some dbmses fail on metadata (notably Oracle) because all the columns must be read in order...
 
     private @Inject ConnectionPoolComponent connectionPoolComponent;
     private @Inject DbmsHandlerComponent dbmsHandlerComponent;
+    private @Config(name=PREFETCH_BUFFER_SIZE, value="0") int prefetchBufferSize;
 
     protected AbstractDbmsOperationHandler() {}
 
@@ -112,7 +121,8 @@ public abstract class AbstractDbmsOperationHandler implements DbmsOperationHandl
             Objects.requireNonNull(values),
             Objects.requireNonNull(rsMapper),
             () -> connectionPoolComponent.getConnection(dbms),
-            parallelStrategy
+            parallelStrategy,
+            prefetchBufferSize
         );
     }
 
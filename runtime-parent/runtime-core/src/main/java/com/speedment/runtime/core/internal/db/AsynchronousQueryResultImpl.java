@@ -21,20 +21,29 @@ import com.speedment.common.logger.LoggerManager;
 import com.speedment.runtime.core.db.AsynchronousQueryResult;
 import com.speedment.runtime.core.db.SqlFunction;
 import com.speedment.runtime.core.exception.SpeedmentException;
-import com.speedment.runtime.core.internal.stream.StreamUtil;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Objects.requireNonNull;
 
 /**
+ * A query result that executes its query when {@link #stream()} is called. 
+ * <p>
+ * If the result is closed before all rows have been read, or if the 
+ * consuming thread is interrupted, the statement is cancelled so that the 
+ * database stops producing rows. Otherwise, some drivers read all the 
+ * remaining rows when the result set is closed.
  *
  * @author pemi
  * @param <T> The type that the ResultSet shall be mapped to
@@ -50,10 +59,16 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
     private SqlFunction<ResultSet, T> rsMapper;
     private final Supplier<Connection> connectionSupplier;
     private final ParallelStrategy parallelStrategy;
+    private final int prefetchSize;
     private Connection connection;  // null allowed if the stream() method is not run
-    private PreparedStatement ps;
+    private volatile PreparedStatement ps;
     private ResultSet rs;
-    private State state;
+    private PrefetchingIterator<T> prefetcher; // null if prefetching is not used
+    private volatile State state;
+    private volatile int queryTimeout;
+    private volatile Runnable rowListener;
+    private volatile boolean exhausted;
+    private volatile boolean cancelled;
 
     public enum State {
         INIT, ESTABLISH, OPEN, CLOSED
@@ -65,12 +80,38 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         final SqlFunction<ResultSet, T> rsMapper,
         final Supplier<Connection> connectionSupplier,
         final ParallelStrategy parallelStrategy
+    ) {
+        this(sql, values, rsMapper, connectionSupplier, parallelStrategy, 0);
+    }
+
+    /**
+     * Creates a new query result that, if {@code prefetchSize} is positive,
+     * reads and maps rows in a background thread while the stream is being 
+     * consumed. At most {@code prefetchSize} mapped entities are buffered 
+     * ahead of the consumer.
+     * 
+     * @param sql                 the SQL query
+     * @param values              the values of the query
+     * @param rsMapper            the mapper from rows to entities
+     * @param connectionSupplier  the supplier of the connection to use
+     * @param parallelStrategy    the parallel strategy
+     * @param prefetchSize        the number of entities to prefetch, or 0 to
+     *                            read the rows in the consuming thread
+     */
+    public AsynchronousQueryResultImpl(
+        final String sql,
+        final List<?> values,
+        final SqlFunction<ResultSet, T> rsMapper,
+        final Supplier<Connection> connectionSupplier,
+        final ParallelStrategy parallelStrategy,
+        final int prefetchSize
     ) {
         setSql(sql); // requireNonNull in setter
         setValues(values); // requireNonNull in setter
         setRsMapper(rsMapper); // requireNonNull in setter
         this.connectionSupplier = requireNonNull(connectionSupplier);
         this.parallelStrategy   = requireNonNull(parallelStrategy);
+        this.prefetchSize       = prefetchSize;
         setState(State.INIT);
     }
 
@@ -82,6 +123,9 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
             connection = connectionSupplier.get();
             connection.setAutoCommit(false);
             ps = connection.prepareStatement(getSql());
+            if (queryTimeout > 0) {
+                ps.setQueryTimeout(queryTimeout);
+            }
             int i = 1;
             for (final Object o : getValues()) {
                 ps.setObject(i++, o);
@@ -92,11 +136,20 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
             throw new SpeedmentException(sqle);
         }
         setState(State.OPEN);
-        return StreamUtil.asStream(rs, getRsMapper(), parallelStrategy);
+        if (prefetchSize > 0) {
+            prefetcher = new PrefetchingIterator<>(rs, getRsMapper(), prefetchSize);
+        }
+        return StreamSupport.stream(parallelStrategy.spliteratorUnknownSize(
+            new RowIterator(), Spliterator.IMMUTABLE + Spliterator.NONNULL), false
+        );
     }
 
     @Override
     public void close() {
+        if (!isExhausted()) {
+            cancelSilently(); // Otherwise, closing might read the remaining rows
+        }
+        closeSilently(prefetcher); // Must release the ResultSet first
         closeSilently(rs);
         closeSilently(ps);
         commitSilently(connection);
@@ -120,11 +173,39 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
                 closeable.close();
             }
         } catch (Exception e) {
-            LOGGER.error(e, "Error closing " + closeable);
+            if (cancelled) {
+                // Drivers may report the cancellation when closing
+                LOGGER.debug("Error closing cancelled %s: %s", closeable, e.getMessage());
+            } else {
+                LOGGER.error(e, "Error closing " + closeable);
+            }
             // Just log the error. No re-throw
         }
     }
 
+    private boolean isExhausted() {
+        return prefetcher == null ? exhausted : prefetcher.isExhausted();
+    }
+
+    private void cancelSilently() {
+        final PreparedStatement statement = ps;
+        if (statement != null && !cancelled) {
+            cancelled = true;
+            try {
+                statement.cancel();
+            } catch (SQLException sqle) {
+                LOGGER.warn(sqle, "Failed to cancel " + getSql());
+            }
+        }
+    }
+
+    private SpeedmentException interrupted() {
+        cancelSilently();
+        return new SpeedmentException(
+            "Interrupted while reading the result of " + getSql()
+        );
+    }
+
     @Override
     public String toString() {
         return getState() + " \"" + getSql() + "\" <- " + getValues();
@@ -160,6 +241,26 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
         this.rsMapper = requireNonNull(rsMapper);
     }
 
+    @Override
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) {
+        if (seconds < 0) {
+            throw new IllegalArgumentException(
+                "Query timeout must not be negative, was " + seconds + "."
+            );
+        }
+        this.queryTimeout = seconds;
+    }
+
+    @Override
+    public void setRowListener(Runnable listener) {
+        this.rowListener = listener; // Nullable
+    }
+
     public State getState() {
         return state;
     }
@@ -167,4 +268,72 @@ public final class AsynchronousQueryResultImpl<T> implements AsynchronousQueryRe
     protected void setState(State state) {
         this.state = requireNonNull(state);
     }
+
+    /**
+     * Iterates over the rows of the result set, either directly or through
+     * the prefetcher, and cancels the statement if the consuming thread is
+     * interrupted.
+     */
+    private final class RowIterator implements Iterator<T> {
+
+        private boolean fetched; // Only used if rows are read directly
+        private boolean hasRow;
+
+        @Override
+        public boolean hasNext() {
+            if (Thread.currentThread().isInterrupted()) {
+                throw interrupted();
+            }
+            
+            if (prefetcher != null) {
+                try {
+                    return prefetcher.hasNext();
+                } catch (final SpeedmentException ex) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw interrupted();
+                    }
+                    throw ex;
+                }
+            }
+            
+            if (!fetched) {
+                try {
+                    hasRow  = rs.next();
+                    fetched = true;
+                } catch (SQLException sqle) {
+                    throw new SpeedmentException("Error iterating over a ResultSet", sqle);
+                }
+                
+                if (!hasRow) {
+                    exhausted = true;
+                }
+            }
+            return hasRow;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            final T entity;
+            if (prefetcher != null) {
+                entity = prefetcher.next();
+            } else {
+                fetched = false;
+                try {
+                    entity = getRsMapper().apply(rs);
+                } catch (SQLException sqle) {
+                    throw new SpeedmentException("Error mapping a row of " + getSql(), sqle);
+                }
+            }
+            
+            final Runnable listener = rowListener;
+            if (listener != null) {
+                listener.run();
+            }
+            return entity;
+        }
+    }
 }
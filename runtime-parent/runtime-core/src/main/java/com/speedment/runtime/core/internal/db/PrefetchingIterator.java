@@ -0,0 +1,247 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@code Iterator} over the mapped rows of a {@code ResultSet} where the
+ * rows are read and mapped by a background thread ahead of the consumer. The
+ * background threads are daemon threads from a shared pool, so that they are
+ * reused by later queries instead of being started for every query. The
+ * mapped entities are handed over in a bounded blocking queue so that network
+ * latency and the processing of already fetched entities overlap.
+ * <p>
+ * The producer blocks when the queue is full and the consumer blocks when it
+ * is empty. An exception thrown by the producer is rethrown to the consumer 
+ * once all entities mapped before it have been consumed. Calling 
+ * {@link #close()} stops the producer and waits for it to release the 
+ * {@code ResultSet}. If the producer is still reading a row after 
+ * {@link #CLOSE_TIMEOUT_MILLIS}, the statement is cancelled so that the 
+ * {@code ResultSet} is never closed while it is in use. If the consumer is 
+ * interrupted while waiting, a {@code SpeedmentException} is thrown.
+ *
+ * @param <T>  the mapped type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class PrefetchingIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerManager.getLogger(PrefetchingIterator.class);
+    
+    private static final long CLOSE_TIMEOUT_MILLIS = 1_000;
+    private static final int MAX_CAPACITY = 1 << 20;
+    
+    private static final Object NULL = new Object(); // Stands for a null entity
+    private static final Object END  = new Object(); // Follows the last entity
+    
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    private static final ExecutorService PRODUCERS = Executors.newCachedThreadPool(r -> {
+        final Thread thread = new Thread(r, 
+            "speedment-prefetch-" + THREAD_NUMBER.incrementAndGet()
+        );
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final ResultSet resultSet;
+    private final SqlFunction<ResultSet, T> mapper;
+    private final BlockingQueue<Object> queue;
+    private final Future<?> production;
+    
+    private Object next; // Taken from the queue but not yet consumed
+    private volatile boolean exhausted;
+    private volatile boolean closed;
+    private volatile Thread producer; // Only set while producing
+
+    PrefetchingIterator(ResultSet resultSet, SqlFunction<ResultSet, T> mapper, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException(
+                "Buffer size must be positive, was " + bufferSize + "."
+            );
+        }
+        
+        this.resultSet  = requireNonNull(resultSet);
+        this.mapper     = requireNonNull(mapper);
+        this.queue      = new ArrayBlockingQueue<>(capacityFor(bufferSize));
+        this.production = PRODUCERS.submit(this::produce);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = queue.take();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SpeedmentException("Interrupted while waiting for the next row");
+            }
+        }
+        
+        if (next instanceof Failure) {
+            final Throwable t = ((Failure) next).cause;
+            next = END; // The producer has stopped
+            throw t instanceof SpeedmentException
+                ? (SpeedmentException) t
+                : new SpeedmentException("Error iterating over a ResultSet", t);
+        }
+        
+        return next != END;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        
+        @SuppressWarnings("unchecked")
+        final T result = next == NULL ? null : (T) next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear(); // Releases a producer that waits for space
+        if (Thread.currentThread() != producer) {
+            if (!awaitProducer()) {
+                LOGGER.warn(
+                    "Prefetch thread did not stop within %d ms. Cancelling the statement.", 
+                    CLOSE_TIMEOUT_MILLIS
+                );
+                cancel();
+                while (!awaitProducer()) {
+                    LOGGER.warn("Waiting for the prefetch thread to stop.");
+                }
+            }
+            
+            queue.clear();
+            queue.offer(END);
+        }
+    }
+    
+    /**
+     * Returns {@code true} if the producer has read past the last row of the
+     * {@code ResultSet}.
+     * 
+     * @return  if all rows have been read
+     */
+    boolean isExhausted() {
+        return exhausted;
+    }
+    
+    private void produce() {
+        producer = Thread.currentThread();
+        Object last = END;
+        try {
+            while (!closed) {
+                if (!resultSet.next()) {
+                    exhausted = true;
+                    return;
+                }
+                
+                final T entity = mapper.apply(resultSet);
+                queue.put(entity == null ? NULL : entity);
+            }
+        } catch (final Throwable t) {
+            last = new Failure(t);
+        } finally {
+            producer = null;
+            if (!closed) {
+                try {
+                    queue.put(last);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Waits for the producer to stop and returns {@code true} if it did 
+     * within {@link #CLOSE_TIMEOUT_MILLIS}.
+     * 
+     * @return  if the producer has stopped
+     */
+    private boolean awaitProducer() {
+        try {
+            production.get(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancel(); // Do not leave the producer reading when giving up
+        } catch (final ExecutionException ex) {
+            // Failures are handed over to the consumer by the producer
+        } catch (final TimeoutException ex) {
+            return false;
+        }
+        return true;
+    }
+    
+    private void cancel() {
+        try {
+            final Statement statement = resultSet.getStatement();
+            if (statement != null) {
+                statement.cancel();
+            }
+        } catch (final SQLException ex) {
+            LOGGER.warn(ex, "Failed to cancel the statement of the prefetch thread.");
+        }
+    }
+    
+    /**
+     * Returns the capacity of the queue for the specified buffer size, which
+     * is never more than {@link #MAX_CAPACITY}.
+     * 
+     * @param bufferSize  the requested buffer size
+     * @return            the capacity of the queue
+     */
+    static int capacityFor(int bufferSize) {
+        return Math.min(bufferSize, MAX_CAPACITY);
+    }
+    
+    private static final class Failure {
+        
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -19,13 +19,19 @@ package com.speedment.runtime.core.internal.manager;
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.component.StreamSupplierComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.stream.builder.AbstractStreamBuilder;
 import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Page;
 import com.speedment.runtime.core.manager.Persister;
+import com.speedment.runtime.core.manager.PreparedQuery;
 import com.speedment.runtime.core.manager.Remover;
 import com.speedment.runtime.core.manager.Updater;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
 
+import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -42,11 +48,22 @@ public class ConfiguredManager<ENTITY> implements Manager<ENTITY> {
     private final StreamSupplierComponent streamSupplierComponent;
     private final Manager<ENTITY> manager;
     private final ParallelStrategy parallelStrategy;
+    private final int queryTimeout;
+    
+    /**
+     * The query timeout that means that the default timeout should be used.
+     */
+    static final int DEFAULT_QUERY_TIMEOUT = -1;
 
     public ConfiguredManager(StreamSupplierComponent streamSupplierComponent, Manager<ENTITY> manager, ParallelStrategy parallelStrategy) {
+        this(streamSupplierComponent, manager, parallelStrategy, DEFAULT_QUERY_TIMEOUT);
+    }
+
+    public ConfiguredManager(StreamSupplierComponent streamSupplierComponent, Manager<ENTITY> manager, ParallelStrategy parallelStrategy, int queryTimeout) {
         this.streamSupplierComponent = requireNonNull(streamSupplierComponent);
         this.manager = requireNonNull(manager);
         this.parallelStrategy = requireNonNull(parallelStrategy);
+        this.queryTimeout = queryTimeout;
     }
 
 //    @Override
@@ -91,10 +108,26 @@ public class ConfiguredManager<ENTITY> implements Manager<ENTITY> {
 
     @Override
     public Stream<ENTITY> stream() {
-        return streamSupplierComponent.stream(
+        final Stream<ENTITY> stream = streamSupplierComponent.stream(
             getTableIdentifier(),
             parallelStrategy
         );
+        
+        if (queryTimeout != DEFAULT_QUERY_TIMEOUT && stream instanceof AbstractStreamBuilder) {
+            ((AbstractStreamBuilder<?, ?>) stream).setQueryTimeout(queryTimeout);
+        }
+        
+        return stream;
+    }
+
+    @Override
+    public Page<ENTITY> page(List<? extends HasComparableOperators<ENTITY, ?>> sort, int pageSize, String token) {
+        return manager.page(sort, pageSize, token);
+    }
+
+    @Override
+    public PreparedQuery<ENTITY> prepare(UnaryOperator<Stream<ENTITY>> template) {
+        return manager.prepare(template);
     }
 
     @Override
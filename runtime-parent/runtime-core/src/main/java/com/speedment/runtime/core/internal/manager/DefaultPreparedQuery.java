@@ -0,0 +1,295 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.manager.PreparedQuery;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.PredicateType;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+import com.speedment.runtime.field.trait.HasStringOperators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getFirstOperandAsRawSet;
+import static com.speedment.runtime.field.internal.predicate.PredicateUtil.getInclusionOperand;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A {@link PreparedQuery} for managers that do not render queries of their 
+ * own. The template is analyzed once. Each execution creates the field 
+ * predicates of the initial {@code filter()} operations with the new 
+ * parameter values and applies them, followed by the remaining operations of
+ * the template, to a new stream of the manager. The stream can then push the
+ * predicates down as usual, for an example to an index of a snapshot.
+ * <p>
+ * Only predicates on fields with comparable or string operators take 
+ * parameters. The leading filters end at the first filter that contains any
+ * other predicate.
+ * 
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class DefaultPreparedQuery<ENTITY> implements PreparedQuery<ENTITY> {
+    
+    private final Function<UnaryOperator<Stream<ENTITY>>, Stream<ENTITY>> executor;
+    private final List<List<FieldPredicate<ENTITY>>> filters;
+    private final List<Action<?, ?>> actions;
+    private final int parameterCount;
+    private final boolean parallel;
+    private final boolean ordered;
+
+    /**
+     * Analyzes the specified template and creates a new prepared query.
+     * 
+     * @param template  the function that adds operations to a stream
+     * @param executor  the function that applies a query to a new stream of
+     *                  all entities, like {@code q -> q.apply(stream())}
+     * 
+     * @throws IllegalArgumentException  if the template does not return the
+     *                                   stream it was given
+     */
+    public DefaultPreparedQuery(
+            UnaryOperator<Stream<ENTITY>> template,
+            Function<UnaryOperator<Stream<ENTITY>>, Stream<ENTITY>> executor) {
+        
+        this.executor = requireNonNull(executor);
+        
+        final PipelineImpl<?> pipeline = PreparedQueryUtil.capture(template);
+        final List<List<FieldPredicate<ENTITY>>> leading = new ArrayList<>();
+        int parameters = 0;
+        for (final Action<?, ?> action : pipeline) {
+            final List<FieldPredicate<ENTITY>> predicates = 
+                PreparedQueryUtil.fieldPredicatesOf(action);
+            
+            if (predicates.isEmpty() || !predicates.stream().allMatch(DefaultPreparedQuery::isBindable)) {
+                break;
+            }
+            
+            leading.add(predicates);
+            for (final FieldPredicate<ENTITY> predicate : predicates) {
+                parameters += parameterCountOf(predicate);
+            }
+        }
+        
+        this.filters        = Collections.unmodifiableList(leading);
+        this.actions        = Collections.unmodifiableList(
+            pipeline.stream().skip(leading.size()).collect(toList())
+        );
+        this.parameterCount = parameters;
+        this.parallel       = pipeline.isParallel();
+        this.ordered        = pipeline.isOrdered();
+    }
+
+    @Override
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    @Override
+    public Stream<ENTITY> stream(Object... parameters) {
+        requireNonNull(parameters);
+        if (parameters.length != parameterCount) {
+            throw new IllegalArgumentException(
+                "Expected " + parameterCount + " parameters but got " + 
+                parameters.length + "."
+            );
+        }
+        
+        final List<Predicate<ENTITY>> bound = new ArrayList<>(filters.size());
+        int index = 0;
+        for (final List<FieldPredicate<ENTITY>> filter : filters) {
+            Predicate<ENTITY> predicate = null;
+            for (final FieldPredicate<ENTITY> template : filter) {
+                final int count = parameterCountOf(template);
+                final Predicate<ENTITY> next = bind(template, parameters, index);
+                predicate = predicate == null ? next : predicate.and(next);
+                index += count;
+            }
+            bound.add(predicate);
+        }
+        
+        return executor.apply(s -> {
+            Stream<ENTITY> result = s;
+            for (final Predicate<ENTITY> predicate : bound) {
+                result = result.filter(predicate);
+            }
+            return PreparedQueryUtil.apply(result, actions, parallel, ordered);
+        });
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + 
+            "{filters=" + filters + ", actions=" + actions + "}";
+    }
+    
+    private static boolean isBindable(FieldPredicate<?> predicate) {
+        if (isNullary(predicate)) {
+            return true; // Predicates without operands are kept as-is
+        }
+        
+        return isStringOperation(predicate.getPredicateType())
+            ? predicate.getField() instanceof HasStringOperators
+            : predicate.getField() instanceof HasComparableOperators;
+    }
+    
+    private static boolean isStringOperation(PredicateType type) {
+        switch (type) {
+            case EQUAL_IGNORE_CASE : case NOT_EQUAL_IGNORE_CASE : 
+            case STARTS_WITH : case NOT_STARTS_WITH : 
+            case STARTS_WITH_IGNORE_CASE : case NOT_STARTS_WITH_IGNORE_CASE : 
+            case ENDS_WITH : case NOT_ENDS_WITH : 
+            case ENDS_WITH_IGNORE_CASE : case NOT_ENDS_WITH_IGNORE_CASE : 
+            case CONTAINS : case NOT_CONTAINS : 
+            case CONTAINS_IGNORE_CASE : case NOT_CONTAINS_IGNORE_CASE : 
+                return true;
+            default : 
+                return false;
+        }
+    }
+    
+    private static int parameterCountOf(FieldPredicate<?> predicate) {
+        if (isNullary(predicate)) {
+            return 0;
+        }
+        
+        switch (predicate.getPredicateType()) {
+            case BETWEEN : case NOT_BETWEEN : return 2;
+            case IN : case NOT_IN : return getFirstOperandAsRawSet(predicate).size();
+            default : return 1;
+        }
+    }
+    
+    private static boolean isNullary(FieldPredicate<?> predicate) {
+        switch (predicate.getPredicateType()) {
+            case ALWAYS_TRUE : case ALWAYS_FALSE : 
+            case IS_NULL : case IS_NOT_NULL : 
+            case IS_EMPTY : case IS_NOT_EMPTY : 
+                return true;
+            default : 
+                return false;
+        }
+    }
+    
+    /**
+     * Creates a predicate of the same type and on the same field as the 
+     * specified template, with operands from the specified parameters.
+     * 
+     * @param <ENTITY>    the entity type
+     * @param template    the predicate of the template
+     * @param parameters  all parameters of the query
+     * @param index       the index of the first operand in the parameters
+     * @return            the new predicate
+     */
+    private static <ENTITY> Predicate<ENTITY> bind(
+            FieldPredicate<ENTITY> template, 
+            Object[] parameters, 
+            int index) {
+        
+        if (isNullary(template)) {
+            return template;
+        }
+        
+        final Field<ENTITY> field = template.getField();
+        final Predicate<ENTITY> result = field instanceof HasComparableOperators
+            && !isStringOperation(template.getPredicateType())
+            ? bindComparable(field, template, parameters, index)
+            : bindString(field, template.getPredicateType(), (String) parameters[index]);
+        
+        return template.isNegated() ? result.negate() : result;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <ENTITY, V extends Comparable<? super V>> Predicate<ENTITY> bindComparable(
+            Field<ENTITY> comparable,
+            FieldPredicate<ENTITY> template, 
+            Object[] parameters, 
+            int index) {
+        
+        final HasComparableOperators<ENTITY, V> field = 
+            (HasComparableOperators<ENTITY, V>) comparable;
+        
+        final V value = (V) parameters[index];
+        switch (template.getPredicateType()) {
+            case EQUAL            : return field.equal(value);
+            case NOT_EQUAL        : return field.notEqual(value);
+            case GREATER_THAN     : return field.greaterThan(value);
+            case GREATER_OR_EQUAL : return field.greaterOrEqual(value);
+            case LESS_THAN        : return field.lessThan(value);
+            case LESS_OR_EQUAL    : return field.lessOrEqual(value);
+            case BETWEEN          : 
+                return field.between(value, (V) parameters[index + 1], getInclusionOperand(template));
+            case NOT_BETWEEN      : 
+                return field.notBetween(value, (V) parameters[index + 1], getInclusionOperand(template));
+            case IN : case NOT_IN : {
+                final int size = parameterCountOf(template);
+                final Set<V> set = new LinkedHashSet<>(size);
+                for (int i = 0; i < size; i++) {
+                    set.add((V) parameters[index + i]);
+                }
+                return template.getPredicateType() == PredicateType.IN 
+                    ? field.in(set) 
+                    : field.notIn(set);
+            }
+            default : throw new IllegalStateException(
+                "Unexpected predicate type " + template.getPredicateType() + "."
+            );
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <ENTITY> Predicate<ENTITY> bindString(
+            Field<ENTITY> field, 
+            PredicateType type, 
+            String value) {
+        
+        final HasStringOperators<ENTITY, ?> string = (HasStringOperators<ENTITY, ?>) field;
+        switch (type) {
+            case EQUAL_IGNORE_CASE           : return string.equalIgnoreCase(value);
+            case NOT_EQUAL_IGNORE_CASE       : return string.notEqualIgnoreCase(value);
+            case STARTS_WITH                 : return string.startsWith(value);
+            case NOT_STARTS_WITH             : return string.notStartsWith(value);
+            case STARTS_WITH_IGNORE_CASE     : return string.startsWithIgnoreCase(value);
+            case NOT_STARTS_WITH_IGNORE_CASE : return string.notStartsWithIgnoreCase(value);
+            case ENDS_WITH                   : return string.endsWith(value);
+            case NOT_ENDS_WITH               : return string.notEndsWith(value);
+            case ENDS_WITH_IGNORE_CASE       : return string.endsWithIgnoreCase(value);
+            case NOT_ENDS_WITH_IGNORE_CASE   : return string.notEndsWithIgnoreCase(value);
+            case CONTAINS                    : return string.contains(value);
+            case NOT_CONTAINS                : return string.notContains(value);
+            case CONTAINS_IGNORE_CASE        : return string.containsIgnoreCase(value);
+            case NOT_CONTAINS_IGNORE_CASE    : return string.notContainsIgnoreCase(value);
+            default : throw new IllegalStateException(
+                "Unexpected predicate type " + type + "."
+            );
+        }
+    }
+}
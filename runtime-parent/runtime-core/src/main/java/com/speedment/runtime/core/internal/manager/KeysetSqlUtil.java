@@ -0,0 +1,162 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.typemapper.TypeMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility methods for rendering keyset (seek) queries in SQL. A keyset query
+ * selects the rows that come after the key values of a previous row. Since 
+ * row value comparisons like {@code (k1,k2) > (?,?)} are not supported by all
+ * databases, the comparison is expanded into a condition that can still be 
+ * answered by an index on the keys:
+ * <pre>{@code
+ * SELECT ... WHERE (k1 > ? OR (k1 = ? AND k2 > ?)) ORDER BY k1,k2
+ * }</pre>
+ * The number of rows is limited using {@link DbmsType#applyLimit(String, long)}.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ * 
+ * @see KeysetUtil
+ */
+public final class KeysetSqlUtil {
+    
+    private static final String WHERE = " WHERE ", AND = " AND ";
+
+    /**
+     * Returns a query that selects the rows of the specified base query that
+     * match the specified condition and, if {@code after} is {@code true}, 
+     * come after the key values of a previous row. The rows are ordered by 
+     * the keys and limited to the specified number.
+     * <p>
+     * If {@code after} is {@code true}, the query has parameters for the key
+     * values following the parameters of the condition. The values are given
+     * by {@link #databaseValues(List, List)}.
+     * 
+     * @param dbmsType    the type of the database to render the query for
+     * @param sqlSelect   the query without any condition
+     * @param condition   an additional condition or {@code null}
+     * @param sqlColumns  the full names of the key columns
+     * @param after       if only rows after a previous row should be selected
+     * @param limit       the maximum number of rows
+     * @return            the query
+     */
+    public static String select(
+            DbmsType dbmsType,
+            String sqlSelect, 
+            String condition, 
+            List<String> sqlColumns, 
+            boolean after, 
+            long limit) {
+        
+        requireNonNull(dbmsType);
+        requireNonNull(sqlSelect);
+        if (sqlColumns.isEmpty()) {
+            throw new IllegalArgumentException(
+                "At least one key column is required for a keyset query."
+            );
+        }
+        
+        final StringBuilder sql = new StringBuilder(sqlSelect);
+        
+        if (condition != null) {
+            sql.append(WHERE).append(condition);
+        }
+        
+        if (after) {
+            sql.append(condition == null ? WHERE : AND)
+                .append('(').append(after(sqlColumns, 0)).append(')');
+        }
+        
+        sql.append(" ORDER BY ").append(String.join(",", sqlColumns));
+        return dbmsType.applyLimit(sql.toString(), limit);
+    }
+    
+    /**
+     * Returns the condition that the key columns from the specified index
+     * come after the parameters, like {@code k1 > ? OR (k1 = ? AND k2 > ?)}.
+     * 
+     * @param sqlColumns  the full names of the key columns
+     * @param index       the index of the first column to compare
+     * @return            the condition
+     */
+    private static String after(List<String> sqlColumns, int index) {
+        final String column = sqlColumns.get(index);
+        if (index == sqlColumns.size() - 1) {
+            return column + " > ?";
+        }
+        
+        final String next = after(sqlColumns, index + 1);
+        return column + " > ? OR (" + column + " = ?" + AND + 
+            (index + 1 == sqlColumns.size() - 1 ? next : "(" + next + ")") + ")";
+    }
+    
+    /**
+     * Returns the specified key values of a row converted to database values
+     * using the type mappers of the keys. The values are in the order of the
+     * parameters of a query returned by 
+     * {@link #select(DbmsType, String, String, List, boolean, long)}, where
+     * every key value but the last is used twice.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param keys      the key fields
+     * @param values    the java values of the keys, in the same order
+     * @return          the database values
+     */
+    public static <ENTITY> List<Object> databaseValues(
+            List<? extends Field<ENTITY>> keys, 
+            List<?> values) {
+        
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException(
+                "Expected one value for each of the " + keys.size() + 
+                " keys, got " + values.size() + "."
+            );
+        }
+        
+        final List<Object> result = new ArrayList<>(2 * keys.size() - 1);
+        for (int i = 0; i < keys.size(); i++) {
+            @SuppressWarnings("unchecked")
+            final TypeMapper<Object, Object> tm = 
+                (TypeMapper<Object, Object>) keys.get(i).typeMapper();
+            
+            final Object value = tm.toDatabaseType(values.get(i));
+            result.add(value);
+            if (i < keys.size() - 1) {
+                result.add(value); // For the equality of the next comparison
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private KeysetSqlUtil() {
+        instanceNotAllowed(getClass());
+    }
+}
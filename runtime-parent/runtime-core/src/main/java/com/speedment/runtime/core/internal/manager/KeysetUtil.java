@@ -0,0 +1,396 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Utility methods for keyset (seek) pagination.
+ * <p>
+ * A page is identified by the values of the sort keys of the last entity of 
+ * the previous page. The values are encoded into an opaque, URL safe token 
+ * using a small tagged binary format that only supports plain value types, 
+ * so that tokens received from clients can be decoded safely.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class KeysetUtil {
+    
+    private static final byte
+        NULL       = 'N',
+        BOOLEAN    = 'Z',
+        BYTE       = 'B',
+        SHORT      = 'S',
+        INT        = 'I',
+        LONG       = 'J',
+        FLOAT      = 'F',
+        DOUBLE     = 'D',
+        CHAR       = 'C',
+        STRING     = 's',
+        DECIMAL    = 'd',
+        BIG_INT    = 'i',
+        TIMESTAMP  = 'T',
+        SQL_DATE   = 'a',
+        SQL_TIME   = 't',
+        UTIL_DATE  = 'u';
+    
+    /**
+     * Returns the keys to sort on, which are the specified sort fields 
+     * followed by the primary key fields that are not already part of the 
+     * sort. The primary key makes the order total so that no entity is 
+     * skipped or repeated between pages.
+     * 
+     * @param <ENTITY>          the entity type
+     * @param sort              the fields to sort on
+     * @param primaryKeyFields  the primary key fields
+     * @return                  the keys to sort on
+     * 
+     * @throws SpeedmentException  if a primary key field is not comparable
+     */
+    public static <ENTITY> List<HasComparableOperators<ENTITY, ?>> keys(
+            List<? extends HasComparableOperators<ENTITY, ?>> sort,
+            Stream<Field<ENTITY>> primaryKeyFields) {
+        
+        final List<HasComparableOperators<ENTITY, ?>> keys = new ArrayList<>(sort);
+        primaryKeyFields
+            .filter(pk -> sort.stream().noneMatch(f -> f.identifier().equals(pk.identifier())))
+            .forEachOrdered(pk -> {
+                if (pk instanceof HasComparableOperators) {
+                    keys.add((HasComparableOperators<ENTITY, ?>) pk);
+                } else {
+                    throw new SpeedmentException(
+                        "Primary key field " + pk.identifier().getColumnName() + 
+                        " can not be used for pagination since it is not comparable."
+                    );
+                }
+            });
+        
+        if (keys.isEmpty()) {
+            throw new SpeedmentException(
+                "At least one sort field or primary key is required for pagination."
+            );
+        }
+        
+        return keys;
+    }
+    
+    /**
+     * Returns a page of the entities in the specified stream. The stream is
+     * sorted in memory so this is only suitable for sources that can not sort
+     * and filter on their own.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param stream    stream of all entities
+     * @param keys      the keys to sort on, as returned by {@link #keys}
+     * @param pageSize  the maximum number of entities in the page
+     * @param token     the continuation token, or {@code null} for the first
+     *                  page
+     * @return          the page
+     */
+    public static <ENTITY> Page<ENTITY> page(
+            Stream<ENTITY> stream, 
+            List<HasComparableOperators<ENTITY, ?>> keys,
+            int pageSize,
+            String token) {
+        
+        requireNonNulls(stream, keys);
+        requirePositivePageSize(pageSize);
+        
+        final Comparator<ENTITY> order = (a, b) -> 
+            compare(valuesOf(a, keys), valuesOf(b, keys));
+        
+        try (final Stream<ENTITY> s = stream) {
+            final Stream<ENTITY> remaining;
+            if (token == null) {
+                remaining = s;
+            } else {
+                final List<Object> after = decode(token, keys.size());
+                remaining = s.filter(e -> compare(valuesOf(e, keys), after) > 0);
+            }
+            
+            return pageOf(
+                remaining.sorted(order).limit(pageSize + 1L).collect(toList()), 
+                keys, 
+                pageSize
+            );
+        }
+    }
+    
+    /**
+     * Creates a page from the specified rows, which are the first 
+     * {@code pageSize + 1} entities after the token in sort order. If there
+     * is an extra row, it is dropped and a token for the next page is created.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param rows      the rows in sort order
+     * @param keys      the keys to sort on
+     * @param pageSize  the maximum number of entities in the page
+     * @return          the page
+     */
+    public static <ENTITY> Page<ENTITY> pageOf(
+            List<ENTITY> rows, 
+            List<HasComparableOperators<ENTITY, ?>> keys, 
+            int pageSize) {
+        
+        if (rows.size() <= pageSize) {
+            return new PageImpl<>(rows, null);
+        }
+        
+        final List<ENTITY> content = new ArrayList<>(rows.subList(0, pageSize));
+        final ENTITY last = content.get(pageSize - 1);
+        return new PageImpl<>(content, encode(valuesOf(last, keys)));
+    }
+    
+    /**
+     * Returns the values of the specified keys for the specified entity.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param entity    the entity
+     * @param keys      the keys
+     * @return          the values
+     */
+    public static <ENTITY> List<Object> valuesOf(
+            ENTITY entity, 
+            List<HasComparableOperators<ENTITY, ?>> keys) {
+        
+        final List<Object> values = new ArrayList<>(keys.size());
+        for (final HasComparableOperators<ENTITY, ?> key : keys) {
+            values.add(key.getter().apply(entity));
+        }
+        return values;
+    }
+    
+    /**
+     * Compares two lists of key values lexicographically. A {@code null} 
+     * value is ordered before any other value.
+     * 
+     * @param first   the first values
+     * @param second  the second values
+     * @return        negative, zero or positive as the first values are 
+     *                less than, equal to or greater than the second values
+     */
+    @SuppressWarnings("unchecked")
+    public static int compare(List<?> first, List<?> second) {
+        for (int i = 0; i < first.size(); i++) {
+            final Object a = first.get(i);
+            final Object b = second.get(i);
+            
+            final int result;
+            if (a == null) {
+                result = b == null ? 0 : -1;
+            } else if (b == null) {
+                result = 1;
+            } else {
+                result = ((Comparable<Object>) a).compareTo(b);
+            }
+            
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Encodes the specified key values into an opaque token.
+     * 
+     * @param values  the values to encode
+     * @return        the token
+     * 
+     * @throws SpeedmentException  if a value is of an unsupported type
+     */
+    public static String encode(List<?> values) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(values.size());
+            for (final Object value : values) {
+                write(out, value);
+            }
+        } catch (final IOException ex) {
+            throw new SpeedmentException("Failed to encode continuation token.", ex);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+    
+    /**
+     * Decodes the key values of the specified token.
+     * 
+     * @param token     the token
+     * @param keyCount  the expected number of values
+     * @return          the values
+     * 
+     * @throws IllegalArgumentException  if the token is malformed or was not 
+     *                                   created for the same number of keys
+     */
+    public static List<Object> decode(String token, int keyCount) {
+        try (final DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            
+            final int size = in.readShort();
+            if (size != keyCount) {
+                throw new IllegalArgumentException(
+                    "Continuation token has " + size + " values but " + 
+                    keyCount + " were expected."
+                );
+            }
+            
+            final List<Object> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(read(in));
+            }
+            
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("Continuation token has trailing data.");
+            }
+            
+            return values;
+        } catch (final IOException ex) {
+            throw new IllegalArgumentException("Malformed continuation token '" + token + "'.", ex);
+        }
+    }
+    
+    private static void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(DECIMAL);
+            out.writeUTF(value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INT);
+            out.writeUTF(value.toString());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(SQL_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(SQL_TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value.getClass() == java.util.Date.class) {
+            out.writeByte(UTIL_DATE);
+            out.writeLong(((java.util.Date) value).getTime());
+        } else {
+            throw new SpeedmentException(
+                "Values of type " + value.getClass().getName() + 
+                " can not be used as pagination keys."
+            );
+        }
+    }
+    
+    private static Object read(DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case NULL      : return null;
+            case BOOLEAN   : return in.readBoolean();
+            case BYTE      : return in.readByte();
+            case SHORT     : return in.readShort();
+            case INT       : return in.readInt();
+            case LONG      : return in.readLong();
+            case FLOAT     : return in.readFloat();
+            case DOUBLE    : return in.readDouble();
+            case CHAR      : return in.readChar();
+            case STRING    : return in.readUTF();
+            case DECIMAL   : return new BigDecimal(in.readUTF());
+            case BIG_INT   : return new BigInteger(in.readUTF());
+            case TIMESTAMP : {
+                final Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            }
+            case SQL_DATE  : return new java.sql.Date(in.readLong());
+            case SQL_TIME  : return new Time(in.readLong());
+            case UTIL_DATE : return new java.util.Date(in.readLong());
+            default : throw new IOException("Unknown value tag " + tag + ".");
+        }
+    }
+    
+    /**
+     * Throws an {@code IllegalArgumentException} if the specified page size
+     * is not positive.
+     * 
+     * @param pageSize  the page size
+     * 
+     * @throws IllegalArgumentException  if the page size is not positive
+     */
+    public static void requirePositivePageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException(
+                "Page size must be positive, was " + pageSize + "."
+            );
+        }
+    }
+    
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private KeysetUtil() {
+        instanceNotAllowed(getClass());
+    }
+}
@@ -20,6 +20,9 @@ import com.speedment.runtime.core.component.StreamSupplierComponent;
 import com.speedment.runtime.core.manager.Manager;
 import com.speedment.runtime.core.manager.ManagerConfigurator;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.core.util.QueryTimeoutUtil;
+
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Objects.requireNonNull;
 
@@ -36,11 +39,13 @@ public class ManagerConfiguratorImpl<ENTITY> implements ManagerConfigurator<ENTI
     private final Manager<ENTITY> manager;
     //
     private ParallelStrategy parallelStrategy;
+    private int queryTimeout;
 
     public ManagerConfiguratorImpl(StreamSupplierComponent streamSupplierComponent, Manager<ENTITY> manager) {
         this.streamSupplierComponent = requireNonNull(streamSupplierComponent);
         this.manager = requireNonNull(manager);
         this.parallelStrategy = ParallelStrategy.computeIntensityDefault();
+        this.queryTimeout = ConfiguredManager.DEFAULT_QUERY_TIMEOUT;
     }
 
     @Override
@@ -49,9 +54,15 @@ public class ManagerConfiguratorImpl<ENTITY> implements ManagerConfigurator<ENTI
         return this;
     }
 
+    @Override
+    public ManagerConfigurator<ENTITY> withQueryTimeout(long timeout, TimeUnit unit) {
+        this.queryTimeout = QueryTimeoutUtil.toSeconds(timeout, unit);
+        return this;
+    }
+
     @Override
     public Manager<ENTITY> build() {
-        return new ConfiguredManager<>(streamSupplierComponent, manager, parallelStrategy);
+        return new ConfiguredManager<>(streamSupplierComponent, manager, parallelStrategy, queryTimeout);
     }
 
 }
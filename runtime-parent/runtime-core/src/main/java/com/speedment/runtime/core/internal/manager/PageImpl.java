@@ -0,0 +1,59 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.manager.Page;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Default implementation of the {@link Page}-interface.
+ * 
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class PageImpl<ENTITY> implements Page<ENTITY> {
+    
+    private final List<ENTITY> content;
+    private final String nextToken; // null if this is the last page
+
+    PageImpl(List<ENTITY> content, String nextToken) {
+        this.content   = unmodifiableList(requireNonNull(content));
+        this.nextToken = nextToken;
+    }
+
+    @Override
+    public List<ENTITY> getContent() {
+        return content;
+    }
+
+    @Override
+    public Optional<String> getNextToken() {
+        return Optional.ofNullable(nextToken);
+    }
+
+    @Override
+    public String toString() {
+        return "Page{size=" + content.size() + ", nextToken=" + nextToken + "}";
+    }
+}
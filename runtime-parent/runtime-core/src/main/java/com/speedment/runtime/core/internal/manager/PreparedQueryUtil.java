@@ -0,0 +1,167 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.internal.predicate.AbstractCombinedPredicate.AndCombinedBasePredicate;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Utility methods for analyzing the template of a 
+ * {@link com.speedment.runtime.core.manager.PreparedQuery} once and applying 
+ * what remains of it to a new stream for every execution.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class PreparedQueryUtil {
+    
+    /**
+     * Applies the template to an empty stream and returns the pipeline that
+     * the template has built, without executing any query.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param template  the template
+     * @return          the pipeline of the template
+     * 
+     * @throws IllegalArgumentException  if the template does not return the
+     *                                   stream it was given
+     */
+    public static <ENTITY> PipelineImpl<?> capture(UnaryOperator<Stream<ENTITY>> template) {
+        requireNonNull(template);
+        final CapturingTerminator terminator = new CapturingTerminator();
+        final Stream<ENTITY> initial = new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(Stream::empty), terminator
+        );
+        
+        try (final Stream<ENTITY> stream = template.apply(initial)) {
+            requireNonNull(stream, "The template returned null.").forEach(e -> {});
+        }
+        
+        if (terminator.pipeline == null) {
+            throw new IllegalArgumentException(
+                "The template must return the stream it was given with " + 
+                "operations added to it."
+            );
+        }
+        
+        return terminator.pipeline;
+    }
+    
+    /**
+     * Returns the field predicates of the specified action if it is a filter
+     * that can be replaced in full by the conjunction of those predicates, or 
+     * else an empty list.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param action    the action to inspect
+     * @return          the field predicates or an empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <ENTITY> List<FieldPredicate<ENTITY>> fieldPredicatesOf(Action<?, ?> action) {
+        if (!(action instanceof FilterAction)) {
+            return Collections.emptyList();
+        }
+        
+        final Predicate<?> predicate = ((FilterAction<?>) action).getPredicate();
+        if (predicate instanceof FieldPredicate) {
+            return Collections.singletonList((FieldPredicate<ENTITY>) predicate);
+        } else if (predicate instanceof AndCombinedBasePredicate) {
+            final List<Predicate<?>> operands = ((AndCombinedBasePredicate<?>) predicate)
+                .stream()
+                .collect(toList());
+            
+            if (!operands.isEmpty() && operands.stream().allMatch(FieldPredicate.class::isInstance)) {
+                return operands.stream()
+                    .map(p -> (FieldPredicate<ENTITY>) p)
+                    .collect(toList());
+            }
+        }
+        
+        return Collections.emptyList();
+    }
+    
+    /**
+     * Adds the specified actions of a captured pipeline to the specified 
+     * stream, as if the operations of the template were called on it. If the
+     * stream is built by Speedment, it can still optimize the result.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param stream    the stream to add the actions to
+     * @param actions   the actions to add, in order
+     * @param parallel  if the resulting stream should be parallel
+     * @param ordered   if the resulting stream should be ordered
+     * @return          the resulting stream
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <ENTITY> Stream<ENTITY> apply(
+            Stream<ENTITY> stream, 
+            List<Action<?, ?>> actions, 
+            boolean parallel, 
+            boolean ordered) {
+        
+        BaseStream<?, ?> result = requireNonNull(stream);
+        for (final Action<?, ?> action : actions) {
+            result = ((Function<BaseStream, BaseStream>) (Function) action.get()).apply(result);
+        }
+        
+        if (parallel) {
+            result = result.parallel();
+        }
+        
+        if (!ordered) {
+            result = result.unordered();
+        }
+        
+        return (Stream<ENTITY>) result;
+    }
+    
+    private static final class CapturingTerminator implements StreamTerminator {
+        
+        private PipelineImpl<?> pipeline;
+
+        @Override
+        public <P extends Pipeline> P optimize(P initialPipeline) {
+            pipeline = (PipelineImpl<?>) initialPipeline;
+            return initialPipeline;
+        }
+    }
+    
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private PreparedQueryUtil() {
+        instanceNotAllowed(getClass());
+    }
+}
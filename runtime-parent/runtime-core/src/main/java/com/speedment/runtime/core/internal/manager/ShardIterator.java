@@ -0,0 +1,199 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@code Iterator} over the result of a query on a single shard. Streams
+ * from a manager can only be consumed using terminal operations, so the
+ * query is consumed with {@code forEachOrdered} by a background task that
+ * hands the elements over in a bounded buffer. This makes it possible to
+ * read from several shards at the same time without gathering the result
+ * of each shard in memory.
+ * <p>
+ * The query is not started until {@link #start()} or {@link #hasNext()} is
+ * called, and then runs on the executor given to the constructor. Its stream
+ * is closed when all elements have been handed over, if it fails, or when 
+ * {@link #close()} is called. The background task only holds a weak 
+ * reference to the iterator, so if the iterator is abandoned without being 
+ * closed, the task stops and closes the stream of the shard once the 
+ * iterator has been garbage collected.
+ *
+ * @param <T>  the element type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class ShardIterator<T> implements Iterator<T>, AutoCloseable {
+    
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    
+    private static final Object NULL = new Object(), END = new Object();
+    
+    private final Producer<T> producer;
+    private final Executor executor;
+    
+    private boolean started; // Only accessed by the consumer
+    private Object next;     // Only accessed by the consumer
+
+    ShardIterator(Supplier<? extends Stream<? extends T>> query, int bufferSize, Executor executor) {
+        this.producer = new Producer<>(requireNonNull(query), bufferSize, this);
+        this.executor = requireNonNull(executor);
+    }
+    
+    /**
+     * Starts the query on the shard unless it has already been started.
+     */
+    void start() {
+        if (!started) {
+            started = true;
+            executor.execute(producer);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        start();
+        if (next == null) {
+            try {
+                next = producer.buffer.take();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SpeedmentException("Interrupted while waiting for a shard.", ex);
+            }
+        }
+        
+        if (next == END) {
+            final Throwable t = producer.failure;
+            if (t != null) {
+                producer.failure = null;
+                throw t instanceof RuntimeException
+                    ? (RuntimeException) t
+                    : new SpeedmentException("Failed to query shard.", t);
+            }
+            return false;
+        }
+        
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        
+        @SuppressWarnings("unchecked")
+        final T result = next == NULL ? null : (T) next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        producer.closed = true;  // A task that has not started will not query
+        producer.buffer.clear(); // Lets a waiting producer see the flag
+    }
+    
+    /**
+     * The background task that reads the shard. It must not hold a strong 
+     * reference to the iterator, or an abandoned iterator could never be
+     * collected.
+     * 
+     * @param <T>  the element type
+     */
+    private static final class Producer<T> implements Runnable {
+        
+        private final Supplier<? extends Stream<? extends T>> query;
+        private final BlockingQueue<Object> buffer;
+        private final WeakReference<ShardIterator<T>> consumer;
+        
+        private volatile boolean closed;
+        private volatile Throwable failure;
+
+        Producer(Supplier<? extends Stream<? extends T>> query, int bufferSize, ShardIterator<T> consumer) {
+            this.query    = query;
+            this.buffer   = new ArrayBlockingQueue<>(bufferSize);
+            this.consumer = new WeakReference<>(consumer);
+        }
+
+        @Override
+        public void run() {
+            if (closed) {
+                return;
+            }
+            
+            try (final Stream<? extends T> stream = query.get()) {
+                stream.forEachOrdered(e -> hand(e == null ? NULL : e));
+            } catch (final Cancelled ex) {
+                return;
+            } catch (final Throwable t) {
+                failure = t;
+            }
+
+            try {
+                hand(END);
+            } catch (final Cancelled ex) {
+                // Nobody is waiting for the end
+            }
+        }
+        
+        private void hand(Object element) {
+            try {
+                while (!buffer.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (closed || consumer.get() == null) {
+                        throw Cancelled.INSTANCE;
+                    }
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw Cancelled.INSTANCE;
+            }
+
+            if (closed) {
+                throw Cancelled.INSTANCE;
+            }
+        }
+    }
+    
+    /**
+     * Thrown by the producer to abort the terminal operation of the query
+     * when the iterator has been closed or abandoned.
+     */
+    private static final class Cancelled extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        private static final Cancelled INSTANCE = new Cancelled();
+
+        private Cancelled() {
+            super("The shard iterator was closed.", null, false, false);
+        }
+    }
+}
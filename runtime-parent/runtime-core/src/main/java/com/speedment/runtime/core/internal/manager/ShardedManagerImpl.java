@@ -0,0 +1,402 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.AsyncManager;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.Persister;
+import com.speedment.runtime.core.manager.PreparedQuery;
+import com.speedment.runtime.core.manager.Remover;
+import com.speedment.runtime.core.manager.ShardedManager;
+import com.speedment.runtime.core.manager.Updater;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Default implementation of the {@link ShardedManager}-interface. Aggregating
+ * queries are run on each shard using an {@link AsyncManager} and the results
+ * are joined when all shards have answered. Queries that return a stream read
+ * from all shards at the same time using a {@link ShardIterator} per shard, so
+ * that the results are never gathered in memory. The shard iterators are 
+ * started when the stream is first consumed and run on the executor of the
+ * manager.
+ * 
+ * @param <ENTITY>  the entity type
+ * @param <V>       the type of the shard key
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class ShardedManagerImpl<ENTITY, V extends Comparable<? super V>> 
+implements ShardedManager<ENTITY, V> {
+    
+    private static final int SHARD_BUFFER_SIZE = 256;
+    
+    private final HasComparableOperators<ENTITY, V> shardKey;
+    private final ToIntFunction<? super V> router;
+    private final List<Manager<ENTITY>> shards;
+    private final List<AsyncManager<ENTITY>> asyncShards;
+    private final Executor executor;
+
+    public ShardedManagerImpl(
+            HasComparableOperators<ENTITY, V> shardKey,
+            ToIntFunction<? super V> router,
+            List<? extends Manager<ENTITY>> shards,
+            Executor executor) {
+        
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+        
+        this.shardKey    = requireNonNull(shardKey);
+        this.router      = requireNonNull(router);
+        this.executor    = requireNonNull(executor);
+        this.shards      = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.asyncShards = this.shards.stream()
+            .map(shard -> AsyncManager.of(shard, executor))
+            .collect(toList());
+    }
+
+    @Override
+    public List<Manager<ENTITY>> shards() {
+        return shards;
+    }
+
+    @Override
+    public Manager<ENTITY> shardOf(V shardKeyValue) {
+        final int shard = router.applyAsInt(shardKeyValue);
+        if (shard < 0 || shard >= shards.size()) {
+            throw new SpeedmentException(
+                "Shard key " + shardKeyValue + " was routed to shard " + shard + 
+                ", but there are only " + shards.size() + " shards."
+            );
+        }
+        return shards.get(shard);
+    }
+
+    @Override
+    public Optional<ENTITY> findAny(V shardKeyValue) {
+        try (final Stream<ENTITY> stream = shardOf(shardKeyValue).stream()) {
+            return stream.filter(shardKey.equal(shardKeyValue)).findAny();
+        }
+    }
+
+    @Override
+    public Stream<ENTITY> stream(UnaryOperator<Stream<ENTITY>> query) {
+        requireNonNull(query);
+        final List<ShardIterator<ENTITY>> iterators = open(query);
+        return streamOf(new ConcatenatingIterator<>(iterators), iterators);
+    }
+
+    @Override
+    public Stream<ENTITY> sorted(UnaryOperator<Stream<ENTITY>> query, Comparator<? super ENTITY> comparator) {
+        requireNonNulls(query, comparator);
+        final List<ShardIterator<ENTITY>> iterators = 
+            open(s -> query.apply(s).sorted(comparator));
+        
+        return streamOf(new MergingIterator<>(iterators, comparator), iterators);
+    }
+
+    @Override
+    public long count(UnaryOperator<Stream<ENTITY>> query) {
+        requireNonNull(query);
+        return aggregate(s -> query.apply(s).count(), Long::sum);
+    }
+
+    @Override
+    public long sum(UnaryOperator<Stream<ENTITY>> query, ToLongFunction<? super ENTITY> mapper) {
+        requireNonNulls(query, mapper);
+        return aggregate(s -> query.apply(s).mapToLong(mapper).sum(), Long::sum);
+    }
+
+    @Override
+    public Optional<ENTITY> min(UnaryOperator<Stream<ENTITY>> query, Comparator<? super ENTITY> comparator) {
+        requireNonNulls(query, comparator);
+        return scatter(s -> query.apply(s).min(comparator)).stream()
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .min(comparator);
+    }
+
+    @Override
+    public Optional<ENTITY> max(UnaryOperator<Stream<ENTITY>> query, Comparator<? super ENTITY> comparator) {
+        requireNonNulls(query, comparator);
+        return scatter(s -> query.apply(s).max(comparator)).stream()
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .max(comparator);
+    }
+
+    @Override
+    public <R> R aggregate(Function<Stream<ENTITY>, R> partial, BinaryOperator<R> combiner) {
+        requireNonNulls(partial, combiner);
+        return scatter(partial).stream()
+            .reduce(combiner)
+            .get(); // There is always at least one shard
+    }
+
+    @Override
+    public TableIdentifier<ENTITY> getTableIdentifier() {
+        return shards.get(0).getTableIdentifier();
+    }
+
+    @Override
+    public Class<ENTITY> getEntityClass() {
+        return shards.get(0).getEntityClass();
+    }
+
+    @Override
+    public Stream<Field<ENTITY>> fields() {
+        return shards.get(0).fields();
+    }
+
+    @Override
+    public Stream<Field<ENTITY>> primaryKeyFields() {
+        return shards.get(0).primaryKeyFields();
+    }
+
+    @Override
+    public Stream<ENTITY> stream() {
+        return stream(UnaryOperator.identity());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The bound query is applied to the stream of every shard, so that each
+     * shard can push the filters down.
+     */
+    @Override
+    public PreparedQuery<ENTITY> prepare(UnaryOperator<Stream<ENTITY>> template) {
+        return new DefaultPreparedQuery<>(template, this::stream);
+    }
+
+    @Override
+    public ENTITY persist(ENTITY entity) {
+        return shardOfEntity(entity).persist(entity);
+    }
+
+    @Override
+    public Persister<ENTITY> persister() {
+        return this::persist;
+    }
+
+    @Override
+    public ENTITY update(ENTITY entity) {
+        return shardOfEntity(entity).update(entity);
+    }
+
+    @Override
+    public Updater<ENTITY> updater() {
+        return this::update;
+    }
+
+    @Override
+    public ENTITY remove(ENTITY entity) {
+        return shardOfEntity(entity).remove(entity);
+    }
+
+    @Override
+    public Remover<ENTITY> remover() {
+        return this::remove;
+    }
+    
+    private Manager<ENTITY> shardOfEntity(ENTITY entity) {
+        @SuppressWarnings("unchecked")
+        final V value = (V) shardKey.getter().apply(requireNonNull(entity));
+        return shardOf(value);
+    }
+    
+    private <R> List<R> scatter(Function<Stream<ENTITY>, R> query) {
+        final List<CompletableFuture<R>> futures = asyncShards.stream()
+            .map(shard -> shard.query(query))
+            .collect(toList());
+        
+        final List<R> results = new ArrayList<>(futures.size());
+        for (final CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (final CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException
+                    ? (RuntimeException) ex.getCause()
+                    : new SpeedmentException("Failed to query shard.", ex.getCause());
+            }
+        }
+        return results;
+    }
+    
+    private List<ShardIterator<ENTITY>> open(UnaryOperator<Stream<ENTITY>> query) {
+        final List<ShardIterator<ENTITY>> iterators = new ArrayList<>(shards.size());
+        for (final Manager<ENTITY> shard : shards) {
+            iterators.add(new ShardIterator<>(
+                () -> query.apply(shard.stream()), 
+                SHARD_BUFFER_SIZE,
+                executor
+            ));
+        }
+        return iterators;
+    }
+    
+    private static <T> Stream<T> streamOf(Iterator<T> iterator, List<ShardIterator<T>> iterators) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+            iterator, 
+            Spliterator.ORDERED
+        ), false).onClose(() -> iterators.forEach(ShardIterator::close));
+    }
+    
+    /**
+     * An {@code Iterator} that visits a number of shard iterators in order. 
+     * All shards are started on first use, so that the later shards are read
+     * while the first ones are consumed.
+     * 
+     * @param <T>  the element type
+     */
+    private static final class ConcatenatingIterator<T> implements Iterator<T> {
+        
+        private final List<ShardIterator<T>> shardIterators;
+        private Iterator<ShardIterator<T>> iterators;
+        private Iterator<T> current;
+
+        ConcatenatingIterator(List<ShardIterator<T>> iterators) {
+            this.shardIterators = iterators;
+            this.current        = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (iterators == null) {
+                shardIterators.forEach(ShardIterator::start);
+                iterators = shardIterators.iterator();
+            }
+            
+            while (!current.hasNext()) {
+                if (!iterators.hasNext()) {
+                    return false;
+                }
+                current = iterators.next();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+    
+    /**
+     * An {@code Iterator} that merges a number of sorted shard iterators. The
+     * heads of the iterators are kept in a priority queue, so only one element
+     * from each iterator is held at any time.
+     * 
+     * @param <T>  the element type
+     */
+    private static final class MergingIterator<T> implements Iterator<T> {
+        
+        private final List<ShardIterator<T>> sorted;
+        private final Comparator<? super T> comparator;
+        private PriorityQueue<Cursor<T>> queue;
+
+        MergingIterator(List<ShardIterator<T>> sorted, Comparator<? super T> comparator) {
+            this.sorted     = sorted;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (queue == null) {
+                // The first element of each shard is awaited on first use
+                sorted.forEach(ShardIterator::start);
+                queue = new PriorityQueue<>(
+                    Math.max(1, sorted.size()), 
+                    (a, b) -> comparator.compare(a.head, b.head)
+                );
+                
+                sorted.stream()
+                    .filter(Iterator::hasNext)
+                    .map(Cursor::new)
+                    .forEach(queue::add);
+            }
+            
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            final Cursor<T> cursor = queue.poll();
+            
+            final T result = cursor.head;
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+            return result;
+        }
+    }
+    
+    private static final class Cursor<T> {
+        
+        private final Iterator<T> iterator;
+        private T head;
+
+        Cursor(Iterator<T> iterator) {
+            this.iterator = iterator;
+            this.head     = iterator.next();
+        }
+        
+        boolean advance() {
+            if (iterator.hasNext()) {
+                head = iterator.next();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -39,7 +39,15 @@ import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 
 import static com.speedment.common.invariant.NullUtil.requireNonNulls;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.component.metrics.QueryRecorder;
+import com.speedment.runtime.core.internal.stream.QueryPlanImpl;
 import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.stream.QueryPlan;
+import com.speedment.runtime.field.internal.predicate.AbstractCombinedPredicate.AndCombinedBasePredicate;
+import com.speedment.runtime.field.internal.predicate.AbstractCombinedPredicate.OrCombinedBasePredicate;
+import static com.speedment.runtime.core.internal.stream.QueryPlanImpl.pushedDown;
+import static com.speedment.runtime.core.internal.stream.QueryPlanImpl.residual;
 import static com.speedment.runtime.core.stream.action.Property.SIZE;
 import static com.speedment.runtime.core.stream.action.Verb.PRESERVE;
 import java.util.Collections;
@@ -62,6 +70,9 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
     private final BiFunction<String, List<Object>, Long> counter;
     private final Function<Field<ENTITY>, String> sqlColumnNamer;
     private final AsynchronousQueryResult<ENTITY> asynchronousQueryResult;
+    private final boolean strict;
+    private final QueryRecorder recorder;
+    private final boolean pushDown;
 
     public SqlStreamTerminator(
         DbmsType dbmsType,
@@ -71,6 +82,69 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         //LongSupplier sqlCounter,
         Function<Field<ENTITY>, String> sqlColumnNamer,
         AsynchronousQueryResult<ENTITY> asynchronousQueryResult) {
+        
+        this(dbmsType, sqlSelect, sqlSelectCount, counter, sqlColumnNamer, asynchronousQueryResult, false, null);
+    }
+
+    /**
+     * Creates a new terminator. If {@code strict} is {@code true}, pipelines 
+     * that filter entities without pushing any filter down to the database
+     * are rejected when they are terminated.
+     * 
+     * @param dbmsType                 the database type
+     * @param sqlSelect                the select statement of the table
+     * @param sqlSelectCount           the count statement of the table
+     * @param counter                  the function that executes a count
+     * @param sqlColumnNamer           the function that names the column of a
+     *                                 field
+     * @param asynchronousQueryResult  the query result to modify
+     * @param strict                   if full scans should be rejected
+     * @param recorder                 the recorder that is given the 
+     *                                 pipeline of the query, or {@code null}
+     */
+    public SqlStreamTerminator(
+        DbmsType dbmsType,
+        String sqlSelect,
+        String sqlSelectCount,
+        BiFunction<String, List<Object>, Long> counter,
+        Function<Field<ENTITY>, String> sqlColumnNamer,
+        AsynchronousQueryResult<ENTITY> asynchronousQueryResult,
+        boolean strict,
+        QueryRecorder recorder) {
+        
+        this(dbmsType, sqlSelect, sqlSelectCount, counter, sqlColumnNamer, asynchronousQueryResult, strict, recorder, true);
+    }
+
+    /**
+     * Creates a new terminator. If {@code pushDown} is {@code false}, the SQL 
+     * of the query result is left as it is and counts are never rendered 
+     * into a separate query. This is used for queries that have been 
+     * rendered in advance, where the pipeline only holds the operations that
+     * remain after the SQL.
+     * 
+     * @param dbmsType                 the database type
+     * @param sqlSelect                the select statement of the table
+     * @param sqlSelectCount           the count statement of the table
+     * @param counter                  the function that executes a count
+     * @param sqlColumnNamer           the function that names the column of a
+     *                                 field
+     * @param asynchronousQueryResult  the query result to modify
+     * @param strict                   if full scans should be rejected
+     * @param recorder                 the recorder that is given the 
+     *                                 pipeline of the query, or {@code null}
+     * @param pushDown                 if filters and counts should be 
+     *                                 rendered into the SQL
+     */
+    public SqlStreamTerminator(
+        DbmsType dbmsType,
+        String sqlSelect,
+        String sqlSelectCount,
+        BiFunction<String, List<Object>, Long> counter,
+        Function<Field<ENTITY>, String> sqlColumnNamer,
+        AsynchronousQueryResult<ENTITY> asynchronousQueryResult,
+        boolean strict,
+        QueryRecorder recorder,
+        boolean pushDown) {
 
         this.dbmsType = requireNonNull(dbmsType);
         this.sqlSelect = requireNonNull(sqlSelect);
@@ -79,20 +153,98 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
         //this.sqlCounter = requireNonNull(sqlCounter);
         this.sqlColumnNamer = requireNonNull(sqlColumnNamer);
         this.asynchronousQueryResult = requireNonNull(asynchronousQueryResult);
+        this.strict = strict;
+        this.recorder = recorder; // Nullable
+        this.pushDown = pushDown;
     }
 
     @Override
     public <P extends Pipeline> P optimize(P initialPipeline) {
         requireNonNull(initialPipeline);
+        
+        if (strict && pushDown) {
+            final QueryPlan plan = explain(initialPipeline);
+            if (plan.isFullScan()) {
+                throw new SpeedmentException(
+                    "Strict mode does not allow a full scan of the table. " + plan
+                );
+            }
+        }
+        
+        if (recorder != null) {
+            recorder.setPipeline(initialPipeline);
+        }
+        
         final List<FieldPredicate<ENTITY>> andPredicateBuilders = StreamTerminatorUtil.topLevelAndPredicates(initialPipeline);
 
-        if (!andPredicateBuilders.isEmpty()) {
+        if (pushDown && !andPredicateBuilders.isEmpty()) {
             modifySource(andPredicateBuilders, asynchronousQueryResult);
         }
 
         return initialPipeline;
     }
 
+    @Override
+    public void setQueryTimeout(int seconds) {
+        asynchronousQueryResult.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public QueryPlan explain(Pipeline pipeline) {
+        requireNonNull(pipeline);
+        
+        final List<FieldPredicate<ENTITY>> predicates = new ArrayList<>();
+        final List<QueryPlan.Step> steps = new ArrayList<>();
+        boolean leading = true;
+        
+        for (final Action<?, ?> action : pipeline) {
+            if (!(action instanceof FilterAction)) {
+                leading = false;
+                steps.add(residual(action, 
+                    action.getClass().getSimpleName() + " is not translatable"
+                ));
+                continue;
+            }
+            
+            if (!leading) {
+                steps.add(residual(action, 
+                    "only filters at the start of the pipeline are translatable"
+                ));
+                continue;
+            }
+            
+            final Predicate<?> predicate = ((FilterAction<?>) action).getPredicate();
+            @SuppressWarnings("unchecked")
+            final List<FieldPredicate<ENTITY>> andPredicates = (List<FieldPredicate<ENTITY>>) 
+                (List<?>) StreamTerminatorUtil.andPredicates((FilterAction<?>) action);
+            
+            predicates.addAll(andPredicates);
+            
+            if (predicate instanceof FieldPredicate) {
+                steps.add(pushedDown(action, "field predicate rendered into the WHERE clause"));
+            } else if (predicate instanceof AndCombinedBasePredicate) {
+                final long operands = ((AndCombinedBasePredicate<?>) predicate).stream().count();
+                if (andPredicates.size() == operands) {
+                    steps.add(pushedDown(action, "all " + operands + 
+                        " and-combined field predicates rendered into the WHERE clause"
+                    ));
+                } else {
+                    steps.add(residual(action, andPredicates.size() + " of " + 
+                        operands + " and-combined predicates rendered into the WHERE " + 
+                        "clause, the rest are not field predicates"
+                    ));
+                }
+            } else if (predicate instanceof OrCombinedBasePredicate) {
+                steps.add(residual(action, "or-combined predicate not translatable"));
+            } else {
+                steps.add(residual(action, "lambda predicate not translatable"));
+            }
+        }
+        
+        final SqlInfo sqlInfo = sqlInfo(sqlSelect, predicates);
+        return new QueryPlanImpl(sqlInfo.sql, sqlInfo.values, steps);
+    }
+
     public void modifySource(List<FieldPredicate<ENTITY>> predicateBuilders, AsynchronousQueryResult<ENTITY> qr) {
         requireNonNull(predicateBuilders);
         requireNonNull(qr);
@@ -178,7 +330,10 @@ public final class SqlStreamTerminator<ENTITY> implements StreamTerminator {
     private long countHelper(Pipeline pipeline, LongSupplier fallbackSupplier) {
         requireNonNulls(pipeline, fallbackSupplier);
         
-        if (isCountOptimizable(pipeline)) {
+        if (!pushDown) {
+            // The SQL is already rendered, so the rows must be counted
+            return fallbackSupplier.getAsLong();
+        } else if (isCountOptimizable(pipeline)) {
             // select count(*) from 'table' where ...
             final List<FieldPredicate<ENTITY>> andPredicateBuilders = StreamTerminatorUtil.topLevelAndPredicates(pipeline);
             final SqlInfo sqlInfo = sqlInfo(sqlSelectCount, andPredicateBuilders);
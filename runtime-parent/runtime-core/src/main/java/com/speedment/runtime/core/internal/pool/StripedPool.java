@@ -0,0 +1,138 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A concurrent pool of idle items that is split into a number of stripes to
+ * reduce contention between threads. Every thread has a home stripe that it 
+ * returns items to and polls items from first. If the home stripe is empty,
+ * the other stripes are polled in order.
+ * <p>
+ * Within a stripe, the most recently returned item is polled first, so a 
+ * thread that leases and returns items repeatedly will normally get the 
+ * same item back.
+ *
+ * @param <T>  the item type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class StripedPool<T> {
+
+    private final ConcurrentLinkedDeque<T>[] stripes;
+    private final int mask;
+    private final LongAdder size;
+
+    /**
+     * Creates a new pool with at least the specified number of stripes. The
+     * number of stripes is rounded up to the closest power of two.
+     * 
+     * @param minStripes  the minimum number of stripes
+     */
+    public StripedPool(int minStripes) {
+        if (minStripes < 1) {
+            throw new IllegalArgumentException(
+                "The number of stripes must be positive, was " + minStripes + "."
+            );
+        }
+        
+        int count = 1;
+        while (count < minStripes) {
+            count <<= 1;
+        }
+        
+        @SuppressWarnings("unchecked")
+        final ConcurrentLinkedDeque<T>[] created = 
+            (ConcurrentLinkedDeque<T>[]) new ConcurrentLinkedDeque<?>[count];
+        for (int i = 0; i < count; i++) {
+            created[i] = new ConcurrentLinkedDeque<>();
+        }
+        
+        this.stripes = created;
+        this.mask    = count - 1;
+        this.size    = new LongAdder();
+    }
+
+    /**
+     * Removes and returns an item from this pool, or returns {@code null} if 
+     * the pool is empty.
+     * 
+     * @return  an item or {@code null}
+     */
+    public T poll() {
+        final int home = home();
+        for (int i = 0; i <= mask; i++) {
+            final T item = stripes[(home + i) & mask].pollFirst();
+            if (item != null) {
+                size.decrement();
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the item to this pool, unless the pool already holds at least 
+     * {@code maxSize} items. Concurrent calls may make the pool hold a few
+     * items more than {@code maxSize}, but never more than 
+     * {@code maxSize} plus the number of threads calling this method.
+     * 
+     * @param item     the item to add
+     * @param maxSize  the maximum number of items to hold
+     * @return         {@code true} if the item was added, else {@code false}
+     */
+    public boolean offer(T item, int maxSize) {
+        requireNonNull(item);
+        if (size.sum() >= maxSize) {
+            return false;
+        }
+        
+        size.increment();
+        stripes[home()].addFirst(item);
+        return true;
+    }
+
+    /**
+     * Returns the number of items in this pool. The result is only exact if
+     * the pool is not modified concurrently.
+     * 
+     * @return  the number of items
+     */
+    public int size() {
+        return (int) size.sum();
+    }
+
+    /**
+     * Returns the number of stripes of this pool.
+     * 
+     * @return  the number of stripes
+     */
+    public int stripes() {
+        return stripes.length;
+    }
+
+    private int home() {
+        // Spread the thread ids so that consecutive ids use different stripes
+        final long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream;
+
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.stream.QueryPlan;
+import com.speedment.runtime.core.stream.action.Action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Default implementation of the {@link QueryPlan}-interface.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class QueryPlanImpl implements QueryPlan {
+
+    private final String sql; // Nullable
+    private final List<Object> values;
+    private final List<Step> steps;
+
+    /**
+     * Creates a new plan.
+     * 
+     * @param sql     the final query, or {@code null} if the source is not 
+     *                queried using SQL
+     * @param values  the bound values
+     * @param steps   the steps in pipeline order
+     */
+    public QueryPlanImpl(String sql, List<?> values, List<Step> steps) {
+        this.sql    = sql;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+        this.steps  = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    @Override
+    public Optional<String> getSql() {
+        return Optional.ofNullable(sql);
+    }
+
+    @Override
+    public List<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public boolean isFullScan() {
+        boolean filtered = false;
+        for (final Step step : steps) {
+            if (step.getAction() instanceof FilterAction) {
+                if (step.isPushedDown()) {
+                    return false;
+                }
+                filtered = true;
+            }
+        }
+        return filtered;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryPlan{sql=" + getSql().map(s -> "\"" + s + "\"").orElse("none") + 
+            ", values=" + values + 
+            ", steps=[" + steps.stream().map(Object::toString).collect(joining(", ")) + 
+            "]}";
+    }
+    
+    /**
+     * Returns a step for an action that is executed by the data source.
+     * 
+     * @param action  the action
+     * @param reason  the reason
+     * @return        the step
+     */
+    public static Step pushedDown(Action<?, ?> action, String reason) {
+        return new StepImpl(action, true, reason);
+    }
+    
+    /**
+     * Returns a step for an action that is executed in the JVM.
+     * 
+     * @param action  the action
+     * @param reason  the reason
+     * @return        the step
+     */
+    public static Step residual(Action<?, ?> action, String reason) {
+        return new StepImpl(action, false, reason);
+    }
+    
+    private static final class StepImpl implements Step {
+        
+        private final Action<?, ?> action;
+        private final boolean pushedDown;
+        private final String reason;
+
+        private StepImpl(Action<?, ?> action, boolean pushedDown, String reason) {
+            this.action     = requireNonNull(action);
+            this.pushedDown = pushedDown;
+            this.reason     = requireNonNull(reason);
+        }
+
+        @Override
+        public Action<?, ?> getAction() {
+            return action;
+        }
+
+        @Override
+        public boolean isPushedDown() {
+            return pushedDown;
+        }
+
+        @Override
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return action.getClass().getSimpleName() + 
+                (pushedDown ? " -> SQL" : " -> JVM") + 
+                " (" + reason + ")";
+        }
+    }
+}
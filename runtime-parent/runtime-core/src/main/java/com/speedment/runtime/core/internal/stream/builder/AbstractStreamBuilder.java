@@ -22,6 +22,7 @@ import com.speedment.runtime.core.exception.SpeedmentException;
 import com.speedment.runtime.core.internal.stream.autoclose.AbstractAutoClosingStream;
 import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
 import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.core.stream.QueryPlan;
 import com.speedment.runtime.core.stream.action.Action;
 import com.speedment.runtime.core.util.StreamComposition;
 
@@ -44,7 +45,8 @@ public abstract class AbstractStreamBuilder<T extends AbstractStreamBuilder<T, P
 
     private static final Logger LOGGER = LoggerManager.getLogger(AbstractStreamBuilder.class);
 
-    protected final String UNSUPPORTED_BECAUSE_OF_CLOSE_MAY_NOT_BE_CALLED = "This method has been disabled for this Stream type because improper use will "
+    // Static so that the message is not concatenated for every stream builder
+    protected static final String UNSUPPORTED_BECAUSE_OF_CLOSE_MAY_NOT_BE_CALLED = "This method has been disabled for this Stream type because improper use will "
         + "lead to resources not being freed up. "
         + "We regret any inconvenience caused by this. "
         + "If you want to concatenate two or more stream, please use the " + StreamComposition.class.getName() + "#concatAndAutoClose() method instead.";
@@ -112,6 +114,28 @@ public abstract class AbstractStreamBuilder<T extends AbstractStreamBuilder<T, P
         }
     }
 
+    /**
+     * Returns the plan of how this stream would be executed, without 
+     * executing it.
+     * 
+     * @return  the plan
+     * @see     QueryPlan#of(BaseStream)
+     */
+    public QueryPlan explain() {
+        return streamTerminator.explain(pipeline);
+    }
+
+    /**
+     * Sets the number of seconds the query of this stream may execute before
+     * it is cancelled. Streams that are not backed by a query ignore this.
+     * 
+     * @param seconds  the query timeout in seconds, or {@code 0} for no limit
+     * @see            com.speedment.runtime.core.util.QueryTimeoutUtil
+     */
+    public void setQueryTimeout(int seconds) {
+        streamTerminator.setQueryTimeout(seconds);
+    }
+
     protected P pipeline() {
         @SuppressWarnings("unchecked")
         final P result = (P) pipeline;
@@ -16,7 +16,13 @@
  */
 package com.speedment.runtime.core.internal.stream.builder.streamterminator;
 
+import com.speedment.runtime.core.internal.stream.QueryPlanImpl;
 import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.core.stream.QueryPlan;
+
+import java.util.Collections;
+
+import static java.util.stream.Collectors.toList;
 
 /**
  *
@@ -28,4 +34,31 @@ public interface BaseStreamTerminator {
         return initialPipeline;
     }
 
+    /**
+     * Sets the number of seconds the query that produces the source of the
+     * stream may execute before it is cancelled. The default implementation
+     * ignores the timeout since it does not issue any query.
+     * 
+     * @param seconds  the query timeout in seconds, or {@code 0} for no limit
+     */
+    default void setQueryTimeout(int seconds) {}
+
+    /**
+     * Returns the plan of how the specified pipeline would be executed by 
+     * this terminator. The default implementation reports every action as
+     * executed in the JVM.
+     * 
+     * @param pipeline  the pipeline to explain
+     * @return          the plan
+     */
+    default QueryPlan explain(Pipeline pipeline) {
+        return new QueryPlanImpl(
+            null, 
+            Collections.emptyList(), 
+            pipeline.stream()
+                .map(a -> QueryPlanImpl.residual(a, "the stream source does not push down operations"))
+                .collect(toList())
+        );
+    }
+
 }
@@ -17,38 +17,57 @@
 package com.speedment.runtime.core.internal.stream.builder.streamterminator;
 
 import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
-import com.speedment.runtime.core.internal.util.Cast;
 import com.speedment.runtime.core.stream.Pipeline;
 import com.speedment.runtime.core.stream.action.Action;
-import com.speedment.runtime.field.internal.predicate.AbstractCombinedPredicate;
+import com.speedment.runtime.field.internal.predicate.AbstractCombinedPredicate.AndCombinedBasePredicate;
 import com.speedment.runtime.field.predicate.FieldPredicate;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Predicate;
 
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 
 /**
+ * Utility methods for finding the field predicates of a pipeline that can be
+ * pushed down to the data source.
+ * <p>
+ * The methods are called every time a stream is terminated, so they avoid 
+ * allocating anything unless there are predicates to return. The returned 
+ * lists must not be modified.
  *
  * @author pemi
  */
 public final class StreamTerminatorUtil {
 
     public static <T extends Pipeline, ENTITY> List<FieldPredicate<ENTITY>> topLevelAndPredicates(T initialPipeline) {
-        final List<FieldPredicate<ENTITY>> andPredicateBuilders = new ArrayList<>();
+        List<FieldPredicate<ENTITY>> andPredicateBuilders = emptyList();
+        boolean copied = false;
 
         for (final Action<?, ?> action : initialPipeline) {
-            @SuppressWarnings("rawtypes")
-            final Optional<FilterAction> oFilterAction = Cast.cast(action, FilterAction.class);
-            if (oFilterAction.isPresent()) {
-                @SuppressWarnings("unchecked")
-                final List<FieldPredicate<ENTITY>> newAndPredicates = andPredicates(oFilterAction.get());
-                andPredicateBuilders.addAll(newAndPredicates);
-            } else {
+            if (!(action instanceof FilterAction)) {
                 break; // We can only do initial consecutive FilterAction(s)
             }
+            
+            @SuppressWarnings("unchecked")
+            final List<FieldPredicate<ENTITY>> newAndPredicates = (List<FieldPredicate<ENTITY>>) 
+                (List<?>) andPredicates((FilterAction<?>) action);
+            
+            if (newAndPredicates.isEmpty()) {
+                continue;
+            }
+            
+            if (andPredicateBuilders.isEmpty()) {
+                andPredicateBuilders = newAndPredicates;
+            } else {
+                if (!copied) {
+                    andPredicateBuilders = new ArrayList<>(andPredicateBuilders);
+                    copied = true;
+                }
+                andPredicateBuilders.addAll(newAndPredicates);
+            }
         }
         return andPredicateBuilders;
     }
@@ -56,26 +75,20 @@ public final class StreamTerminatorUtil {
     @SuppressWarnings({"unchecked", "rawtypes"})
     public static <ENTITY> List<FieldPredicate<?>> andPredicates(FilterAction<ENTITY> action) {
         requireNonNull(action);
-        final List<FieldPredicate<?>> andPredicateBuilders = new ArrayList<>();
         final Predicate<? super ENTITY> predicate = action.getPredicate();
 
-        final Optional<FieldPredicate> oPredicateBuilder = Cast.cast(predicate, FieldPredicate.class);
-        if (oPredicateBuilder.isPresent()) {
-            andPredicateBuilders.add(oPredicateBuilder.get()); // Just a top level predicate builder
+        if (predicate instanceof FieldPredicate) {
+            return singletonList((FieldPredicate<?>) predicate); // Just a top level predicate builder
+        } else if (predicate instanceof AndCombinedBasePredicate) {
+            final List<FieldPredicate<?>> andPredicateBuilders = new ArrayList<>();
+            ((AndCombinedBasePredicate<ENTITY>) predicate).stream()
+                .filter(FieldPredicate.class::isInstance)
+                .map(p -> (FieldPredicate<?>) p)
+                .forEachOrdered(andPredicateBuilders::add);
+            return andPredicateBuilders;
         } else {
-
-            final Optional<AbstractCombinedPredicate.AndCombinedBasePredicate> oAndCombinedBasePredicate = Cast.cast(predicate, AbstractCombinedPredicate.AndCombinedBasePredicate.class);
-            if (oAndCombinedBasePredicate.isPresent()) {
-
-                final AbstractCombinedPredicate.AndCombinedBasePredicate<ENTITY> andCombinedBasePredicate = (AbstractCombinedPredicate.AndCombinedBasePredicate<ENTITY>) oAndCombinedBasePredicate.get();
-                andCombinedBasePredicate.stream()
-                    .map(p -> Cast.cast(p, FieldPredicate.class))
-                    .filter(p -> p.isPresent())
-                    .map(Optional::get)
-                    .forEachOrdered(andPredicateBuilders::add);
-            }
+            return emptyList();
         }
-        return andPredicateBuilders;
     }
 
     private StreamTerminatorUtil() {}
@@ -0,0 +1,164 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.parallel;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Spliterator} over an {@code Iterator} that splits off batches 
+ * with sizes decided by an {@link AdaptiveParallelStrategy}. The batches are
+ * wrapped so that the time spent processing their elements is reported back
+ * to the strategy.
+ *
+ * @param <T>  the element type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class AdaptiveIteratorSpliterator<T> implements Spliterator<T> {
+
+    private final Iterator<? extends T> iterator;
+    private final int characteristics;
+    private final AdaptiveParallelStrategy strategy;
+    private int batchSize;
+
+    AdaptiveIteratorSpliterator(
+            Iterator<? extends T> iterator, 
+            int characteristics, 
+            AdaptiveParallelStrategy strategy) {
+        
+        this.iterator        = requireNonNull(iterator);
+        this.characteristics = characteristics & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+        this.strategy        = requireNonNull(strategy);
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        
+        batchSize = strategy.nextBatchSize(batchSize);
+        
+        final Object[] array = new Object[batchSize];
+        final long start = System.nanoTime();
+        int noRead = 0;
+        do {
+            array[noRead] = iterator.next();
+        } while (++noRead < batchSize && iterator.hasNext());
+        strategy.recordFetch(System.nanoTime() - start, noRead);
+        
+        return new MeasuringSpliterator<>(
+            new ArraySpliterator<>(array, 0, noRead, characteristics), 
+            strategy
+        );
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        iterator.forEachRemaining(requireNonNull(action));
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        requireNonNull(action);
+        if (iterator.hasNext()) {
+            action.accept(iterator.next());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        if (hasCharacteristics(Spliterator.SORTED)) {
+            return null;
+        }
+        throw new IllegalStateException();
+    }
+    
+    /**
+     * A {@code Spliterator} that reports the time it takes to process its
+     * elements downstream to an {@link AdaptiveParallelStrategy}.
+     * 
+     * @param <T>  the element type
+     */
+    private static final class MeasuringSpliterator<T> implements Spliterator<T> {
+        
+        private final Spliterator<T> inner;
+        private final AdaptiveParallelStrategy strategy;
+
+        MeasuringSpliterator(Spliterator<T> inner, AdaptiveParallelStrategy strategy) {
+            this.inner    = requireNonNull(inner);
+            this.strategy = requireNonNull(strategy);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            final long start = System.nanoTime();
+            final boolean advanced = inner.tryAdvance(action);
+            if (advanced) {
+                strategy.recordProcessing(System.nanoTime() - start, 1);
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            final long size  = inner.estimateSize();
+            final long start = System.nanoTime();
+            inner.forEachRemaining(action);
+            strategy.recordProcessing(System.nanoTime() - start, size);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            final Spliterator<T> prefix = inner.trySplit();
+            return prefix == null ? null : new MeasuringSpliterator<>(prefix, strategy);
+        }
+
+        @Override
+        public long estimateSize() {
+            return inner.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return inner.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return inner.getComparator();
+        }
+    }
+}
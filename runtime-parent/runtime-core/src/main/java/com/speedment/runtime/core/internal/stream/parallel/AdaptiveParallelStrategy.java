@@ -0,0 +1,124 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.parallel;
+
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+
+/**
+ * A {@link ParallelStrategy} that measures how long it takes to read an 
+ * element from the source and how long it takes to process an element 
+ * downstream, and uses these measurements to decide the size of the next
+ * batch that is handed over to a fork-join worker.
+ * <p>
+ * Batches start small and grow by at most a factor of two per split until
+ * a batch represents about {@link #TARGET_TASK_NANOS} of downstream work. 
+ * If processing an element is cheaper than reading it, the reading thread is
+ * the bottleneck and larger batches are used to reduce the overhead of 
+ * splitting. The measurements are kept by the strategy between streams, so a
+ * strategy that is used by a manager learns the cost of its typical pipeline.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class AdaptiveParallelStrategy implements ParallelStrategy {
+    
+    /**
+     * The amount of downstream work that each batch should represent. Large 
+     * enough to make the cost of forking a task negligible and small enough
+     * to keep all workers busy towards the end of the stream.
+     */
+    static final long TARGET_TASK_NANOS = 1_000_000;
+    
+    /**
+     * The weight of a new measurement in the moving averages.
+     */
+    private static final double ALPHA = 0.25;
+    
+    private volatile double processNanos; // Per element, 0 if unknown
+    private volatile double fetchNanos;   // Per element, 0 if unknown
+
+    @Override
+    public <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator, int characteristics) {
+        return new AdaptiveIteratorSpliterator<>(iterator, characteristics, this);
+    }
+    
+    /**
+     * Returns the size of the next batch given the size of the previous batch.
+     * 
+     * @param previous  the size of the previous batch or 0 if this is the 
+     *                  first batch
+     * @return          the size of the next batch
+     */
+    int nextBatchSize(int previous) {
+        final int limit = previous == 0 ? 1 
+            : (int) Math.min(2L * previous, ConfigurableIteratorSpliteratorImpl.MAX_BATCH);
+        
+        final double process = processNanos;
+        if (process <= 0) {
+            // Nothing has been measured yet, ramp up
+            return limit;
+        }
+        
+        long size = (long) (TARGET_TASK_NANOS / process);
+        if (process < fetchNanos) {
+            // Reading is the bottleneck, so splitting gains little
+            size = Math.max(size, limit);
+        }
+        
+        return (int) Math.max(1, Math.min(size, limit));
+    }
+    
+    /**
+     * Records that the specified number of elements was processed downstream
+     * in the specified time.
+     * 
+     * @param nanos     the time in nanoseconds
+     * @param elements  the number of elements
+     */
+    void recordProcessing(long nanos, long elements) {
+        if (elements > 0) {
+            processNanos = average(processNanos, (double) nanos / elements);
+        }
+    }
+    
+    /**
+     * Records that the specified number of elements was read from the source
+     * in the specified time.
+     * 
+     * @param nanos     the time in nanoseconds
+     * @param elements  the number of elements
+     */
+    void recordFetch(long nanos, long elements) {
+        if (elements > 0) {
+            fetchNanos = average(fetchNanos, (double) nanos / elements);
+        }
+    }
+    
+    private static double average(double average, double sample) {
+        return average <= 0 ? sample : average + ALPHA * (sample - average);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s {processNanos: %.1f, fetchNanos: %.1f}", 
+            getClass().getSimpleName(), processNanos, fetchNanos
+        );
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.parallel;
+
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * A {@link ParallelStrategy} that tells the SQL stream supplier to split a
+ * table into ranges of a numeric column and to read every range using a 
+ * separate query and connection. The rows within each range are split using
+ * Java's default {@code Iterator} to {@code Spliterator} converter.
+ * <p>
+ * Stream suppliers that do not read from a SQL database treat this strategy
+ * like any other strategy.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class PartitionedParallelStrategy implements ParallelStrategy {
+    
+    private final int partitions;
+    private final String columnName;
+
+    public PartitionedParallelStrategy(int partitions, String columnName) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException(
+                "The number of partitions must be positive but was " + partitions + "."
+            );
+        }
+        
+        this.partitions = partitions;
+        this.columnName = columnName; // Nullable
+    }
+
+    /**
+     * Returns the number of ranges to split the table into.
+     * 
+     * @return  the number of partitions
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Returns the name of the column to split the table on. If empty, the 
+     * primary key column of the table should be used.
+     * 
+     * @return  the column name or empty
+     */
+    public Optional<String> getColumnName() {
+        return Optional.ofNullable(columnName);
+    }
+
+    @Override
+    public <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator, int characteristics) {
+        return Spliterators.spliteratorUnknownSize(iterator, characteristics);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.reactive;
+
+import com.speedment.runtime.core.stream.reactive.Publisher;
+import com.speedment.runtime.core.stream.reactive.Subscriber;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Publisher} that, for each subscriber, opens a new {@code Stream}
+ * from a supplier and publishes its elements as they are requested. Elements 
+ * are pulled from the stream by tasks on the specified {@code Executor}, each
+ * task sending at most one chunk of elements before it yields the thread. No
+ * thread is held while there is no outstanding demand.
+ * <p>
+ * The stream is opened when elements are first requested and is closed when 
+ * it is exhausted, when it throws an exception and when the subscription is
+ * cancelled.
+ *
+ * @param <T>  the element type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class StreamPublisher<T> implements Publisher<T> {
+
+    private final Supplier<? extends Stream<? extends T>> streamSupplier;
+    private final Executor executor;
+    private final int chunkSize;
+
+    public StreamPublisher(
+            Supplier<? extends Stream<? extends T>> streamSupplier, 
+            Executor executor, 
+            int chunkSize) {
+        
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(
+                "Chunk size must be positive, was " + chunkSize + "."
+            );
+        }
+        
+        this.streamSupplier = requireNonNull(streamSupplier);
+        this.executor       = requireNonNull(executor);
+        this.chunkSize      = chunkSize;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        final StreamSubscription<T> subscription = new StreamSubscription<>(
+            requireNonNull(subscriber), streamSupplier, executor, chunkSize
+        );
+        
+        subscriber.onSubscribe(subscription);
+    }
+}
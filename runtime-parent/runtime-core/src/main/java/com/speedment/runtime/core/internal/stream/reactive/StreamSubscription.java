@@ -0,0 +1,198 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.reactive;
+
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.stream.reactive.Subscriber;
+import com.speedment.runtime.core.stream.reactive.Subscription;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The {@link Subscription} of a {@link StreamPublisher}.
+ * <p>
+ * The outstanding demand is kept in an atomic counter. The caller that raises
+ * the counter from zero submits a drain task, which then is the only one that 
+ * touches the stream until it has lowered the counter back to zero. This 
+ * guarantees that the subscriber is never invoked concurrently. Cancellation
+ * is signalled the same way so that the stream is always closed by the thread
+ * that owns it.
+ *
+ * @param <T>  the element type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class StreamSubscription<T> implements Subscription {
+
+    private static final Logger LOGGER = LoggerManager.getLogger(StreamSubscription.class);
+    
+    private final Subscriber<? super T> subscriber;
+    private final Supplier<? extends Stream<? extends T>> streamSupplier;
+    private final Executor executor;
+    private final int chunkSize;
+    private final AtomicLong demand;
+    
+    private volatile boolean cancelled;
+    private volatile Throwable pendingError;
+    
+    // Only accessed by the drain task
+    private Stream<? extends T> stream;
+    private Iterator<? extends T> iterator;
+    private boolean terminated;
+
+    StreamSubscription(
+            Subscriber<? super T> subscriber, 
+            Supplier<? extends Stream<? extends T>> streamSupplier, 
+            Executor executor, 
+            int chunkSize) {
+        
+        this.subscriber     = requireNonNull(subscriber);
+        this.streamSupplier = requireNonNull(streamSupplier);
+        this.executor       = requireNonNull(executor);
+        this.chunkSize      = chunkSize;
+        this.demand         = new AtomicLong();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            pendingError = new IllegalArgumentException(
+                "The number of requested elements must be positive, was " + n + "."
+            );
+            cancelled = true;
+            n = 1; // Make sure a drain task runs and reports the error
+        }
+        
+        if (addDemand(n) == 0) {
+            schedule();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        if (addDemand(1) == 0) {
+            schedule();
+        }
+    }
+    
+    private long addDemand(long n) {
+        while (true) {
+            final long current = demand.get();
+            if (current == Long.MAX_VALUE) {
+                return current;
+            }
+            
+            final long next = current + n;
+            if (demand.compareAndSet(current, next < 0 ? Long.MAX_VALUE : next)) {
+                return current;
+            }
+        }
+    }
+    
+    private void schedule() {
+        try {
+            executor.execute(this::drain);
+        } catch (final RejectedExecutionException ex) {
+            // The executor is shut down. The caller owns the drain so it may
+            // release the stream itself.
+            cancelled = true;
+            if (!terminated) {
+                terminate(ex);
+            }
+        }
+    }
+    
+    private void drain() {
+        if (terminated) {
+            return;
+        }
+        
+        long emitted = 0;
+        try {
+            if (cancelled) {
+                terminate(pendingError);
+                return;
+            }
+            
+            if (iterator == null) {
+                stream   = streamSupplier.get();
+                iterator = stream.iterator();
+            }
+            
+            final long requested = demand.get();
+            final long limit = Math.min(requested, chunkSize);
+            while (emitted < limit && !cancelled && iterator.hasNext()) {
+                subscriber.onNext(iterator.next());
+                emitted++;
+            }
+            
+            if (cancelled) {
+                terminate(pendingError);
+                return;
+            } else if (!iterator.hasNext()) {
+                // Checked also when the demand is met, so that a subscriber 
+                // that requests exactly the remaining elements is completed
+                closeStream();
+                terminated = true;
+                subscriber.onComplete();
+                return;
+            }
+        } catch (final Throwable t) {
+            terminate(t);
+            return;
+        }
+        
+        final long remaining = demand.get() == Long.MAX_VALUE 
+            ? Long.MAX_VALUE 
+            : demand.addAndGet(-emitted);
+        
+        if (remaining > 0) {
+            // Yield the thread to other subscriptions between chunks
+            schedule();
+        }
+    }
+    
+    private void terminate(Throwable error) {
+        terminated = true;
+        closeStream();
+        if (error != null) {
+            subscriber.onError(error);
+        }
+    }
+    
+    private void closeStream() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (final RuntimeException ex) {
+                LOGGER.error(ex, "Failed to close the stream of a subscription.");
+            }
+            stream   = null;
+            iterator = null;
+        }
+    }
+}
@@ -28,6 +28,10 @@ import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed
 /**
  * Utility methods for retrieving nullable and special values from
  * {@code ResultSet}.
+ * <p>
+ * The getters of primitive values are called for every row, so they read the
+ * value directly instead of through a capturing lambda. A value is only boxed
+ * if it is not {@code null}.
  *
  * @author Emil Forslund
  */
@@ -39,31 +43,38 @@ public final class ResultSetUtil {
     }
 
     public static Boolean getBoolean(final ResultSet resultSet, final String columnName) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getBoolean(columnName));
+        final boolean result = resultSet.getBoolean(columnName);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Byte getByte(final ResultSet resultSet, final String columnName) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getByte(columnName));
+        final byte result = resultSet.getByte(columnName);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Short getShort(final ResultSet resultSet, final String columnName) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getShort(columnName));
+        final short result = resultSet.getShort(columnName);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Integer getInt(final ResultSet resultSet, final String columnName) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getInt(columnName));
+        final int result = resultSet.getInt(columnName);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Long getLong(final ResultSet resultSet, final String columnName) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getLong(columnName));
+        final long result = resultSet.getLong(columnName);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Float getFloat(final ResultSet resultSet, final String columnName) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getFloat(columnName));
+        final float result = resultSet.getFloat(columnName);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Double getDouble(final ResultSet resultSet, final String columnName) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getDouble(columnName));
+        final double result = resultSet.getDouble(columnName);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static String getString(final ResultSet resultSet, final String columnName) throws SQLException {
@@ -128,31 +139,38 @@ public final class ResultSetUtil {
     }
 
     public static Boolean getBoolean(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getBoolean(ordinalPosition));
+        final boolean result = resultSet.getBoolean(ordinalPosition);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Byte getByte(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getByte(ordinalPosition));
+        final byte result = resultSet.getByte(ordinalPosition);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Short getShort(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getShort(ordinalPosition));
+        final short result = resultSet.getShort(ordinalPosition);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Integer getInt(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getInt(ordinalPosition));
+        final int result = resultSet.getInt(ordinalPosition);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Long getLong(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getLong(ordinalPosition));
+        final long result = resultSet.getLong(ordinalPosition);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Float getFloat(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getFloat(ordinalPosition));
+        final float result = resultSet.getFloat(ordinalPosition);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static Double getDouble(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
-        return getNullableFrom(resultSet, rs -> rs.getDouble(ordinalPosition));
+        final double result = resultSet.getDouble(ordinalPosition);
+        return resultSet.wasNull() ? null : result;
     }
 
     public static String getString(final ResultSet resultSet, final int ordinalPosition) throws SQLException {
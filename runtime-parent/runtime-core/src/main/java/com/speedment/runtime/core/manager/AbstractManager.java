@@ -26,8 +26,12 @@ import com.speedment.runtime.core.component.PersistenceComponent;
 import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.StreamSupplierComponent;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.manager.KeysetUtil;
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.field.trait.HasComparableOperators;
 
+import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import static com.speedment.common.injector.State.INITIALIZED;
@@ -109,6 +113,25 @@ public abstract class AbstractManager<ENTITY> implements Manager<ENTITY> {
         );
     }
 
+    @Override
+    public Page<ENTITY> page(
+            List<? extends HasComparableOperators<ENTITY, ?>> sort, 
+            int pageSize, 
+            String token) {
+        
+        return streamSupplierComponent.page(
+            getTableIdentifier(), 
+            KeysetUtil.keys(sort, primaryKeyFields()), 
+            pageSize, 
+            token
+        );
+    }
+
+    @Override
+    public PreparedQuery<ENTITY> prepare(UnaryOperator<Stream<ENTITY>> template) {
+        return streamSupplierComponent.prepare(getTableIdentifier(), template);
+    }
+
     @Override
     public final ENTITY persist(ENTITY entity) throws SpeedmentException {
         return persister().apply(entity);
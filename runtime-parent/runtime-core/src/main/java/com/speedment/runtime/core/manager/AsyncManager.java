@@ -0,0 +1,112 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import com.speedment.runtime.core.component.AsyncComponent;
+import com.speedment.runtime.core.internal.manager.AsyncManagerImpl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * An asynchronous view of a {@link Manager}. Each operation is executed on an
+ * {@code Executor} and the result is returned as a {@link CompletableFuture}
+ * so that the calling thread is never blocked by the database.
+ * <p>
+ * If the executor is saturated, the operation is rejected by throwing a 
+ * {@code RejectedExecutionException} rather than being queued. Instances are
+ * normally obtained from {@link AsyncComponent#asyncManager(Manager)}.
+ * 
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface AsyncManager<ENTITY> {
+    
+    /**
+     * Returns the manager that is used to execute the operations.
+     * 
+     * @return  the underlying manager
+     */
+    Manager<ENTITY> getManager();
+    
+    /**
+     * Persists the specified entity asynchronously.
+     * 
+     * @param entity  the entity to persist
+     * @return        a future that is completed with the persisted entity
+     * 
+     * @throws RejectedExecutionException  if the executor is saturated
+     * @see Manager#persist(Object)
+     */
+    CompletableFuture<ENTITY> persist(ENTITY entity);
+    
+    /**
+     * Updates the specified entity asynchronously.
+     * 
+     * @param entity  the entity to update
+     * @return        a future that is completed with the updated entity
+     * 
+     * @throws RejectedExecutionException  if the executor is saturated
+     * @see Manager#update(Object)
+     */
+    CompletableFuture<ENTITY> update(ENTITY entity);
+    
+    /**
+     * Removes the specified entity asynchronously.
+     * 
+     * @param entity  the entity to remove
+     * @return        a future that is completed with the removed entity
+     * 
+     * @throws RejectedExecutionException  if the executor is saturated
+     * @see Manager#remove(Object)
+     */
+    CompletableFuture<ENTITY> remove(ENTITY entity);
+    
+    /**
+     * Applies the specified function to a new {@link Manager#stream()} 
+     * asynchronously. The function is expected to end with a terminal 
+     * operation. The stream is closed once the function returns. For example,
+     * <pre>{@code 
+     * asyncHares.query(s -> s.filter(Hare.AGE.greaterThan(5)).count())
+     * }</pre>
+     * 
+     * @param <R>    the result type
+     * @param query  the function from stream to result
+     * @return       a future that is completed with the result
+     * 
+     * @throws RejectedExecutionException  if the executor is saturated
+     */
+    <R> CompletableFuture<R> query(Function<? super Stream<ENTITY>, ? extends R> query);
+    
+    /**
+     * Creates a new {@code AsyncManager} that runs the operations of the 
+     * specified manager on the specified executor.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param manager   the manager
+     * @param executor  the executor
+     * @return          a new asynchronous manager
+     */
+    static <ENTITY> AsyncManager<ENTITY> of(Manager<ENTITY> manager, Executor executor) {
+        return new AsyncManagerImpl<>(manager, executor);
+    }
+}
@@ -18,11 +18,16 @@ package com.speedment.runtime.core.manager;
 
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.manager.DefaultPreparedQuery;
+import com.speedment.runtime.core.internal.manager.KeysetUtil;
 import com.speedment.runtime.core.internal.util.stream.SingletonStream;
 import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 /**
@@ -252,6 +257,92 @@ public interface Manager<ENTITY> {
      */
     Remover<ENTITY> remover();
 
+    /**
+     * Returns the first page of entities in the order given by the specified
+     * sort fields. 
+     *
+     * @param sort      the fields to sort on in ascending order
+     * @param pageSize  the maximum number of entities in the page
+     * @return          the first page
+     * 
+     * @see #page(List, int, String)
+     */
+    default Page<ENTITY> page(
+            List<? extends HasComparableOperators<ENTITY, ?>> sort, 
+            int pageSize) {
+        return page(sort, pageSize, null);
+    }
+
+    /**
+     * Returns the page of entities that follows the position identified by 
+     * the specified continuation token, using keyset (seek) pagination. The
+     * entities are sorted in ascending order on the specified sort fields, 
+     * followed by the primary key so that the order is total. The token of 
+     * the returned page is then used to fetch the next page. 
+     * <p>
+     * Unlike {@code skip()} on a stream, the cost of a page does not depend 
+     * on how deep into the table it is, since a SQL data store renders this as
+     * <pre>{@code 
+     * WHERE (c1 > ? OR (c1 = ? AND c2 > ?)) ORDER BY c1,c2 LIMIT n
+     * }</pre>
+     * The sort columns should not be nullable. The default implementation 
+     * sorts the entities of {@link #stream()} in memory.
+     *
+     * @param sort      the fields to sort on in ascending order
+     * @param pageSize  the maximum number of entities in the page
+     * @param token     the token of the previous page, or {@code null} for 
+     *                  the first page
+     * @return          the page
+     * 
+     * @throws IllegalArgumentException  if the token is malformed or was 
+     *                                   created for another sort
+     * @throws SpeedmentException        if the underlying database throws an
+     *                                   exception
+     */
+    default Page<ENTITY> page(
+            List<? extends HasComparableOperators<ENTITY, ?>> sort, 
+            int pageSize, 
+            String token) {
+        
+        return KeysetUtil.page(
+            stream(), 
+            KeysetUtil.keys(sort, primaryKeyFields()), 
+            pageSize, 
+            token
+        );
+    }
+
+    /**
+     * Prepares a query from the specified template so that the predicates of 
+     * the template are analyzed and rendered only once. Each execution of the
+     * returned query then only binds new parameter values. For an example:
+     * <pre>{@code 
+     * PreparedQuery<User> byEmail = users.prepare(
+     *     s -> s.filter(User.EMAIL.equal(""))
+     * );
+     * 
+     * Optional<User> user = byEmail.stream("alice@example.com").findAny();
+     * }</pre>
+     * Only the field predicates of the initial {@code filter()} operations 
+     * become parameters. Any following operations are applied as given in
+     * the template.
+     * <p>
+     * The default implementation analyzes the template once and applies it, 
+     * with the new parameter values, to a new {@link #stream()} on every 
+     * execution.
+     *
+     * @param template  the function that adds operations to a stream of all 
+     *                  entities
+     * @return          the prepared query
+     * 
+     * @throws IllegalArgumentException  if the template does not return the
+     *                                   stream it was given
+     * @see PreparedQuery
+     */
+    default PreparedQuery<ENTITY> prepare(UnaryOperator<Stream<ENTITY>> template) {
+        return new DefaultPreparedQuery<>(template, query -> query.apply(stream()));
+    }
+
     /**
      * Returns a Function that, when it is applied, will produce an equivalent
      * result as if {@link #finderByNullable(HasFinder)} was called.
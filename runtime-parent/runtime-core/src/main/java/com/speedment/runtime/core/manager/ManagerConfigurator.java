@@ -18,6 +18,8 @@ package com.speedment.runtime.core.manager;
 
 import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class makes it possible to decorate a manager with a special 
  * parallelization strategy by using a builder pattern.
@@ -37,6 +39,22 @@ public interface ManagerConfigurator<ENTITY> {
      */
     ManagerConfigurator<ENTITY> withParallelStrategy(ParallelStrategy parallelStrategy);
 
+    /**
+     * Set how long the database may spend executing the query of each stream
+     * created by the built manager before it is cancelled. This overrides the
+     * default timeout of the application. JDBC timeouts are given in seconds,
+     * so the timeout is rounded up to whole seconds.
+     * 
+     * @param timeout  the timeout, or {@code 0} for no limit
+     * @param unit     the unit of the timeout
+     * @return         a reference to this instance
+     * 
+     * @throws IllegalArgumentException  if the timeout is negative
+     * 
+     * @since 3.0.2
+     */
+    ManagerConfigurator<ENTITY> withQueryTimeout(long timeout, TimeUnit unit);
+
     /**
      * Builds a new manager that might delegate some methods to the pre-existing 
      * manager, but where the specified settings will be applied upon execution.
@@ -0,0 +1,49 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A page of entities returned by keyset pagination, together with the 
+ * continuation token that is used to fetch the next page.
+ * 
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ * 
+ * @see Manager#page(List, int, String)
+ */
+public interface Page<ENTITY> {
+    
+    /**
+     * Returns the entities of this page in sort order.
+     * 
+     * @return  the entities
+     */
+    List<ENTITY> getContent();
+    
+    /**
+     * Returns the opaque token that identifies the position after the last
+     * entity of this page, or empty if this is the last page.
+     * 
+     * @return  the continuation token or empty
+     */
+    Optional<String> getNextToken();
+}
@@ -0,0 +1,64 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * A query that has been analyzed once so that it can be executed many times 
+ * with different parameter values. A prepared query is created from a
+ * template using {@link Manager#prepare(UnaryOperator)}.
+ * <p>
+ * The parameters of the query are the operands of the field predicates in 
+ * the initial {@code filter()} operations of the template, in the order they 
+ * appear. The values used in the template are only samples that determine
+ * the shape of the query. For an example, {@code User.EMAIL.equal("")} takes
+ * one parameter and {@code User.AGE.between(0, 0)} takes two.
+ * <p>
+ * A prepared query is immutable and may be executed by several threads at 
+ * the same time.
+ *
+ * @param <ENTITY>  the entity type
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface PreparedQuery<ENTITY> {
+
+    /**
+     * Returns the number of parameter values that must be given to 
+     * {@link #stream(Object...)}.
+     * 
+     * @return  the number of parameters
+     */
+    int getParameterCount();
+
+    /**
+     * Executes the query with the specified parameter values and returns a 
+     * stream of the result. The stream must be closed or consumed by a
+     * terminal operation to release the underlying resources.
+     * 
+     * @param parameters  the parameter values in the order they appear in the
+     *                    template
+     * @return            a stream of the matching entities
+     * 
+     * @throws IllegalArgumentException  if the number of parameters is not 
+     *                                   {@link #getParameterCount()}
+     */
+    Stream<ENTITY> stream(Object... parameters);
+}
@@ -0,0 +1,178 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.manager;
+
+import com.speedment.runtime.core.internal.manager.ShardedManagerImpl;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Manager} over a table that is split across several identical 
+ * shards, each represented by a {@code Manager} of its own.
+ * <p>
+ * Writes and key lookups are routed to a single shard using the value of the 
+ * shard key field and a routing function. Queries are scattered to all shards
+ * in parallel and the partial results are gathered. A query is given as a 
+ * function that is applied to the stream of each shard, so that predicates on
+ * fields are rendered into the SQL of every shard as usual:
+ * <pre>{@code 
+ * long adults = users.count(s -> s.filter(User.AGE.greaterOrEqual(18)));
+ * }</pre>
+ * The {@link #stream()} method is equivalent to calling 
+ * {@link #stream(UnaryOperator)} with the identity function, so no 
+ * operations are pushed down to the shards.
+ * 
+ * @param <ENTITY>  the entity type
+ * @param <V>       the type of the shard key
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface ShardedManager<ENTITY, V extends Comparable<? super V>> extends Manager<ENTITY> {
+    
+    /**
+     * Returns the managers of the shards, indexed by shard number.
+     * 
+     * @return  the shard managers
+     */
+    List<Manager<ENTITY>> shards();
+    
+    /**
+     * Returns the manager of the shard that the specified shard key value is
+     * routed to.
+     * 
+     * @param shardKeyValue  the value of the shard key
+     * @return               the shard manager
+     */
+    Manager<ENTITY> shardOf(V shardKeyValue);
+    
+    /**
+     * Finds an entity with the specified shard key value by querying only
+     * the shard that the value is routed to.
+     * 
+     * @param shardKeyValue  the value of the shard key
+     * @return               an entity with the value, or empty if none
+     */
+    Optional<ENTITY> findAny(V shardKeyValue);
+    
+    /**
+     * Applies the specified query to all shards in parallel and returns a
+     * stream of the concatenated results in shard order. The results are read
+     * from the shards as the stream is consumed, and the stream must be closed
+     * to release the shard queries.
+     * 
+     * @param query  the intermediate operations to apply to each shard
+     * @return       a stream of the gathered entities
+     */
+    Stream<ENTITY> stream(UnaryOperator<Stream<ENTITY>> query);
+    
+    /**
+     * Applies the specified query to all shards in parallel, sorts the result
+     * of each shard using the specified comparator and returns a stream that
+     * merges the sorted results. The results are read from the shards as the
+     * stream is consumed, and the stream must be closed to release the shard
+     * queries.
+     * 
+     * @param query       the intermediate operations to apply to each shard
+     * @param comparator  the sort order
+     * @return            a sorted stream of the gathered entities
+     */
+    Stream<ENTITY> sorted(UnaryOperator<Stream<ENTITY>> query, Comparator<? super ENTITY> comparator);
+    
+    /**
+     * Counts the entities matching the specified query in all shards in 
+     * parallel.
+     * 
+     * @param query  the intermediate operations to apply to each shard
+     * @return       the total number of entities
+     */
+    long count(UnaryOperator<Stream<ENTITY>> query);
+    
+    /**
+     * Sums the specified value of the entities matching the specified query in
+     * all shards in parallel.
+     * 
+     * @param query   the intermediate operations to apply to each shard
+     * @param mapper  the value to sum
+     * @return        the total sum
+     */
+    long sum(UnaryOperator<Stream<ENTITY>> query, ToLongFunction<? super ENTITY> mapper);
+    
+    /**
+     * Returns the smallest entity matching the specified query in any shard.
+     * 
+     * @param query       the intermediate operations to apply to each shard
+     * @param comparator  the order
+     * @return            the smallest entity, or empty if there were none
+     */
+    Optional<ENTITY> min(UnaryOperator<Stream<ENTITY>> query, Comparator<? super ENTITY> comparator);
+    
+    /**
+     * Returns the largest entity matching the specified query in any shard.
+     * 
+     * @param query       the intermediate operations to apply to each shard
+     * @param comparator  the order
+     * @return            the largest entity, or empty if there were none
+     */
+    Optional<ENTITY> max(UnaryOperator<Stream<ENTITY>> query, Comparator<? super ENTITY> comparator);
+    
+    /**
+     * Computes a partial result for each shard in parallel using the 
+     * specified function and combines the partial results using the specified
+     * combiner.
+     * 
+     * @param <R>       the result type
+     * @param partial   the function from the stream of a shard to a partial
+     *                  result, ending with a terminal operation
+     * @param combiner  the function that combines two partial results
+     * @return          the combined result
+     */
+    <R> R aggregate(Function<Stream<ENTITY>, R> partial, BinaryOperator<R> combiner);
+    
+    /**
+     * Creates a new {@code ShardedManager}.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param <V>       the type of the shard key
+     * @param shardKey  the field that decides the shard of an entity
+     * @param router    function from shard key value to shard number, which 
+     *                  must be between {@code 0} and the number of shards
+     * @param shards    the managers of the shards, indexed by shard number
+     * @param executor  the executor to run queries on the shards on, which
+     *                  must be able to run one task per shard for every 
+     *                  stream that is consumed at the same time
+     * @return          the new manager
+     */
+    static <ENTITY, V extends Comparable<? super V>> ShardedManager<ENTITY, V> of(
+            HasComparableOperators<ENTITY, V> shardKey,
+            ToIntFunction<? super V> router,
+            List<? extends Manager<ENTITY>> shards,
+            Executor executor) {
+        
+        return new ShardedManagerImpl<>(shardKey, router, shards, executor);
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream;
+
+import com.speedment.runtime.core.internal.stream.builder.AbstractStreamBuilder;
+import com.speedment.runtime.core.stream.action.Action;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+import java.util.stream.Stream;
+
+/**
+ * A description of how a Speedment stream will be executed: the query that 
+ * is sent to the data source and which of the operations of the pipeline 
+ * are pushed down to it or remain as work in the JVM.
+ * <p>
+ * A plan is obtained with {@link #of(BaseStream)} before the stream is 
+ * terminated. Explaining a stream does not execute it. For an example:
+ * <pre>{@code 
+ * QueryPlan plan = QueryPlan.of(users.stream().filter(User.AGE.greaterThan(18)));
+ * plan.requireNoFullScan();
+ * }</pre>
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface QueryPlan {
+
+    /**
+     * Returns the final query that will be sent to the data source, or empty
+     * if the source is not queried using SQL.
+     * 
+     * @return  the final query or empty
+     */
+    Optional<String> getSql();
+
+    /**
+     * Returns the values that will be bound to the parameters of the query.
+     * 
+     * @return  the bound values
+     */
+    List<Object> getValues();
+
+    /**
+     * Returns one step for each operation of the pipeline, in pipeline order.
+     * 
+     * @return  the steps
+     */
+    List<Step> getSteps();
+
+    /**
+     * Returns a stream of the steps that are pushed down to the data source.
+     * 
+     * @return  the pushed down steps
+     */
+    default Stream<Step> pushedDown() {
+        return getSteps().stream().filter(Step::isPushedDown);
+    }
+
+    /**
+     * Returns a stream of the steps that remain as work in the JVM.
+     * 
+     * @return  the residual steps
+     */
+    default Stream<Step> residual() {
+        return getSteps().stream().filter(s -> !s.isPushedDown());
+    }
+
+    /**
+     * Returns {@code true} if the pipeline filters entities but no filter is 
+     * pushed down, so that every entity in the source is read only to be 
+     * filtered in the JVM.
+     * 
+     * @return  {@code true} if the plan falls back to a full scan
+     */
+    boolean isFullScan();
+
+    /**
+     * Returns this plan if it does not fall back to a full scan. This is 
+     * intended to be used in tests that guard against pipelines that are 
+     * accidentally changed so that they can no longer be optimized.
+     * 
+     * @return  this plan
+     * 
+     * @throws IllegalStateException  if {@link #isFullScan()} is {@code true}
+     */
+    default QueryPlan requireNoFullScan() {
+        if (isFullScan()) {
+            throw new IllegalStateException(
+                "The stream falls back to a full scan. " + this
+            );
+        }
+        return this;
+    }
+
+    /**
+     * A single operation of an explained pipeline.
+     */
+    interface Step {
+
+        /**
+         * Returns the pipeline action of this step.
+         * 
+         * @return  the action
+         */
+        Action<?, ?> getAction();
+
+        /**
+         * Returns {@code true} if the action is executed by the data source.
+         * A pushed down filter may still be re-checked in the JVM.
+         * 
+         * @return  {@code true} if pushed down
+         */
+        boolean isPushedDown();
+
+        /**
+         * Returns a human readable explanation of why the action was or was 
+         * not pushed down.
+         * 
+         * @return  the reason
+         */
+        String getReason();
+    }
+
+    /**
+     * Returns the plan of the specified Speedment stream without executing 
+     * it. The stream can still be used after being explained.
+     * 
+     * @param stream  the stream to explain
+     * @return        the plan
+     * 
+     * @throws IllegalArgumentException  if the stream is not a Speedment 
+     *                                   stream
+     */
+    static QueryPlan of(BaseStream<?, ?> stream) {
+        if (stream instanceof AbstractStreamBuilder) {
+            return ((AbstractStreamBuilder<?, ?>) stream).explain();
+        }
+        
+        throw new IllegalArgumentException(
+            "Only streams created by Speedment can be explained. Got " + 
+            (stream == null ? "null" : stream.getClass().getName()) + "."
+        );
+    }
+}
@@ -16,14 +16,18 @@
  */
 package com.speedment.runtime.core.stream.parallel;
 
+import com.speedment.runtime.core.internal.stream.parallel.AdaptiveParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityExtremeParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityHighParallelStrategy;
 import com.speedment.runtime.core.internal.stream.parallel.ComputeIntensityMediumParallelStrategy;
+import com.speedment.runtime.core.internal.stream.parallel.PartitionedParallelStrategy;
 
 import java.util.Iterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  *
  * @author Per Minborg
@@ -73,6 +77,51 @@ public interface ParallelStrategy {
         return Hidden.COMPUTE_INTENSITY_EXTREME;
     }
 
+    /**
+     * A Parallel Strategy that measures the time it takes to read and to 
+     * process each element and adjusts the batch sizes accordingly, so that 
+     * the compute intensity of the stream does not have to be known in 
+     * advance. The measurements are kept between streams, so a new strategy
+     * should be created for each manager, for example using
+     * {@code ManagerConfigurator.withParallelStrategy(ParallelStrategy.adaptive())}.
+     *
+     * @return a new ParallelStrategy
+     */
+    static ParallelStrategy adaptive() {
+        return new AdaptiveParallelStrategy();
+    }
+
+    /**
+     * A Parallel Strategy that splits a table into the specified number of
+     * ranges of its primary key and reads each range using a separate query
+     * and database connection. A parallel stream will then fetch and map the
+     * rows of different ranges in different threads. The primary key must 
+     * consist of a single integer column, otherwise the table is read using
+     * a single query.
+     *
+     * @param partitions  the number of ranges to split the table into
+     * @return a ParallelStrategy
+     */
+    static ParallelStrategy partitioned(int partitions) {
+        return new PartitionedParallelStrategy(partitions, null);
+    }
+
+    /**
+     * A Parallel Strategy that splits a table into the specified number of
+     * ranges of the specified integer column and reads each range using a 
+     * separate query and database connection. A parallel stream will then 
+     * fetch and map the rows of different ranges in different threads. If
+     * the column is nullable, the rows where it is {@code null} are read 
+     * using one more query.
+     *
+     * @param partitions  the number of ranges to split the table into
+     * @param columnName  the name of the column to split the table on
+     * @return a ParallelStrategy
+     */
+    static ParallelStrategy partitioned(int partitions, String columnName) {
+        return new PartitionedParallelStrategy(partitions, requireNonNull(columnName));
+    }
+
     <T> Spliterator<T> spliteratorUnknownSize(Iterator<? extends T> iterator, int characteristics);
 
     static ParallelStrategy of(final int... batchSizes) {
@@ -0,0 +1,41 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream.reactive;
+
+/**
+ * A provider of a potentially unbounded number of elements, publishing them
+ * according to the demand received from its {@link Subscriber Subscribers}.
+ *
+ * @param <T>  the type of the published elements
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+@FunctionalInterface
+public interface Publisher<T> {
+
+    /**
+     * Requests this {@code Publisher} to start streaming elements to the 
+     * specified {@code Subscriber}. The subscriber is first given a 
+     * {@link Subscription} by a call to 
+     * {@link Subscriber#onSubscribe(Subscription)}. No elements are sent until
+     * they are requested using {@link Subscription#request(long)}.
+     * 
+     * @param subscriber  the subscriber that will consume the elements
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+}
@@ -0,0 +1,60 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream.reactive;
+
+/**
+ * A receiver of elements from a {@link Publisher}. The methods of a 
+ * {@code Subscriber} are invoked sequentially, never concurrently, but not
+ * necessarily by the same thread.
+ *
+ * @param <T>  the type of the received elements
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface Subscriber<T> {
+
+    /**
+     * Invoked once before any other method with the subscription that is used
+     * to request elements and to cancel.
+     * 
+     * @param subscription  the subscription
+     */
+    void onSubscribe(Subscription subscription);
+    
+    /**
+     * Invoked with the next element. This method is never called more times
+     * than has been requested.
+     * 
+     * @param item  the element
+     */
+    void onNext(T item);
+    
+    /**
+     * Invoked when the publisher failed. No other method will be called after 
+     * this one.
+     * 
+     * @param throwable  the reason for the failure
+     */
+    void onError(Throwable throwable);
+    
+    /**
+     * Invoked when all elements have been sent. No other method will be called
+     * after this one.
+     */
+    void onComplete();
+}
@@ -0,0 +1,45 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.stream.reactive;
+
+/**
+ * The link between a {@link Publisher} and a {@link Subscriber}, used to
+ * signal demand and to cancel.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public interface Subscription {
+
+    /**
+     * Adds the specified number of elements to the demand of this 
+     * subscription. A value of {@code Long.MAX_VALUE} means that the demand
+     * is unbounded. A non-positive value results in 
+     * {@link Subscriber#onError(Throwable)} being called with an
+     * {@code IllegalArgumentException}.
+     * 
+     * @param n  the number of additional elements to send
+     */
+    void request(long n);
+    
+    /**
+     * Requests the publisher to stop sending elements and to release any 
+     * resources held by this subscription. Elements that are already being
+     * sent may still be delivered.
+     */
+    void cancel();
+}
@@ -0,0 +1,11 @@
+/**
+ * Reactive Streams compatible interfaces for consuming query results with
+ * back-pressure are located in this package. The interfaces have the same
+ * methods and semantics as the ones in {@code org.reactivestreams} and
+ * {@code java.util.concurrent.Flow} so that they can be adapted to either 
+ * with method references.
+ * <p>
+ * This package is part of the API. Modifications to classes here should only
+ * (if ever) be done in major releases.
+ */
+package com.speedment.runtime.core.stream.reactive;
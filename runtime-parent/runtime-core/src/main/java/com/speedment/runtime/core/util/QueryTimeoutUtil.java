@@ -0,0 +1,101 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.util;
+
+import com.speedment.runtime.core.internal.stream.builder.AbstractStreamBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+import static com.speedment.runtime.core.util.StaticClassUtil.instanceNotAllowed;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A utility class for limiting how long the database may spend executing the
+ * query of a stream. If the timeout is exceeded, the driver cancels the 
+ * statement and the terminal operation throws an exception.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * withQueryTimeout(users.stream(), 5, TimeUnit.SECONDS)
+ *     .filter(User.NAME.startsWith("A"))
+ *     .collect(toList());
+ * }</pre>
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class QueryTimeoutUtil {
+
+    /**
+     * Sets the query timeout of the specified stream, overriding any timeout
+     * configured for the manager that created it. The timeout must be set 
+     * before a terminal operation is invoked. JDBC timeouts are given in 
+     * seconds, so the timeout is rounded up to whole seconds.
+     * 
+     * @param <S>      the stream type
+     * @param stream   the stream created by a manager
+     * @param timeout  the timeout, or {@code 0} for no limit
+     * @param unit     the unit of the timeout
+     * @return         the same stream
+     * 
+     * @throws IllegalArgumentException  if the stream was not created by 
+     *                                   Speedment or the timeout is negative
+     */
+    public static <S extends BaseStream<?, S>> S withQueryTimeout(S stream, long timeout, TimeUnit unit) {
+        if (stream instanceof AbstractStreamBuilder) {
+            ((AbstractStreamBuilder<?, ?>) stream).setQueryTimeout(toSeconds(timeout, unit));
+            return stream;
+        }
+        
+        throw new IllegalArgumentException(
+            "Only streams created by Speedment can have a query timeout. Got " + 
+            (stream == null ? "null" : stream.getClass().getName()) + "."
+        );
+    }
+
+    /**
+     * Converts the specified timeout into whole seconds, rounding up so that
+     * a positive timeout never becomes {@code 0}.
+     * 
+     * @param timeout  the timeout
+     * @param unit     the unit of the timeout
+     * @return         the timeout in seconds
+     * 
+     * @throws IllegalArgumentException  if the timeout is negative
+     */
+    public static int toSeconds(long timeout, TimeUnit unit) {
+        requireNonNull(unit);
+        if (timeout < 0) {
+            throw new IllegalArgumentException(
+                "Query timeout must not be negative, was " + timeout + " " + unit + "."
+            );
+        }
+        
+        final long nanos = unit.toNanos(timeout);
+        final long perSecond = TimeUnit.SECONDS.toNanos(1);
+        final long seconds = nanos / perSecond + (nanos % perSecond == 0 ? 0 : 1);
+        return (int) Math.min(Integer.MAX_VALUE, seconds);
+    }
+
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private QueryTimeoutUtil() {
+        instanceNotAllowed(getClass());
+    }
+}
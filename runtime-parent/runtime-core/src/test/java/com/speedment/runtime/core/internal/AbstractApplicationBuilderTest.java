@@ -17,15 +17,23 @@
 package com.speedment.runtime.core.internal;
 
 import com.speedment.common.injector.Injector;
+import com.speedment.common.logger.Level;
+import com.speedment.common.logger.Logger;
+import com.speedment.common.logger.LoggerEventListener;
+import com.speedment.common.logger.LoggerManager;
+import com.speedment.runtime.core.ApplicationBuilder.LogType;
 import com.speedment.runtime.core.Speedment;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -59,6 +67,35 @@ public class AbstractApplicationBuilderTest {
 
     }
 
+    @Test
+    public void testStartupReport() {
+        final Logger logger = LoggerManager.getLogger(AbstractApplicationBuilder.LOGGER_STARTUP_NAME);
+        final Level level = logger.getLevel();
+        final List<String> messages = new ArrayList<>();
+        final LoggerEventListener listener = e -> messages.add(e.getMessage());
+        logger.addListener(listener);
+        
+        try {
+            new DefaultApplicationBuilder(EmptyApplicationMetadata.class)
+                .withLogging(LogType.STARTUP)
+                .withSkipCheckDatabaseConnectivity()
+                .withSkipValidateRuntimeConfig()
+                .withSkipLogoPrintout()
+                .build();
+        } finally {
+            logger.removeListener(listener);
+            logger.setLevel(level);
+        }
+        
+        assertEquals(1, messages.size());
+        final String report = messages.get(0);
+        assertTrue(report, report.contains("Build injector"));
+        assertTrue(report, report.contains("  Load metadata"));
+        assertTrue(report, report.contains("Load and set project"));
+        assertTrue(report, report.contains("Build application"));
+        assertTrue(report, report.contains("ProjectComponentImpl#loadProjectFromMetadata"));
+    }
+
     public class AbstractApplicationBuilderImpl<
         APP extends Speedment,
         BUILDER extends AbstractApplicationBuilder<APP, BUILDER>
@@ -0,0 +1,327 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.join;
+
+import com.speedment.runtime.config.Column;
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.Schema;
+import com.speedment.runtime.config.Table;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.internal.ProjectImpl;
+import com.speedment.runtime.config.trait.HasEnabled;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.db.SqlFunction;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.db.DefaultDatabaseNamingConvention;
+import com.speedment.runtime.core.internal.manager.sql.MySqlSpeedmentPredicateView;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.IntForeignKeyField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class JoinQueryTest {
+    
+    private static final TableIdentifier<int[]> 
+        ORDER   = TableIdentifier.of("db", "schema", "order"),
+        USER    = TableIdentifier.of("db", "schema", "user"),
+        COUNTRY = TableIdentifier.of("db", "schema", "country");
+    
+    private static final IntField<int[], Integer> 
+        COUNTRY_ID = IntField.create(Identifier.COUNTRY_ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true),
+        USER_ID    = IntField.create(Identifier.USER_ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true),
+        USER_CODE  = IntField.create(Identifier.USER_CODE, e -> e[2], (e, v) -> { e[2] = v; return e; }, TypeMapper.primitive(), true),
+        AMOUNT     = IntField.create(Identifier.ORDER_AMOUNT, e -> e[2], (e, v) -> { e[2] = v; return e; }, TypeMapper.primitive(), false);
+    
+    private static final IntForeignKeyField<int[], Integer, int[]> 
+        USER_COUNTRY = IntForeignKeyField.create(Identifier.USER_COUNTRY, e -> e[1], (e, v) -> { e[1] = v; return e; }, COUNTRY_ID, TypeMapper.primitive(), false),
+        ORDER_USER   = IntForeignKeyField.create(Identifier.ORDER_USER, e -> e[1], (e, v) -> { e[1] = v; return e; }, USER_ID, TypeMapper.primitive(), false),
+        ORDER_CODE   = IntForeignKeyField.create(Identifier.ORDER_CODE, e -> e[1], (e, v) -> { e[1] = v; return e; }, USER_CODE, TypeMapper.primitive(), false);
+    
+    private List<Object[]> rows;
+    private List<String> executedSql;
+    private List<Object> executedValues;
+    private JoinQuery query;
+
+    @Before
+    public void setUp() {
+        rows           = new ArrayList<>();
+        executedSql    = new ArrayList<>();
+        executedValues = new ArrayList<>();
+        
+        final Project project = new ProjectImpl(map(
+            HasName.NAME, "project",
+            Project.DBMSES, list(map(
+                HasName.NAME, "db",
+                Dbms.TYPE_NAME, "TestDb",
+                Dbms.SCHEMAS, list(map(
+                    HasName.NAME, "schema",
+                    Schema.TABLES, list(
+                        table("order", column("id"), column("user_id"), column("amount")),
+                        table("user", column("id"), column("country_id"), disabled("code"), column("age")),
+                        table("country", column("id"), column("name"))
+                    )
+                ))
+            ))
+        ));
+        
+        final DbmsType dbmsType = proxy(DbmsType.class, (method, args) -> {
+            switch (method) {
+                case "getDatabaseNamingConvention" : return new DefaultDatabaseNamingConvention();
+                case "getFieldPredicateView"       : return new MySqlSpeedmentPredicateView();
+                case "getOperationHandler"         : return operationHandler();
+                default : throw new UnsupportedOperationException(method);
+            }
+        });
+        
+        final Map<TableIdentifier<?>, SqlFunction<ResultSet, int[]>> mappers = new HashMap<>();
+        mappers.put(ORDER,   rs -> new int[] {rs.getInt(1), rs.getInt(2), rs.getInt(3)});
+        mappers.put(USER,    rs -> new int[] {rs.getInt(1), rs.getInt(2), 0, rs.getInt(3)});
+        mappers.put(COUNTRY, rs -> new int[] {rs.getInt(1), rs.getString(2).length()});
+        
+        query = new JoinQuery(
+            proxy(ProjectComponent.class, (method, args) -> {
+                if ("getProject".equals(method)) {
+                    return project;
+                }
+                throw new UnsupportedOperationException(method);
+            }),
+            proxy(DbmsHandlerComponent.class, (method, args) -> {
+                if ("findByName".equals(method)) {
+                    return Optional.of(dbmsType);
+                }
+                throw new UnsupportedOperationException(method);
+            }),
+            proxy(SqlStreamSupplierComponent.class, (method, args) -> {
+                if ("entityMapper".equals(method)) {
+                    return mappers.get((TableIdentifier<?>) args[0]);
+                }
+                throw new UnsupportedOperationException(method);
+            }),
+            ORDER
+        );
+    }
+
+    @Test
+    public void testSql() {
+        query.join(ORDER_USER, false);
+        query.join(USER_COUNTRY, true);
+        query.where(AMOUNT.greaterThan(100));
+        query.where(COUNTRY_ID.equal(46));
+        
+        query.stream(row -> row).forEach(row -> {});
+        
+        assertEquals(Arrays.asList(
+            "SELECT t0.`id`,t0.`user_id`,t0.`amount`,t1.`id`,t1.`country_id`,t1.`age`,t2.`id`,t2.`name` " + 
+            "FROM `schema`.`order` t0 " + 
+            "INNER JOIN `schema`.`user` t1 ON t0.`user_id` = t1.`id` " + 
+            "LEFT JOIN `schema`.`country` t2 ON t1.`country_id` = t2.`id` " + 
+            "WHERE (t0.`amount` > ?) AND (t2.`id` = ?)"
+        ), executedSql);
+        assertEquals(Arrays.<Object>asList(100, 46), executedValues);
+    }
+
+    @Test
+    public void testOffsets() {
+        query.join(ORDER_USER, false);
+        query.join(USER_COUNTRY, false);
+        rows.add(new Object[] {1, 2, 300, 2, 46, 42, 46, "Sweden"});
+        
+        final List<Object[]> result = query.stream(row -> row).collect(toList());
+        
+        assertEquals(1, result.size());
+        assertArrayEquals(new int[] {1, 2, 300}, (int[]) result.get(0)[0]);
+        assertArrayEquals(new int[] {2, 46, 0, 42}, (int[]) result.get(0)[1]);
+        assertArrayEquals(new int[] {46, 6}, (int[]) result.get(0)[2]);
+    }
+
+    @Test
+    public void testLeftJoinWithoutMatch() {
+        query.join(ORDER_USER, true);
+        rows.add(new Object[] {1, 2, 300, 2, 46, 42});
+        rows.add(new Object[] {3, 0, 400, null, null, null});
+        
+        final List<Object[]> result = query.stream(row -> row).collect(toList());
+        
+        assertEquals(2, result.size());
+        assertArrayEquals(new int[] {2, 46, 0, 42}, (int[]) result.get(0)[1]);
+        assertArrayEquals(new int[] {3, 0, 400}, (int[]) result.get(1)[0]);
+        assertNull("No user was joined", result.get(1)[1]);
+    }
+
+    @Test(expected = SpeedmentException.class)
+    public void testLeftJoinOnDisabledColumn() {
+        query.join(ORDER_CODE, true);
+        query.stream(row -> row);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWhereOnTableNotInJoin() {
+        query.where(COUNTRY_ID.equal(46));
+    }
+    
+    private DbmsOperationHandler operationHandler() {
+        return proxy(DbmsOperationHandler.class, (method, args) -> {
+            if ("executeQueryAsync".equals(method)) {
+                executedSql.add((String) args[1]);
+                executedValues.addAll((List<?>) args[2]);
+                @SuppressWarnings("unchecked")
+                final SqlFunction<ResultSet, Object> mapper = (SqlFunction<ResultSet, Object>) args[3];
+                return queryResult(mapper);
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+    
+    private AsynchronousQueryResult<Object> queryResult(SqlFunction<ResultSet, Object> mapper) {
+        return proxy(AsynchronousQueryResult.class, (method, args) -> {
+            switch (method) {
+                case "stream" : return rows.stream().map(row -> {
+                    try {
+                        return mapper.apply(resultSet(row));
+                    } catch (final SQLException ex) {
+                        throw new SpeedmentException(ex);
+                    }
+                });
+                case "close" : return null;
+                default : throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+    
+    private static ResultSet resultSet(Object[] row) {
+        return proxy(ResultSet.class, (method, args) -> {
+            final Object value = row[(Integer) args[0] - 1];
+            switch (method) {
+                case "getObject" : return value;
+                case "getInt"    : return value == null ? 0 : value;
+                case "getString" : return value;
+                default : throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+    
+    @SafeVarargs
+    private static Map<String, Object> table(String name, Map<String, Object>... columns) {
+        return map(HasName.NAME, name, Table.COLUMNS, list(columns));
+    }
+    
+    private static Map<String, Object> column(String name) {
+        return map(HasName.NAME, name);
+    }
+    
+    private static Map<String, Object> disabled(String name) {
+        return map(HasName.NAME, name, HasEnabled.ENABLED, false);
+    }
+    
+    private static Map<String, Object> map(Object... keysAndValues) {
+        final Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+    
+    @SafeVarargs
+    private static List<Map<String, Object>> list(Map<String, Object>... children) {
+        final List<Map<String, Object>> list = new ArrayList<>(children.length);
+        for (final Map<String, Object> child : children) {
+            list.add(child);
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(
+            type.getClassLoader(), 
+            new Class<?>[] {type}, 
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        );
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        COUNTRY_ID   ("country", "id"), 
+        USER_ID      ("user", "id"), 
+        USER_COUNTRY ("user", "country_id"), 
+        USER_CODE    ("user", "code"), 
+        ORDER_USER   ("order", "user_id"), 
+        ORDER_CODE   ("order", "user_id"), 
+        ORDER_AMOUNT ("order", "amount");
+        
+        private final String tableName;
+        private final String columnName;
+
+        private Identifier(String tableName, String columnName) {
+            this.tableName  = tableName;
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return tableName;
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.join;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class OffsetResultSetTest {
+    
+    private final ResultSet inner = (ResultSet) Proxy.newProxyInstance(
+        ResultSet.class.getClassLoader(), 
+        new Class<?>[] {ResultSet.class}, 
+        (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getInt"       : return (Integer) args[0] * 10;
+                case "getString"    : return "column " + args[0];
+                case "wasNull"      : return true;
+                case "getFetchSize" : return 42;
+                case "absolute"     : throw new SQLException("Not supported.");
+                default : throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    );
+
+    @Test
+    public void testOffset() throws SQLException {
+        final ResultSet shifted = OffsetResultSet.of(inner, 3);
+        assertEquals(40, shifted.getInt(1));
+        assertEquals("column 5", shifted.getString(2));
+        assertTrue(shifted.wasNull());
+        assertEquals(42, shifted.getFetchSize());
+    }
+    
+    @Test
+    public void testNoOffset() {
+        assertSame(inner, OffsetResultSet.of(inner, 0));
+    }
+    
+    @Test(expected = SQLException.class)
+    public void testException() throws SQLException {
+        OffsetResultSet.of(inner, 3).absolute(1);
+    }
+}
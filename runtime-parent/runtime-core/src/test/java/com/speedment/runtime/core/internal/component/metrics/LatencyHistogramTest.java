@@ -0,0 +1,89 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class LatencyHistogramTest {
+    
+    @Test
+    public void testBuckets() {
+        long previous = -1;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+            final long highest = LatencyHistogram.highestValueOf(i);
+            assertTrue(highest > previous);
+            assertEquals(i, LatencyHistogram.indexOf(previous + 1));
+            assertEquals(i, LatencyHistogram.indexOf(highest));
+            previous = highest;
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+    
+    @Test
+    public void testEmpty() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+    
+    @Test
+    public void testPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.rangeClosed(1, 10_000).forEach(histogram::record);
+        
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(5000.5, histogram.getMean(), 1e-9);
+        assertEquals(5000, histogram.getValueAtPercentile(50), 5000 * 0.07);
+        assertEquals(9900, histogram.getValueAtPercentile(99), 9900 * 0.07);
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+    
+    @Test
+    public void testRelativeError() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            final long value = Math.abs(random.nextLong()) >>> random.nextInt(63);
+            final LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(Long.MAX_VALUE);
+            
+            final long reported = histogram.getValueAtPercentile(50);
+            if (value < (1L << 41)) {
+                assertTrue(reported >= value);
+                assertTrue(reported - value <= value / 16);
+            }
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalPercentile() {
+        new LatencyHistogram().getValueAtPercentile(101);
+    }
+}
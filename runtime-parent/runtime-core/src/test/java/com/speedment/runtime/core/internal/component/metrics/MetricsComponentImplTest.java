@@ -0,0 +1,104 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.metrics.QueryMetrics;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
+import com.speedment.runtime.core.db.SqlFunction;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class MetricsComponentImplTest {
+    
+    private static final TableIdentifier<Object> TABLE = TableIdentifier.of("db", "schema", "user");
+    
+    @Test
+    public void testMetricsOf() {
+        final MetricsComponentImpl component = new MetricsComponentImpl();
+        final QueryMetrics select = component.metricsOf(TABLE, Operation.SELECT);
+        
+        assertSame(select, component.metricsOf(TableIdentifier.of("db", "schema", "user"), Operation.SELECT));
+        assertFalse(select == component.metricsOf(TABLE, Operation.COUNT));
+        assertEquals(2, component.stream().count());
+    }
+    
+    @Test
+    public void testRecorder() throws Exception {
+        final QueryMetrics metrics = new MetricsComponentImpl().metricsOf(TABLE, Operation.SELECT);
+        final QueryRecorder recorder = new QueryRecorder(metrics);
+        final SqlFunction<ResultSet, String> mapper = recorder.mapper(rs -> "row");
+        
+        recorder.start();
+        for (int i = 0; i < 10; i++) {
+            mapper.apply(null);
+        }
+        recorder.returned();
+        recorder.returned();
+        recorder.close();
+        recorder.close();
+        
+        assertEquals(10, metrics.getRowsRead());
+        assertEquals(2, metrics.getRowsReturned());
+        assertEquals(0.2, metrics.getReturnRatio(), 1e-9);
+        assertEquals(1, metrics.getLatency().getCount());
+        assertEquals(1, metrics.getTimeToFirstRow().getCount());
+        assertEquals(1, metrics.getMappingTime().getCount());
+        
+        // A query that is never started is not recorded
+        new QueryRecorder(metrics).close();
+        assertEquals(1, metrics.getLatency().getCount());
+    }
+    
+    @Test
+    public void testJmx() throws Exception {
+        final MetricsComponentImpl component = new MetricsComponentImpl();
+        final Field jmx = MetricsComponentImpl.class.getDeclaredField("jmx");
+        jmx.setAccessible(true);
+        jmx.setBoolean(component, true);
+        
+        final QueryMetricsImpl before = (QueryMetricsImpl) component.metricsOf(TABLE, Operation.INSERT);
+        component.registerMBeans();
+        final QueryMetricsImpl after = (QueryMetricsImpl) component.metricsOf(TABLE, Operation.DELETE);
+        
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = MetricsComponentImpl.objectNameOf(after);
+        try {
+            assertTrue(server.isRegistered(MetricsComponentImpl.objectNameOf(before)));
+            assertTrue(server.isRegistered(name));
+            
+            after.recordError();
+            assertEquals(1L, server.getAttribute(name, "Errors"));
+            assertEquals("db.schema.user", server.getAttribute(name, "Table"));
+        } finally {
+            component.unregisterMBeans();
+        }
+        
+        assertFalse(server.isRegistered(name));
+    }
+}
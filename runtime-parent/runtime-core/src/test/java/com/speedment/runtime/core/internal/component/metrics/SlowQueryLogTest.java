@@ -0,0 +1,142 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.metrics;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SlowQueryLogTest {
+    
+    private static final TableIdentifier<Object> TABLE = TableIdentifier.of("db", "schema", "user");
+    
+    @Test
+    public void testThreshold() {
+        final SlowQueryLog log = new SlowQueryLog();
+        final QueryMetricsImpl select = new QueryMetricsImpl(TABLE, Operation.SELECT, log);
+        final QueryMetricsImpl insert = new QueryMetricsImpl(TABLE, Operation.INSERT, log);
+        log.enable(thresholds(100, 10), 0, 64, false);
+        
+        select.recordCompleted(99, 0, "SELECT", null, null);
+        assertNull(log.poll());
+        
+        select.recordCompleted(100, 0, "SELECT", null, null);
+        assertTrue(log.poll().isSlow());
+        
+        insert.recordCompleted(10, 1, "INSERT", null, null);
+        assertTrue(log.poll().isSlow());
+        
+        // Operations without a threshold are never slow
+        new QueryMetricsImpl(TABLE, Operation.DELETE, log)
+            .recordCompleted(Long.MAX_VALUE - 1, 1, "DELETE", null, null);
+        assertNull(log.poll());
+        
+        assertEquals(2, select.getLatency().getCount());
+    }
+    
+    @Test
+    public void testDisabled() {
+        final SlowQueryLog log = new SlowQueryLog();
+        final QueryMetricsImpl select = new QueryMetricsImpl(TABLE, Operation.SELECT, log);
+        
+        select.recordCompleted(1_000_000_000, 0, "SELECT", null, null);
+        assertNull(log.poll());
+        assertEquals(1, select.getLatency().getCount());
+    }
+    
+    @Test
+    public void testSampling() {
+        final SlowQueryLog log = new SlowQueryLog();
+        final QueryMetricsImpl select = new QueryMetricsImpl(TABLE, Operation.SELECT, log);
+        log.enable(thresholds(1_000, 1_000), 1, 64, false);
+        
+        select.recordCompleted(1, 0, "SELECT", null, null);
+        final SlowQueryLog.Entry entry = log.poll();
+        assertNotNull(entry);
+        assertFalse(entry.isSlow());
+        assertTrue(log.format(entry).startsWith("Sampled SELECT on db.schema.user"));
+    }
+    
+    @Test
+    public void testFormat() {
+        final SlowQueryLog log = new SlowQueryLog();
+        final QueryMetricsImpl select = new QueryMetricsImpl(TABLE, Operation.SELECT, log);
+        log.enable(thresholds(0, 0), 0, 5, false);
+        
+        select.recordCompleted(2_500_000, 17, "SELECT * FROM user WHERE name = ?", 
+            Arrays.asList("abcdefghij", 42, null), () -> "source -> filter -> map");
+        
+        assertEquals(
+            "Slow SELECT on db.schema.user took 2.5 ms, rows: 17, " + 
+            "sql: SELECT * FROM user WHERE name = ?, " + 
+            "values: [abcde..., 42, null], " + 
+            "pipeline: source -> filter -> map", 
+            log.format(log.poll())
+        );
+    }
+    
+    @Test
+    public void testRedact() {
+        final SlowQueryLog log = new SlowQueryLog();
+        final QueryMetricsImpl select = new QueryMetricsImpl(TABLE, Operation.SELECT, log);
+        log.enable(thresholds(0, 0), 0, 64, true);
+        
+        select.recordCompleted(1, 1, "SELECT", Arrays.asList("secret", 42), null);
+        assertTrue(log.format(log.poll()).endsWith("values: [<String>, <Integer>]"));
+        
+        select.recordCompleted(1, 1, "SELECT", Collections.nCopies(40, 1), null);
+        assertTrue(log.format(log.poll()).endsWith(", ... 8 more]"));
+    }
+    
+    @Test
+    public void testRedactAfterStop() {
+        final SlowQueryLog log = new SlowQueryLog();
+        final QueryMetricsImpl select = new QueryMetricsImpl(TABLE, Operation.SELECT, log);
+        log.enable(thresholds(0, 0), 0, 3, true);
+        
+        select.recordCompleted(1, 1, "SELECT", Arrays.asList("secret", 42), null);
+        select.recordCompleted(1, 1, "SELECT", Arrays.asList("secret", 42), null);
+        log.stop();
+        
+        // Queued entries are drained with the settings they were offered with
+        assertTrue(log.format(log.poll()).endsWith("values: [<String>, <Integer>]"));
+        
+        log.enable(thresholds(0, 0), 0, 3, false);
+        assertTrue(log.format(log.poll()).endsWith("values: [<String>, <Integer>]"));
+        
+        select.recordCompleted(1, 1, "SELECT", Arrays.asList("secret", 42), null);
+        assertTrue(log.format(log.poll()).endsWith("values: [sec..., 42]"));
+    }
+    
+    private static Map<Operation, Long> thresholds(long select, long insert) {
+        final Map<Operation, Long> thresholds = new EnumMap<>(Operation.class);
+        thresholds.put(Operation.SELECT, select);
+        thresholds.put(Operation.INSERT, insert);
+        return thresholds;
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.config.Index;
+import com.speedment.runtime.config.IndexColumn;
+import com.speedment.runtime.config.internal.IndexImpl;
+import com.speedment.runtime.core.internal.field.Entity;
+import com.speedment.runtime.core.internal.field.EntityImpl;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.internal.IntFieldImpl;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.typemapper.internal.IdentityTypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.core.internal.field.Entity.ID;
+import static com.speedment.runtime.core.internal.field.Entity.NAME;
+import static com.speedment.runtime.field.predicate.Inclusion.START_EXCLUSIVE_END_INCLUSIVE;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ColumnarSnapshotTest {
+    
+    private final static IntField<Entity, Integer> INT_ID = new IntFieldImpl<>(
+        Entity.Identifier.ID, Entity::getId, Entity::setId, new IdentityTypeMapper<>(), true
+    );
+
+    private List<Entity> entities;
+    private ColumnarSnapshot<Entity> snapshot;
+    private ColumnarSnapshot<Entity> intSnapshot;
+    private ColumnarSnapshot<Entity> indexedSnapshot;
+
+    @Before
+    public void setUp() {
+        final AtomicInteger id = new AtomicInteger();
+        entities = Stream.of(null, "a", "a", "b", null, "c", "ab", "abc", "b", "", "d", null, "bc")
+            .map(name -> (Entity) new EntityImpl(id.getAndIncrement(), name))
+            .collect(toList());
+        
+        snapshot    = new ColumnarSnapshot<>(entities, Stream.<Field<Entity>>of(ID, NAME));
+        intSnapshot = new ColumnarSnapshot<>(entities, Stream.<Field<Entity>>of(INT_ID));
+        
+        indexedSnapshot = new ColumnarSnapshot<>(
+            entities, 
+            Stream.<Field<Entity>>of(ID, NAME), 
+            Stream.of(index("id", true), index("name", false))
+        );
+    }
+
+    @Test
+    public void testStringPredicates() {
+        assertSame(NAME.equal("a"));
+        assertSame(NAME.equal("x"));
+        assertSame(NAME.notEqual("b"));
+        assertSame(NAME.greaterThan("ab"));
+        assertSame(NAME.greaterOrEqual("ab"));
+        assertSame(NAME.lessThan("b"));
+        assertSame(NAME.lessOrEqual("b"));
+        assertSame(NAME.greaterThan(null));
+        assertSame(NAME.between("a", "b"));
+        assertSame(NAME.between("aa", "bz", START_EXCLUSIVE_END_INCLUSIVE));
+        assertSame(NAME.notBetween("a", "b"));
+        assertSame(NAME.in("a", "c", "x"));
+        assertSame(NAME.notIn("a", "c"));
+        assertSame(NAME.isNull());
+        assertSame(NAME.isNotNull());
+        assertSame(NAME.isEmpty());
+        assertSame(NAME.startsWith("a"));
+        assertSame(NAME.equal("a").negate());
+    }
+
+    @Test
+    public void testReferencePredicates() {
+        assertSame(ID.equal(3));
+        assertSame(ID.notEqual(3));
+        assertSame(ID.greaterThan(5));
+        assertSame(ID.lessOrEqual(5));
+        assertSame(ID.between(2, 8));
+        assertSame(ID.notBetween(2, 8));
+        assertSame(ID.in(1, 3, 42));
+        assertSame(ID.notIn(1, 3));
+        assertSame(ID.greaterThan(5).negate());
+    }
+
+    @Test
+    public void testIntPredicates() {
+        assertSame(intSnapshot, INT_ID.equal(3));
+        assertSame(intSnapshot, INT_ID.notEqual(3));
+        assertSame(intSnapshot, INT_ID.greaterThan(5));
+        assertSame(intSnapshot, INT_ID.lessThan(5));
+        assertSame(intSnapshot, INT_ID.between(2, 8));
+        assertSame(intSnapshot, INT_ID.between(2, 8, START_EXCLUSIVE_END_INCLUSIVE));
+        assertSame(intSnapshot, INT_ID.notBetween(2, 8));
+        assertSame(intSnapshot, INT_ID.in(1, 3, 42));
+        assertSame(intSnapshot, INT_ID.notIn(1, 3));
+    }
+
+    @Test
+    public void testCombined() {
+        assertSame(NAME.isNotNull().and(ID.lessThan(8)));
+        assertSame(NAME.startsWith("a").and(ID.greaterThan(1)));
+        assertSame(NAME.equal("a").or(ID.equal(3)));
+        assertSame(NAME.isNotNull().negate());
+        
+        final List<Entity> expected = entities.stream()
+            .filter(NAME.isNotNull())
+            .filter(e -> e.getId() % 2 == 0)
+            .filter(ID.lessThan(10))
+            .collect(toList());
+        
+        final List<Entity> result = snapshot.stream()
+            .filter(NAME.isNotNull())
+            .filter(e -> e.getId() % 2 == 0)
+            .filter(ID.lessThan(10))
+            .collect(toList());
+        
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testCount() {
+        assertEquals(entities.size(), snapshot.stream().count());
+        assertEquals(
+            entities.stream().filter(NAME.in("a", "b")).count(), 
+            snapshot.stream().filter(NAME.in("a", "b")).count()
+        );
+        assertEquals(
+            entities.stream().filter(NAME.isNotNull()).map(Entity::getName).distinct().count(), 
+            snapshot.stream().filter(NAME.isNotNull()).map(Entity::getName).distinct().count()
+        );
+        assertEquals(
+            entities.stream().filter(INT_ID.greaterThan(3)).mapToInt(Entity::getId).count(), 
+            intSnapshot.stream().filter(INT_ID.greaterThan(3)).mapToInt(Entity::getId).count()
+        );
+    }
+    
+    @Test
+    public void testIndexSelection() {
+        assertTrue(select(indexedSnapshot, ID.equal(3)).isPresent());
+        assertTrue(select(indexedSnapshot, ID.between(2, 5)).isPresent());
+        assertTrue(select(indexedSnapshot, NAME.in("a", "b")).isPresent());
+        assertFalse(select(indexedSnapshot, NAME.startsWith("a")).isPresent());
+        assertFalse(select(indexedSnapshot, NAME.equal("a").negate()).isPresent());
+        assertFalse(select(snapshot, ID.equal(3)).isPresent());
+        
+        assertSame(indexedSnapshot, ID.equal(3));
+        assertSame(indexedSnapshot, ID.equal(42));
+        assertSame(indexedSnapshot, ID.in(1, 3, 42));
+        assertSame(indexedSnapshot, ID.greaterThan(5));
+        assertSame(indexedSnapshot, ID.lessOrEqual(5));
+        assertSame(indexedSnapshot, ID.between(2, 8, START_EXCLUSIVE_END_INCLUSIVE));
+        assertSame(indexedSnapshot, NAME.equal("a"));
+        assertSame(indexedSnapshot, NAME.greaterOrEqual("ab"));
+        assertSame(indexedSnapshot, NAME.between("a", "b"));
+        assertSame(indexedSnapshot, NAME.in("a", "c", "x"));
+        assertSame(indexedSnapshot, NAME.equal(null));
+        assertSame(indexedSnapshot, NAME.isNotNull().and(ID.lessThan(8)));
+        assertSame(indexedSnapshot, NAME.equal("b").and(ID.in(3, 5, 8)));
+    }
+
+    @Test
+    public void testIndexOrder() {
+        assertTrue(indexedSnapshot.order(ID.comparator()).isPresent());
+        assertFalse(indexedSnapshot.order(NAME.comparator()).isPresent());
+        
+        assertSameSorted(ID.comparator());
+        assertSameSorted(ID.comparator().reversed());
+        assertSameSorted(NAME.comparatorNullFieldsFirst());
+        
+        final List<Entity> expected = entities.stream()
+            .filter(NAME.greaterOrEqual("b"))
+            .sorted(ID.comparator().reversed())
+            .collect(toList());
+        
+        final List<Entity> result = indexedSnapshot.stream()
+            .filter(NAME.greaterOrEqual("b"))
+            .sorted(ID.comparator().reversed())
+            .collect(toList());
+        
+        assertEquals(expected, result);
+        assertEquals(expected.size(), indexedSnapshot.stream()
+            .filter(NAME.greaterOrEqual("b"))
+            .sorted(ID.comparator())
+            .count()
+        );
+    }
+    
+    private void assertSameSorted(Comparator<Entity> comparator) {
+        final List<Entity> expected = entities.stream()
+            .sorted(comparator)
+            .collect(toList());
+        
+        final List<Entity> result = indexedSnapshot.stream()
+            .sorted(comparator)
+            .collect(toList());
+        
+        assertEquals(expected, result);
+    }
+    
+    private static Optional<int[]> select(ColumnarSnapshot<Entity> snapshot, Predicate<Entity> predicate) {
+        return snapshot.select((FieldPredicate<Entity>) predicate);
+    }
+    
+    private static Index index(String columnName, boolean unique) {
+        final Map<String, Object> indexColumn = new HashMap<>();
+        indexColumn.put(IndexColumn.NAME, columnName);
+        indexColumn.put(IndexColumn.ORDINAL_POSITION, 1);
+        
+        final Map<String, Object> index = new HashMap<>();
+        index.put(Index.NAME, columnName + "_idx");
+        index.put(Index.UNIQUE, unique);
+        index.put(Index.INDEX_COLUMNS, new ArrayList<>(singletonList(indexColumn)));
+        
+        return new IndexImpl(null, index);
+    }
+    
+    private void assertSame(Predicate<Entity> predicate) {
+        assertSame(snapshot, predicate);
+    }
+
+    private void assertSame(ColumnarSnapshot<Entity> snapshot, Predicate<Entity> predicate) {
+        final List<Entity> expected = entities.stream()
+            .filter(predicate)
+            .collect(toList());
+        
+        final List<Entity> result = snapshot.stream()
+            .filter(predicate)
+            .collect(toList());
+        
+        assertEquals(predicate.toString(), expected, result);
+    }
+}
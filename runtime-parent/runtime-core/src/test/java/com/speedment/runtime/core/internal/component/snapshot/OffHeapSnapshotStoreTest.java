@@ -0,0 +1,173 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.core.internal.field.Entity;
+import com.speedment.runtime.core.internal.field.EntityImpl;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.internal.IntFieldImpl;
+import com.speedment.runtime.typemapper.internal.IdentityTypeMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.core.internal.field.Entity.ID;
+import static com.speedment.runtime.core.internal.field.Entity.NAME;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class OffHeapSnapshotStoreTest {
+    
+    private final static IntField<Entity, Integer> INT_ID = new IntFieldImpl<>(
+        Entity.Identifier.ID, Entity::getId, Entity::setId, new IdentityTypeMapper<>(), true
+    );
+
+    private List<Entity> entities;
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        final AtomicInteger id = new AtomicInteger();
+        entities = Stream.of(null, "a", "a", "b", null, "c", "ab", "åäö", "b", "", "d", null, "bc")
+            .map(name -> (Entity) new TestEntity(id.getAndIncrement(), name))
+            .collect(toList());
+        
+        directory = Files.createTempDirectory("snapshot");
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            for (final Path file : files.collect(toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testDirectBuffer() {
+        final OffHeapSnapshotStore<Entity> store = OffHeapSnapshotStore.create(
+            entities, Stream.<Field<Entity>>of(ID, NAME), null
+        ).get();
+        
+        assertEquals(entities.size(), store.size());
+        for (int i = 0; i < entities.size(); i++) {
+            assertEquals(entities.get(i).toString(), store.entity(i).toString());
+        }
+        
+        final ColumnarSnapshot<Entity> snapshot = store.toSnapshot(Stream.empty());
+        assertSame(snapshot, NAME.equal("a"));
+        assertSame(snapshot, NAME.isNull());
+        assertSame(snapshot, NAME.between("a", "c"));
+        assertSame(snapshot, NAME.in("b", "åäö"));
+        assertSame(snapshot, ID.greaterThan(5));
+        assertSame(snapshot, ID.notIn(1, 3));
+        assertSame(snapshot, NAME.isNotNull().and(ID.lessThan(8)));
+    }
+    
+    @Test
+    public void testPrimitiveField() {
+        final ColumnarSnapshot<Entity> snapshot = OffHeapSnapshotStore.create(
+            entities, Stream.<Field<Entity>>of(INT_ID, NAME), null
+        ).get().toSnapshot(Stream.empty());
+        
+        assertSame(snapshot, INT_ID.equal(3));
+        assertSame(snapshot, INT_ID.between(2, 8));
+        assertSame(snapshot, INT_ID.in(1, 3, 42));
+    }
+    
+    @Test
+    public void testMappedFile() {
+        final Path file = directory.resolve("db.schema.entity.snapshot");
+        assertFalse(OffHeapSnapshotStore.open(file, Entity.class, Stream.<Field<Entity>>of(ID, NAME)).isPresent());
+        
+        OffHeapSnapshotStore.create(entities, Stream.<Field<Entity>>of(ID, NAME), file);
+        assertTrue(Files.isRegularFile(file));
+        
+        final Optional<OffHeapSnapshotStore<Entity>> restored = 
+            OffHeapSnapshotStore.open(file, Entity.class, Stream.<Field<Entity>>of(ID, NAME));
+        
+        assertTrue(restored.isPresent());
+        assertEquals(entities.size(), restored.get().size());
+        assertSame(restored.get().toSnapshot(Stream.empty()), NAME.greaterOrEqual("b"));
+        
+        // A primitive field can not be read from a file written with a boxed one
+        assertFalse(OffHeapSnapshotStore.open(file, Entity.class, Stream.<Field<Entity>>of(INT_ID, NAME)).isPresent());
+        assertFalse(OffHeapSnapshotStore.open(file, Entity.class, Stream.<Field<Entity>>of(ID)).isPresent());
+    }
+    
+    @Test
+    public void testAllNullReferenceField() {
+        entities = entities.stream()
+            .map(e -> (Entity) new TestEntity(null, e.getName()))
+            .collect(toList());
+        
+        final Path file = directory.resolve("db.schema.entity.snapshot");
+        OffHeapSnapshotStore.create(entities, Stream.<Field<Entity>>of(ID, NAME), file).get();
+        final OffHeapSnapshotStore<Entity> store = 
+            OffHeapSnapshotStore.open(file, Entity.class, Stream.<Field<Entity>>of(ID, NAME)).get();
+        
+        final ColumnarSnapshot<Entity> snapshot = store.toSnapshot(Stream.empty());
+        assertSame(snapshot, ID.equal(3));
+        assertSame(snapshot, ID.greaterThan(3));
+        assertSame(snapshot, ID.in(1, 3));
+        assertSame(snapshot, ID.isNull());
+        assertSame(snapshot, ID.isNull().and(NAME.equal("a")));
+    }
+    
+    private void assertSame(ColumnarSnapshot<Entity> snapshot, Predicate<Entity> predicate) {
+        final List<String> expected = entities.stream()
+            .filter(predicate)
+            .map(Object::toString)
+            .collect(toList());
+        
+        final List<String> result = snapshot.stream()
+            .filter(predicate)
+            .map(Object::toString)
+            .collect(toList());
+        
+        assertEquals(predicate.toString(), expected, result);
+    }
+    
+    private static final class TestEntity extends EntityImpl {
+        
+        private TestEntity() {
+            super(null, null);
+        }
+
+        private TestEntity(Integer id, String name) {
+            super(id, name);
+        }
+    }
+}
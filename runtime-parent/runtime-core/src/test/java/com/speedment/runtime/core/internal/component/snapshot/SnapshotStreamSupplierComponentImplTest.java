@@ -0,0 +1,249 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.snapshot;
+
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.config.internal.ProjectImpl;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.core.component.ManagerComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
+import com.speedment.runtime.core.component.sql.SqlStreamSupplierComponent;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SnapshotStreamSupplierComponentImplTest {
+
+    private static final TableIdentifier<int[]> TABLE = TableIdentifier.of("db", "schema", "t");
+
+    private static final IntField<int[], Integer> 
+        ID      = IntField.create(Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true),
+        VERSION = IntField.create(Identifier.VERSION, e -> e[1], (e, v) -> { e[1] = v; return e; }, TypeMapper.primitive(), false),
+        VALUE   = IntField.create(Identifier.VALUE, e -> e[2], (e, v) -> { e[2] = v; return e; }, TypeMapper.primitive(), false);
+
+    private List<int[]> table;
+    private AtomicInteger loads;
+    private SnapshotStreamSupplierComponentImpl instance;
+
+    @Before
+    public void setUp() throws Exception {
+        table = new ArrayList<>();
+        for (int id = 0; id < 10; id++) {
+            table.add(new int[] {id, 1, id * 10});
+        }
+        loads = new AtomicInteger();
+
+        instance = new SnapshotStreamSupplierComponentImpl();
+        set("tables", "");
+        set("directory", "");
+        set("watermarkColumns", "t.version");
+        set("sqlStreamSupplierComponent", proxy(SqlStreamSupplierComponent.class, (method, args) -> {
+            if ("stream".equals(method)) {
+                loads.incrementAndGet();
+                return new ArrayList<>(table).stream();
+            }
+            throw new UnsupportedOperationException(method);
+        }));
+        
+        final Manager<int[]> manager = proxy(Manager.class, (method, args) -> {
+            switch (method) {
+                case "getTableIdentifier" : return TABLE;
+                case "fields"             : return Stream.<Field<int[]>>of(ID, VERSION, VALUE);
+                case "primaryKeyFields"   : return Stream.<Field<int[]>>of(ID);
+                default : throw new UnsupportedOperationException(method);
+            }
+        });
+        set("managerComponent", proxy(ManagerComponent.class, (method, args) -> {
+            if ("stream".equals(method)) {
+                return Stream.of(manager);
+            }
+            throw new UnsupportedOperationException(method);
+        }));
+        
+        final Map<String, Object> data = new HashMap<>();
+        data.put(HasName.NAME, "Project");
+        final Project project = new ProjectImpl(data);
+        set("projectComponent", proxy(ProjectComponent.class, (method, args) -> {
+            if ("getProject".equals(method)) {
+                return project;
+            }
+            throw new UnsupportedOperationException(method);
+        }));
+    }
+
+    @Test
+    public void testRefreshPicksUpInserts() {
+        assertEquals(10, snapshot().size());
+        
+        table.add(new int[] {10, 2, 100});
+        table.add(new int[] {11, 2, 110});
+        instance.refresh(TABLE);
+        
+        final List<int[]> rows = snapshot();
+        assertEquals(12, rows.size());
+        assertEquals(110, rows.get(11)[2]);
+    }
+
+    @Test
+    public void testRefreshPicksUpUpdates() {
+        assertEquals(10, snapshot().size());
+        
+        table.set(3, new int[] {3, 2, -30});
+        instance.refresh(TABLE);
+        
+        final List<int[]> rows = snapshot();
+        assertEquals(10, rows.size());
+        assertEquals("Updated rows keep their position", 3, rows.get(3)[0]);
+        assertEquals(-30, rows.get(3)[2]);
+        
+        // Rows with the highest watermark are fetched again
+        table.set(3, new int[] {3, 2, -31});
+        table.add(new int[] {10, 2, 100});
+        instance.refresh(TABLE);
+        
+        final List<int[]> again = snapshot();
+        assertEquals(11, again.size());
+        assertEquals(-31, again.get(3)[2]);
+        assertEquals(10, again.get(10)[0]);
+    }
+
+    @Test
+    public void testRefreshPicksUpDeletes() {
+        assertEquals(10, snapshot().size());
+        
+        table.remove(5);
+        table.set(0, new int[] {0, 2, -1});
+        instance.refresh(TABLE);
+        
+        final List<int[]> rows = snapshot();
+        assertEquals(9, rows.size());
+        assertEquals(-1, rows.get(0)[2]);
+        assertEquals(0, rows.stream().filter(e -> e[0] == 5).count());
+    }
+
+    @Test
+    public void testRefreshWithoutChanges() {
+        assertEquals(10, snapshot().size());
+        final int before = loads.get();
+        
+        instance.refresh(TABLE);
+        
+        assertEquals("Only the changed rows and the count are queried", before + 2, loads.get());
+        assertEquals(10, snapshot().size());
+    }
+
+    @Test
+    public void testRefreshOfUnchangedRowsKeepsSnapshot() throws ReflectiveOperationException {
+        assertEquals(10, snapshot().size());
+        final Object before = snapshots().get(TABLE);
+        
+        // All rows have the highest watermark, so all of them are fetched
+        instance.refresh(TABLE);
+        assertSame("The snapshot was rebuilt", before, snapshots().get(TABLE));
+        
+        table.set(4, new int[] {4, 1, -40});
+        instance.refresh(TABLE);
+        assertNotSame(before, snapshots().get(TABLE));
+        assertEquals(-40, snapshot().get(4)[2]);
+    }
+
+    private List<int[]> snapshot() {
+        return instance.stream(TABLE, ParallelStrategy.computeIntensityDefault())
+            .sorted(comparingInt((int[] e) -> e[0]))
+            .collect(toList());
+    }
+
+    private Map<?, ?> snapshots() throws ReflectiveOperationException {
+        final java.lang.reflect.Field field = SnapshotStreamSupplierComponentImpl.class.getDeclaredField("snapshots");
+        field.setAccessible(true);
+        return (Map<?, ?>) field.get(instance);
+    }
+
+    private void set(String name, Object value) throws ReflectiveOperationException {
+        final java.lang.reflect.Field field = SnapshotStreamSupplierComponentImpl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(
+            type.getClassLoader(), 
+            new Class<?>[] {type}, 
+            (proxy, method, args) -> handler.invoke(method.getName(), args)
+        );
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID("id"), VERSION("version"), VALUE("value");
+
+        private final String columnName;
+
+        Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
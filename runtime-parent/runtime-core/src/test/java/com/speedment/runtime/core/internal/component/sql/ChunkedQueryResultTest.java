@@ -0,0 +1,175 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ChunkedQueryResultTest {
+    
+    private static final String SELECT = "SELECT `id` FROM `t`";
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private final List<Integer> ids = IntStream.range(0, 95).map(i -> i * 3).boxed().collect(toList());
+    private final List<String> queries = new ArrayList<>();
+    private final List<List<?>> queryValues = new ArrayList<>();
+    
+    private final DbmsOperationHandler handler = (DbmsOperationHandler) Proxy.newProxyInstance(
+        DbmsOperationHandler.class.getClassLoader(), 
+        new Class<?>[] {DbmsOperationHandler.class}, 
+        (proxy, method, args) -> {
+            if (!"executeQuery".equals(method.getName())) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            
+            final String sql = (String) args[1];
+            final List<?> values = (List<?>) args[2];
+            queries.add(sql);
+            queryValues.add(values);
+            
+            final int limit = Integer.parseInt(sql.substring(sql.lastIndexOf(' ') + 1));
+            final int after = sql.contains("(`id` > ?) ORDER BY") 
+                ? (Integer) values.get(values.size() - 1) 
+                : Integer.MIN_VALUE;
+            
+            return ids.stream()
+                .filter(id -> id > after)
+                .limit(limit)
+                .map(id -> new int[] {id});
+        }
+    );
+    
+    private final DbmsType dbmsType = (DbmsType) Proxy.newProxyInstance(
+        DbmsType.class.getClassLoader(), 
+        new Class<?>[] {DbmsType.class}, 
+        (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getOperationHandler" : return handler;
+                case "applyLimit"          : return args[0] + " LIMIT " + args[1];
+                default : throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    );
+    
+    private final Dbms dbms = (Dbms) Proxy.newProxyInstance(
+        Dbms.class.getClassLoader(), 
+        new Class<?>[] {Dbms.class}, 
+        (proxy, method, args) -> {
+            throw new UnsupportedOperationException(method.getName());
+        }
+    );
+    
+    private ChunkedQueryResult<int[]> result(int chunkSize) {
+        return new ChunkedQueryResult<>(
+            dbms, dbmsType, SELECT, 
+            singletonList((Field<int[]>) ID), singletonList("`id`"), 
+            chunkSize, ParallelStrategy.computeIntensityDefault(), 
+            rs -> { throw new UnsupportedOperationException(); }
+        );
+    }
+
+    @Test
+    public void testAllRowsInChunks() {
+        final List<Integer> read = result(10).stream().map(e -> e[0]).collect(toList());
+        assertEquals(ids, read);
+        assertEquals(10, queries.size());
+        assertEquals(SELECT + " ORDER BY `id` LIMIT 10", queries.get(0));
+        assertEquals(SELECT + " WHERE (`id` > ?) ORDER BY `id` LIMIT 10", queries.get(1));
+        assertEquals(singletonList(27), queryValues.get(1));
+    }
+    
+    @Test
+    public void testExactMultiple() {
+        assertEquals(95, result(19).stream().count());
+        assertEquals(6, queries.size()); // The last one is empty
+    }
+    
+    @Test
+    public void testCondition() {
+        final ChunkedQueryResult<int[]> result = result(50);
+        result.setSql(SELECT + " WHERE `id` < ? OR `id` > ?");
+        result.setValues(Arrays.asList(10, 20));
+        
+        result.stream().count();
+        assertEquals(
+            SELECT + " WHERE (`id` < ? OR `id` > ?) AND (`id` > ?) ORDER BY `id` LIMIT 50", 
+            queries.get(1)
+        );
+        assertEquals(Arrays.asList(10, 20, 147), queryValues.get(1));
+    }
+    
+    @Test
+    public void testClose() {
+        final ChunkedQueryResult<int[]> result = result(10);
+        final long count = result.stream().peek(e -> {
+            if (e[0] == 3 * 14) {
+                result.close();
+            }
+        }).count();
+        
+        assertEquals(20, count);
+        assertEquals(2, queries.size());
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID;
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return "id";
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsOperationHandler;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.stream.parallel.PartitionedParallelStrategy;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class PartitionedQueryResultTest {
+    
+    private static final String SELECT = "SELECT `k`,`v` FROM `t`";
+    private static final long NULL_ROW = 100; // Rows read by the IS NULL query
+    
+    private final List<String> executedSql = new ArrayList<>();
+    private final List<List<?>> executedValues = new ArrayList<>();
+
+    @Test
+    public void testRanges() {
+        assertRanges(PartitionedQueryResult.ranges(0, 99, 4), 
+            0, 25, 
+            25, 50, 
+            50, 75, 
+            75, 99
+        );
+    }
+
+    @Test
+    public void testNegativeKeys() {
+        assertRanges(PartitionedQueryResult.ranges(-10, 9, 4), 
+            -10, -5, 
+            -5, 0, 
+            0, 5, 
+            5, 9
+        );
+    }
+
+    @Test
+    public void testMorePartitionsThanKeys() {
+        assertRanges(PartitionedQueryResult.ranges(5, 7, 10), 
+            5, 6, 
+            6, 7, 
+            7, 7
+        );
+    }
+
+    @Test
+    public void testSingleKey() {
+        assertRanges(PartitionedQueryResult.ranges(3, 3, 4), 3, 3);
+    }
+
+    @Test
+    public void testSmallestAndLargestKeys() {
+        assertRanges(PartitionedQueryResult.ranges(Long.MIN_VALUE, Long.MAX_VALUE, 1), 
+            Long.MIN_VALUE, Long.MAX_VALUE
+        );
+        
+        assertRanges(PartitionedQueryResult.ranges(Long.MIN_VALUE, Long.MAX_VALUE, 4), 
+            Long.MIN_VALUE, Long.MIN_VALUE / 2, 
+            Long.MIN_VALUE / 2, 0, 
+            0, Long.MAX_VALUE / 2 + 1, 
+            Long.MAX_VALUE / 2 + 1, Long.MAX_VALUE
+        );
+        
+        assertRanges(PartitionedQueryResult.ranges(Long.MAX_VALUE - 2, Long.MAX_VALUE, 2), 
+            Long.MAX_VALUE - 2, Long.MAX_VALUE, 
+            Long.MAX_VALUE, Long.MAX_VALUE
+        );
+        
+        assertRanges(PartitionedQueryResult.ranges(Long.MIN_VALUE, Long.MIN_VALUE + 2, 4), 
+            Long.MIN_VALUE, Long.MIN_VALUE + 1, 
+            Long.MIN_VALUE + 1, Long.MIN_VALUE + 2, 
+            Long.MIN_VALUE + 2, Long.MIN_VALUE + 2
+        );
+    }
+
+    @Test
+    public void testRangesCoverAllKeys() {
+        final long[] keys = {Long.MIN_VALUE, -1_000_000, -7, 0, 1, 13, 1_000_000, Long.MAX_VALUE};
+        for (final long min : keys) {
+            for (final long max : keys) {
+                if (min <= max) {
+                    for (int partitions = 1; partitions <= 9; partitions++) {
+                        final List<long[]> ranges = PartitionedQueryResult.ranges(min, max, partitions);
+                        final String message = min + ".." + max + " in " + partitions + " partitions";
+                        
+                        assertTrue(message, ranges.size() <= partitions);
+                        assertEquals(message, min, ranges.get(0)[0]);
+                        assertEquals(message, max, ranges.get(ranges.size() - 1)[1]);
+                        for (int i = 1; i < ranges.size(); i++) {
+                            assertEquals(message, ranges.get(i - 1)[1], ranges.get(i)[0]);
+                            assertTrue(message, ranges.get(i - 1)[0] < ranges.get(i - 1)[1]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinLargerThanMax() {
+        PartitionedQueryResult.ranges(1, 0, 4);
+    }
+
+    @Test
+    public void testStream() {
+        final PartitionedParallelStrategy strategy = new PartitionedParallelStrategy(3, "k");
+        final PartitionedQueryResult<Long> result = new PartitionedQueryResult<>(
+            proxy(Dbms.class), 
+            dbmsType(-4, 4), 
+            SELECT, 
+            "`t`", 
+            "`k`", 
+            false, 
+            strategy.getPartitions(), 
+            strategy, 
+            rs -> rs.getLong(1)
+        );
+        
+        final List<Long> keys;
+        try (Stream<Long> stream = result.stream()) {
+            keys = stream.collect(toList());
+        }
+        
+        assertEquals(LongStream.rangeClosed(-4, 4).boxed().collect(toList()), keys);
+        assertEquals(Arrays.asList(
+            SELECT + " WHERE (`k` >= ? AND `k` < ?)",
+            SELECT + " WHERE (`k` >= ? AND `k` < ?)",
+            SELECT + " WHERE (`k` >= ? AND `k` <= ?)"
+        ), executedSql);
+        assertEquals(Arrays.asList(
+            Arrays.asList(-4L, -1L), 
+            Arrays.asList(-1L, 2L), 
+            Arrays.asList(2L, 4L)
+        ), executedValues);
+    }
+
+    @Test
+    public void testStreamWithoutRows() {
+        final PartitionedQueryResult<Long> result = new PartitionedQueryResult<>(
+            proxy(Dbms.class), 
+            dbmsType(), 
+            SELECT, 
+            "`t`", 
+            "`k`", 
+            false, 
+            4, 
+            new PartitionedParallelStrategy(4, null), 
+            rs -> rs.getLong(1)
+        );
+        
+        assertEquals(0, result.stream().count());
+        assertEquals(Collections.emptyList(), executedSql);
+    }
+    
+    @Test
+    public void testStreamWithNullableColumn() {
+        final PartitionedQueryResult<Long> result = new PartitionedQueryResult<>(
+            proxy(Dbms.class), 
+            dbmsType(1, 4), 
+            SELECT, 
+            "`t`", 
+            "`k`", 
+            true, 
+            2, 
+            new PartitionedParallelStrategy(2, null), 
+            rs -> rs.getLong(1)
+        );
+        
+        final List<Long> keys;
+        try (Stream<Long> stream = result.stream()) {
+            keys = stream.collect(toList());
+        }
+        
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, NULL_ROW, NULL_ROW + 1), keys);
+        assertEquals(Arrays.asList(
+            SELECT + " WHERE (`k` >= ? AND `k` < ?)",
+            SELECT + " WHERE (`k` >= ? AND `k` <= ?)",
+            SELECT + " WHERE `k` IS NULL"
+        ), executedSql);
+        assertEquals(Arrays.asList(
+            Arrays.asList(1L, 3L), 
+            Arrays.asList(3L, 4L),
+            Collections.emptyList()
+        ), executedValues);
+    }
+
+    @Test
+    public void testStreamWithOnlyNullKeys() {
+        final PartitionedQueryResult<Long> result = new PartitionedQueryResult<>(
+            proxy(Dbms.class), 
+            dbmsType(), 
+            SELECT, 
+            "`t`", 
+            "`k`", 
+            true, 
+            4, 
+            new PartitionedParallelStrategy(4, null), 
+            rs -> rs.getLong(1)
+        );
+        
+        assertEquals(2, result.stream().count());
+        assertEquals(Collections.singletonList(SELECT + " WHERE `k` IS NULL"), executedSql);
+    }
+    
+    private static void assertRanges(List<long[]> ranges, long... bounds) {
+        assertEquals(bounds.length / 2, ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            assertArrayEquals(
+                new long[] {bounds[2 * i], bounds[2 * i + 1]}, 
+                ranges.get(i)
+            );
+        }
+    }
+    
+    private DbmsType dbmsType(long... minMax) {
+        final DbmsOperationHandler handler = proxy(DbmsOperationHandler.class, (method, args) -> {
+            switch (method) {
+                case "executeQuery" : {
+                    return minMax.length == 0 ? Stream.empty() : Stream.of(minMax);
+                }
+                case "executeQueryAsync" : {
+                    final List<?> values = (List<?>) args[2];
+                    executedSql.add((String) args[1]);
+                    executedValues.add(values);
+                    return values.isEmpty()
+                        ? queryResult(NULL_ROW, NULL_ROW + 2, executedSql.size())
+                        : queryResult((Long) values.get(0), (Long) values.get(1), executedSql.size());
+                }
+                default : throw new UnsupportedOperationException(method);
+            }
+        });
+        
+        return proxy(DbmsType.class, (method, args) -> {
+            if ("getOperationHandler".equals(method)) {
+                return handler;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+    
+    private AsynchronousQueryResult<Long> queryResult(long from, long to, int index) {
+        return proxy(AsynchronousQueryResult.class, (method, args) -> {
+            switch (method) {
+                case "stream" : {
+                    // Only the sql of the last range includes the upper bound
+                    final boolean last = executedSql.get(index - 1).endsWith("<= ?)");
+                    return (last ? LongStream.rangeClosed(from, to) : LongStream.range(from, to)).boxed();
+                }
+                case "setQueryTimeout" : return null;
+                case "setRowListener"  : return null;
+                case "close"           : return null;
+                default : throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+    
+    private static <T> T proxy(Class<?> type) {
+        return proxy(type, (method, args) -> {
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(
+            type.getClassLoader(), 
+            new Class<?>[] {type}, 
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "equals"   : return proxy == args[0];
+                    case "hashCode" : return System.identityHashCode(proxy);
+                    default : return handler.invoke(method.getName(), args);
+                }
+            }
+        );
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+}
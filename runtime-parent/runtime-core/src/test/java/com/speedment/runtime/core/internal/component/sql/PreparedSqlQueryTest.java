@@ -0,0 +1,219 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.internal.manager.sql.MySqlSpeedmentPredicateView;
+import com.speedment.runtime.core.internal.manager.sql.SqlStreamTerminator;
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class PreparedSqlQueryTest {
+    
+    private static final String SELECT = "SELECT `id`,`age` FROM `t`";
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private static final IntField<int[], Integer> AGE = IntField.create(
+        Identifier.AGE, e -> e[1], (e, v) -> { e[1] = v; return e; }, TypeMapper.primitive(), false
+    );
+    
+    private final List<String> queries = new ArrayList<>();
+    private final List<List<Object>> queryValues = new ArrayList<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    @Test
+    public void testRender() {
+        final PreparedSqlQuery<int[]> query = prepare(s -> s
+            .filter(ID.greaterThan(0))
+            .filter(AGE.between(0, 0).and(ID.notEqual(0)))
+            .sorted(ID.comparator())
+        );
+        
+        assertEquals(4, query.getParameterCount());
+        assertEquals(
+            SELECT + " WHERE (`id` > ?) AND (`age` >= ? AND `age` < ?) AND (NOT (`id` = ?))", 
+            query.getSql()
+        );
+        assertTrue("No query before execution", queries.isEmpty());
+    }
+    
+    @Test
+    public void testExecute() {
+        final PreparedSqlQuery<int[]> query = prepare(s -> s
+            .filter(ID.greaterThan(100))
+            .sorted(AGE.comparator().reversed())
+            .limit(2)
+        );
+        
+        for (int i = 0; i < 3; i++) {
+            final List<Integer> result = query.stream(i).map(e -> e[0]).collect(toList());
+            
+            // The sample value 100 must not be applied to the rows in Java
+            assertEquals(Arrays.asList(0, 1), result);
+            assertEquals(Arrays.<Object>asList(i), queryValues.get(i));
+            assertTrue(closed.getAndSet(false));
+        }
+        
+        assertEquals("Same SQL every time", 1, queries.stream().distinct().count());
+    }
+    
+    @Test
+    public void testJavaFilterStopsRendering() {
+        final PreparedSqlQuery<int[]> query = prepare(s -> s
+            .filter(e -> e[0] % 2 == 0)
+            .filter(ID.lessThan(4))
+        );
+        
+        assertEquals(0, query.getParameterCount());
+        assertEquals(SELECT, query.getSql());
+        assertEquals(Arrays.asList(0, 2), 
+            query.stream().map(e -> e[0]).collect(toList())
+        );
+    }
+    
+    @Test
+    public void testCountIsNotPushedDown() {
+        @SuppressWarnings("unchecked")
+        final AsynchronousQueryResult<int[]> result = unsupported(AsynchronousQueryResult.class);
+        final SqlStreamTerminator<int[]> terminator = new SqlStreamTerminator<>(
+            unsupported(DbmsType.class),
+            SELECT,
+            "SELECT COUNT(*) FROM `t`",
+            (sql, values) -> { throw new AssertionError("Count was rendered into " + sql); },
+            f -> "`" + f.identifier().getColumnName() + "`",
+            result,
+            true,
+            null,
+            false
+        );
+        
+        final PreparedSqlQuery<int[]> query = new PreparedSqlQuery<>(
+            s -> s.filter(ID.lessThan(0)), 
+            SELECT, 
+            new MySqlSpeedmentPredicateView(), 
+            f -> "`" + f.identifier().getColumnName() + "`",
+            (sql, values) -> query(sql, values, terminator)
+        );
+        
+        // The SQL is left as prepared and the rows are counted as they are read
+        assertEquals(10, query.stream(3).count());
+        assertEquals(Arrays.<Object>asList(3), queryValues.get(0));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongParameterCount() {
+        prepare(s -> s.filter(ID.equal(1))).stream(1, 2);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignStream() {
+        prepare(s -> Stream.of(new int[] {1, 2}));
+    }
+    
+    private PreparedSqlQuery<int[]> prepare(UnaryOperator<Stream<int[]>> template) {
+        return new PreparedSqlQuery<>(
+            template, 
+            SELECT, 
+            new MySqlSpeedmentPredicateView(), 
+            f -> "`" + f.identifier().getColumnName() + "`",
+            this::query
+        );
+    }
+    
+    private Stream<int[]> query(String sql, List<Object> values) {
+        return query(sql, values, new StreamTerminator() {});
+    }
+    
+    private Stream<int[]> query(String sql, List<Object> values, StreamTerminator terminator) {
+        queries.add(sql);
+        queryValues.add(values);
+        
+        final Stream<int[]> result = new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(() -> IntStream.range(0, 10).mapToObj(i -> new int[] {i, 100 - i})), 
+            terminator
+        );
+        
+        result.onClose(() -> closed.set(true));
+        return result;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T unsupported(Class<T> type) {
+        return (T) Proxy.newProxyInstance(
+            type.getClassLoader(), 
+            new Class<?>[] {type}, 
+            (proxy, method, args) -> {
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID ("id"), AGE ("age");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
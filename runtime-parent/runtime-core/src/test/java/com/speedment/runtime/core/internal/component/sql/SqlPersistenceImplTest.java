@@ -0,0 +1,100 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.component.sql;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.field.BooleanField;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import com.speedment.runtime.typemapper.integer.IntegerZeroOneToBooleanMapper;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.speedment.runtime.core.internal.util.AllocationMeter.assertAllocationBudget;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SqlPersistenceImplTest {
+    
+    @Test
+    public void testDatabaseValues() {
+        final Object[] entity = {7, true};
+        assertEquals(
+            Arrays.<Object>asList(7, 1), 
+            SqlPersistenceImpl.databaseValues(fields(), entity)
+        );
+    }
+
+    @Test
+    public void testDatabaseValuesAllocation() {
+        final Object[] entity = {7, true};
+        final List<Field<Object[]>> fields = fields();
+        
+        // Only the list and its array, since the values are cached by Integer
+        assertAllocationBudget("databaseValues", 48, 
+            () -> SqlPersistenceImpl.databaseValues(fields, entity)
+        );
+    }
+
+    private static List<Field<Object[]>> fields() {
+        final IntField<Object[], Integer> id = IntField.create(
+            Identifier.ID, e -> (Integer) e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+        );
+        
+        final BooleanField<Object[], Integer> active = BooleanField.create(
+            Identifier.ACTIVE, e -> (Boolean) e[1], (e, v) -> { e[1] = v; return e; }, new IntegerZeroOneToBooleanMapper(), false
+        );
+        
+        return Arrays.asList(id, active);
+    }
+    
+    private enum Identifier implements ColumnIdentifier<Object[]> {
+        ID ("id"), ACTIVE ("active");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
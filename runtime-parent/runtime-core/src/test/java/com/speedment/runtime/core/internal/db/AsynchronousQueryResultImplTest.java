@@ -0,0 +1,195 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AsynchronousQueryResultImplTest {
+    
+    private static final int ROWS = 100;
+    
+    @Test
+    public void testQueryTimeout() {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final AsynchronousQueryResultImpl<Integer> result = result(calls, 0);
+        result.setQueryTimeout(7);
+        
+        try (final Stream<Integer> stream = result.stream()) {
+            assertEquals(ROWS, stream.count());
+        }
+        result.close();
+        
+        assertTrue(calls.contains("setQueryTimeout(7)"));
+        assertFalse(calls.contains("cancel"));
+    }
+    
+    @Test
+    public void testNoQueryTimeout() {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final AsynchronousQueryResultImpl<Integer> result = result(calls, 0);
+        
+        result.stream().collect(toList());
+        result.close();
+        
+        assertFalse(calls.stream().anyMatch(c -> c.startsWith("setQueryTimeout")));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeQueryTimeout() {
+        result(new CopyOnWriteArrayList<>(), 0).setQueryTimeout(-1);
+    }
+    
+    @Test
+    public void testCancelWhenClosedEarly() {
+        for (final int prefetchSize : new int[] {0, 8}) {
+            final List<String> calls = new CopyOnWriteArrayList<>();
+            final AsynchronousQueryResultImpl<Integer> result = result(calls, prefetchSize);
+            
+            assertEquals(1, (int) result.stream().findFirst().get());
+            result.close();
+            
+            assertTrue(calls.contains("cancel"));
+            assertTrue(
+                "The statement should be cancelled before the result set is closed", 
+                calls.indexOf("cancel") < calls.indexOf("ResultSet.close")
+            );
+        }
+    }
+    
+    @Test
+    public void testNoCancelWhenExhausted() {
+        for (final int prefetchSize : new int[] {0, 8}) {
+            final List<String> calls = new CopyOnWriteArrayList<>();
+            final AsynchronousQueryResultImpl<Integer> result = result(calls, prefetchSize);
+            
+            assertEquals(ROWS, result.stream().collect(toList()).size());
+            result.close();
+            
+            assertFalse(calls.contains("cancel"));
+        }
+    }
+    
+    @Test
+    public void testCancelWhenInterrupted() {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final AsynchronousQueryResultImpl<Integer> result = result(calls, 0);
+        final AtomicInteger consumed = new AtomicInteger();
+        
+        try {
+            result.stream().forEach(i -> {
+                if (consumed.incrementAndGet() == 10) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            fail("Expected an exception");
+        } catch (final SpeedmentException ex) {
+            assertTrue(Thread.interrupted()); // Clears the flag
+        } finally {
+            result.close();
+        }
+        
+        assertEquals(10, consumed.get());
+        assertEquals(1, calls.stream().filter("cancel"::equals).count());
+    }
+    
+    @Test
+    public void testRowListener() {
+        for (final int prefetchSize : new int[] {0, 8}) {
+            final AsynchronousQueryResultImpl<Integer> result = 
+                result(new CopyOnWriteArrayList<>(), prefetchSize);
+            
+            final AtomicInteger handed = new AtomicInteger();
+            result.setRowListener(handed::incrementAndGet);
+            
+            // Rows that are prefetched but never consumed are not reported
+            assertEquals(5, result.stream().limit(5).count());
+            result.close();
+            
+            assertEquals(5, handed.get());
+        }
+    }
+    
+    private static AsynchronousQueryResultImpl<Integer> result(List<String> calls, int prefetchSize) {
+        final Connection connection = connection(calls);
+        return new AsynchronousQueryResultImpl<>(
+            "SELECT `id` FROM `user`", 
+            Collections.emptyList(), 
+            rs -> rs.getInt(1), 
+            () -> connection, 
+            ParallelStrategy.computeIntensityDefault(),
+            prefetchSize
+        );
+    }
+    
+    private static Connection connection(List<String> calls) {
+        final PreparedStatement ps = preparedStatement(calls);
+        return proxy(Connection.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement" : return ps;
+                default : return null;
+            }
+        });
+    }
+    
+    private static PreparedStatement preparedStatement(List<String> calls) {
+        final ResultSet rs = resultSet(calls);
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setQueryTimeout" : calls.add("setQueryTimeout(" + args[0] + ")"); return null;
+                case "cancel"          : calls.add("cancel"); return null;
+                case "executeQuery"    : return rs;
+                default : return null;
+            }
+        });
+    }
+    
+    private static ResultSet resultSet(List<String> calls) {
+        final AtomicInteger row = new AtomicInteger();
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next"   : return row.incrementAndGet() <= ROWS;
+                case "getInt" : return row.get();
+                case "close"  : calls.add("ResultSet.close"); return null;
+                default : return null;
+            }
+        });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, java.lang.reflect.InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.db;
+
+import com.speedment.runtime.core.exception.SpeedmentException;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class PrefetchingIteratorTest {
+    
+    private static final int ROWS = 10_000;
+
+    @Test
+    public void testAllRowsInOrder() {
+        try (final PrefetchingIterator<Integer> it = 
+                new PrefetchingIterator<>(resultSet(ROWS, -1, new AtomicInteger()), rs -> rs.getInt(1), 16)) {
+            
+            final List<Integer> result = new ArrayList<>();
+            it.forEachRemaining(result::add);
+            assertEquals(ROWS, result.size());
+            for (int i = 0; i < ROWS; i++) {
+                assertEquals(i + 1, (int) result.get(i));
+            }
+            assertFalse(it.hasNext());
+        }
+    }
+    
+    @Test
+    public void testExceptionIsPropagated() {
+        final List<Integer> result = new ArrayList<>();
+        try (final PrefetchingIterator<Integer> it = 
+                new PrefetchingIterator<>(resultSet(ROWS, 100, new AtomicInteger()), rs -> rs.getInt(1), 8)) {
+            
+            it.forEachRemaining(result::add);
+            fail("Expected an exception");
+        } catch (final SpeedmentException ex) {
+            assertTrue(ex.getCause() instanceof SQLException);
+        }
+        assertEquals(99, result.size());
+    }
+    
+    @Test
+    public void testCloseStopsProducer() throws InterruptedException {
+        final AtomicInteger reads = new AtomicInteger();
+        final PrefetchingIterator<Integer> it = 
+            new PrefetchingIterator<>(resultSet(Integer.MAX_VALUE, -1, reads), rs -> rs.getInt(1), 4);
+        
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + 1, (int) it.next());
+        }
+        it.close();
+        
+        final int readsAfterClose = reads.get();
+        Thread.sleep(20);
+        assertEquals(readsAfterClose, reads.get());
+        assertTrue("Producer should not read far ahead", readsAfterClose <= 10 + 4 + 1);
+    }
+    
+    @Test
+    public void testProducerThreadsAreReused() {
+        final Set<Thread> producers = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            try (final PrefetchingIterator<Thread> it = new PrefetchingIterator<>(
+                    resultSet(1, -1, new AtomicInteger()), rs -> Thread.currentThread(), 4)) {
+                
+                final Thread producer = it.next();
+                assertTrue(producer.isDaemon());
+                assertFalse(it.hasNext());
+                producers.add(producer);
+            }
+        }
+        
+        // A thread that has just finished might not yet be available to the
+        // next query, so only require that some of the threads were reused
+        assertTrue("Expected reused threads, got " + producers, producers.size() < 10);
+    }
+    
+    @Test
+    public void testConsumerBlocksWithoutTimeout() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final PrefetchingIterator<Integer> it = 
+                new PrefetchingIterator<>(blockingResultSet(new CountDownLatch(1), release, new AtomicBoolean()), rs -> 1, 4)) {
+            
+            final Thread consumer = new Thread(it::hasNext);
+            consumer.start();
+            
+            // A consumer that polls would be TIMED_WAITING between polls
+            final long deadline = System.currentTimeMillis() + 5_000;
+            while (consumer.getState() != Thread.State.WAITING) {
+                assertTrue("Consumer is " + consumer.getState(), System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+            
+            release.countDown();
+            consumer.join();
+        }
+    }
+    
+    @Test
+    public void testCloseCancelsBlockedRead() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final CountDownLatch reading = new CountDownLatch(1);
+        final PrefetchingIterator<Integer> it = 
+            new PrefetchingIterator<>(blockingResultSet(reading, release, cancelled), rs -> 1, 4);
+        
+        reading.await();
+        it.close();
+        assertTrue("The statement should be cancelled", cancelled.get());
+    }
+    
+    @Test
+    public void testCapacity() {
+        assertEquals(1, PrefetchingIterator.capacityFor(1));
+        assertEquals(3, PrefetchingIterator.capacityFor(3));
+        assertEquals(16, PrefetchingIterator.capacityFor(16));
+        assertEquals((1 << 20) - 1, PrefetchingIterator.capacityFor((1 << 20) - 1));
+        assertEquals(1 << 20, PrefetchingIterator.capacityFor(1 << 20));
+        assertEquals(1 << 20, PrefetchingIterator.capacityFor((1 << 20) + 1));
+        assertEquals(1 << 20, PrefetchingIterator.capacityFor(Integer.MAX_VALUE));
+    }
+    
+    private static ResultSet blockingResultSet(CountDownLatch reading, CountDownLatch release, AtomicBoolean cancelled) {
+        final Statement statement = (Statement) Proxy.newProxyInstance(
+            Statement.class.getClassLoader(), 
+            new Class<?>[] {Statement.class}, 
+            (proxy, method, args) -> {
+                if ("cancel".equals(method.getName())) {
+                    cancelled.set(true);
+                    release.countDown();
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+        
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(), 
+            new Class<?>[] {ResultSet.class}, 
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next" : {
+                        reading.countDown();
+                        release.await();
+                        if (cancelled.get()) {
+                            throw new SQLException("Statement cancelled.");
+                        }
+                        return false;
+                    }
+                    case "getStatement" : return statement;
+                    default : throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+    
+    private static ResultSet resultSet(int rows, int failAt, AtomicInteger row) {
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(), 
+            new Class<?>[] {ResultSet.class}, 
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next" : {
+                        final int next = row.incrementAndGet();
+                        if (next == failAt) {
+                            throw new SQLException("Connection lost.");
+                        }
+                        return next <= rows;
+                    }
+                    case "getInt" : return row.get();
+                    default : throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+}
@@ -20,10 +20,12 @@ import org.junit.Test;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import static com.speedment.runtime.core.internal.field.Entity.ID;
 import static com.speedment.runtime.core.internal.field.Entity.NAME;
+import static com.speedment.runtime.core.internal.util.AllocationMeter.assertAllocationBudget;
 import static com.speedment.runtime.field.predicate.Inclusion.*;
 import static java.util.Comparator.*;
 import static java.util.stream.Collectors.toList;
@@ -202,4 +204,15 @@ public class ComparableFieldTest extends BaseFieldTest {
         assertEquals(0, collect(ID.in((Integer) null)).size());
     }
 
+    @Test
+    public void testPredicateAllocation() {
+        final Entity entity = new EntityImpl(5, "a");
+        final Predicate<Entity> and = ID.greaterThan(1).and(NAME.equal("a"));
+        final Predicate<Entity> or  = ID.lessThan(1).or(NAME.equal("a"));
+        
+        // Predicates are tested once for every entity and must not allocate
+        assertAllocationBudget("and", 0, () -> and.test(entity));
+        assertAllocationBudget("or", 0, () -> or.test(entity));
+    }
+
 }
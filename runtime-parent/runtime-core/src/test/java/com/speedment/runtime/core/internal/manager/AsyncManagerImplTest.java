@@ -0,0 +1,117 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.core.manager.AsyncManager;
+import com.speedment.runtime.core.manager.Manager;
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AsyncManagerImplTest {
+    
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1)
+    );
+    
+    @SuppressWarnings("unchecked")
+    private final Manager<String> manager = (Manager<String>) Proxy.newProxyInstance(
+        Manager.class.getClassLoader(), 
+        new Class<?>[] {Manager.class}, 
+        (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "persist" : return args[0] + " persisted on " + Thread.currentThread().getName();
+                case "update"  : throw new IllegalStateException("No such row.");
+                case "stream"  : return Stream.of("a", "b", "c").onClose(() -> closed.set(true));
+                default : throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    );
+    
+    private final AsyncManager<String> async = AsyncManager.of(manager, executor);
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPersist() throws Exception {
+        final String result = async.persist("x").get(10, TimeUnit.SECONDS);
+        assertTrue(result.startsWith("x persisted on "));
+        assertNotEquals(Thread.currentThread().getName(), result.substring("x persisted on ".length()));
+    }
+    
+    @Test
+    public void testFailure() throws Exception {
+        try {
+            async.update("x").get(10, TimeUnit.SECONDS);
+            fail("Expected an exception");
+        } catch (final ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+    
+    @Test
+    public void testQueryClosesStream() throws Exception {
+        assertEquals(3L, (long) async.query(Stream::count).get(10, TimeUnit.SECONDS));
+        assertTrue(closed.get());
+    }
+    
+    @Test
+    public void testOverloadIsRejected() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<Long> running = async.query(s -> {
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return s.count();
+        });
+        final CompletableFuture<String> queued = async.persist("y");
+        
+        try {
+            async.persist("z");
+            fail("Expected the operation to be rejected");
+        } catch (final RejectedExecutionException ex) {
+            // Expected
+        } finally {
+            release.countDown();
+        }
+        
+        assertEquals(3L, (long) running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS).startsWith("y persisted"));
+    }
+}
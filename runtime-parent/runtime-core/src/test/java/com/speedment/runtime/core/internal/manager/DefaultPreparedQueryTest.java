@@ -0,0 +1,164 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.core.manager.PreparedQuery;
+import com.speedment.runtime.core.stream.Pipeline;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.field.predicate.Inclusion;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class DefaultPreparedQueryTest {
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private static final StringField<int[], String> NAME = StringField.create(
+        Identifier.NAME, e -> "name" + e[0], (e, v) -> e, TypeMapper.identity(), false
+    );
+    
+    private final List<int[]> rows = IntStream.range(0, 20)
+        .mapToObj(i -> new int[] {i})
+        .collect(toList());
+    
+    private final List<Pipeline> pipelines = new ArrayList<>();
+
+    @Test
+    public void testBind() {
+        final PreparedQuery<int[]> query = prepare(s -> s
+            .filter(ID.greaterOrEqual(100))
+            .filter(ID.between(0, 0, Inclusion.START_INCLUSIVE_END_INCLUSIVE).and(ID.notEqual(0)))
+        );
+        
+        assertEquals(4, query.getParameterCount());
+        for (int i = 0; i < 3; i++) {
+            // The sample values of the template must not be applied
+            assertEquals(Arrays.asList(i, i + 1, i + 2, i + 4), ids(query.stream(i, i, i + 4, i + 3)));
+        }
+    }
+    
+    @Test
+    public void testInAndStringOperators() {
+        final PreparedQuery<int[]> query = prepare(s -> s
+            .filter(ID.in(0, 1, 2).and(NAME.notStartsWith("")))
+            .filter(NAME.isNotEmpty())
+        );
+        
+        assertEquals(4, query.getParameterCount());
+        assertEquals(Arrays.asList(3), ids(query.stream(3, 12, 17, "name1")));
+        assertEquals(Arrays.asList(12, 17), ids(query.stream(3, 12, 17, "name3")));
+    }
+    
+    @Test
+    public void testBoundFiltersArePushable() {
+        final PreparedQuery<int[]> query = prepare(s -> s
+            .filter(ID.lessThan(0))
+            .filter(e -> e[0] % 2 == 0)
+            .filter(ID.greaterThan(0))
+        );
+        
+        assertEquals(1, query.getParameterCount());
+        assertEquals(Arrays.asList(2, 4), ids(query.stream(6)));
+        
+        final Pipeline pipeline = pipelines.get(0);
+        assertEquals(4, pipeline.size());
+        assertTrue(((FilterAction<?>) pipeline.getFirst()).getPredicate() instanceof FieldPredicate);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongParameterCount() {
+        prepare(s -> s.filter(ID.equal(1))).stream(1, 2);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignStream() {
+        prepare(s -> Stream.of(new int[] {1}));
+    }
+    
+    private PreparedQuery<int[]> prepare(UnaryOperator<Stream<int[]>> template) {
+        final StreamTerminator terminator = new StreamTerminator() {
+            @Override
+            public <P extends Pipeline> P optimize(P initialPipeline) {
+                pipelines.add(initialPipeline);
+                return initialPipeline;
+            }
+        };
+        
+        return new DefaultPreparedQuery<>(template, q -> q.apply(
+            new ReferenceStreamBuilder<>(new PipelineImpl<>(rows::stream), terminator)
+        ));
+    }
+    
+    private static List<Integer> ids(Stream<int[]> stream) {
+        try (final Stream<int[]> s = stream) {
+            return s.map(e -> e[0]).collect(toList());
+        }
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID ("id"), NAME ("name");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
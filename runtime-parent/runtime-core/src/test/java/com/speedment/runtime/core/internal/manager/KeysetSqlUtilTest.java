@@ -0,0 +1,161 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.field.ComparableField;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import com.speedment.runtime.typemapper.string.YesNoStringToBooleanMapper;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class KeysetSqlUtilTest {
+    
+    private static final String SELECT = "SELECT `id`,`active` FROM `t`";
+    private static final DbmsType DBMS_TYPE = dbmsType((sql, limit) -> sql + " LIMIT " + limit);
+    private static final List<String> COLUMNS = Arrays.asList("`active`", "`id`");
+    
+    private static final IntField<Object[], Integer> ID = IntField.create(
+        Identifier.ID, e -> (Integer) e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private static final ComparableField<Object[], String, Boolean> ACTIVE = ComparableField.create(
+        Identifier.ACTIVE, e -> (Boolean) e[1], (e, v) -> { e[1] = v; return e; }, new YesNoStringToBooleanMapper(), false
+    );
+
+    @Test
+    public void testFirst() {
+        assertEquals(
+            SELECT + " ORDER BY `active`,`id` LIMIT 11", 
+            KeysetSqlUtil.select(DBMS_TYPE, SELECT, null, COLUMNS, false, 11)
+        );
+    }
+
+    @Test
+    public void testAfter() {
+        assertEquals(
+            SELECT + " WHERE (`active` > ? OR (`active` = ? AND `id` > ?)) ORDER BY `active`,`id` LIMIT 11", 
+            KeysetSqlUtil.select(DBMS_TYPE, SELECT, null, COLUMNS, true, 11)
+        );
+    }
+
+    @Test
+    public void testCondition() {
+        assertEquals(
+            SELECT + " WHERE (`id` < ?) ORDER BY `id` LIMIT 100", 
+            KeysetSqlUtil.select(DBMS_TYPE, SELECT, "(`id` < ?)", singletonList("`id`"), false, 100)
+        );
+        
+        assertEquals(
+            SELECT + " WHERE (`id` < ?) AND (`id` > ?) ORDER BY `id` LIMIT 100", 
+            KeysetSqlUtil.select(DBMS_TYPE, SELECT, "(`id` < ?)", singletonList("`id`"), true, 100)
+        );
+    }
+
+    @Test
+    public void testThreeColumns() {
+        assertEquals(
+            SELECT + " WHERE (`a` > ? OR (`a` = ? AND (`b` > ? OR (`b` = ? AND `c` > ?)))) ORDER BY `a`,`b`,`c` LIMIT 5", 
+            KeysetSqlUtil.select(DBMS_TYPE, SELECT, null, Arrays.asList("`a`", "`b`", "`c`"), true, 5)
+        );
+    }
+
+    @Test
+    public void testLimitOfDbmsType() {
+        final DbmsType fetchFirst = dbmsType((sql, limit) -> sql + " FETCH FIRST " + limit + " ROWS ONLY");
+        assertEquals(
+            SELECT + " WHERE (`id` > ?) ORDER BY `id` FETCH FIRST 10 ROWS ONLY", 
+            KeysetSqlUtil.select(fetchFirst, SELECT, null, singletonList("`id`"), true, 10)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoColumns() {
+        KeysetSqlUtil.select(DBMS_TYPE, SELECT, null, Arrays.asList(), false, 10);
+    }
+
+    @Test
+    public void testDatabaseValues() {
+        final List<Field<Object[]>> keys = Arrays.asList(ACTIVE, ID);
+        assertEquals(
+            Arrays.<Object>asList("yes", "yes", 42), 
+            KeysetSqlUtil.databaseValues(keys, Arrays.asList(true, 42))
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDatabaseValuesOfWrongLength() {
+        KeysetSqlUtil.databaseValues(Arrays.<Field<Object[]>>asList(ACTIVE, ID), singletonList(true));
+    }
+    
+    private static DbmsType dbmsType(BiFunction<String, Long, String> limiter) {
+        return (DbmsType) Proxy.newProxyInstance(
+            DbmsType.class.getClassLoader(), 
+            new Class<?>[] {DbmsType.class}, 
+            (proxy, method, args) -> {
+                if ("applyLimit".equals(method.getName())) {
+                    return limiter.apply((String) args[0], (Long) args[1]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+    
+    private enum Identifier implements ColumnIdentifier<Object[]> {
+        ID ("id"), ACTIVE ("active");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
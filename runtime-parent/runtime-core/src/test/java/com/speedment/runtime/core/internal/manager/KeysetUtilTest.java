@@ -0,0 +1,185 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.manager.Page;
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.StringField;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class KeysetUtilTest {
+    
+    private static final IntField<Person, Integer> ID = IntField.create(
+        Identifier.ID, Person::getId, Person::setId, TypeMapper.primitive(), true
+    );
+    
+    private static final StringField<Person, String> NAME = StringField.create(
+        Identifier.NAME, Person::getName, Person::setName, TypeMapper.identity(), false
+    );
+    
+    private final List<Person> persons = IntStream.range(0, 103)
+        .mapToObj(i -> new Person(102 - i, "name" + (i % 7)))
+        .collect(toList());
+    
+    @Test
+    public void testPrimaryKeyIsTieBreaker() {
+        final List<HasComparableOperators<Person, ?>> keys = 
+            KeysetUtil.keys(singletonList(NAME), Stream.<Field<Person>>of(ID));
+        
+        assertEquals(Arrays.asList(NAME, ID), keys);
+        assertEquals(singletonList(ID), KeysetUtil.keys(singletonList(ID), Stream.<Field<Person>>of(ID)));
+    }
+    
+    @Test
+    public void testPagesCoverAllInOrder() {
+        final List<HasComparableOperators<Person, ?>> keys = 
+            KeysetUtil.keys(singletonList(NAME), Stream.<Field<Person>>of(ID));
+        
+        final List<Person> visited = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            final Page<Person> page = KeysetUtil.page(persons.stream(), keys, 10, token);
+            assertTrue(page.getContent().size() <= 10);
+            visited.addAll(page.getContent());
+            token = page.getNextToken().orElse(null);
+            pages++;
+        } while (token != null);
+        
+        assertEquals(11, pages);
+        
+        final List<Person> expected = persons.stream()
+            .sorted(NAME.comparator().thenComparing(ID.comparator()))
+            .collect(toList());
+        
+        assertEquals(expected, visited);
+    }
+    
+    @Test
+    public void testExactMultipleHasNoEmptyLastPage() {
+        final List<HasComparableOperators<Person, ?>> keys = singletonList(ID);
+        final Page<Person> first = KeysetUtil.page(persons.stream().limit(20), keys, 10, null);
+        final Page<Person> second = KeysetUtil.page(persons.stream().limit(20), keys, 10, first.getNextToken().get());
+        assertEquals(10, second.getContent().size());
+        assertFalse(second.getNextToken().isPresent());
+    }
+    
+    @Test
+    public void testTokenRoundTrip() {
+        final Timestamp timestamp = new Timestamp(1_234_567_890L);
+        timestamp.setNanos(123_456_789);
+        
+        final List<Object> values = Arrays.asList(
+            null, true, (byte) 1, (short) 2, 3, 4L, 5f, 6d, 'x', "text åäö", 
+            new BigDecimal("1.50"), timestamp
+        );
+        
+        final String token = KeysetUtil.encode(values);
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(values, KeysetUtil.decode(token, values.size()));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testTokenForOtherKeys() {
+        KeysetUtil.decode(KeysetUtil.encode(Arrays.asList(1, 2)), 3);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedToken() {
+        KeysetUtil.decode("not a token", 1);
+    }
+    
+    private enum Identifier implements ColumnIdentifier<Person> {
+        ID ("id"), 
+        NAME ("name");
+        
+        private final String columnName;
+
+        Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "person";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+    
+    private static final class Person {
+        
+        private int id;
+        private String name;
+
+        Person(int id, String name) {
+            this.id   = id;
+            this.name = name;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        Person setId(int id) {
+            this.id = id;
+            return this;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Person setName(String name) {
+            this.name = name;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.manager.Manager;
+import com.speedment.runtime.core.manager.PreparedQuery;
+import com.speedment.runtime.core.manager.ShardedManager;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ShardedManagerImplTest {
+    
+    private static final int SHARDS = 3;
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private ExecutorService executor;
+    private List<List<int[]>> data;
+    private ShardedManager<int[], Integer> manager;
+    
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(SHARDS);
+        data = IntStream.range(0, SHARDS)
+            .mapToObj(i -> new ArrayList<int[]>())
+            .collect(toList());
+        
+        final List<Manager<int[]>> shards = data.stream()
+            .map(ShardedManagerImplTest::managerOf)
+            .collect(toList());
+        
+        manager = ShardedManager.of(ID, id -> id % SHARDS, shards, executor);
+        IntStream.range(0, 100).forEach(i -> manager.persist(new int[] {i}));
+    }
+    
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRouting() {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            final int s = shard;
+            assertTrue(data.get(shard).stream().allMatch(e -> e[0] % SHARDS == s));
+        }
+        assertEquals(34, data.get(0).size());
+        assertEquals(42, manager.findAny(42).get()[0]);
+        assertFalse(manager.findAny(420).isPresent());
+    }
+    
+    @Test
+    public void testScatterGather() {
+        assertEquals(100, manager.count(s -> s));
+        assertEquals(50, manager.count(s -> s.filter(ID.lessThan(50))));
+        assertEquals(4950, manager.sum(s -> s, e -> e[0]));
+        assertEquals(10, manager.min(s -> s.filter(ID.greaterOrEqual(10)), ID.comparator()).get()[0]);
+        assertEquals(99, manager.max(s -> s, ID.comparator()).get()[0]);
+        assertFalse(manager.max(s -> s.filter(ID.greaterThan(100)), ID.comparator()).isPresent());
+        assertEquals(30, manager.stream(s -> s.filter(ID.between(0, 30))).count());
+        assertEquals(100, manager.stream().count());
+    }
+    
+    @Test
+    public void testPrepare() {
+        final PreparedQuery<int[]> query = manager.prepare(s -> s
+            .filter(ID.between(0, 0))
+            .filter(e -> e[0] % 2 == 0)
+        );
+        
+        assertEquals(2, query.getParameterCount());
+        assertEquals(5, query.stream(10, 20).count());
+        assertEquals(
+            Arrays.asList(96, 98), 
+            query.stream(95, 200).map(e -> e[0]).sorted().collect(toList())
+        );
+    }
+    
+    @Test
+    public void testSortedMerge() {
+        final List<Integer> sorted = manager.sorted(s -> s.filter(ID.lessThan(20)), ID.comparator().reversed())
+            .map(e -> e[0])
+            .collect(toList());
+        
+        assertEquals(
+            IntStream.range(0, 20).map(i -> 19 - i).boxed().collect(toList()), 
+            sorted
+        );
+    }
+    
+    @Test
+    public void testStreamIsLazy() throws InterruptedException {
+        IntStream.range(100, 30_000).forEach(i -> manager.persist(new int[] {i}));
+        
+        final AtomicInteger read = new AtomicInteger();
+        try (final Stream<int[]> stream = manager.stream(s -> s.peek(e -> read.incrementAndGet()))) {
+            assertEquals(
+                IntStream.range(0, 5).map(i -> i * SHARDS).boxed().collect(toList()), 
+                stream.limit(5).map(e -> e[0]).collect(toList())
+            );
+        }
+        
+        Thread.sleep(200);
+        final int afterClose = read.get();
+        assertTrue("Read " + afterClose + " entities", afterClose < 3_000);
+        Thread.sleep(200);
+        assertEquals("Shards were read after close", afterClose, read.get());
+    }
+    
+    @Test
+    public void testSortedMergeIsLazy() {
+        IntStream.range(100, 30_000).forEach(i -> manager.persist(new int[] {i}));
+        
+        try (final Stream<int[]> stream = manager.sorted(s -> s, ID.comparator())) {
+            assertEquals(
+                IntStream.range(0, 10).boxed().collect(toList()), 
+                stream.limit(10).map(e -> e[0]).collect(toList())
+            );
+        }
+        
+        try (final Stream<int[]> stream = manager.sorted(s -> s, ID.comparator())) {
+            final int[] previous = {-1};
+            assertEquals(30_000, stream.peek(e -> {
+                assertTrue(e[0] > previous[0]);
+                previous[0] = e[0];
+            }).count());
+        }
+    }
+    
+    @Test
+    public void testAbandonedStreamIsReleased() throws InterruptedException {
+        IntStream.range(100, 30_000).forEach(i -> manager.persist(new int[] {i}));
+        
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        Stream<int[]> stream = manager.stream(s -> {
+            opened.incrementAndGet();
+            return s.onClose(closed::incrementAndGet);
+        });
+        
+        Thread.sleep(50);
+        assertEquals("Shards were queried before the stream was consumed", 0, opened.get());
+        assertEquals(0, stream.iterator().next()[0]);
+        stream = null; // Abandoned without being closed
+        
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (closed.get() < SHARDS) {
+            assertTrue(
+                "Only " + closed.get() + " shard streams were closed", 
+                System.currentTimeMillis() < deadline
+            );
+            System.gc();
+            Thread.sleep(50);
+        }
+        
+        // The threads of the executor are available again
+        assertEquals(30_000, manager.count(s -> s));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testFailingShardStream() {
+        try (final Stream<int[]> stream = manager.stream(s -> s.peek(e -> {
+            if (e[0] == 50) {
+                throw new IllegalStateException("Shard failed.");
+            }
+        }))) {
+            stream.count();
+        }
+    }
+    
+    @Test(expected = SpeedmentException.class)
+    public void testBadRoute() {
+        ShardedManager.of(ID, id -> SHARDS, manager.shards(), executor).persist(new int[] {1});
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testFailingShard() {
+        manager.count(s -> s.peek(e -> {
+            if (e[0] == 50) {
+                throw new IllegalStateException("Shard failed.");
+            }
+        }));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Manager<int[]> managerOf(List<int[]> rows) {
+        return (Manager<int[]>) Proxy.newProxyInstance(
+            Manager.class.getClassLoader(), 
+            new Class<?>[] {Manager.class}, 
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "persist" : {
+                        synchronized (rows) {
+                            rows.add((int[]) args[0]);
+                        }
+                        return args[0];
+                    }
+                    case "stream" : return new ArrayList<>(rows).stream();
+                    default : throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID;
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return "id";
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.manager.sql;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.component.metrics.QueryMetrics;
+import com.speedment.runtime.core.component.metrics.QueryMetrics.Operation;
+import com.speedment.runtime.core.db.AsynchronousQueryResult;
+import com.speedment.runtime.core.db.DbmsType;
+import com.speedment.runtime.core.exception.SpeedmentException;
+import com.speedment.runtime.core.internal.component.metrics.MetricsComponentImpl;
+import com.speedment.runtime.core.internal.component.metrics.QueryRecorder;
+import com.speedment.runtime.core.internal.stream.builder.ReferenceStreamBuilder;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.QueryPlan;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class SqlStreamTerminatorTest {
+    
+    private static final String SELECT = "SELECT `id`,`age` FROM `t`";
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private static final IntField<int[], Integer> AGE = IntField.create(
+        Identifier.AGE, e -> e[1], (e, v) -> { e[1] = v; return e; }, TypeMapper.primitive(), false
+    );
+    
+    private final List<String> executedSql = new ArrayList<>();
+
+    @Test
+    public void testExplain() {
+        final QueryPlan plan = QueryPlan.of(stream(false)
+            .filter(ID.greaterThan(1))
+            .filter(AGE.lessThan(90).and(ID.notEqual(5)))
+            .map(e -> e)
+            .filter(ID.lessThan(8))
+        );
+        
+        assertEquals(SELECT + " WHERE (`id` > ?) AND (`age` < ?) AND (NOT (`id` = ?))", plan.getSql().get());
+        assertEquals(Arrays.<Object>asList(1, 90, 5), plan.getValues());
+        assertEquals(4, plan.getSteps().size());
+        assertEquals(2, plan.pushedDown().count());
+        assertEquals(
+            Arrays.asList("MapAction is not translatable", "only filters at the start of the pipeline are translatable"), 
+            plan.residual().map(QueryPlan.Step::getReason).collect(toList())
+        );
+        assertFalse(plan.isFullScan());
+        assertSame(plan, plan.requireNoFullScan());
+        assertTrue("Explain must not execute the stream", executedSql.isEmpty());
+    }
+    
+    @Test
+    public void testPartiallyTranslatable() {
+        final QueryPlan plan = QueryPlan.of(stream(false)
+            .filter(ID.greaterThan(1).and(e -> e[1] > 3))
+        );
+        
+        assertEquals(SELECT + " WHERE (`id` > ?)", plan.getSql().get());
+        assertFalse(plan.getSteps().get(0).isPushedDown());
+        assertTrue(plan.getSteps().get(0).getReason().startsWith("1 of 2"));
+        assertTrue(plan.isFullScan());
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testFullScan() {
+        final QueryPlan plan = QueryPlan.of(stream(false).filter(e -> e[0] > 3));
+        
+        assertEquals(SELECT, plan.getSql().get());
+        assertEquals("lambda predicate not translatable", plan.getSteps().get(0).getReason());
+        plan.requireNoFullScan();
+    }
+    
+    @Test
+    public void testStrict() {
+        assertEquals(3, stream(true).filter(ID.lessThan(3)).collect(toList()).size());
+        assertEquals(10, stream(true).sorted(ID.comparator()).collect(toList()).size());
+        assertEquals(Arrays.asList(SELECT + " WHERE (`id` < ?)", SELECT), executedSql);
+        
+        try {
+            stream(true).filter(e -> e[0] > 3).forEach(e -> {});
+            fail("Expected a SpeedmentException");
+        } catch (final SpeedmentException ex) {
+            assertTrue(ex.getMessage().contains("lambda predicate not translatable"));
+        }
+    }
+    
+    @Test
+    public void testRecorderKeepsPipeline() {
+        final QueryMetrics metrics = new MetricsComponentImpl()
+            .metricsOf(TableIdentifier.of("db", "schema", "t"), Operation.SELECT);
+        
+        final PipelineImpl<int[]> pipeline = new PipelineImpl<>(Stream::empty);
+        
+        // Any action added by the terminator would change the shape of the 
+        // pipeline that later optimizations depend on
+        assertTrue(terminator(queryResult(), false, new QueryRecorder(metrics))
+            .optimize(pipeline)
+            .isEmpty()
+        );
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignStream() {
+        QueryPlan.of(Stream.of(1));
+    }
+    
+    private Stream<int[]> stream(boolean strict) {
+        return stream(strict, null);
+    }
+    
+    private Stream<int[]> stream(boolean strict, QueryRecorder recorder) {
+        final AsynchronousQueryResult<int[]> qr = queryResult();
+        return new ReferenceStreamBuilder<>(
+            new PipelineImpl<>(qr::stream), 
+            terminator(qr, strict, recorder)
+        );
+    }
+    
+    private SqlStreamTerminator<int[]> terminator(
+            AsynchronousQueryResult<int[]> qr, 
+            boolean strict, 
+            QueryRecorder recorder) {
+        
+        return new SqlStreamTerminator<>(
+            dbmsType(), 
+            SELECT, 
+            "SELECT COUNT(*) FROM `t`", 
+            (sql, values) -> { throw new UnsupportedOperationException(sql); }, 
+            f -> "`" + f.identifier().getColumnName() + "`", 
+            qr, 
+            strict,
+            recorder
+        );
+    }
+    
+    @SuppressWarnings("unchecked")
+    private AsynchronousQueryResult<int[]> queryResult() {
+        final String[] sql = {SELECT};
+        return (AsynchronousQueryResult<int[]>) Proxy.newProxyInstance(
+            AsynchronousQueryResult.class.getClassLoader(), 
+            new Class<?>[] {AsynchronousQueryResult.class}, 
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getSql"    : return sql[0];
+                    case "setSql"    : sql[0] = (String) args[0]; return null;
+                    case "setValues" : return null;
+                    case "stream"    : {
+                        executedSql.add(sql[0]);
+                        return IntStream.range(0, 10).mapToObj(i -> new int[] {i, 100 - i});
+                    }
+                    default : throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+    }
+    
+    private static DbmsType dbmsType() {
+        return (DbmsType) Proxy.newProxyInstance(
+            DbmsType.class.getClassLoader(), 
+            new Class<?>[] {DbmsType.class}, 
+            (proxy, method, args) -> {
+                if ("getFieldPredicateView".equals(method.getName())) {
+                    return new MySqlSpeedmentPredicateView();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID ("id"), AGE ("age");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
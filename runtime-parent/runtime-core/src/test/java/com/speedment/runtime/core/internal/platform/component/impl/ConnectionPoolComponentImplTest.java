@@ -21,13 +21,27 @@
  */
 package com.speedment.runtime.core.internal.platform.component.impl;
 
+import com.speedment.runtime.config.Dbms;
+import com.speedment.runtime.config.Project;
+import com.speedment.runtime.config.internal.DbmsImpl;
+import com.speedment.runtime.config.trait.HasName;
+import com.speedment.runtime.core.component.DbmsHandlerComponent;
+import com.speedment.runtime.core.component.PasswordComponent;
+import com.speedment.runtime.core.component.ProjectComponent;
 import com.speedment.runtime.core.component.connectionpool.PoolableConnection;
+import com.speedment.runtime.core.db.DbmsType;
 import com.speedment.runtime.core.internal.component.ConnectionPoolComponentImpl;
+import com.speedment.runtime.core.internal.component.PasswordComponentImpl;
+import com.speedment.runtime.core.internal.component.ProjectComponentImpl;
 import org.junit.*;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.*;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 import static org.junit.Assert.*;
 
@@ -179,6 +193,106 @@ public class ConnectionPoolComponentImplTest {
         }
     }
 
+    @Test
+    public void testConcurrentLeaseAndReturn() throws Exception {
+        String uri = "thecooldatabase";
+        String user = "tryggve";
+        instance.setMaxAge(60 * 60_000);
+        instance.setMaxRetainSize(4);
+        final int threads = 8;
+        final List<Thread> workers = new ArrayList<>();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            workers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 1_000; i++) {
+                        // Every call uses a new password array with equal content
+                        try (Connection connection = instance.getConnection(uri, user, "arne".toCharArray())) {
+                            assertFalse(connection.isClosed());
+                        }
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(Collections.emptyList(), errors);
+        assertEquals(0, instance.leaseSize());
+        assertTrue(instance.poolSize() > 0);
+        assertTrue(instance.poolSize() <= instance.getMaxRetainSize() + threads);
+    }
+
+    @Test
+    public void testDbmsConnectionUrlChange() throws Exception {
+        final Dbms dbms = dbms(new AtomicInteger(), new PasswordComponentImpl(), new ProjectComponentImpl());
+        
+        try (PoolableConnection connection = instance.getConnection(dbms)) {
+            assertEquals("thecooldatabase", connection.getUri());
+        }
+        
+        dbms.put(Dbms.CONNECTION_URL, "thewarmdatabase");
+        try (PoolableConnection connection = instance.getConnection(dbms)) {
+            assertEquals("thewarmdatabase", connection.getUri());
+            assertEquals("tryggve", connection.getUser());
+        }
+    }
+    
+    @Test
+    public void testDbmsHandleIsReused() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final PasswordComponent passwords = new PasswordComponentImpl();
+        final ProjectComponent projects = new ProjectComponentImpl();
+        final Dbms dbms = dbms(lookups, passwords, projects);
+        
+        for (int i = 0; i < 10; i++) {
+            instance.getConnection(dbms).close();
+        }
+        assertEquals("The URL is only built once", 1, lookups.get());
+        
+        passwords.put(dbms, "bertil".toCharArray());
+        try (PoolableConnection connection = instance.getConnection(dbms)) {
+            assertEquals("bertil", new String(connection.getPassword()));
+        }
+        assertEquals(2, lookups.get());
+        
+        projects.setProject(proxy(Project.class, (method, args) -> {
+            throw new UnsupportedOperationException(method);
+        }));
+        instance.getConnection(dbms).close();
+        assertEquals("Handles are dropped with the project", 3, lookups.get());
+    }
+    
+    private Dbms dbms(
+            AtomicInteger lookups, 
+            PasswordComponent passwords, 
+            ProjectComponent projects) throws ReflectiveOperationException {
+        
+        inject("dbmsHandlerComponent", proxy(DbmsHandlerComponent.class, (method, args) -> {
+            lookups.incrementAndGet();
+            return Optional.of(proxy(DbmsType.class, (m, a) -> {
+                throw new UnsupportedOperationException(m);
+            }));
+        }));
+        
+        passwords.put("db", "arne".toCharArray());
+        projects.setProject(proxy(Project.class, (method, args) -> {
+            throw new UnsupportedOperationException(method);
+        }));
+        inject("passwordComponent", passwords);
+        inject("projectComponent", projects);
+        
+        final Map<String, Object> data = new HashMap<>();
+        data.put(HasName.NAME, "db");
+        data.put(Dbms.TYPE_NAME, "MySQL");
+        data.put(Dbms.USERNAME, "tryggve");
+        data.put(Dbms.CONNECTION_URL, "thecooldatabase");
+        return new DbmsImpl(null, data);
+    }
+
     /**
      * Test of setPoolSize method, of class ConnectionPoolComponentImpl.
      */
@@ -479,6 +593,21 @@ public class ConnectionPoolComponentImplTest {
 
     }
 
+    private void inject(String fieldName, Object value) throws ReflectiveOperationException {
+        final Field field = ConnectionPoolComponentImpl.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> iface, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(
+            iface.getClassLoader(), 
+            new Class<?>[] {iface}, 
+            (proxy, method, args) -> handler.apply(method.getName(), args)
+        );
+    }
+
     private void log(String msg) {
         //System.out.println(new Timestamp(System.currentTimeMillis()) + " " + msg);
     }
@@ -0,0 +1,145 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.pool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class StripedPoolTest {
+
+    @Test
+    public void testStripesAreRoundedUp() {
+        assertEquals(1, new StripedPool<>(1).stripes());
+        assertEquals(4, new StripedPool<>(3).stripes());
+        assertEquals(8, new StripedPool<>(8).stripes());
+        assertEquals(16, new StripedPool<>(9).stripes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoStripes() {
+        new StripedPool<>(0);
+    }
+
+    @Test
+    public void testEmpty() {
+        final StripedPool<String> pool = new StripedPool<>(4);
+        assertNull(pool.poll());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testLastReturnedIsPolledFirst() {
+        final StripedPool<String> pool = new StripedPool<>(4);
+        assertTrue(pool.offer("a", 10));
+        assertTrue(pool.offer("b", 10));
+        assertEquals(2, pool.size());
+        assertEquals("b", pool.poll());
+        assertEquals("a", pool.poll());
+        assertNull(pool.poll());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testMaxSize() {
+        final StripedPool<Integer> pool = new StripedPool<>(4);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(pool.offer(i, 3));
+        }
+        assertFalse(pool.offer(3, 3));
+        assertEquals(3, pool.size());
+        assertNotNull(pool.poll());
+        assertTrue(pool.offer(3, 3));
+    }
+
+    @Test
+    public void testItemsOfOtherStripesArePolled() throws InterruptedException {
+        final StripedPool<Integer> pool = new StripedPool<>(64);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            final int item = i;
+            threads.add(new Thread(() -> pool.offer(item, 100)));
+        }
+        threads.forEach(Thread::start);
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final Set<Integer> polled = new HashSet<>();
+        Integer item;
+        while ((item = pool.poll()) != null) {
+            polled.add(item);
+        }
+        assertEquals(16, polled.size());
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void testConcurrentLeaseAndReturn() throws InterruptedException {
+        final int threads = 8;
+        final int items   = 4;
+        final int loops   = 10_000;
+        
+        final StripedPool<Integer> pool = new StripedPool<>(threads);
+        for (int i = 0; i < items; i++) {
+            assertTrue(pool.offer(i, items));
+        }
+
+        final Set<Integer> leased = ConcurrentHashMap.newKeySet();
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < loops; i++) {
+                    final Integer item = pool.poll();
+                    if (item != null) {
+                        if (!leased.add(item)) {
+                            errors.incrementAndGet(); // Leased twice
+                        }
+                        leased.remove(item);
+                        if (!pool.offer(item, items)) {
+                            errors.incrementAndGet(); // Lost
+                        }
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertEquals(0, errors.get());
+        assertEquals(items, pool.size());
+        final Set<Integer> remaining = new HashSet<>();
+        Integer item;
+        while ((item = pool.poll()) != null) {
+            remaining.add(item);
+        }
+        assertEquals(items, remaining.size());
+    }
+}
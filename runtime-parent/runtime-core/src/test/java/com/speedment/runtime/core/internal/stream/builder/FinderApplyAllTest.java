@@ -0,0 +1,173 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.builder;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.IntForeignKeyField;
+import com.speedment.runtime.field.method.BackwardFinder;
+import com.speedment.runtime.field.method.FindFrom;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that the batched {@code applyAll} method of finders works on streams 
+ * that are built the way managers build them.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public class FinderApplyAllTest {
+    
+    private static final StreamTerminator TERMINATOR = new StreamTerminator() {};
+    
+    private static final TableIdentifier<int[]> TABLE = 
+        TableIdentifier.of("db", "schema", "t");
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private static final IntForeignKeyField<int[], Integer, int[]> PARENT = IntForeignKeyField.create(
+        Identifier.PARENT, e -> e[1], (e, v) -> { e[1] = v; return e; }, ID, TypeMapper.primitive(), false
+    );
+    
+    private static final List<int[]> PARENTS = Arrays.asList(
+        new int[] {1, 0}, new int[] {2, 0}, new int[] {3, 0}
+    );
+    
+    private static final List<int[]> CHILDREN = Arrays.asList(
+        new int[] {10, 3}, new int[] {11, 1}, new int[] {12, 3}, 
+        new int[] {13, 2}, new int[] {14, 1}
+    );
+
+    @Test
+    public void testFindFrom() {
+        final FindFrom<int[], int[]> finder = PARENT.finder(TABLE, () -> stream(PARENTS));
+        
+        final List<int[]> expected = CHILDREN.stream()
+            .map(finder)
+            .collect(toList());
+        
+        final List<int[]> result;
+        try (Stream<int[]> parents = finder.applyAll(stream(CHILDREN), 2)) {
+            result = parents.collect(toList());
+        }
+        
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+    }
+
+    @Test
+    public void testBackwardFinder() {
+        final BackwardFinder<int[], int[]> finder = PARENT.backwardFinder(TABLE, () -> stream(CHILDREN));
+        
+        final List<int[]> expected = PARENTS.stream()
+            .flatMap(finder)
+            .collect(toList());
+        
+        final List<int[]> result;
+        try (Stream<int[]> children = finder.applyAll(stream(PARENTS), 2)) {
+            result = children.collect(toList());
+        }
+        
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), result.get(i));
+        }
+    }
+    
+    @Test
+    public void testFirstBatchBeforeSourceIsRead() {
+        final FindFrom<int[], int[]> finder = PARENT.finder(TABLE, () -> stream(PARENTS));
+        final List<int[]> children = IntStream.range(0, 100)
+            .mapToObj(i -> new int[] {100 + i, 1 + i % 3})
+            .collect(toList());
+        
+        final AtomicInteger read = new AtomicInteger();
+        final List<Integer> readAtResult = new ArrayList<>();
+        try (Stream<int[]> parents = finder.applyAll(stream(children).peek(e -> read.incrementAndGet()), 10)) {
+            parents.forEach(parent -> readAtResult.add(read.get()));
+        }
+        
+        assertEquals(100, readAtResult.size());
+        assertEquals("Results are emitted batch by batch", 10, (int) readAtResult.get(0));
+        assertEquals(20, (int) readAtResult.get(10));
+        
+        // A short-circuiting operation reads only the first batch of a source
+        // that supports spliterator()
+        read.set(0);
+        try (Stream<int[]> parents = finder.applyAll(children.stream().peek(e -> read.incrementAndGet()), 10)) {
+            assertEquals(2, parents.skip(1).findFirst().get()[0]);
+        }
+        assertEquals(10, read.get());
+        
+        try (Stream<int[]> parents = finder.applyAll(stream(children), 10)) {
+            assertEquals(Arrays.asList(1, 2, 3, 1), parents.limit(4).map(e -> e[0]).collect(toList()));
+        }
+    }
+    
+    private static Stream<int[]> stream(List<int[]> entities) {
+        return new ReferenceStreamBuilder<>(new PipelineImpl<>(entities::stream), TERMINATOR);
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID ("id"), PARENT ("parent");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
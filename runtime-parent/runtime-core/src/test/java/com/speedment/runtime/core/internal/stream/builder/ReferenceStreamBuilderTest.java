@@ -0,0 +1,120 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.builder;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.internal.stream.builder.streamterminator.StreamTerminator;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.core.internal.util.AllocationMeter.assertAllocationBudget;
+import static java.util.stream.Collectors.toCollection;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ReferenceStreamBuilderTest {
+    
+    private static final StreamTerminator TERMINATOR = new StreamTerminator() {};
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private static final IntField<int[], Integer> AGE = IntField.create(
+        Identifier.AGE, e -> e[1], (e, v) -> { e[1] = v; return e; }, TypeMapper.primitive(), false
+    );
+    
+    private static final Predicate<int[]> AGE_AND_ID = AGE.lessThan(90).and(ID.notEqual(5));
+    
+    private static final List<int[]> ENTITIES = IntStream.range(0, 64)
+        .mapToObj(i -> new int[] {i, 10 * i})
+        .collect(toCollection(ArrayList::new));
+    
+    // Same list type as the entities, so that the streams only differ in size
+    private static final List<int[]> NO_ENTITIES = new ArrayList<>();
+
+    @Test
+    public void testFilterCount() {
+        assertEquals(ENTITIES.stream().filter(AGE_AND_ID).count(), count(ENTITIES));
+    }
+
+    @Test
+    public void testStreamCreationAllocation() {
+        // Creating, terminating and closing a stream has a fixed cost
+        assertAllocationBudget("stream creation", 2048, () -> count(NO_ENTITIES));
+    }
+
+    @Test
+    public void testPerElementAllocation() {
+        // Filtering and counting must not allocate anything per element. The
+        // budget of one byte per element leaves room for small differences
+        // in the fixed cost of streams that are empty and not empty.
+        assertAllocationBudget(
+            "stream of " + ENTITIES.size() + " elements", 
+            ENTITIES.size(), 
+            () -> count(NO_ENTITIES), 
+            () -> count(ENTITIES)
+        );
+    }
+
+    private static long count(List<int[]> entities) {
+        return new ReferenceStreamBuilder<int[]>(new PipelineImpl<>(entities::stream), TERMINATOR)
+            .filter(AGE_AND_ID)
+            .count();
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID ("id"), AGE ("age");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.builder.streamterminator;
+
+import com.speedment.runtime.config.identifier.ColumnIdentifier;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.FilterAction;
+import com.speedment.runtime.core.internal.stream.builder.action.reference.MapAction;
+import com.speedment.runtime.core.internal.stream.builder.pipeline.PipelineImpl;
+import com.speedment.runtime.core.stream.action.Action;
+import com.speedment.runtime.field.IntField;
+import com.speedment.runtime.field.predicate.FieldPredicate;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.speedment.runtime.core.internal.util.AllocationMeter.assertAllocationBudget;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class StreamTerminatorUtilTest {
+    
+    private static final IntField<int[], Integer> ID = IntField.create(
+        Identifier.ID, e -> e[0], (e, v) -> { e[0] = v; return e; }, TypeMapper.primitive(), true
+    );
+    
+    private static final IntField<int[], Integer> AGE = IntField.create(
+        Identifier.AGE, e -> e[1], (e, v) -> { e[1] = v; return e; }, TypeMapper.primitive(), false
+    );
+    
+    private static final Predicate<int[]> ID_GREATER_THAN_1 = ID.greaterThan(1);
+    private static final Predicate<int[]> AGE_AND_ID = AGE.lessThan(90).and(ID.notEqual(5));
+
+    @Test
+    public void testTopLevelAndPredicates() {
+        final List<FieldPredicate<int[]>> predicates = StreamTerminatorUtil.topLevelAndPredicates(pipeline(
+            new FilterAction<>(ID_GREATER_THAN_1),
+            new FilterAction<>(e -> true),
+            new FilterAction<>(AGE_AND_ID),
+            new MapAction<int[], int[]>(e -> e),
+            new FilterAction<>(ID.lessThan(8))
+        ));
+        
+        assertEquals(3, predicates.size());
+        assertSame(ID_GREATER_THAN_1, predicates.get(0));
+        assertSame(AGE, predicates.get(1).getField());
+        assertSame(ID, predicates.get(2).getField());
+    }
+
+    @Test
+    public void testTopLevelAndPredicatesWithoutFilters() {
+        assertTrue(StreamTerminatorUtil.topLevelAndPredicates(pipeline()).isEmpty());
+        assertTrue(StreamTerminatorUtil.topLevelAndPredicates(pipeline(
+            new MapAction<int[], int[]>(e -> e),
+            new FilterAction<>(ID_GREATER_THAN_1)
+        )).isEmpty());
+    }
+
+    @Test
+    public void testAndPredicates() {
+        assertEquals(1, StreamTerminatorUtil.andPredicates(new FilterAction<>(ID_GREATER_THAN_1)).size());
+        assertEquals(2, StreamTerminatorUtil.andPredicates(new FilterAction<>(AGE_AND_ID)).size());
+        assertEquals(1, StreamTerminatorUtil.andPredicates(new FilterAction<>(ID.equal(1).and(e -> true))).size());
+        assertTrue(StreamTerminatorUtil.andPredicates(new FilterAction<int[]>(e -> true)).isEmpty());
+        assertTrue(StreamTerminatorUtil.andPredicates(new FilterAction<>(ID.equal(1).or(ID.equal(2)))).isEmpty());
+    }
+
+    @Test
+    public void testTopLevelAndPredicatesAllocation() {
+        final PipelineImpl<int[]> noFilter  = pipeline(new MapAction<int[], int[]>(e -> e));
+        final PipelineImpl<int[]> oneFilter = pipeline(new FilterAction<>(ID_GREATER_THAN_1));
+        
+        // Only the iterator of the pipeline and the returned list
+        assertAllocationBudget("no filter", 32, () -> StreamTerminatorUtil.topLevelAndPredicates(noFilter));
+        assertAllocationBudget("one filter", 64, () -> StreamTerminatorUtil.topLevelAndPredicates(oneFilter));
+    }
+
+    private static PipelineImpl<int[]> pipeline(Action<?, ?>... actions) {
+        final PipelineImpl<int[]> pipeline = new PipelineImpl<>(Stream::empty);
+        for (final Action<?, ?> action : actions) {
+            pipeline.add(action);
+        }
+        return pipeline;
+    }
+    
+    private enum Identifier implements ColumnIdentifier<int[]> {
+        ID ("id"), AGE ("age");
+        
+        private final String columnName;
+
+        private Identifier(String columnName) {
+            this.columnName = columnName;
+        }
+
+        @Override
+        public String getDbmsName() {
+            return "db";
+        }
+
+        @Override
+        public String getSchemaName() {
+            return "schema";
+        }
+
+        @Override
+        public String getTableName() {
+            return "t";
+        }
+
+        @Override
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.parallel;
+
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class AdaptiveParallelStrategyTest {
+
+    private static final int SIZE = 1 << 16;
+
+    @Test
+    public void testParallelSum() {
+        final List<Integer> list = IntStream.range(0, SIZE).boxed().collect(toList());
+        final ParallelStrategy strategy = ParallelStrategy.adaptive();
+        for (int i = 0; i < 3; i++) {
+            final Spliterator<Integer> spliterator = strategy.spliteratorUnknownSize(
+                list.iterator(), Spliterator.ORDERED | Spliterator.NONNULL
+            );
+            final long sum = StreamSupport.stream(spliterator, true)
+                .mapToLong(Integer::longValue)
+                .sum();
+            assertEquals((long) SIZE * (SIZE - 1) / 2, sum);
+        }
+    }
+
+    @Test
+    public void testRampUp() {
+        final AdaptiveParallelStrategy strategy = new AdaptiveParallelStrategy();
+        assertEquals(1, strategy.nextBatchSize(0));
+        assertEquals(2, strategy.nextBatchSize(1));
+        assertEquals(4, strategy.nextBatchSize(2));
+    }
+
+    @Test
+    public void testSlowProcessingGivesSmallBatches() {
+        final AdaptiveParallelStrategy strategy = new AdaptiveParallelStrategy();
+        strategy.recordFetch(100, 1);
+        strategy.recordProcessing(AdaptiveParallelStrategy.TARGET_TASK_NANOS / 4, 1);
+        assertEquals(4, strategy.nextBatchSize(1024));
+    }
+
+    @Test
+    public void testFastProcessingGivesLargeBatches() {
+        final AdaptiveParallelStrategy strategy = new AdaptiveParallelStrategy();
+        strategy.recordFetch(1_000, 1);
+        strategy.recordProcessing(10, 1);
+        assertEquals(2048, strategy.nextBatchSize(1024));
+    }
+
+    @Test
+    public void testBatchSizeIsAtLeastOne() {
+        final AdaptiveParallelStrategy strategy = new AdaptiveParallelStrategy();
+        strategy.recordProcessing(10 * AdaptiveParallelStrategy.TARGET_TASK_NANOS, 1);
+        assertEquals(1, strategy.nextBatchSize(16));
+    }
+}
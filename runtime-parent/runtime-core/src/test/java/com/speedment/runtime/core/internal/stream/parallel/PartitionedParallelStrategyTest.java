@@ -0,0 +1,80 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.parallel;
+
+import com.speedment.runtime.core.stream.parallel.ParallelStrategy;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class PartitionedParallelStrategyTest {
+
+    @Test
+    public void testPartitions() {
+        final PartitionedParallelStrategy strategy = 
+            (PartitionedParallelStrategy) ParallelStrategy.partitioned(8);
+        
+        assertEquals(8, strategy.getPartitions());
+        assertEquals(Optional.empty(), strategy.getColumnName());
+    }
+
+    @Test
+    public void testColumnName() {
+        final PartitionedParallelStrategy strategy = 
+            (PartitionedParallelStrategy) ParallelStrategy.partitioned(1, "id");
+        
+        assertEquals(1, strategy.getPartitions());
+        assertEquals(Optional.of("id"), strategy.getColumnName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroPartitions() {
+        ParallelStrategy.partitioned(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePartitions() {
+        ParallelStrategy.partitioned(-1, "id");
+    }
+
+    @Test
+    public void testRowsWithinRange() {
+        // Keys at both ends of the long range must survive the splitting
+        final List<Long> keys = LongStream.concat(
+                LongStream.rangeClosed(Long.MIN_VALUE, Long.MIN_VALUE + 1000),
+                LongStream.rangeClosed(Long.MAX_VALUE - 1000, Long.MAX_VALUE)
+            )
+            .boxed()
+            .collect(toList());
+        
+        final Spliterator<Long> spliterator = ParallelStrategy.partitioned(4)
+            .spliteratorUnknownSize(keys.iterator(), Spliterator.ORDERED);
+        
+        assertEquals(keys, StreamSupport.stream(spliterator, true).collect(toList()));
+    }
+}
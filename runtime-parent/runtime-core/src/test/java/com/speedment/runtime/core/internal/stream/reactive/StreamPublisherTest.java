@@ -0,0 +1,218 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.stream.reactive;
+
+import com.speedment.runtime.core.stream.reactive.Publisher;
+import com.speedment.runtime.core.stream.reactive.Subscriber;
+import com.speedment.runtime.core.stream.reactive.Subscription;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class StreamPublisherTest {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger pulled = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    @Test
+    public void testDemandIsHonored() {
+        final Publisher<Integer> publisher = new StreamPublisher<>(() -> range(100), Runnable::run, 10);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        
+        assertEquals("The query should not run before there is demand", 0, opened.get());
+        
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.items.size());
+        assertEquals("One element is read ahead to detect the end", 4, pulled.get());
+        
+        subscriber.subscription.request(25);
+        assertEquals(28, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertFalse(closed.get());
+        
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(100, subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertTrue(closed.get());
+        assertEquals(1, opened.get());
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) subscriber.items.get(i));
+        }
+    }
+    
+    @Test
+    public void testExactDemandCompletes() {
+        final Publisher<Integer> publisher = new StreamPublisher<>(() -> range(20), Runnable::run, 10);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        
+        subscriber.subscription.request(15);
+        assertEquals(15, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        
+        subscriber.subscription.request(5);
+        assertEquals(20, subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertTrue(closed.get());
+    }
+    
+    @Test
+    public void testExactDemandOfChunkSizeCompletes() {
+        final Publisher<Integer> publisher = new StreamPublisher<>(() -> range(10), Runnable::run, 10);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        
+        subscriber.subscription.request(10);
+        assertEquals(10, subscriber.items.size());
+        assertTrue(subscriber.completed);
+        assertTrue(closed.get());
+    }
+    
+    @Test
+    public void testCancelClosesStream() {
+        final Publisher<Integer> publisher = new StreamPublisher<>(() -> range(100), Runnable::run, 10);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        
+        subscriber.subscription.request(5);
+        subscriber.subscription.cancel();
+        assertTrue(closed.get());
+        
+        subscriber.subscription.request(5);
+        assertEquals(5, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+    
+    @Test
+    public void testErrorIsPropagated() {
+        final Publisher<Integer> publisher = new StreamPublisher<>(
+            () -> range(100).peek(i -> {
+                if (i == 7) {
+                    throw new IllegalStateException("Broken");
+                }
+            }),
+            Runnable::run, 10
+        );
+        
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(50);
+        
+        assertEquals(7, subscriber.items.size());
+        assertTrue(subscriber.error instanceof IllegalStateException);
+        assertTrue(closed.get());
+    }
+    
+    @Test
+    public void testIllegalRequest() {
+        final Publisher<Integer> publisher = new StreamPublisher<>(() -> range(100), Runnable::run, 10);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.items.isEmpty());
+    }
+    
+    @Test
+    public void testOnExecutor() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Publisher<Integer> publisher = new StreamPublisher<>(() -> range(10_000), executor, 100);
+            final CountDownLatch done = new CountDownLatch(1);
+            final RecordingSubscriber subscriber = new RecordingSubscriber() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    super.onSubscribe(subscription);
+                    subscription.request(1);
+                }
+                
+                @Override
+                public void onNext(Integer item) {
+                    super.onNext(item);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onComplete() {
+                    super.onComplete();
+                    done.countDown();
+                }
+            };
+            
+            publisher.subscribe(subscriber);
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(10_000, subscriber.items.size());
+            assertTrue(closed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private Stream<Integer> range(int size) {
+        opened.incrementAndGet();
+        return IntStream.range(0, size).boxed()
+            .peek(i -> pulled.incrementAndGet())
+            .onClose(() -> closed.set(true));
+    }
+    
+    private static class RecordingSubscriber implements Subscriber<Integer> {
+        
+        final List<Integer> items = new ArrayList<>();
+        volatile Subscription subscription;
+        volatile Throwable error;
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
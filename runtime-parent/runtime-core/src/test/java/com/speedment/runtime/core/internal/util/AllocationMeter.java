@@ -0,0 +1,159 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Measures the number of bytes allocated on the heap by an operation, using 
+ * the per-thread allocation counter of the JVM. The operation is warmed up
+ * first so that the measurement reflects compiled code, and the lowest of a 
+ * few rounds is reported to filter out one-time allocations.
+ * <p>
+ * Budgets should be set so that they hold also when the JIT compiler does 
+ * not eliminate any allocations, for example when running with a debugger
+ * or a coverage agent attached.
+ *
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+public final class AllocationMeter {
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS        = 50_000;
+    private static final int ROUNDS            = 5;
+
+    private static volatile Object sink; // Makes the results escape
+
+    /**
+     * Returns {@code true} if the JVM can measure the bytes allocated by the 
+     * current thread.
+     * 
+     * @return  if allocations can be measured
+     */
+    public static boolean isSupported() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        
+        final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported()) {
+            return false;
+        }
+        
+        if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the average number of bytes allocated each time the operation
+     * is invoked.
+     * 
+     * @param operation  the operation to measure
+     * @return           the bytes allocated per operation
+     */
+    public static double bytesPerOperation(Supplier<?> operation) {
+        final com.sun.management.ThreadMXBean bean = 
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = operation.get();
+        }
+        
+        final long overhead = measurementOverhead(bean, threadId);
+        
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long before = bean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink = operation.get();
+            }
+            final long after = bean.getThreadAllocatedBytes(threadId);
+            best = Math.min(best, after - before - overhead);
+        }
+        
+        return Math.max(0, best) / (double) ITERATIONS;
+    }
+
+    /**
+     * Asserts that the operation allocates at most the specified number of 
+     * bytes each time it is invoked. The test is skipped if allocations can 
+     * not be measured by this JVM.
+     * 
+     * @param name       the name of the operation, used in the message
+     * @param budget     the maximum number of bytes per operation
+     * @param operation  the operation to measure
+     */
+    public static void assertAllocationBudget(String name, long budget, Supplier<?> operation) {
+        assumeTrue("Allocations can not be measured by this JVM", isSupported());
+        
+        final double bytes = bytesPerOperation(operation);
+        assertTrue(
+            name + " allocated " + bytes + " bytes per operation, " + 
+            "but the budget is " + budget + " bytes.", 
+            bytes <= budget
+        );
+    }
+
+    /**
+     * Asserts that the operation allocates at most the specified number of 
+     * bytes more than the baseline each time it is invoked. This is useful
+     * when the operation calls something that allocates by itself, like a 
+     * mocked {@code ResultSet}. The test is skipped if allocations can not 
+     * be measured by this JVM.
+     * 
+     * @param name       the name of the operation, used in the message
+     * @param budget     the maximum number of extra bytes per operation
+     * @param baseline   an operation doing the same calls without the code
+     *                   under test
+     * @param operation  the operation to measure
+     */
+    public static void assertAllocationBudget(String name, long budget, Supplier<?> baseline, Supplier<?> operation) {
+        assumeTrue("Allocations can not be measured by this JVM", isSupported());
+        
+        final double baselineBytes = bytesPerOperation(baseline);
+        final double bytes         = bytesPerOperation(operation);
+        assertTrue(
+            name + " allocated " + (bytes - baselineBytes) + " bytes per " + 
+            "operation more than the baseline, but the budget is " + budget + 
+            " bytes.", 
+            bytes - baselineBytes <= budget
+        );
+    }
+
+    private static long measurementOverhead(com.sun.management.ThreadMXBean bean, long threadId) {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            final long before = bean.getThreadAllocatedBytes(threadId);
+            final long after  = bean.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, after - before);
+        }
+        return overhead;
+    }
+
+    private AllocationMeter() {
+        throw new UnsupportedOperationException();
+    }
+}
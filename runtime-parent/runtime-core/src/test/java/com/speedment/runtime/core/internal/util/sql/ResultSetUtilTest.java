@@ -0,0 +1,88 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.internal.util.sql;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static com.speedment.runtime.core.internal.util.AllocationMeter.assertAllocationBudget;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class ResultSetUtilTest {
+
+    private static final Integer SMALL = 42;
+    private static final Integer LARGE = 1_000_000;
+
+    @Test
+    public void testGetInt() throws SQLException {
+        assertEquals(SMALL, ResultSetUtil.getInt(resultSet(SMALL), 1));
+        assertEquals(SMALL, ResultSetUtil.getInt(resultSet(SMALL), "id"));
+        assertNull(ResultSetUtil.getInt(resultSet(null), 1));
+        assertNull(ResultSetUtil.getInt(resultSet(null), "id"));
+    }
+
+    @Test
+    public void testGetIntAllocation() {
+        final ResultSet nullRs  = resultSet(null);
+        final ResultSet smallRs = resultSet(SMALL);
+        final ResultSet largeRs = resultSet(LARGE);
+        
+        // Only a value that is not null and not cached by Integer is boxed
+        assertAllocationBudget("getInt(null)", 0, () -> raw(nullRs), () -> getInt(nullRs));
+        assertAllocationBudget("getInt(42)", 0, () -> raw(smallRs), () -> getInt(smallRs));
+        assertAllocationBudget("getInt(1000000)", 16, () -> raw(largeRs), () -> getInt(largeRs));
+    }
+
+    private static Object raw(ResultSet rs) {
+        try {
+            rs.getInt(1);
+            return rs.wasNull();
+        } catch (final SQLException sqle) {
+            throw new RuntimeException(sqle);
+        }
+    }
+
+    private static Object getInt(ResultSet rs) {
+        try {
+            return ResultSetUtil.getInt(rs, 1);
+        } catch (final SQLException sqle) {
+            throw new RuntimeException(sqle);
+        }
+    }
+
+    private static ResultSet resultSet(Integer value) {
+        final Integer zero = 0;
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(), 
+            new Class<?>[] {ResultSet.class}, 
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getInt"  : return value == null ? zero : value;
+                    case "wasNull" : return value == null ? Boolean.TRUE : Boolean.FALSE;
+                    default : return null;
+                }
+            }
+        );
+    }
+}
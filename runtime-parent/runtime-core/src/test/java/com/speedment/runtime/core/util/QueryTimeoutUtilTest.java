@@ -0,0 +1,51 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.core.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Per Minborg
+ */
+public class QueryTimeoutUtilTest {
+    
+    @Test
+    public void testToSeconds() {
+        assertEquals(0, QueryTimeoutUtil.toSeconds(0, TimeUnit.SECONDS));
+        assertEquals(1, QueryTimeoutUtil.toSeconds(1, TimeUnit.NANOSECONDS));
+        assertEquals(1, QueryTimeoutUtil.toSeconds(1_000, TimeUnit.MILLISECONDS));
+        assertEquals(2, QueryTimeoutUtil.toSeconds(1_001, TimeUnit.MILLISECONDS));
+        assertEquals(120, QueryTimeoutUtil.toSeconds(2, TimeUnit.MINUTES));
+        assertEquals(Integer.MAX_VALUE, QueryTimeoutUtil.toSeconds(Long.MAX_VALUE, TimeUnit.DAYS));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegative() {
+        QueryTimeoutUtil.toSeconds(-1, TimeUnit.SECONDS);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testForeignStream() {
+        QueryTimeoutUtil.withQueryTimeout(Stream.of(1, 2, 3), 1, TimeUnit.SECONDS);
+    }
+}
@@ -18,14 +18,23 @@ package com.speedment.runtime.field.internal.method;
 
 import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.exception.SpeedmentFieldException;
 import com.speedment.runtime.field.method.FindFrom;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static com.speedment.runtime.field.internal.method.FinderUtil.batched;
+import static com.speedment.runtime.field.internal.method.FinderUtil.forEachMatching;
+import static com.speedment.runtime.field.internal.method.FinderUtil.valueOf;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 
 /**
  *
@@ -76,7 +85,44 @@ abstract class AbstractFindFrom<
         return identifier;
     }
     
+    @Override
+    public final Stream<FK_ENTITY> applyAll(Stream<ENTITY> entities, int batchSize) {
+        return batched(entities, batchSize, this::applyBatch);
+    }
+    
     protected final Stream<FK_ENTITY> stream() {
         return streamSupplier.get();
     }
+    
+    private List<FK_ENTITY> applyBatch(List<ENTITY> entities) {
+        final List<V> values = entities.stream()
+            .map(entity -> FinderUtil.<ENTITY, V>valueOf(source, entity))
+            .collect(toList());
+        
+        final Map<V, FK_ENTITY> found = new HashMap<>();
+        forEachMatching(streamSupplier, target, values, 
+            fk -> found.putIfAbsent(valueOf(target, fk), fk)
+        );
+        
+        final List<FK_ENTITY> result = new ArrayList<>(values.size());
+        for (final V value : values) {
+            if (value == null) {
+                result.add(null);
+            } else {
+                final FK_ENTITY fk = found.get(value);
+                if (fk == null) {
+                    throw new SpeedmentFieldException(
+                        "Error! Could not find any entities in table '" + 
+                        getTableIdentifier() + 
+                        "' with '" + target.identifier().getColumnName() + 
+                        "' = '" + value + "'."
+                    );
+                }
+                
+                result.add(fk);
+            }
+        }
+        
+        return result;
+    }
 }
\ No newline at end of file
@@ -22,10 +22,19 @@ import com.speedment.runtime.field.method.BackwardFinder;
 import com.speedment.runtime.field.trait.HasComparableOperators;
 import com.speedment.runtime.field.trait.HasFinder;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import static com.speedment.runtime.field.internal.method.FinderUtil.batched;
+import static com.speedment.runtime.field.internal.method.FinderUtil.forEachMatching;
+import static com.speedment.runtime.field.internal.method.FinderUtil.valueOf;
+import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 
 /**
  *
@@ -80,4 +89,29 @@ implements BackwardFinder<ENTITY, FK_ENTITY> {
             return streamSupplier.get().filter(getField().equal(value));
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public Stream<FK_ENTITY> applyAll(Stream<ENTITY> entities, int batchSize) {
+        return batched(entities, batchSize, this::applyBatch);
+    }
+    
+    private List<FK_ENTITY> applyBatch(List<ENTITY> entities) {
+        final List<T> values = entities.stream()
+            .map(entity -> FinderUtil.<ENTITY, T>valueOf(getField().getReferencedField(), entity))
+            .collect(toList());
+        
+        final Map<T, List<FK_ENTITY>> found = new HashMap<>();
+        forEachMatching(streamSupplier, target, values, fk -> 
+            found.computeIfAbsent(valueOf(target, fk), v -> new ArrayList<>()).add(fk)
+        );
+        
+        final List<FK_ENTITY> result = new ArrayList<>();
+        for (final T value : values) {
+            if (value != null) {
+                result.addAll(found.getOrDefault(value, emptyList()));
+            }
+        }
+        
+        return result;
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field.internal.method;
+
+import com.speedment.runtime.field.Field;
+import com.speedment.runtime.field.trait.HasComparableOperators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Utility methods for resolving foreign keys of many entities at once.
+ * 
+ * @author  Per Minborg
+ * @since   3.0.2
+ */
+final class FinderUtil {
+    
+    /**
+     * The maximum number of values in a single {@code IN}-condition. Some
+     * databases limit the number of elements in such a list (Oracle) or the
+     * number of parameters in a statement (SQL Server), so larger sets of 
+     * values are split into several queries.
+     */
+    static final int MAX_IN_VALUES = 1000;
+    
+    /**
+     * Returns a stream that reads the specified source in batches of the 
+     * specified size and emits the result of applying the resolver to each
+     * batch. 
+     * <p>
+     * Nothing is read until the returned stream is consumed, and the results
+     * of each batch are emitted before the next batch is read. Streams from a
+     * manager do not support {@code iterator()}, so the source is read using 
+     * {@code forEachOrdered} if all results are consumed. If the returned 
+     * stream is short-circuited (for example by {@code limit} or 
+     * {@code findFirst}), the source is read element by element if it 
+     * supports {@code spliterator()} and is otherwise read in full before
+     * the first batch is resolved.
+     * 
+     * @param <T>        the source type
+     * @param <R>        the result type
+     * @param source     the source stream
+     * @param batchSize  the maximum number of elements per batch
+     * @param resolver   the function to apply to each batch
+     * @return           the resulting stream
+     */
+    static <T, R> Stream<R> batched(
+            Stream<T> source, 
+            int batchSize, 
+            Function<List<T>, ? extends Iterable<R>> resolver) {
+        
+        requireNonNull(source);
+        requireNonNull(resolver);
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(
+                "Batch size must be positive but was " + batchSize + "."
+            );
+        }
+        
+        return StreamSupport.stream(
+            new BatchSpliterator<>(source, batchSize, resolver), false
+        ).onClose(source::close);
+    }
+    
+    /**
+     * Streams all the entities where the specified field has one of the 
+     * specified values, using one query for every {@link #MAX_IN_VALUES} 
+     * distinct values. {@code null} values are ignored.
+     * 
+     * @param <ENTITY>        the entity type
+     * @param <V>             the value type
+     * @param streamSupplier  supplier for streams over the table
+     * @param field           the field to compare
+     * @param values          the values to look for
+     * @param action          action to call for every matching entity
+     */
+    static <ENTITY, V extends Comparable<? super V>> void forEachMatching(
+            Supplier<Stream<ENTITY>> streamSupplier,
+            HasComparableOperators<ENTITY, V> field,
+            List<V> values,
+            Consumer<? super ENTITY> action) {
+        
+        final List<V> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        distinct.remove(null);
+        
+        for (int from = 0; from < distinct.size(); from += MAX_IN_VALUES) {
+            final Set<V> chunk = new LinkedHashSet<>(distinct.subList(
+                from, Math.min(from + MAX_IN_VALUES, distinct.size())
+            ));
+            
+            try (final Stream<ENTITY> stream = streamSupplier.get()) {
+                stream.filter(field.in(chunk)).forEachOrdered(action);
+            }
+        }
+    }
+    
+    /**
+     * Returns the value of the specified field in the specified entity as a 
+     * wrapper object.
+     * 
+     * @param <ENTITY>  the entity type
+     * @param <V>       the value type
+     * @param field     the field
+     * @param entity    the entity
+     * @return          the value or {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    static <ENTITY, V> V valueOf(Field<ENTITY> field, ENTITY entity) {
+        return (V) field.getter().apply(entity);
+    }
+    
+    /**
+     * A {@code Spliterator} that reads a source in batches and emits the 
+     * result of applying a resolver to each batch before the next batch is
+     * read.
+     * 
+     * @param <T>  the source type
+     * @param <R>  the result type
+     */
+    private static final class BatchSpliterator<T, R> extends AbstractSpliterator<R> {
+        
+        private final Stream<T> source;
+        private final int batchSize;
+        private final Function<List<T>, ? extends Iterable<R>> resolver;
+        private Spliterator<T> elements; // Null until tryAdvance is called
+        private Iterator<R> results;     // The unused results of a batch
+        private List<T> pending;         // Used by forEachRemaining
+        private boolean consumed;
+
+        private BatchSpliterator(
+                Stream<T> source, 
+                int batchSize, 
+                Function<List<T>, ? extends Iterable<R>> resolver) {
+            
+            super(Long.MAX_VALUE, Spliterator.ORDERED);
+            this.source    = source;
+            this.batchSize = batchSize;
+            this.resolver  = resolver;
+            this.results   = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            while (!results.hasNext()) {
+                final List<T> batch = nextBatch();
+                if (batch.isEmpty()) {
+                    return false;
+                }
+                results = resolver.apply(batch).iterator();
+            }
+            
+            action.accept(results.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            results.forEachRemaining(action);
+            
+            if (elements != null) {
+                while (tryAdvance(action)) {}
+            } else if (!consumed) {
+                consumed = true;
+                pending  = new ArrayList<>(batchSize);
+                source.forEachOrdered(element -> {
+                    pending.add(element);
+                    if (pending.size() == batchSize) {
+                        resolvePending(action);
+                    }
+                });
+                resolvePending(action);
+            }
+        }
+        
+        private List<T> nextBatch() {
+            if (elements == null) {
+                if (consumed) {
+                    return Collections.emptyList();
+                }
+                
+                consumed = true;
+                try {
+                    elements = source.spliterator();
+                } catch (final UnsupportedOperationException ex) {
+                    // Streams from a manager can only be read using terminal
+                    // operations.
+                    final List<T> all = new ArrayList<>();
+                    source.forEachOrdered(all::add);
+                    elements = all.spliterator();
+                }
+            }
+            
+            final List<T> batch = new ArrayList<>(batchSize);
+            while (batch.size() < batchSize && elements.tryAdvance(batch::add)) {}
+            return batch;
+        }
+        
+        private void resolvePending(Consumer<? super R> action) {
+            if (!pending.isEmpty()) {
+                final List<T> batch = pending;
+                pending = new ArrayList<>(batchSize);
+                resolver.apply(batch).forEach(action);
+            }
+        }
+    }
+    
+    /**
+     * Utility classes should not be instantiated.
+     */
+    private FinderUtil() {
+        throw new UnsupportedOperationException();
+    }
+}
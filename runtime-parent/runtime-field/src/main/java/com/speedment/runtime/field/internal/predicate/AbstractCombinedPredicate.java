@@ -111,6 +111,42 @@ public abstract class AbstractCombinedPredicate<ENTITY> extends AbstractPredicat
         return predicates.size();
     }
 
+    /**
+     * Returns {@code true} if all the predicates that this 
+     * CombinedBasePredicate holds match the provided entity. The predicates
+     * are tested in order without creating a {@code Stream}, since this is
+     * done once for every entity.
+     *
+     * @param entity  the entity to test
+     * @return        {@code true} if all predicates match
+     */
+    protected final boolean allMatch(ENTITY entity) {
+        for (int i = 0; i < predicates.size(); i++) {
+            if (!predicates.get(i).test(entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if any of the predicates that this 
+     * CombinedBasePredicate holds match the provided entity. The predicates
+     * are tested in order without creating a {@code Stream}, since this is
+     * done once for every entity.
+     *
+     * @param entity  the entity to test
+     * @return        {@code true} if any predicate matches
+     */
+    protected final boolean anyMatch(ENTITY entity) {
+        for (int i = 0; i < predicates.size(); i++) {
+            if (predicates.get(i).test(entity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns the {@link Type} of this CombinedBasePredicate
      *
@@ -135,7 +171,7 @@ public abstract class AbstractCombinedPredicate<ENTITY> extends AbstractPredicat
         @Override
         protected boolean testWithoutNegation(ENTITY entity) {
             requireNonNull(entity);
-            return stream().allMatch(p -> p.test(entity));
+            return allMatch(entity);
         }
 
         @Override
@@ -160,7 +196,7 @@ public abstract class AbstractCombinedPredicate<ENTITY> extends AbstractPredicat
         @Override
         protected boolean testWithoutNegation(ENTITY entity) {
             requireNonNull(entity);
-            return stream().anyMatch(p -> p.test(entity));
+            return anyMatch(entity);
         }
 
         @Override
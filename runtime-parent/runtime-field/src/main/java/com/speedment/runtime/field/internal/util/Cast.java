@@ -63,10 +63,11 @@ public final class Cast {
         if (object == null) {
             throw new NoSuchElementException("null is not an instance of " + clazz.getName());
         }
-        return Optional.of(object)
-            .filter(o -> clazz.isAssignableFrom(o.getClass()))
-            .map(clazz::cast)
-            .get();
+        if (!clazz.isAssignableFrom(object.getClass())) {
+            throw new NoSuchElementException(object.getClass().getName() 
+                + " is not an instance of " + clazz.getName());
+        }
+        return clazz.cast(object);
     }
 
     /**
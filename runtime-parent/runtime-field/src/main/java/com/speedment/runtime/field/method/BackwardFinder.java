@@ -64,4 +64,23 @@ public interface BackwardFinder<ENTITY, FK_ENTITY>
      * @return  target (foreign) table identifier
      */
     TableIdentifier<FK_ENTITY> getTableIdentifier();
-}
\ No newline at end of file
+    
+    /**
+     * Returns a stream of the entities that reference each of the specified
+     * source entities, grouped in the same order as the source entities. 
+     * This is equivalent to {@code entities.flatMap(this)}, except that the
+     * source entities are read in batches of the specified size and the 
+     * referencing entities of each batch are resolved using a single query 
+     * with an {@code IN}-condition instead of one query per source entity.
+     * <p>
+     * If the source entities are the result of a database query, that query
+     * should be closed by closing the returned stream.
+     * 
+     * @param entities   the source entities
+     * @param batchSize  the maximum number of source entities per batch
+     * @return           stream of the referencing entities
+     */
+    default Stream<FK_ENTITY> applyAll(Stream<ENTITY> entities, int batchSize) {
+        return entities.flatMap(this);
+    }
+}
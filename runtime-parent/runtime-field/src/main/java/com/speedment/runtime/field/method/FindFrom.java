@@ -20,6 +20,7 @@ import com.speedment.runtime.config.identifier.TableIdentifier;
 import com.speedment.runtime.field.Field;
 
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * A handle for a find-operation that can be replaced runtime to optimize a 
@@ -74,4 +75,23 @@ public interface FindFrom<ENTITY, FK_ENTITY> extends Function<ENTITY, FK_ENTITY>
      */
     TableIdentifier<FK_ENTITY> getTableIdentifier();
 
+    
+    /**
+     * Returns a stream of the entities referenced by each of the specified
+     * source entities, in the same order as the source entities. This is 
+     * equivalent to {@code entities.map(this)}, except that the source 
+     * entities are read in batches of the specified size and the referenced
+     * entities of each batch are resolved using a single query with an 
+     * {@code IN}-condition instead of one query per source entity.
+     * <p>
+     * If the source entities are the result of a database query, that query
+     * should be closed by closing the returned stream.
+     * 
+     * @param entities   the source entities
+     * @param batchSize  the maximum number of source entities per batch
+     * @return           stream of the referenced entities
+     */
+    default Stream<FK_ENTITY> applyAll(Stream<ENTITY> entities, int batchSize) {
+        return entities.map(this);
+    }
 }
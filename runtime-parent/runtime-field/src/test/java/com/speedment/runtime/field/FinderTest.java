@@ -0,0 +1,126 @@
+/**
+ *
+ * Copyright (c) 2006-2016, Speedment, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); You may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at:
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.speedment.runtime.field;
+
+import com.speedment.runtime.config.identifier.TableIdentifier;
+import com.speedment.runtime.field.exception.SpeedmentFieldException;
+import com.speedment.runtime.field.method.BackwardFinder;
+import com.speedment.runtime.field.method.FindFrom;
+import com.speedment.runtime.typemapper.TypeMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit tests for the batched {@code applyAll} method of finders.
+ * 
+ * @author Per Minborg
+ * @since  3.0.2
+ */
+public final class FinderTest {
+    
+    private final static TableIdentifier<BasicEntity> TABLE = 
+        TableIdentifier.of("test_dbms", "test_schema", "test_table");
+    
+    private IntField<BasicEntity, Integer> id;
+    private IntForeignKeyField<BasicEntity, Integer, BasicEntity> parent;
+    private List<BasicEntity> parents;
+    private List<BasicEntity> children;
+    private AtomicInteger queries;
+    private Supplier<Stream<BasicEntity>> parentSupplier;
+    private Supplier<Stream<BasicEntity>> childSupplier;
+    
+    @Before
+    public void setUp() {
+        id = IntField.create(
+            BasicEntity.Identifier.VAR_INT,
+            BasicEntity::getVarInt,
+            BasicEntity::setVarInt,
+            TypeMapper.primitive(),
+            true
+        );
+        
+        parent = IntForeignKeyField.create(
+            BasicEntity.Identifier.VAR_SHORT,
+            e -> e.getVarShort(),
+            (e, v) -> e.setVarShort((short) v),
+            id,
+            TypeMapper.primitive(),
+            false
+        );
+        
+        parents = Stream.of(1, 2, 3, 4)
+            .map(i -> new BasicEntity().setVarInt(i))
+            .collect(toList());
+        
+        children = Stream.of(3, 1, 3, 2, 1, 3, 2)
+            .map(i -> new BasicEntity().setVarShort(i.shortValue()))
+            .collect(toList());
+        
+        queries        = new AtomicInteger();
+        parentSupplier = () -> { queries.incrementAndGet(); return parents.stream(); };
+        childSupplier  = () -> { queries.incrementAndGet(); return children.stream(); };
+    }
+    
+    @Test
+    public void testFindFrom() {
+        final FindFrom<BasicEntity, BasicEntity> finder = parent.finder(TABLE, parentSupplier);
+        
+        final List<BasicEntity> expected = children.stream()
+            .map(finder)
+            .collect(toList());
+        
+        assertEquals(children.size(), queries.getAndSet(0));
+        
+        final List<BasicEntity> result = finder.applyAll(children.stream(), 3)
+            .collect(toList());
+        
+        assertEquals(expected, result);
+        assertEquals(3, queries.get());
+    }
+    
+    @Test(expected = SpeedmentFieldException.class)
+    public void testFindFromMissing() {
+        final FindFrom<BasicEntity, BasicEntity> finder = parent.finder(TABLE, parentSupplier);
+        finder.applyAll(Stream.of(new BasicEntity().setVarShort((short) 42)), 10)
+            .forEach(e -> {});
+    }
+    
+    @Test
+    public void testBackwardFinder() {
+        final BackwardFinder<BasicEntity, BasicEntity> finder = 
+            parent.backwardFinder(TABLE, childSupplier);
+        
+        final List<BasicEntity> expected = parents.stream()
+            .flatMap(finder)
+            .collect(toList());
+        
+        queries.set(0);
+        final List<BasicEntity> result = finder.applyAll(parents.stream(), 10)
+            .collect(toList());
+        
+        assertEquals(expected, result);
+        assertEquals(1, queries.get());
+    }
+}